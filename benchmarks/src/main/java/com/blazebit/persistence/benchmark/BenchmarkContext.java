@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.benchmark.entity.Document;
+import com.blazebit.persistence.benchmark.entity.Person;
+import com.blazebit.persistence.benchmark.entity.Version;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.benchmark.view.DocumentWithCollectionsView;
+import com.blazebit.persistence.benchmark.view.PersonView;
+import com.blazebit.persistence.benchmark.view.VersionView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/**
+ * Shared benchmark state that boots an in-memory H2 database through Hibernate and
+ * creates the {@link CriteriaBuilderFactory} and {@link EntityViewManager} used by all benchmarks.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final int VERSIONS_PER_DOCUMENT = 3;
+    public static final int PARTNERS_PER_DOCUMENT = 2;
+
+    @Param({ "100" })
+    public int personCount;
+    @Param({ "5" })
+    public int documentsPerPerson;
+    @Param({ "2048" })
+    public int queryPlanCacheMaxSize;
+
+    public EntityManagerFactory emf;
+    public CriteriaBuilderFactory cbf;
+    public EntityViewManager evm;
+    public KeysetPage lastPageKeysetPage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        emf = Persistence.createEntityManagerFactory("benchmark");
+        CriteriaBuilderConfiguration config = Criteria.getDefault();
+        config.setProperty(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, Integer.toString(queryPlanCacheMaxSize));
+        cbf = config.createCriteriaBuilderFactory(emf);
+
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonView.class);
+        cfg.addEntityView(VersionView.class);
+        cfg.addEntityView(DocumentView.class);
+        cfg.addEntityView(DocumentWithCollectionsView.class);
+        evm = cfg.createEntityViewManager(cbf);
+
+        insertData();
+        lastPageKeysetPage = extractLastPageKeysetPage();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    public int getDocumentCount() {
+        return personCount * documentsPerPerson;
+    }
+
+    private KeysetPage extractLastPageKeysetPage() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int previousPageStart = getDocumentCount() - 2 * BenchmarkQueries.PAGE_SIZE;
+            return BenchmarkQueries.paginated(cbf, em, previousPageStart).withKeysetExtraction(true).getResultList().getKeysetPage();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void insertData() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Person[] persons = new Person[personCount];
+            for (int i = 0; i < personCount; i++) {
+                persons[i] = new Person((long) i, "Person " + i, i % 80);
+                if (i > 0) {
+                    persons[i].setFriend(persons[i - 1]);
+                }
+                em.persist(persons[i]);
+            }
+
+            long versionId = 0;
+            long documentId = 0;
+            for (int i = 0; i < personCount; i++) {
+                for (int j = 0; j < documentsPerPerson; j++) {
+                    Document document = new Document(documentId++, "Document " + i + "-" + j, j, persons[i]);
+                    for (int k = 1; k <= PARTNERS_PER_DOCUMENT; k++) {
+                        document.getPartners().add(persons[(i + k) % personCount]);
+                    }
+                    em.persist(document);
+                    for (int k = 0; k < VERSIONS_PER_DOCUMENT; k++) {
+                        Version version = new Version(versionId++, k, document);
+                        document.getVersions().add(version);
+                        em.persist(version);
+                    }
+                }
+                if (i % 20 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.FinalSetOperationCriteriaBuilder;
+import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmark.entity.Document;
+import com.blazebit.persistence.benchmark.entity.DocumentCte;
+import com.blazebit.persistence.benchmark.entity.Person;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+
+/**
+ * The query shapes that are measured by the benchmarks.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public final class BenchmarkQueries {
+
+    public static final int PAGE_SIZE = 20;
+
+    private BenchmarkQueries() {
+    }
+
+    public static CriteriaBuilder<Document> simple(CriteriaBuilderFactory cbf, EntityManager em) {
+        return cbf.create(em, Document.class)
+                .from(Document.class, "d")
+                .where("d.age").lt(3L)
+                .orderByAsc("d.id");
+    }
+
+    public static CriteriaBuilder<Tuple> deepJoins(CriteriaBuilderFactory cbf, EntityManager em) {
+        return cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .leftJoin("d.owner.friend.friend", "ff")
+                .leftJoin("d.partners", "p")
+                .leftJoin("p.friend", "pf")
+                .leftJoin("d.versions", "v")
+                .leftJoinOn(Person.class, "other").on("other.id").eqExpression("d.owner.id").end()
+                .select("d.id")
+                .select("d.name")
+                .select("d.owner.name")
+                .select("ff.name")
+                .select("pf.name")
+                .select("v.versionNumber")
+                .select("other.age")
+                .where("d.owner.friend.age").ge(0L)
+                .where("p.name").like().value("Person%").noEscape()
+                .orderByAsc("d.id")
+                .orderByAsc("p.id")
+                .orderByAsc("v.id");
+    }
+
+    public static CriteriaBuilder<DocumentCte> cte(CriteriaBuilderFactory cbf, EntityManager em) {
+        return cbf.create(em, DocumentCte.class)
+                .with(DocumentCte.class)
+                    .from(Document.class, "d")
+                    .bind("id").select("d.id")
+                    .bind("name").select("d.name")
+                    .where("d.age").lt(3L)
+                .end()
+                .from(DocumentCte.class, "cte")
+                .orderByAsc("cte.id");
+    }
+
+    public static FinalSetOperationCriteriaBuilder<Document> setOperation(CriteriaBuilderFactory cbf, EntityManager em) {
+        return cbf.create(em, Document.class)
+                .from(Document.class, "d1")
+                .select("d1")
+                .where("d1.age").lt(1L)
+            .union()
+                .from(Document.class, "d2")
+                .select("d2")
+                .where("d2.age").gt(3L)
+            .endSet();
+    }
+
+    public static PaginatedCriteriaBuilder<Document> paginated(CriteriaBuilderFactory cbf, EntityManager em, int firstResult) {
+        return paginated(cbf, em, null, firstResult);
+    }
+
+    public static PaginatedCriteriaBuilder<Document> paginated(CriteriaBuilderFactory cbf, EntityManager em, KeysetPage keysetPage, int firstResult) {
+        // The mixed sort directions produce a keyset predicate that is split into ranges
+        return cbf.create(em, Document.class)
+                .from(Document.class, "d")
+                .where("d.owner.age").ge(0L)
+                .orderByDesc("d.age")
+                .orderByAsc("d.id")
+                .page(keysetPage, firstResult, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Per-thread {@link EntityManager} with an open transaction that is rolled back at the end of the trial.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@State(Scope.Thread)
+public class EntityManagerHolder {
+
+    public EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkContext context) {
+        em = context.emf.createEntityManager();
+        em.getTransaction().begin();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (em != null) {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmark.entity.Document;
+import com.blazebit.persistence.benchmark.view.DocumentView;
+import com.blazebit.persistence.benchmark.view.DocumentWithCollectionsView;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures applying entity view settings and materializing flat, subview and collection entity views.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewBenchmark {
+
+    @Benchmark
+    public String applySettingSubview(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.evm.applySetting(EntityViewSetting.create(DocumentView.class), baseQuery(context, holder)).getQueryString();
+    }
+
+    @Benchmark
+    public String applySettingCollections(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.evm.applySetting(EntityViewSetting.create(DocumentWithCollectionsView.class), baseQuery(context, holder)).getQueryString();
+    }
+
+    @Benchmark
+    public List<DocumentView> materializeSubview(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.evm.applySetting(EntityViewSetting.create(DocumentView.class), baseQuery(context, holder)).getResultList();
+    }
+
+    @Benchmark
+    public List<DocumentWithCollectionsView> materializeCollections(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.evm.applySetting(EntityViewSetting.create(DocumentWithCollectionsView.class), baseQuery(context, holder)).getResultList();
+    }
+
+    @Benchmark
+    public List<DocumentWithCollectionsView> materializeCollectionsPaginated(BenchmarkContext context, EntityManagerHolder holder) {
+        EntityViewSetting<DocumentWithCollectionsView, PaginatedCriteriaBuilder<DocumentWithCollectionsView>> setting =
+                EntityViewSetting.create(DocumentWithCollectionsView.class, 0, BenchmarkQueries.PAGE_SIZE);
+        return context.evm.applySetting(setting, baseQuery(context, holder)).getResultList();
+    }
+
+    private static CriteriaBuilder<Document> baseQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.cbf.create(holder.em, Document.class)
+                .where("age").lt(3L)
+                .orderByAsc("id");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building, rendering and executing queries against the in-memory database.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryExecutionBenchmark {
+
+    @Benchmark
+    public List<?> simple(BenchmarkContext context, EntityManagerHolder holder) {
+        List<?> result = BenchmarkQueries.simple(context.cbf, holder.em).getResultList();
+        holder.em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<?> deepJoins(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.deepJoins(context.cbf, holder.em).getResultList();
+    }
+
+    @Benchmark
+    public List<?> cte(BenchmarkContext context, EntityManagerHolder holder) {
+        List<?> result = BenchmarkQueries.cte(context.cbf, holder.em).getResultList();
+        holder.em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<?> setOperation(BenchmarkContext context, EntityManagerHolder holder) {
+        List<?> result = BenchmarkQueries.setOperation(context.cbf, holder.em).getResultList();
+        holder.em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<?> paginatedFirstPage(BenchmarkContext context, EntityManagerHolder holder) {
+        List<?> result = BenchmarkQueries.paginated(context.cbf, holder.em, 0).getResultList();
+        holder.em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<?> paginatedLastPage(BenchmarkContext context, EntityManagerHolder holder) {
+        int lastPageStart = context.getDocumentCount() - BenchmarkQueries.PAGE_SIZE;
+        List<?> result = BenchmarkQueries.paginated(context.cbf, holder.em, lastPageStart).getResultList();
+        holder.em.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<?> paginatedKeysetLastPage(BenchmarkContext context, EntityManagerHolder holder) {
+        int lastPageStart = context.getDocumentCount() - BenchmarkQueries.PAGE_SIZE;
+        List<?> result = BenchmarkQueries.paginated(context.cbf, holder.em, context.lastPageKeysetPage, lastPageStart).getResultList();
+        holder.em.clear();
+        return result;
+    }
+}
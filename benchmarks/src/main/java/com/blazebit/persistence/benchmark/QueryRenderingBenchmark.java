@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.benchmark.entity.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures builder construction and JPQL rendering without executing queries.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryRenderingBenchmark {
+
+    @Benchmark
+    public Object createCriteriaBuilder(BenchmarkContext context, EntityManagerHolder holder) {
+        return context.cbf.create(holder.em, Document.class);
+    }
+
+    @Benchmark
+    public String simpleQueryString(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.simple(context.cbf, holder.em).getQueryString();
+    }
+
+    @Benchmark
+    public Object simpleTypedQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.simple(context.cbf, holder.em).getQuery();
+    }
+
+    @Benchmark
+    public String deepJoinsQueryString(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.deepJoins(context.cbf, holder.em).getQueryString();
+    }
+
+    @Benchmark
+    public Object deepJoinsTypedQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.deepJoins(context.cbf, holder.em).getQuery();
+    }
+
+    @Benchmark
+    public Object cteTypedQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.cte(context.cbf, holder.em).getQuery();
+    }
+
+    @Benchmark
+    public Object setOperationTypedQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.setOperation(context.cbf, holder.em).getQuery();
+    }
+
+    @Benchmark
+    public Object paginatedTypedQuery(BenchmarkContext context, EntityManagerHolder holder) {
+        return BenchmarkQueries.paginated(context.cbf, holder.em, 0).getQuery();
+    }
+}
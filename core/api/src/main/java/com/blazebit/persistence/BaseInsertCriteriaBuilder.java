@@ -42,5 +42,32 @@ public interface BaseInsertCriteriaBuilder<T, X extends BaseInsertCriteriaBuilde
      * @return The query builder for chaining calls
      */
     public SelectBuilder<X> bind(String attribute);
-    
+
+    /**
+     * Turns the insert into an upsert that ignores rows which conflict with existing rows on the given attributes.
+     * The conflict attributes must be bound and should be covered by a unique constraint.
+     * Depending on the DBMS, this is rendered as <code>ON CONFLICT DO NOTHING</code>, <code>ON DUPLICATE KEY UPDATE</code> or <code>MERGE</code> statement.
+     *
+     * @param conflictAttributes The attributes identifying conflicting rows
+     * @return The query builder for chaining calls
+     * @throws IllegalStateException If the DBMS does not support upserts
+     * @see com.blazebit.persistence.spi.DbmsDialect#getUpsertStyle()
+     * @since 1.4.1
+     */
+    public X onConflictDoNothing(String... conflictAttributes);
+
+    /**
+     * Turns the insert into an upsert that updates existing rows which conflict with inserted rows on the given attributes.
+     * All bound attributes except for the conflict attributes are updated with the values of the conflicting inserted row.
+     * The conflict attributes must be bound and should be covered by a unique constraint.
+     * Depending on the DBMS, this is rendered as <code>ON CONFLICT DO UPDATE</code>, <code>ON DUPLICATE KEY UPDATE</code> or <code>MERGE</code> statement.
+     *
+     * @param conflictAttributes The attributes identifying conflicting rows
+     * @return The query builder for chaining calls
+     * @throws IllegalStateException If the DBMS does not support upserts
+     * @see com.blazebit.persistence.spi.DbmsDialect#getUpsertStyle()
+     * @since 1.4.1
+     */
+    public X onConflictDoUpdate(String... conflictAttributes);
+
 }
@@ -108,6 +108,17 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The maximum number of entries per cache name of the bounded expression cache
+     * <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * The maximum size of a specific cache can be configured by appending the cache name to the property key
+     * e.g. <code>com.blazebit.persistence.expression.cache_max_size.SimpleExpression</code>.
+     * Default is <code>10000</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String EXPRESSION_CACHE_MAX_SIZE = "com.blazebit.persistence.expression.cache_max_size";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -119,6 +130,18 @@ public final class ConfigurationProperties {
      */
     public static final String VALUES_CLAUSE_FILTER_NULLS = "com.blazebit.persistence.values.filter_nulls";
 
+    /**
+     * If set to true, VALUES clauses of basic values or entities with basic attributes are bound as one array parameter per attribute
+     * on DBMS that support it, so the SQL and the number of JDBC parameters don't depend on the number of values.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * The property can be changed for a criteria builder before using the VALUES clause.
+     *
+     * @since 1.4.1
+     */
+    public static final String VALUES_CLAUSE_ARRAY = "com.blazebit.persistence.values.array";
+
     /**
      * If set to false, parameters are always rendered as such, otherwise the values might get inlined when no type can be inferred.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -179,6 +202,80 @@ public final class ConfigurationProperties {
      * @see CTEBuilder#with(Class, CriteriaBuilder, boolean)
      */
     public static final String INLINE_CTES = "com.blazebit.persistence.inline_ctes";
+
+    /**
+     * The maximum number of entries in the factory wide query plan cache which holds the generated SQL of advanced queries
+     * i.e. queries that use CTEs, VALUES clauses, entity functions etc., keyed by the SQL of the base query and its CTEs.
+     * Builders that produce the same base query reuse the cached SQL instead of applying the SQL transformations again.
+     * A value of <code>0</code> disables the cache.
+     * Default is <code>2048</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String QUERY_PLAN_CACHE_MAX_SIZE = "com.blazebit.persistence.query_plan_cache_max_size";
+
+    /**
+     * The maximum number of entries in the default in-process count cache which holds the results of count queries
+     * of paginated criteria builders that enabled count caching via {@link PaginatedCriteriaBuilder#withCachedCount(long, java.util.concurrent.TimeUnit)}.
+     * The setting is ignored if a custom {@link com.blazebit.persistence.spi.CountCache} is configured.
+     * A value of <code>0</code> disables the default cache.
+     * Default is <code>1024</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String COUNT_CACHE_MAX_SIZE = "com.blazebit.persistence.count_cache_max_size";
+
+    /**
+     * The maximum number of query shapes for which the keyset skip index holds keysets at known positions.
+     * The keysets are recorded and used by paginated criteria builders that enabled the skip index via {@link PaginatedCriteriaBuilder#withKeysetSkipIndex(int)}.
+     * A value of <code>0</code> disables the keyset skip index.
+     * Default is <code>256</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String KEYSET_SKIP_INDEX_MAX_SIZE = "com.blazebit.persistence.keyset_skip_index_max_size";
+
+    /**
+     * The time in milliseconds after which the keysets recorded by the keyset skip index for a query shape are discarded.
+     * Since recorded positions are not adjusted when rows are inserted or deleted, expiring them bounds the time in which a page might be served shifted.
+     * A value of <code>0</code> disables the expiration.
+     * Default is <code>300000</code> i.e. 5 minutes
+     *
+     * @since 1.4.1
+     */
+    public static final String KEYSET_SKIP_INDEX_TIME_TO_LIVE = "com.blazebit.persistence.keyset_skip_index_time_to_live";
+
+    /**
+     * The JDBC fetch size to use when iterating over query results via {@link Queryable#getResultIterator()}.
+     * This is also the number of tuples that are passed to {@link ObjectBuilder#buildList(java.util.List)} at once.
+     * Default is <code>1000</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String STREAMING_FETCH_SIZE = "com.blazebit.persistence.streaming_fetch_size";
+
+    /**
+     * If set to true, the {@link com.blazebit.persistence.spi.BootProfile} of a <code>CriteriaBuilderFactory</code>,
+     * which contains the time spent in the individual boot phases, is logged when the factory is created.
+     * The profile is always available via <code>getService(BootProfile.class)</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String BOOT_PROFILE_LOGGING = "com.blazebit.persistence.boot_profile_logging";
+
+    /**
+     * If set to true, collection valued parameters are padded to the next power of two by repeating the last value.
+     * Since every distinct collection size renders a different SQL for an <code>IN</code> predicate,
+     * padding reduces the number of distinct SQL statements in the query plan caches and the statement cache of the database.
+     * This also applies to queries that require custom SQL e.g. for CTEs, which bypass the padding of the JPA provider.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>false</code>
+     *
+     * @since 1.4.1
+     */
+    public static final String IN_LIST_PADDING = "com.blazebit.persistence.in_list_padding";
     
     private ConfigurationProperties() {
     }
@@ -41,6 +41,16 @@ class EmptyPagedList<T> implements PagedList<T> {
         return 0;
     }
 
+    @Override
+    public boolean isTotalSizeCached() {
+        return false;
+    }
+
+    @Override
+    public TotalSizeType getTotalSizeType() {
+        return TotalSizeType.EXACT;
+    }
+
     @Override
     public int getPage() {
         return 0;
@@ -17,6 +17,7 @@
 package com.blazebit.persistence;
 
 import javax.persistence.Query;
+import java.util.Map;
 
 /**
  * A base interface for executable query builders.
@@ -47,4 +48,17 @@ public interface Executable {
      * @return The number of affected entities
      */
     public int executeUpdate();
+
+    /**
+     * Executes this modification statement once for every given parameter set and returns the number of affected entities per parameter set.
+     * Every parameter set maps parameter names to values and has to bind all parameters of the statement that have no value yet.
+     * The SQL of the statement is prepared only once and, if supported by the JPA provider, the executions are sent as JDBC batch.
+     * Since the SQL must be the same for all parameter sets, collection valued parameters are not supported, except for parameters of a VALUES clause.
+     * If the JDBC driver can't determine the number of affected entities, the corresponding element is {@link java.sql.Statement#SUCCESS_NO_INFO}.
+     *
+     * @param parameterSets The parameter sets to execute this statement for
+     * @return The number of affected entities per parameter set
+     * @since 1.4.1
+     */
+    public int[] executeBatch(Iterable<? extends Map<String, ?>> parameterSets);
 }
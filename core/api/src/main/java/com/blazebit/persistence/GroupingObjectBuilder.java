@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that can tell which consecutive tuples belong together when building the result list.
+ *
+ * When iterating over a query result via {@link Queryable#getResultIterator()}, tuples are passed to {@link #buildList(java.util.List)}
+ * in chunks rather than all at once. An object builder that merges multiple tuples into a single object in {@link #buildList(java.util.List)}
+ * implements this interface so that a chunk never separates tuples which are merged into the same object.
+ * Merging only works properly if the tuples that belong together are returned consecutively, e.g. by ordering by the identifier.
+ *
+ * @param <T> The type of the object which gets built
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface GroupingObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns whether the given tuples must be passed together to {@link #buildList(java.util.List)}.
+     *
+     * @param previousTuple The previous result tuple
+     * @param tuple The current result tuple
+     * @return Whether the tuples belong to the same group
+     */
+    public boolean isSameGroup(Object[] previousTuple, Object[] tuple);
+
+}
@@ -50,6 +50,25 @@ public interface PagedList<T> extends List<T> {
      */
     public long getTotalSize();
 
+    /**
+     * Returns whether the total size was served from the count cache rather than by executing the count query.
+     *
+     * @return true if the total size was served from the count cache, false otherwise
+     * @see PaginatedCriteriaBuilder#withCachedCount(long, java.util.concurrent.TimeUnit)
+     * @since 1.4.1
+     */
+    public boolean isTotalSizeCached();
+
+    /**
+     * Returns how the total size was determined. The total size is exact unless a count cap or count estimation was enabled.
+     *
+     * @return The type of the total size
+     * @see PaginatedCriteriaBuilder#withCountCap(long)
+     * @see PaginatedCriteriaBuilder#withEstimatedCount(boolean)
+     * @since 1.4.1
+     */
+    public TotalSizeType getTotalSizeType();
+
     /**
      * Returns the number of this page, numbered from 1.
      * 
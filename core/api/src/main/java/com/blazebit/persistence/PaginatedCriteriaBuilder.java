@@ -16,7 +16,10 @@
 
 package com.blazebit.persistence;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.TypedQuery;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A builder for paginated criteria queries.
@@ -101,6 +104,30 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithExtractAllKeysets();
 
+    /**
+     * Enables the keyset skip index which records the keysets of the rows at every <code>pageInterval</code>-th page boundary while serving pages.
+     * The keysets are kept in a bounded cache per query shape and bound parameter values. A later request for a deep page without an adjacent keyset page
+     * seeks from the nearest recorded keyset and only skips the remaining rows via offset instead of skipping all preceding rows.
+     * Enabling the skip index also enables {@link #withExtractAllKeysets(boolean)}. A page interval of <code>0</code> disables the skip index.
+     *
+     * Note that the recorded positions are not adjusted when rows are inserted or deleted, so pages served from the skip index might be shifted
+     * until the recorded positions are replaced.
+     *
+     * @param pageInterval The number of pages between recorded keysets
+     * @return The query builder for chaining calls
+     * @see ConfigurationProperties#KEYSET_SKIP_INDEX_MAX_SIZE
+     * @since 1.4.1
+     */
+    public PaginatedCriteriaBuilder<T> withKeysetSkipIndex(int pageInterval);
+
+    /**
+     * Returns the number of pages between keysets recorded in the keyset skip index or <code>0</code> if the skip index is disabled.
+     *
+     * @return The page interval of the keyset skip index
+     * @since 1.4.1
+     */
+    public int getKeysetSkipIndexPageInterval();
+
     /**
      * Enables or disables execution of the count query which determines whether {@link PagedList#getTotalSize()} is available.
      *
@@ -187,6 +214,91 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithInlineCountQuery();
 
+    /**
+     * Enables caching of the count query result for the given time to live, keyed by the count query and the bound parameter values.
+     * Enabling the count cache disables inlining of the count query, since the count query must be executed separately to be cacheable.
+     * A time to live of <code>0</code> disables the count cache. Whether a total size was served from the cache is exposed via {@link PagedList#isTotalSizeCached()}.
+     *
+     * @param timeToLive The time to live of a cached count
+     * @param timeUnit The unit of the time to live
+     * @return The query builder for chaining calls
+     * @see com.blazebit.persistence.spi.CountCache
+     * @since 1.4.1
+     */
+    public PaginatedCriteriaBuilder<T> withCachedCount(long timeToLive, TimeUnit timeUnit);
+
+    /**
+     * Returns the time to live in milliseconds of cached count query results or <code>0</code> if the count cache is disabled.
+     *
+     * @return The time to live of cached counts in milliseconds
+     * @since 1.4.1
+     */
+    public long getCachedCountTimeToLive();
+
+    /**
+     * Caps the count query at the given number of rows. Instead of counting all matching rows, at most <code>countCap + 1</code> identifiers are selected,
+     * so the database can stop scanning early. If more rows than the cap exist, the total size of the resulting {@link PagedList} is the cap
+     * and {@link PagedList#getTotalSizeType()} returns {@link TotalSizeType#CAPPED}. Enabling the count cap disables inlining of the count query.
+     * A count cap of <code>0</code> disables capping.
+     *
+     * @param countCap The maximum number of rows to count
+     * @return The query builder for chaining calls
+     * @since 1.4.1
+     */
+    public PaginatedCriteriaBuilder<T> withCountCap(long countCap);
+
+    /**
+     * Returns the count cap or <code>0</code> if the count query is not capped.
+     *
+     * @return The count cap
+     * @since 1.4.1
+     */
+    public long getCountCap();
+
+    /**
+     * Enables the use of the database's row count estimate instead of an exact count query, if the {@link com.blazebit.persistence.spi.DbmsDialect} supports it.
+     * If estimation isn't possible for a query, e.g. because it has parameters, the exact count query is executed.
+     * When combined with a count cap, the capped count query is executed first and the estimate is only used if the cap is exceeded.
+     * Enabling count estimation disables inlining of the count query.
+     *
+     * @param withEstimatedCount true to use row count estimates, false otherwise
+     * @return The query builder for chaining calls
+     * @see com.blazebit.persistence.spi.DbmsDialect#getRowCountEstimateSql(String)
+     * @since 1.4.1
+     */
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount);
+
+    /**
+     * Returns whether row count estimates are used for the total size.
+     *
+     * @return true when row count estimates are used, false otherwise
+     * @since 1.4.1
+     */
+    public boolean isWithEstimatedCount();
+
+    /**
+     * Runs the count query concurrently to the id and object queries on a separate entity manager created from the given entity manager factory.
+     * The count query is submitted to the given executor and joined before the {@link PagedList} is returned,
+     * so the latency of {@link #getResultList()} is the maximum rather than the sum of the count and the page queries.
+     * Since the count query runs in a separate persistence context and transaction, this is only suitable for read-only queries
+     * and the count may not see changes of the current transaction. Queries that require custom SQL e.g. for CTEs, run the count query sequentially.
+     * Enabling the parallel count query disables inlining of the count query. Passing <code>null</code> for both arguments disables parallel counting.
+     *
+     * @param entityManagerFactory The entity manager factory to create the entity manager for the count query
+     * @param executor The executor to run the count query on
+     * @return The query builder for chaining calls
+     * @since 1.4.1
+     */
+    public PaginatedCriteriaBuilder<T> withParallelCount(EntityManagerFactory entityManagerFactory, Executor executor);
+
+    /**
+     * Returns whether the count query runs concurrently to the id and object queries.
+     *
+     * @return true when the count query runs concurrently, false otherwise
+     * @since 1.4.1
+     */
+    public boolean isWithParallelCount();
+
     /**
      * Creates and returns a new {@link CriteriaBuilder} that can be used to query the id values for the current page.
      *
@@ -203,6 +315,18 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
     @Override
     public PagedList<T> getResultList();
 
+    /**
+     * Execute the query and return an iterator over the results of the page.
+     * Unlike for other queries, the results are not fetched incrementally. The page is materialized like with {@link #getResultList()},
+     * since the id and count queries have to be executed first, and the returned iterator just iterates over the page.
+     * Use a {@link CriteriaBuilder} with a limit to stream large result sets.
+     *
+     * @return The iterator over the results of the page
+     * @since 1.4.1
+     */
+    @Override
+    public CloseableIterator<T> getResultIterator();
+
     @Override
     public <Y> PaginatedCriteriaBuilder<Y> copy(Class<Y> resultClass);
 
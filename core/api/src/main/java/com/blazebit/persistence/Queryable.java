@@ -58,4 +58,17 @@ public interface Queryable<T, X extends Queryable<T, X>> {
      */
     public T getSingleResult();
 
+    /**
+     * Execute the query and return an iterator over the results that fetches rows incrementally from the database
+     * with the fetch size configured via {@link ConfigurationProperties#STREAMING_FETCH_SIZE}.
+     * The iterator must be closed if it isn't consumed completely.
+     *
+     * When the results are built by a {@link GroupingObjectBuilder}, e.g. an entity view with join fetched collections,
+     * the query must be ordered by the identifier so that all rows of an object are returned consecutively.
+     *
+     * @return The iterator over the results
+     * @since 1.4.1
+     */
+    public CloseableIterator<T> getResultIterator();
+
 }
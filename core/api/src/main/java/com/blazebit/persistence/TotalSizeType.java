@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * Describes how the total size of a {@link PagedList} was determined.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public enum TotalSizeType {
+
+    /**
+     * The total size is the exact result of the count query.
+     */
+    EXACT,
+    /**
+     * The count query stopped at the configured count cap, the actual total size is greater than the reported one.
+     */
+    CAPPED,
+    /**
+     * The total size is a row count estimate of the database's query planner.
+     */
+    ESTIMATED;
+}
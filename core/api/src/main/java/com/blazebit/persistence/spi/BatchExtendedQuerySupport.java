@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * An optional interface for {@link ExtendedQuerySupport} implementations that can execute a modification query
+ * with an overriding SQL query for multiple parameter sets as one JDBC batch. For implementations that don't implement this interface,
+ * the query is executed via {@link ExtendedQuerySupport#executeUpdate(ServiceProvider, List, Query, Query, String)} once per parameter set.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface BatchExtendedQuerySupport {
+
+    /**
+     * Executes the Query once for every parameter set by replacing the SQL with the given overriding SQL query and returns the update counts.
+     * Before a parameter set is added to the batch, the parameter binder binds its values to the participating queries.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param baseQuery The base query which represents the original modification query
+     * @param query The main query to execute
+     * @param sqlOverride The actual SQL query to execute instead of the query's original SQL
+     * @param parameterBinder The binder for the parameter sets
+     * @return The update counts of the query per parameter set
+     */
+    public int[] executeBatch(ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String sqlOverride, BatchParameterBinder parameterBinder);
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * Binds the parameter sets of a batch execution to the participating queries of a modification query.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface BatchParameterBinder {
+
+    /**
+     * Returns the number of parameter sets of the batch.
+     *
+     * @return The number of parameter sets
+     */
+    public int getParameterSetCount();
+
+    /**
+     * Binds the parameter values of the parameter set with the given index to the participating queries.
+     *
+     * @param parameterSetIndex The index of the parameter set
+     */
+    public void bind(int parameterSetIndex);
+}
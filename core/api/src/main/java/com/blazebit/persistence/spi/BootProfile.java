@@ -0,0 +1,269 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the time spent in the individual phases of booting a component like the
+ * <code>CriteriaBuilderFactory</code> or the <code>EntityViewManager</code>.
+ * The profile of a component can be retrieved via <code>getService(BootProfile.class)</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public final class BootProfile {
+
+    private final String name;
+    private final long totalNanos;
+    private final Map<String, Long> phaseNanos;
+    private final Map<String, Integer> counts;
+    private final List<Element> slowestElements;
+
+    /**
+     * Creates a new boot profile.
+     *
+     * @param name The name of the profiled component
+     * @param totalNanos The total wall time of the boot in nanoseconds
+     * @param phaseNanos The wall time of the boot phases in nanoseconds in execution order
+     * @param counts The number of processed objects by kind
+     * @param slowestElements The slowest processed elements, slowest first
+     */
+    public BootProfile(String name, long totalNanos, Map<String, Long> phaseNanos, Map<String, Integer> counts, List<Element> slowestElements) {
+        this.name = name;
+        this.totalNanos = totalNanos;
+        this.phaseNanos = Collections.unmodifiableMap(new LinkedHashMap<>(phaseNanos));
+        this.counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+        this.slowestElements = Collections.unmodifiableList(new ArrayList<>(slowestElements));
+    }
+
+    /**
+     * Returns the name of the profiled component.
+     *
+     * @return The name of the profiled component
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the total wall time of the boot in nanoseconds.
+     *
+     * @return The total wall time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the wall time of the boot phases in nanoseconds, ordered by execution.
+     *
+     * @return The wall time per phase in nanoseconds
+     */
+    public Map<String, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * Returns the number of processed objects like entities, functions or views by kind.
+     *
+     * @return The number of processed objects by kind
+     */
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    /**
+     * Returns the elements that took the longest to process, slowest first.
+     *
+     * @return The slowest elements
+     */
+    public List<Element> getSlowestElements() {
+        return slowestElements;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(" boot took ").append(toMillis(totalNanos)).append("ms");
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) {
+            sb.append("\n\t").append(entry.getKey()).append(": ").append(toMillis(entry.getValue())).append("ms");
+        }
+        if (!counts.isEmpty()) {
+            sb.append("\n\tcounts: ").append(counts);
+        }
+        if (!slowestElements.isEmpty()) {
+            sb.append("\n\tslowest: ");
+            for (int i = 0; i < slowestElements.size(); i++) {
+                if (i != 0) {
+                    sb.append(", ");
+                }
+                Element element = slowestElements.get(i);
+                sb.append(element.getName()).append('=').append(toMillis(element.getNanos())).append("ms");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toMillis(long nanos) {
+        return Long.toString(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * The processing time of a single element like a view type.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    public static final class Element {
+
+        private final String name;
+        private final long nanos;
+
+        public Element(String name, long nanos) {
+            this.name = name;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + nanos + "ns";
+        }
+    }
+
+    /**
+     * A thread safe recorder for the phases, counts and element timings of a boot that produces a {@link BootProfile}.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    public static final class Recorder {
+
+        private static final Comparator<Element> SLOWEST_FIRST = new Comparator<Element>() {
+            @Override
+            public int compare(Element o1, Element o2) {
+                return Long.compare(o2.getNanos(), o1.getNanos());
+            }
+        };
+
+        private final String name;
+        private final int maxSlowestElements;
+        private final long startNanos;
+        private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private final Map<String, Long> elementNanos = new HashMap<>();
+        private String currentPhase;
+        private long currentPhaseStartNanos;
+
+        /**
+         * Creates a recorder and starts the total time measurement.
+         *
+         * @param name The name of the profiled component
+         * @param maxSlowestElements The number of slowest elements to report
+         */
+        public Recorder(String name, int maxSlowestElements) {
+            this.name = name;
+            this.maxSlowestElements = maxSlowestElements;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Ends the current phase, if any, and starts the phase with the given name.
+         * If a phase with the same name was recorded before, the times are summed up.
+         *
+         * @param phase The name of the phase to start
+         */
+        public synchronized void startPhase(String phase) {
+            long now = System.nanoTime();
+            endPhase(now);
+            currentPhase = phase;
+            currentPhaseStartNanos = now;
+        }
+
+        /**
+         * Ends the current phase, if any.
+         */
+        public synchronized void endPhase() {
+            endPhase(System.nanoTime());
+        }
+
+        private void endPhase(long now) {
+            if (currentPhase != null) {
+                Long previous = phaseNanos.get(currentPhase);
+                phaseNanos.put(currentPhase, (previous == null ? 0L : previous) + now - currentPhaseStartNanos);
+                currentPhase = null;
+            }
+        }
+
+        /**
+         * Sets the number of processed objects of the given kind.
+         *
+         * @param kind The kind of the objects
+         * @param count The number of processed objects
+         */
+        public synchronized void count(String kind, int count) {
+            counts.put(kind, count);
+        }
+
+        /**
+         * Adds the given processing time to the total processing time of an element.
+         * An element can be recorded multiple times, e.g. once for every phase in which it is processed.
+         *
+         * @param element The name of the element
+         * @param nanos The processing time in nanoseconds
+         */
+        public synchronized void element(String element, long nanos) {
+            if (maxSlowestElements < 1) {
+                return;
+            }
+            Long previous = elementNanos.get(element);
+            elementNanos.put(element, (previous == null ? 0L : previous) + nanos);
+        }
+
+        /**
+         * Ends the current phase and returns a snapshot of the recorded data.
+         *
+         * @return The boot profile
+         */
+        public synchronized BootProfile finish() {
+            long now = System.nanoTime();
+            endPhase(now);
+            List<Element> elements = new ArrayList<>(elementNanos.size());
+            for (Map.Entry<String, Long> entry : elementNanos.entrySet()) {
+                elements.add(new Element(entry.getKey(), entry.getValue()));
+            }
+            Collections.sort(elements, SLOWEST_FIRST);
+            List<Element> slowestElements = elements.size() > maxSlowestElements ? elements.subList(0, maxSlowestElements) : elements;
+            return new BootProfile(name, now - startNanos, phaseNanos, counts, slowestElements);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import java.util.Map;
+
+/**
+ * A cache for the results of count queries of paginated criteria builders that enabled count caching
+ * via {@link com.blazebit.persistence.PaginatedCriteriaBuilder#withCachedCount(long, java.util.concurrent.TimeUnit)}.
+ * A cache is registered via {@link CriteriaBuilderConfiguration#setCountCache(CountCache)}, by default a bounded in-process cache is used.
+ *
+ * Implementations must be thread safe. A shared cache can derive a key from the query string and the parameter values.
+ * The parameter values are a snapshot that is not changed after being passed to the cache. Entity parameter values are replaced by their identifiers,
+ * collections and arrays by lists or sets and dates and calendars are copies of the actual parameter values.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface CountCache {
+
+    /**
+     * Returns the cached count for the given count query and parameter values or <code>null</code> if there is no valid cached count.
+     *
+     * @param queryString The count query string
+     * @param parameterValues The parameter values of the count query sorted by parameter name
+     * @return The cached count or <code>null</code>
+     */
+    public Long get(String queryString, Map<String, Object> parameterValues);
+
+    /**
+     * Caches the count for the given count query and parameter values.
+     *
+     * @param queryString The count query string
+     * @param parameterValues The parameter values of the count query sorted by parameter name
+     * @param count The count to cache
+     * @param timeToLive The time in milliseconds after which the cached count is invalid
+     */
+    public void put(String queryString, Map<String, Object> parameterValues, long count, long timeToLive);
+}
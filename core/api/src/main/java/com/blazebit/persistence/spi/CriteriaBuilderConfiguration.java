@@ -125,6 +125,41 @@ public interface CriteriaBuilderConfiguration {
      */
     public List<EntityManagerFactoryIntegrator> getEntityManagerIntegrators();
 
+    /**
+     * Registers the given query metrics listener in the configuration.
+     *
+     * @param queryMetricsListener The listener that should be added
+     * @return this for method chaining
+     * @since 1.4.1
+     */
+    public CriteriaBuilderConfiguration registerQueryMetricsListener(QueryMetricsListener queryMetricsListener);
+
+    /**
+     * Returns a list of registered query metrics listeners.
+     *
+     * @return A list of registered query metrics listeners
+     * @since 1.4.1
+     */
+    public List<QueryMetricsListener> getQueryMetricsListeners();
+
+    /**
+     * Sets the cache to use for count queries of paginated criteria builders that enable count caching.
+     * If no cache is set, a bounded in-process cache is used.
+     *
+     * @param countCache The count cache
+     * @return this for method chaining
+     * @since 1.4.1
+     */
+    public CriteriaBuilderConfiguration setCountCache(CountCache countCache);
+
+    /**
+     * Returns the cache to use for count queries or <code>null</code> if the default in-process cache should be used.
+     *
+     * @return The count cache or <code>null</code>
+     * @since 1.4.1
+     */
+    public CountCache getCountCache();
+
     /**
      * Creates a new {@linkplain CriteriaBuilderFactory} based on this configuration.
      *
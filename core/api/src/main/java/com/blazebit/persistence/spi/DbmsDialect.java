@@ -290,6 +290,25 @@ public interface DbmsDialect {
      */
     public LateralStyle getLateralStyle();
 
+    /**
+     * Returns the upsert style that is supported by the dbms.
+     *
+     * @return the upsert style that is supported by the dbms
+     * @since 1.4.1
+     */
+    public UpsertStyle getUpsertStyle();
+
+    /**
+     * Turns the <code>INSERT ... SELECT</code> statement in the sql string builder into an upsert according to the {@link #getUpsertStyle() upsert style}.
+     * Rows that conflict with existing rows on the conflict columns are either ignored or used to update the update columns of the existing rows.
+     *
+     * @param sqlSb The sql string builder containing the insert statement
+     * @param conflictColumns The columns of the unique constraint that identifies conflicting rows
+     * @param updateColumns The columns to update with the values of conflicting rows or <code>null</code> if conflicting rows should be ignored
+     * @since 1.4.1
+     */
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns);
+
     /**
      * Returns the sql type for the java class type for usage in cast expressions.
      *
@@ -307,6 +326,35 @@ public interface DbmsDialect {
      */
     public ValuesStrategy getValuesStrategy();
 
+    /**
+     * Returns the sql type of an array with elements of the given sql type as used by the {@link ValuesStrategy#ARRAY} strategy,
+     * or <code>null</code> if the DBMS doesn't support binding array literals.
+     *
+     * @param sqlType The sql type of the array elements
+     * @return The array sql type or <code>null</code>
+     * @since 1.4.1
+     */
+    public String getArraySqlType(String sqlType);
+
+    /**
+     * Returns the SQL statement that retrieves the query planner's row count estimate for the given select statement,
+     * or <code>null</code> if the DBMS does not support row count estimation.
+     *
+     * @param sql The select statement for which to estimate the row count
+     * @return The row count estimate statement or <code>null</code>
+     * @since 1.4.1
+     */
+    public String getRowCountEstimateSql(String sql);
+
+    /**
+     * Extracts the row count estimate from the result list of a statement produced by {@link #getRowCountEstimateSql(String)}.
+     *
+     * @param resultList The result list of the row count estimate statement
+     * @return The row count estimate or <code>-1</code> if the result contains no estimate
+     * @since 1.4.1
+     */
+    public long getRowCountEstimate(List<?> resultList);
+
     /**
      * Returns whether parameters need to be casted if occurring in an untyped context like e.g. VALUES clause.
      *
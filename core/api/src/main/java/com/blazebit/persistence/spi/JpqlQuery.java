@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The JPQL query of a criteria builder that can be passed to {@link javax.persistence.EntityManager#createQuery(String, Class)} as is.
+ * A criteria builder provides it as service via {@link ServiceProvider#getService(Class)} only if the query created that way is equivalent
+ * to the query of the criteria builder, i.e. if the query requires no custom SQL, no object builder and no limit or offset.
+ * Parameter values have to be bound to the created query separately.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class JpqlQuery {
+
+    private final String queryString;
+    private final Class<?> resultType;
+    private final boolean cacheable;
+
+    /**
+     * Constructs a JpqlQuery.
+     *
+     * @param queryString The JPQL query string
+     * @param resultType The result type for creating the query
+     * @param cacheable Whether the query should be cacheable
+     */
+    public JpqlQuery(String queryString, Class<?> resultType, boolean cacheable) {
+        this.queryString = queryString;
+        this.resultType = resultType;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * The JPQL query string.
+     *
+     * @return The JPQL query string
+     */
+    public String getQueryString() {
+        return queryString;
+    }
+
+    /**
+     * The result type for creating the query.
+     *
+     * @return The result type
+     */
+    public Class<?> getResultType() {
+        return resultType;
+    }
+
+    /**
+     * Whether the query should be made cacheable via {@link JpaProvider#setCacheable(javax.persistence.Query)}.
+     *
+     * @return Whether the query should be cacheable
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The timings of a single query execution that are passed to a {@link QueryMetricsListener}.
+ * Subclasses may compute the fingerprint and the query string lazily by overriding {@link #getFingerprint()} and {@link #getQueryString()}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class QueryMetrics {
+
+    private final String fingerprint;
+    private final String queryString;
+    private final DbmsStatementType statementType;
+    private final long renderNanos;
+    private final long sqlGenerationNanos;
+    private final long executionNanos;
+    private final long transformationNanos;
+    private final int resultCount;
+    private final Throwable exception;
+
+    /**
+     * Creates new query metrics.
+     *
+     * @param fingerprint The fingerprint of the query shape
+     * @param queryString The JPQL query string
+     * @param statementType The statement type of the query
+     * @param renderNanos The time for rendering the query in nanoseconds
+     * @param sqlGenerationNanos The time for generating the SQL in nanoseconds
+     * @param executionNanos The time for executing the query in nanoseconds
+     * @param transformationNanos The time for transforming the results in nanoseconds
+     * @param resultCount The number of results or the update count, <code>-1</code> if unknown
+     * @param exception The exception that happened during the execution or <code>null</code>
+     */
+    public QueryMetrics(String fingerprint, String queryString, DbmsStatementType statementType, long renderNanos, long sqlGenerationNanos, long executionNanos, long transformationNanos, int resultCount, Throwable exception) {
+        this.fingerprint = fingerprint;
+        this.queryString = queryString;
+        this.statementType = statementType;
+        this.renderNanos = renderNanos;
+        this.sqlGenerationNanos = sqlGenerationNanos;
+        this.executionNanos = executionNanos;
+        this.transformationNanos = transformationNanos;
+        this.resultCount = resultCount;
+        this.exception = exception;
+    }
+
+    /**
+     * Creates new query metrics for a subclass that provides the fingerprint and the query string.
+     *
+     * @param statementType The statement type of the query
+     * @param renderNanos The time for rendering the query in nanoseconds
+     * @param sqlGenerationNanos The time for generating the SQL in nanoseconds
+     * @param executionNanos The time for executing the query in nanoseconds
+     * @param transformationNanos The time for transforming the results in nanoseconds
+     * @param resultCount The number of results or the update count, <code>-1</code> if unknown
+     * @param exception The exception that happened during the execution or <code>null</code>
+     */
+    protected QueryMetrics(DbmsStatementType statementType, long renderNanos, long sqlGenerationNanos, long executionNanos, long transformationNanos, int resultCount, Throwable exception) {
+        this(null, null, statementType, renderNanos, sqlGenerationNanos, executionNanos, transformationNanos, resultCount, exception);
+    }
+
+    /**
+     * Returns a stable fingerprint of the query shape that can be used to aggregate the metrics of executions of the same query.
+     * The fingerprint is derived from the JPQL query string, so it does not depend on parameter values.
+     *
+     * @return The query fingerprint
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the JPQL query string of the executed query.
+     *
+     * @return The JPQL query string
+     */
+    public String getQueryString() {
+        return queryString;
+    }
+
+    /**
+     * Returns the statement type of the executed query.
+     *
+     * @return The statement type
+     */
+    public DbmsStatementType getStatementType() {
+        return statementType;
+    }
+
+    /**
+     * Returns the time spent for rendering the JPQL query and creating the JPA query object in nanoseconds.
+     * When a query object is executed multiple times, only the first execution reports the render time.
+     *
+     * @return The render time in nanoseconds
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * Returns the time spent for generating and transforming the SQL of queries that make use of advanced features like CTEs in nanoseconds.
+     *
+     * @return The SQL generation time in nanoseconds
+     */
+    public long getSqlGenerationNanos() {
+        return sqlGenerationNanos;
+    }
+
+    /**
+     * Returns the time spent for executing the query and fetching the results through the JPA provider in nanoseconds.
+     *
+     * @return The execution time in nanoseconds
+     */
+    public long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * Returns the time spent in the object builder for transforming the results in nanoseconds.
+     * This includes the time of queries that are executed by the object builder, like correlated batch queries of entity views,
+     * which are also reported separately.
+     *
+     * @return The transformation time in nanoseconds
+     */
+    public long getTransformationNanos() {
+        return transformationNanos;
+    }
+
+    /**
+     * Returns the total time of the query execution in nanoseconds.
+     *
+     * @return The total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return renderNanos + sqlGenerationNanos + executionNanos + transformationNanos;
+    }
+
+    /**
+     * Returns the number of results of a select query or the update count of a modification query, or <code>-1</code> if unknown.
+     *
+     * @return The result count
+     */
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * Returns the exception that happened during the query execution or <code>null</code> if the execution was successful.
+     *
+     * @return The exception or <code>null</code>
+     */
+    public Throwable getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryMetrics{" +
+                "fingerprint='" + getFingerprint() + '\'' +
+                ", statementType=" + statementType +
+                ", renderNanos=" + renderNanos +
+                ", sqlGenerationNanos=" + sqlGenerationNanos +
+                ", executionNanos=" + executionNanos +
+                ", transformationNanos=" + transformationNanos +
+                ", resultCount=" + resultCount +
+                ", exception=" + exception +
+                '}';
+    }
+}
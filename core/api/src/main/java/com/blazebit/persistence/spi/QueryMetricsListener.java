@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A listener that is notified about the execution of queries that are created by criteria builders.
+ * Listeners are registered via {@link CriteriaBuilderConfiguration#registerQueryMetricsListener(QueryMetricsListener)}.
+ *
+ * The listener is invoked synchronously in the thread that executed the query, so implementations must be thread safe
+ * and should return quickly, e.g. by only updating counters and timers.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface QueryMetricsListener {
+
+    /**
+     * Is invoked after a query was executed, regardless of whether the execution was successful.
+     *
+     * @param metrics The metrics of the query execution
+     */
+    public void onQueryExecuted(QueryMetrics metrics);
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import com.blazebit.persistence.CloseableIterator;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link CloseableIterator} over a result list, useful for JPA providers that return lazily loaded result lists.
+ * Subclasses release the resources of the underlying query in {@link #doClose()}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ResultListIterator implements CloseableIterator<Object> {
+
+    private final Iterator<?> iterator;
+    private boolean closed;
+
+    public ResultListIterator(List<?> resultList) {
+        this.iterator = resultList.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (iterator.hasNext()) {
+            return true;
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove is not supported!");
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            doClose();
+        }
+    }
+
+    protected void doClose() {
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import com.blazebit.persistence.CloseableIterator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * An optional interface for {@link ExtendedQuerySupport} implementations that can iterate over the results of a query
+ * with an overriding SQL query without loading all results into memory at once. For implementations that don't implement this interface,
+ * results are iterated via {@link ExtendedQuerySupport#getResultList(ServiceProvider, List, Query, String)}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface ScrollableExtendedQuerySupport {
+
+    /**
+     * Returns a forward only iterator over the results of the Query by replacing the SQL with the given overriding SQL query.
+     * The iterator fetches the given amount of rows at once from the database.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param participatingQueries The list of participating queries from which to combine parameters
+     * @param query The main query to execute
+     * @param sqlOverride The actual SQL query to execute instead of the query's original SQL
+     * @param fetchSize The amount of rows to fetch at once
+     * @return The iterator over the results of the query
+     */
+    public CloseableIterator<Object> scroll(ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize);
+
+}
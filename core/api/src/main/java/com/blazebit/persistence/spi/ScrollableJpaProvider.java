@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import com.blazebit.persistence.CloseableIterator;
+
+import javax.persistence.Query;
+
+/**
+ * An optional interface for {@link JpaProvider} implementations that can iterate over the results of a query
+ * without loading all results into memory at once. For JPA providers that don't implement this interface,
+ * results are iterated via {@link Query#getResultList()}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface ScrollableJpaProvider {
+
+    /**
+     * Executes the given query and returns a forward only iterator over the results
+     * that fetches the given amount of rows at once from the database.
+     * The elements are the same as the ones of {@link Query#getResultList()}.
+     *
+     * @param query The query to execute
+     * @param fetchSize The amount of rows to fetch at once
+     * @return The iterator over the results
+     */
+    public CloseableIterator<Object> scroll(Query query, int fetchSize);
+
+}
@@ -25,7 +25,16 @@ package com.blazebit.persistence.spi;
 public enum ValuesStrategy {
     VALUES,
     SELECT_VALUES,
-    SELECT_UNION;
+    SELECT_UNION,
+    /**
+     * Binds one array parameter per column and unnests the arrays into rows, so the SQL is independent of the number of values.
+     * Values of types that can't be bound as array elements fall back to the {@link #VALUES} strategy.
+     * Besides dialects that use this strategy by default, it is used on DBMS that support arrays when
+     * {@link com.blazebit.persistence.ConfigurationProperties#VALUES_CLAUSE_ARRAY} is enabled.
+     *
+     * @since 1.4.1
+     */
+    ARRAY;
 
     // NOTE: another possible strategy would be to use a temporary table
     // CREATE TEMPORARY TABLE IF NOT EXISTS table2 AS (SELECT * FROM table1)
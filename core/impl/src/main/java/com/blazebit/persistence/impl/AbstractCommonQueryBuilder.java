@@ -19,6 +19,7 @@ package com.blazebit.persistence.impl;
 import com.blazebit.persistence.BaseSubqueryBuilder;
 import com.blazebit.persistence.CTEBuilder;
 import com.blazebit.persistence.CaseWhenStarterBuilder;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DefaultKeyset;
@@ -56,7 +57,9 @@ import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
 import com.blazebit.persistence.impl.query.DefaultQuerySpecification;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
+import com.blazebit.persistence.impl.query.MetricsTypedQuery;
 import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.QueryMetricsRecorder;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.transform.ExpressionModifierVisitor;
 import com.blazebit.persistence.impl.transform.ExpressionTransformerGroup;
@@ -65,6 +68,7 @@ import com.blazebit.persistence.impl.transform.SimpleTransformerGroup;
 import com.blazebit.persistence.impl.transform.SizeTransformationVisitor;
 import com.blazebit.persistence.impl.transform.SizeTransformerGroup;
 import com.blazebit.persistence.impl.transform.SubqueryRecursiveExpressionVisitor;
+import com.blazebit.persistence.impl.util.ScrollUtils;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.AliasReplacementVisitor;
 import com.blazebit.persistence.parser.EntityMetamodel;
@@ -89,7 +93,9 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JpqlMacro;
+import com.blazebit.persistence.spi.JpqlQuery;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryMetricsListener;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -180,6 +186,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     // Cache
     protected String cachedQueryString;
     protected String cachedExternalQueryString;
+    private QueryMetricsRecorder.QueryString queryMetricsQueryString;
     protected ResolvedExpression[] cachedGroupByIdentifierExpressions;
     protected boolean hasGroupBy = false;
     protected boolean needsCheck = true;
@@ -2319,12 +2326,27 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         }
     }
 
+    protected final JpqlQuery getJpqlQuery() {
+        // NOTE: This must happen first because it generates implicit joins
+        String baseQueryString = getBaseQueryStringWithCheck(null, null);
+        // A query created from the query string lacks the custom SQL, the object builder and the metrics of the query of this builder
+        if (needsSqlReplacement(joinManager.getKeyRestrictedLeftJoins()) || selectManager.getSelectObjectBuilder() != null || cbf.getQueryMetricsListener() != null
+                || firstResult != 0 || maxResults != Integer.MAX_VALUE) {
+            return null;
+        }
+        return new JpqlQuery(baseQueryString, selectManager.getExpectedQueryResultType(), isCacheable());
+    }
+
+    private boolean needsSqlReplacement(Set<JoinNode> keyRestrictedLeftJoins) {
+        return isMainQuery && mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !keyRestrictedLeftJoins.isEmpty() || !isMainQuery && hasLimit();
+    }
+
     protected TypedQuery<QueryResultType> getTypedQuery(StringBuilder lateralSb, JoinNode lateralJoinNode) {
         // NOTE: This must happen first because it generates implicit joins
         String baseQueryString = getBaseQueryStringWithCheck(lateralSb, lateralJoinNode);
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
         Set<JoinNode> keyRestrictedLeftJoins = joinManager.getKeyRestrictedLeftJoins();
-        final boolean needsSqlReplacement = isMainQuery && mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !keyRestrictedLeftJoins.isEmpty() || !isMainQuery && hasLimit();
+        final boolean needsSqlReplacement = needsSqlReplacement(keyRestrictedLeftJoins);
         if (!needsSqlReplacement) {
             TypedQuery<QueryResultType> baseQuery = createTypedQuery(baseQueryString);
             parameterManager.parameterizeQuery(baseQuery);
@@ -2405,11 +2427,20 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             String rootAlias = node.getAlias();
             String castedParameter = node.getValuesCastedParameter();
             String[] attributes = node.getValuesAttributes();
+            // Nodes that can't bind their values as arrays fall back to the VALUES strategy
+            ValuesStrategy valuesStrategy;
+            if (node.isValuesArray()) {
+                valuesStrategy = ValuesStrategy.ARRAY;
+            } else if (strategy == ValuesStrategy.ARRAY) {
+                valuesStrategy = ValuesStrategy.VALUES;
+            } else {
+                valuesStrategy = strategy;
+            }
 
             // We construct an example query representing the values clause with a SELECT clause that selects the fields in the right order which we need to construct SQL
             // that uses proper aliases and filters null values which are there in the first place to pad up parameters in case we don't reach the desired value count
             StringBuilder valuesSb = new StringBuilder(20 + valueCount * attributes.length * 3);
-            Query valuesExampleQuery = getValuesExampleQuery(clazz, valueCount, identifiableReference, valueClazzAttributeName, rootAlias, castedParameter, attributes, valuesSb, strategy, dummyTable, node);
+            Query valuesExampleQuery = getValuesExampleQuery(clazz, valueCount, identifiableReference, valueClazzAttributeName, rootAlias, castedParameter, attributes, valuesSb, valuesStrategy, dummyTable, node);
 
             String exampleQuerySql = mainQuery.cbf.getExtendedQuerySupport().getSql(mainQuery.em, valuesExampleQuery);
             String exampleQuerySqlAlias = mainQuery.cbf.getExtendedQuerySupport().getSqlAlias(mainQuery.em, valuesExampleQuery, "e");
@@ -2419,14 +2450,14 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             }
             StringBuilder whereClauseSb = new StringBuilder(exampleQuerySql.length());
             String filterNullsTableAlias = "fltr_nulls_tbl_als_";
-            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQuerySql, whereClauseSb, filterNullsTableAlias, strategy, dummyTable);
+            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQuerySql, whereClauseSb, filterNullsTableAlias, valuesStrategy, dummyTable);
             boolean filterNulls = mainQuery.getQueryConfiguration().isValuesClauseFilterNullsEnabled();
 
-            if (strategy == ValuesStrategy.SELECT_VALUES) {
+            if (valuesStrategy == ValuesStrategy.SELECT_VALUES) {
                 valuesSb.insert(0, valuesAliases);
                 valuesSb.append(')');
                 valuesAliases = null;
-            } else if (strategy == ValuesStrategy.SELECT_UNION) {
+            } else if (valuesStrategy == ValuesStrategy.SELECT_UNION) {
                 valuesSb.insert(0, valuesAliases);
                 if (!filterNulls) {
                     // We must order by all values and use a limit in such a case
@@ -2566,7 +2597,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
         StringBuilder sb;
 
-        if (strategy == ValuesStrategy.VALUES) {
+        if (strategy == ValuesStrategy.VALUES || strategy == ValuesStrategy.ARRAY) {
             sb = new StringBuilder((endIndex - startIndex) - (tableAlias.length() + 3) * attributeCount);
             sb.append('(');
         } else if (strategy == ValuesStrategy.SELECT_VALUES) {
@@ -2605,7 +2636,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             sb.append(',');
         }
 
-        if (strategy == ValuesStrategy.VALUES) {
+        if (strategy == ValuesStrategy.VALUES || strategy == ValuesStrategy.ARRAY) {
             sb.setCharAt(sb.length() - 1, ')');
         } else if (strategy == ValuesStrategy.SELECT_VALUES) {
             sb.setCharAt(sb.length() - 1, ' ');
@@ -2729,6 +2760,18 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         sb.append(" WHERE ");
         joinManager.renderPlaceholderRequiringPredicate(sb, valuesNode, "e", false);
 
+        if (strategy == ValuesStrategy.ARRAY) {
+            // Every attribute is bound as a single array parameter which is unnested into rows
+            valuesSb.append("(select * from unnest(");
+            for (String arrayCastedParameter : valuesNode.getValuesArrayCastedParameters()) {
+                valuesSb.append(arrayCastedParameter);
+                valuesSb.append(',');
+            }
+            valuesSb.setCharAt(valuesSb.length() - 1, ')');
+            valuesSb.append(')');
+            return mainQuery.em.createQuery(sb.toString());
+        }
+
         if (strategy == ValuesStrategy.SELECT_VALUES || strategy == ValuesStrategy.VALUES) {
             valuesSb.append("(VALUES ");
         } else if (strategy == ValuesStrategy.SELECT_UNION) {
@@ -2996,6 +3039,11 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         if (setOperationEnded) {
             throw new IllegalStateException("Modifications to a query after connecting with a set operation is not allowed!");
         }
+        if (queryMetricsQueryString != null) {
+            // Query objects that were created before keep reporting the query string they were created for
+            queryMetricsQueryString.get();
+            queryMetricsQueryString = null;
+        }
         needsCheck = true;
         cachedQueryString = null;
         cachedExternalQueryString = null;
@@ -3345,7 +3393,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         if (query instanceof AbstractCustomQuery<?>) {
             return ((AbstractCustomQuery<?>) query).getQuerySpecification();
         }
-        return new DefaultQuerySpecification(statementType, query, em, parameterManager.getParameterListNames(query), cbf.getExtendedQuerySupport());
+        return new DefaultQuerySpecification(statementType, query, em, parameterManager.getParameterListNames(query), cbf.getExtendedQuerySupport(), mainQuery.jpaProvider);
     }
 
     protected boolean hasLimit() {
@@ -3373,5 +3421,47 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             return (TypedQuery<QueryResultType>) query;
         }
     }
+
+    protected final TypedQuery<QueryResultType> applyQueryMetrics(TypedQuery<QueryResultType> query, long startNanos) {
+        QueryMetricsRecorder recorder = createQueryMetricsRecorder(startNanos);
+        if (recorder == null) {
+            return query;
+        }
+        return new MetricsTypedQuery<>(query, recorder);
+    }
+
+    protected final QueryMetricsRecorder createQueryMetricsRecorder(long startNanos) {
+        QueryMetricsListener queryMetricsListener = cbf.getQueryMetricsListener();
+        if (queryMetricsListener == null) {
+            return null;
+        }
+        long renderNanos = System.nanoTime() - startNanos;
+        if (queryMetricsQueryString == null) {
+            // The query string is only rendered when a listener asks for it
+            queryMetricsQueryString = new QueryMetricsRecorder.QueryString() {
+                @Override
+                protected String render() {
+                    return getExternalQueryString();
+                }
+            };
+        }
+        return new QueryMetricsRecorder(queryMetricsListener, statementType, queryMetricsQueryString, renderNanos);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final CloseableIterator<QueryResultType> getResultIterator(TypedQuery<QueryResultType> query) {
+        int fetchSize = mainQuery.getQueryConfiguration().getStreamingFetchSize();
+        // Streamed results are not reported to query metrics listeners as the execution time is spread over the iteration
+        if (query instanceof MetricsTypedQuery<?>) {
+            query = ((MetricsTypedQuery<QueryResultType>) query).getDelegate();
+        }
+        if (query instanceof ObjectBuilderTypedQuery<?>) {
+            return ((ObjectBuilderTypedQuery<QueryResultType>) query).getResultIterator(mainQuery.jpaProvider, fetchSize);
+        } else if (query instanceof CustomSQLTypedQuery<?>) {
+            return ((CustomSQLTypedQuery<QueryResultType>) query).getResultIterator(fetchSize);
+        } else {
+            return (CloseableIterator<QueryResultType>) ScrollUtils.scroll(mainQuery.jpaProvider, query, fetchSize);
+        }
+    }
     // TODO: needs equals-hashCode implementation
 }
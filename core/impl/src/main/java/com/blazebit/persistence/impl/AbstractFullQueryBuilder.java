@@ -335,6 +335,40 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         return sbSelectFrom.toString();
     }
 
+    /**
+     * Builds a query that selects the rows counted by the page count query instead of counting them.
+     * This is used for capped counts where a limit is applied to the query and the result rows are counted.
+     */
+    protected String buildPageCountSelectQueryString(boolean externalRepresentation) {
+        StringBuilder sbSelectFrom = new StringBuilder();
+        if (externalRepresentation && isMainQuery) {
+            mainQuery.cteManager.buildClause(sbSelectFrom);
+        }
+        sbSelectFrom.append("SELECT ");
+        int distinctStartIdx = sbSelectFrom.length();
+        sbSelectFrom.append("DISTINCT ");
+        int distinctEndIdx = sbSelectFrom.length();
+        boolean isResultUnique = appendIdentifierExpressions(sbSelectFrom);
+
+        List<String> whereClauseConjuncts = new ArrayList<>();
+        List<String> optionalWhereClauseConjuncts = new ArrayList<>();
+        // The count query does not have any fetch owners
+        Set<JoinNode> countNodesToFetch = Collections.emptySet();
+        Set<JoinNode> identifierExpressionsToUseNonRootJoinNodes = getIdentifierExpressionsToUseNonRootJoinNodes();
+        Set<JoinNode> collectionJoinNodes = joinManager.buildClause(sbSelectFrom, COUNT_QUERY_GROUP_BY_CLAUSE_EXCLUSIONS, null, true, externalRepresentation, true, false, optionalWhereClauseConjuncts, whereClauseConjuncts, null, explicitVersionEntities, countNodesToFetch, identifierExpressionsToUseNonRootJoinNodes);
+
+        whereManager.buildClause(sbSelectFrom, whereClauseConjuncts, optionalWhereClauseConjuncts, null);
+
+        // Same as for the count query, the distinct is only necessary if collection joins are involved or the identifiers are not unique
+        if (collectionJoinNodes.isEmpty() && isResultUnique) {
+            for (int i = distinctStartIdx; i < distinctEndIdx; i++) {
+                sbSelectFrom.setCharAt(i, ' ');
+            }
+        }
+
+        return sbSelectFrom.toString();
+    }
+
     protected void appendPageCountQueryStringExtensions(StringBuilder sbSelectFrom) {
     }
 
@@ -115,6 +115,11 @@ public abstract class AbstractInsertCollectionCriteriaBuilder<T, X extends BaseI
         }
     }
 
+    @Override
+    protected void setConflictAction(String[] conflictAttributes, boolean doUpdate) {
+        throw new IllegalStateException("Upserts are not supported for collection inserts!");
+    }
+
     @Override
     protected void addBind(String attributeName) {
         if (attributeName.equalsIgnoreCase(keyFunctionExpression)) {
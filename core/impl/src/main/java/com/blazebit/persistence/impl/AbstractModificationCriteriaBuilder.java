@@ -27,18 +27,25 @@ import com.blazebit.persistence.SelectRecursiveCTECriteriaBuilder;
 import com.blazebit.persistence.SimpleReturningBuilder;
 import com.blazebit.persistence.impl.builder.object.ReturningTupleObjectBuilder;
 import com.blazebit.persistence.impl.dialect.DB2DbmsDialect;
+import com.blazebit.persistence.impl.plan.CustomModificationQueryPlan;
+import com.blazebit.persistence.impl.plan.DefaultModificationQueryPlan;
+import com.blazebit.persistence.impl.plan.ModificationQueryPlan;
 import com.blazebit.persistence.impl.query.CTENode;
 import com.blazebit.persistence.impl.query.CustomReturningSQLTypedQuery;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.ModificationQuerySpecification;
+import com.blazebit.persistence.impl.query.QueryMetricsRecorder;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.query.ReturningModificationQuerySpecification;
 import com.blazebit.persistence.spi.AttributePath;
+import com.blazebit.persistence.spi.BatchExtendedQuerySupport;
+import com.blazebit.persistence.spi.BatchParameterBinder;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 
@@ -238,7 +245,115 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public int executeUpdate() {
-        return getQuery().executeUpdate();
+        long startNanos = System.nanoTime();
+        Query query = getQuery();
+        QueryMetricsRecorder recorder = createQueryMetricsRecorder(startNanos);
+        if (recorder == null) {
+            return query.executeUpdate();
+        }
+
+        int updateCount = -1;
+        RuntimeException exception = null;
+        recorder.startSqlGeneration();
+        try {
+            if (query instanceof CustomSQLQuery) {
+                ((CustomSQLQuery) query).getSql();
+            }
+            recorder.startExecution();
+            updateCount = query.executeUpdate();
+            return updateCount;
+        } catch (RuntimeException ex) {
+            exception = ex;
+            throw ex;
+        } finally {
+            recorder.finish(updateCount, exception);
+        }
+    }
+
+    public int[] executeBatch(Iterable<? extends Map<String, ?>> parameterSets) {
+        final List<Map<String, ?>> parameterSetList = new ArrayList<>();
+        for (Map<String, ?> parameterSet : parameterSets) {
+            parameterSetList.add(parameterSet);
+        }
+        if (parameterSetList.isEmpty()) {
+            return new int[0];
+        }
+
+        long startNanos = System.nanoTime();
+        // Bind the first parameter set so that the query can be built with all parameters being satisfied
+        bindParameterSet(parameterSetList.get(0));
+        final Query query = getQuery();
+        BatchParameterBinder parameterBinder = new BatchParameterBinder() {
+            @Override
+            public int getParameterSetCount() {
+                return parameterSetList.size();
+            }
+
+            @Override
+            public void bind(int parameterSetIndex) {
+                bindParameterSet(parameterSetList.get(parameterSetIndex));
+                parameterManager.parameterizeQuery(query);
+            }
+        };
+
+        QueryMetricsRecorder recorder = createQueryMetricsRecorder(startNanos);
+        if (recorder == null) {
+            return executeBatch(query, parameterBinder);
+        }
+
+        int updateCount = -1;
+        RuntimeException exception = null;
+        recorder.startSqlGeneration();
+        try {
+            if (query instanceof CustomSQLQuery) {
+                ((CustomSQLQuery) query).getSql();
+            }
+            recorder.startExecution();
+            int[] updateCounts = executeBatch(query, parameterBinder);
+            updateCount = 0;
+            for (int count : updateCounts) {
+                updateCount += Math.max(count, 0);
+            }
+            return updateCounts;
+        } catch (RuntimeException ex) {
+            exception = ex;
+            throw ex;
+        } finally {
+            recorder.finish(updateCount, exception);
+        }
+    }
+
+    private int[] executeBatch(Query query, BatchParameterBinder parameterBinder) {
+        if (query instanceof CustomSQLQuery) {
+            return ((CustomSQLQuery) query).executeBatch(parameterBinder);
+        }
+
+        ModificationQueryPlan queryPlan;
+        ExtendedQuerySupport extendedQuerySupport = cbf.getExtendedQuerySupport();
+        if (extendedQuerySupport instanceof BatchExtendedQuerySupport && extendedQuerySupport.supportsAdvancedSql()) {
+            // Even if the query requires no custom SQL, we go through the extended query support to make use of JDBC batching
+            String sql = extendedQuerySupport.getSql(em, query);
+            queryPlan = new CustomModificationQueryPlan(extendedQuerySupport, this, query, query, Collections.singletonList(query), sql);
+        } else {
+            queryPlan = new DefaultModificationQueryPlan(statementType, query, firstResult, maxResults);
+        }
+        return queryPlan.executeBatch(parameterBinder);
+    }
+
+    private void bindParameterSet(Map<String, ?> parameterSet) {
+        for (Map.Entry<String, ?> entry : parameterSet.entrySet()) {
+            if (entry.getValue() instanceof Collection<?> && !isValuesParameter(entry.getKey())) {
+                // Collection values are expanded into the SQL which must be the same for all parameter sets
+                throw new IllegalArgumentException("The collection valued parameter '" + entry.getKey() + "' is not supported for batch execution!");
+            }
+            setParameter(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isValuesParameter(String parameterName) {
+        // The number of rows of a VALUES clause is fixed, so the SQL doesn't depend on the collection size
+        ParameterManager.ParameterImpl<?> parameter = parameterManager.getParameter(parameterName);
+        return parameter != null && parameter.getParameterValue() instanceof ParameterManager.ValuesParameterWrapper;
     }
     
     @Override
@@ -375,7 +490,8 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
         boolean shouldRenderCteNodes = renderCteNodes(false);
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new ReturningModificationQuerySpecification<R>(
-                this, baseQuery, exampleQuery, parameterManager.getParameters(), parameterListNames, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, returningColumns, objectBuilder
+                this, baseQuery, exampleQuery, parameterManager.getParameters(), parameterListNames, mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, returningColumns, objectBuilder,
+                getUpsertConflictColumns(true), getUpsertUpdateColumns()
         );
 
         CustomReturningSQLTypedQuery query = new CustomReturningSQLTypedQuery<R>(
@@ -585,6 +701,25 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
         return columns.toArray(new String[columns.size()]);
     }
 
+    /**
+     * Returns the columns identifying conflicting rows of an upsert or <code>null</code> if this is no upsert.
+     *
+     * @param returning Whether the statement returns columns
+     * @return The conflict columns or <code>null</code>
+     */
+    protected String[] getUpsertConflictColumns(boolean returning) {
+        return null;
+    }
+
+    /**
+     * Returns the columns to update for conflicting rows of an upsert or <code>null</code> if conflicting rows are ignored.
+     *
+     * @return The update columns or <code>null</code>
+     */
+    protected String[] getUpsertUpdateColumns() {
+        return null;
+    }
+
     protected Query getCountExampleQuery() {
         StringBuilder sb = new StringBuilder();
         sb.append("SELECT COUNT(e) FROM ");
@@ -20,6 +20,7 @@ import java.util.List;
 
 import javax.persistence.TypedQuery;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.spi.DbmsStatementType;
@@ -49,7 +50,8 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
 
     @Override
     public TypedQuery<T> getQuery() {
-        return getTypedQuery(null, null);
+        long startNanos = System.nanoTime();
+        return applyQueryMetrics(getTypedQuery(null, null), startNanos);
     }
 
     @Override
@@ -62,4 +64,9 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
         return getQuery().getSingleResult();
     }
 
+    @Override
+    public CloseableIterator<T> getResultIterator() {
+        return getResultIterator(getQuery());
+    }
+
 }
@@ -40,10 +40,13 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(isExpressionOptimizationEnabled());
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return getExpressionCacheClass();
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(isValuesClauseFilterNullsEnabled());
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY: return Boolean.toString(isValuesClauseArrayEnabled());
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled());
             case ConfigurationProperties.INLINE_ID_QUERY: return getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled());
             case ConfigurationProperties.INLINE_COUNT_QUERY: return getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled());
             case ConfigurationProperties.INLINE_CTES: return getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled());
+            case ConfigurationProperties.STREAMING_FETCH_SIZE: return Integer.toString(getStreamingFetchSize());
+            case ConfigurationProperties.IN_LIST_PADDING: return Boolean.toString(isInListPaddingEnabled());
             default: return null;
         }
     }
@@ -60,10 +63,13 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(isExpressionOptimizationEnabled()));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, getExpressionCacheClass());
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(isValuesClauseFilterNullsEnabled()));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_ARRAY, Boolean.toString(isValuesClauseArrayEnabled()));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(isOptimizedKeysetPredicateRenderingEnabled()));
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
+        properties.put(ConfigurationProperties.STREAMING_FETCH_SIZE, Integer.toString(getStreamingFetchSize()));
+        properties.put(ConfigurationProperties.IN_LIST_PADDING, Boolean.toString(isInListPaddingEnabled()));
         return properties;
     }
 
@@ -18,6 +18,7 @@ package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.BaseFinalSetOperationBuilder;
 import com.blazebit.persistence.BaseOngoingFinalSetOperationBuilder;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.impl.query.CTENode;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
@@ -429,15 +430,20 @@ public abstract class BaseFinalSetOperationBuilderImpl<T, X extends BaseFinalSet
 
     @Override
     public TypedQuery<T> getQuery() {
-        return getTypedQuery(null, null);
+        long startNanos = System.nanoTime();
+        return applyQueryMetrics(getTypedQuery(null, null), startNanos);
     }
 
     public List<T> getResultList() {
-        return getTypedQuery(null, null).getResultList();
+        return getQuery().getResultList();
     }
 
     public T getSingleResult() {
-        return getTypedQuery(null, null).getSingleResult();
+        return getQuery().getSingleResult();
+    }
+
+    public CloseableIterator<T> getResultIterator() {
+        return getResultIterator(getTypedQuery(null, null));
     }
 
 }
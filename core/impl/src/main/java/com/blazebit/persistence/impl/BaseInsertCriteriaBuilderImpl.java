@@ -17,6 +17,8 @@
 package com.blazebit.persistence.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +37,8 @@ import com.blazebit.persistence.impl.query.ModificationQuerySpecification;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.UpsertStyle;
 
 /**
  *
@@ -45,6 +49,8 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 public abstract class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCriteriaBuilder<T, X>, Y> extends AbstractModificationCriteriaBuilder<T, X, Y> implements BaseInsertCriteriaBuilder<T, X>, SelectBuilder<X> {
 
     protected final Map<String, Integer> bindingMap = new TreeMap<>();
+    private List<String> conflictAttributes;
+    private boolean conflictDoUpdate;
 
     public BaseInsertCriteriaBuilderImpl(MainQuery mainQuery, QueryContext queryContext, boolean isMainQuery, Class<T> clazz, CTEManager.CTEKey cteKey, Class<?> cteClass, Y result, CTEBuilderListener listener) {
         super(mainQuery, queryContext, isMainQuery, DbmsStatementType.INSERT, clazz, null, cteKey, cteClass, result, listener);
@@ -57,6 +63,8 @@ public abstract class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCrite
     public BaseInsertCriteriaBuilderImpl(BaseInsertCriteriaBuilderImpl<T, X, Y> builder, MainQuery mainQuery, QueryContext queryContext, Map<JoinManager, JoinManager> joinManagerMapping) {
         super(builder, mainQuery, queryContext, joinManagerMapping);
         bindingMap.putAll(builder.bindingMap);
+        conflictAttributes = builder.conflictAttributes;
+        conflictDoUpdate = builder.conflictDoUpdate;
     }
 
     @Override
@@ -79,6 +87,79 @@ public abstract class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCrite
         return this;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public X onConflictDoNothing(String... conflictAttributes) {
+        setConflictAction(conflictAttributes, false);
+        return (X) this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public X onConflictDoUpdate(String... conflictAttributes) {
+        setConflictAction(conflictAttributes, true);
+        return (X) this;
+    }
+
+    protected void setConflictAction(String[] conflictAttributes, boolean doUpdate) {
+        if (mainQuery.dbmsDialect.getUpsertStyle() == UpsertStyle.NONE) {
+            throw new IllegalStateException("The dbms does not support upserts!");
+        }
+        if (conflictAttributes.length == 0) {
+            throw new IllegalArgumentException("Invalid empty conflict attributes");
+        }
+        for (String attributeName : conflictAttributes) {
+            if (entityType.getAttribute(attributeName) == null) {
+                throw new IllegalArgumentException("Attribute '" + attributeName + "' does not exist on '" + entityType.getName() + "'!");
+            }
+        }
+        prepareForModification(ClauseType.SELECT);
+        this.conflictAttributes = Arrays.asList(conflictAttributes.clone());
+        this.conflictDoUpdate = doUpdate;
+    }
+
+    @Override
+    protected String[] getUpsertConflictColumns(boolean returning) {
+        if (conflictAttributes == null) {
+            return null;
+        }
+        for (String attributeName : conflictAttributes) {
+            if (!bindingMap.containsKey(attributeName)) {
+                throw new IllegalStateException("The conflict attribute [" + attributeName + "] must be bound!");
+            }
+        }
+        if (firstResult != 0 || maxResults != Integer.MAX_VALUE) {
+            throw new IllegalStateException("Limiting the rows of an upsert is not supported!");
+        }
+        if (returning && mainQuery.dbmsDialect.getUpsertStyle() != UpsertStyle.ON_CONFLICT) {
+            throw new IllegalStateException("Returning columns of an upsert is not supported by the dbms!");
+        }
+        // The WITH clause would end up in the source of the MERGE statement where most dbms don't allow it
+        if (mainQuery.dbmsDialect.getUpsertStyle() == UpsertStyle.MERGE && mainQuery.cteManager.hasCtes()) {
+            throw new IllegalStateException("Using CTEs in an upsert is not supported by the dbms!");
+        }
+        return getColumnNames(conflictAttributes);
+    }
+
+    @Override
+    protected String[] getUpsertUpdateColumns() {
+        if (conflictAttributes == null || !conflictDoUpdate) {
+            return null;
+        }
+        List<String> updateAttributes = new ArrayList<>(bindingMap.keySet());
+        updateAttributes.removeAll(conflictAttributes);
+        return getColumnNames(updateAttributes);
+    }
+
+    private String[] getColumnNames(Collection<String> attributeNames) {
+        ExtendedManagedType<?> managedType = mainQuery.metamodel.getManagedType(ExtendedManagedType.class, entityType);
+        List<String> columns = new ArrayList<>(attributeNames.size());
+        for (String attributeName : attributeNames) {
+            Collections.addAll(columns, managedType.getAttribute(attributeName).getColumnNames());
+        }
+        return columns.toArray(new String[columns.size()]);
+    }
+
     protected void addBind(String attributeName) {
         // NOTE: We are not resolving embedded properties, because hibernate does not support them
         // Just do that to assert the attribute exists
@@ -150,6 +231,17 @@ public abstract class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCrite
         
         sbSelectFrom.append(")\n");
         buildSelectBaseQueryString(sbSelectFrom, externalRepresentation);
+
+        if (externalRepresentation && conflictAttributes != null) {
+            sbSelectFrom.append(" ON CONFLICT (");
+            for (int i = 0; i < conflictAttributes.size(); i++) {
+                if (i != 0) {
+                    sbSelectFrom.append(", ");
+                }
+                sbSelectFrom.append(conflictAttributes.get(i));
+            }
+            sbSelectFrom.append(conflictDoUpdate ? ") DO UPDATE" : ") DO NOTHING");
+        }
     }
 
     protected void buildSelectBaseQueryString(StringBuilder sbSelectFrom, boolean externalRepresentation) {
@@ -200,7 +292,9 @@ public abstract class BaseInsertCriteriaBuilderImpl<T, X extends BaseInsertCrite
                 isEmbedded,
                 returningColumns,
                 includedModificationStates,
-                returningAttributeBindingMap
+                returningAttributeBindingMap,
+                getUpsertConflictColumns(returningColumns != null),
+                getUpsertUpdateColumns()
         );
 
         query = new CustomSQLQuery(
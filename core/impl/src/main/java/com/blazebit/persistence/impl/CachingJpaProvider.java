@@ -16,12 +16,15 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.JoinType;
+import com.blazebit.persistence.impl.util.ScrollUtils;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -35,7 +38,7 @@ import java.util.Map;
  * @author Christian Beikov
  * @since 1.2.0
  */
-public final class CachingJpaProvider implements JpaProvider {
+public final class CachingJpaProvider implements JpaProvider, ScrollableJpaProvider {
 
     private final JpaProvider jpaProvider;
     private final EntityMetamodelImpl entityMetamodel;
@@ -369,6 +372,11 @@ public final class CachingJpaProvider implements JpaProvider {
         jpaProvider.setCacheable(query);
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(Query query, int fetchSize) {
+        return ScrollUtils.scroll(jpaProvider, query, fetchSize);
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> owner, String attributeName) {
         // TODO: cache this via extended metamodel
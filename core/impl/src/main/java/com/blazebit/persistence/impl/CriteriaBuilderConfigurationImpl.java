@@ -330,7 +330,7 @@ import com.blazebit.persistence.impl.function.trunc.year.MSSQLTruncYearFunction;
 import com.blazebit.persistence.impl.function.trunc.year.MySQLTruncYearFunction;
 import com.blazebit.persistence.impl.function.trunc.year.OracleTruncYearFunction;
 import com.blazebit.persistence.impl.function.trunc.year.PostgreSQLTruncYearFunction;
-import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
 import com.blazebit.persistence.impl.function.cast.CastFunction;
 import com.blazebit.persistence.impl.function.count.AbstractCountFunction;
 import com.blazebit.persistence.impl.function.count.CountTupleEmulationFunction;
@@ -438,6 +438,11 @@ import com.blazebit.persistence.impl.function.least.DefaultLeastFunction;
 import com.blazebit.persistence.impl.function.least.MinLeastFunction;
 import com.blazebit.persistence.impl.function.least.SelectMinUnionLeastFunction;
 import com.blazebit.persistence.impl.function.limit.LimitFunction;
+import com.blazebit.persistence.impl.function.multiset.AbstractMultisetAggregateFunction;
+import com.blazebit.persistence.impl.function.multiset.H2MultisetAggregateFunction;
+import com.blazebit.persistence.impl.function.multiset.MySQLMultisetAggregateFunction;
+import com.blazebit.persistence.impl.function.multiset.OracleMultisetAggregateFunction;
+import com.blazebit.persistence.impl.function.multiset.PostgreSQLMultisetAggregateFunction;
 import com.blazebit.persistence.impl.function.pageposition.MySQLPagePositionFunction;
 import com.blazebit.persistence.impl.function.pageposition.OraclePagePositionFunction;
 import com.blazebit.persistence.impl.function.pageposition.PagePositionFunction;
@@ -450,6 +455,7 @@ import com.blazebit.persistence.impl.function.rowvalue.DB2RowValueComparisonFunc
 import com.blazebit.persistence.impl.function.rowvalue.RowValueComparisonFunction;
 import com.blazebit.persistence.impl.function.set.SetFunction;
 import com.blazebit.persistence.impl.function.treat.TreatFunction;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.EntityManagerFactoryIntegrator;
@@ -457,6 +463,7 @@ import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryMetricsListener;
 import com.blazebit.persistence.spi.SetOperationType;
 
 import javax.persistence.EntityManagerFactory;
@@ -489,6 +496,8 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private final Map<String, Class<?>> treatTypes = new HashMap<String, Class<?>>();
     private final Map<String, JpqlMacro> macros = new HashMap<String, JpqlMacro>();
     private final List<EntityManagerFactoryIntegrator> entityManagerIntegrators = new ArrayList<EntityManagerFactoryIntegrator>();
+    private final List<QueryMetricsListener> queryMetricsListeners = new ArrayList<QueryMetricsListener>();
+    private CountCache countCache;
     private PackageOpener packageOpener;
     private Properties properties = new Properties();
     private ExtendedQuerySupport extendedQuerySupport;
@@ -654,6 +663,16 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         jpqlFunctionGroup.add("postgresql", new PostgreSQLGroupConcatFunction());
         registerFunction(jpqlFunctionGroup);
 
+        // multiset_agg
+
+        jpqlFunctionGroup = new JpqlFunctionGroup(AbstractMultisetAggregateFunction.FUNCTION_NAME, true);
+        jpqlFunctionGroup.add("oracle", new OracleMultisetAggregateFunction());
+        jpqlFunctionGroup.add("h2", new H2MultisetAggregateFunction());
+        jpqlFunctionGroup.add("mysql", new MySQLMultisetAggregateFunction());
+        jpqlFunctionGroup.add("mysql8", new MySQLMultisetAggregateFunction());
+        jpqlFunctionGroup.add("postgresql", new PostgreSQLMultisetAggregateFunction());
+        registerFunction(jpqlFunctionGroup);
+
         // window_group_concat
 
         jpqlFunctionGroup = new JpqlFunctionGroup("window_group_concat", false);
@@ -1554,11 +1573,19 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private void loadDefaultProperties() {
         properties.put(ConfigurationProperties.COMPATIBLE_MODE, "false");
         properties.put(ConfigurationProperties.RETURNING_CLAUSE_CASE_SENSITIVE, "true");
-        properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, ConcurrentHashMapExpressionCache.class.getName());
+        properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, BoundedExpressionCache.class.getName());
+        properties.put(ConfigurationProperties.EXPRESSION_CACHE_MAX_SIZE, Integer.toString(BoundedExpressionCache.DEFAULT_MAXIMUM_SIZE));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, "true");
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, "auto");
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, "auto");
         properties.put(ConfigurationProperties.INLINE_CTES, "true");
+        properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, "2048");
+        properties.put(ConfigurationProperties.COUNT_CACHE_MAX_SIZE, "1024");
+        properties.put(ConfigurationProperties.KEYSET_SKIP_INDEX_MAX_SIZE, "256");
+        properties.put(ConfigurationProperties.KEYSET_SKIP_INDEX_TIME_TO_LIVE, "300000");
+        properties.put(ConfigurationProperties.STREAMING_FETCH_SIZE, "1000");
+        properties.put(ConfigurationProperties.IN_LIST_PADDING, "false");
+        properties.put(ConfigurationProperties.BOOT_PROFILE_LOGGING, "false");
     }
 
     private void loadExtendedQuerySupport() {
@@ -1663,6 +1690,28 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         return entityManagerIntegrators;
     }
 
+    @Override
+    public CriteriaBuilderConfiguration registerQueryMetricsListener(QueryMetricsListener queryMetricsListener) {
+        queryMetricsListeners.add(queryMetricsListener);
+        return this;
+    }
+
+    @Override
+    public List<QueryMetricsListener> getQueryMetricsListeners() {
+        return queryMetricsListeners;
+    }
+
+    @Override
+    public CriteriaBuilderConfiguration setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+        return this;
+    }
+
+    @Override
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
     @Override
     public CriteriaBuilderFactory createCriteriaBuilderFactory(EntityManagerFactory emf) {
         return new CriteriaBuilderFactoryImpl(this, emf);
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
@@ -23,13 +24,20 @@ import com.blazebit.persistence.InsertCriteriaBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.impl.keyset.KeysetSkipIndex;
+import com.blazebit.persistence.impl.plan.DefaultCountCache;
+import com.blazebit.persistence.impl.plan.QueryPlanCache;
+import com.blazebit.persistence.impl.util.PropertyUtils;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
 import com.blazebit.persistence.parser.expression.SubqueryExpressionFactory;
+import com.blazebit.persistence.spi.BootProfile;
 import com.blazebit.persistence.spi.ConfigurationSource;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.EntityManagerFactoryIntegrator;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
@@ -38,6 +46,8 @@ import com.blazebit.persistence.spi.JpaProviderFactory;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryMetrics;
+import com.blazebit.persistence.spi.QueryMetricsListener;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -46,6 +56,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  *
@@ -54,6 +65,8 @@ import java.util.Map;
  */
 public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
 
+    private static final Logger LOG = Logger.getLogger(CriteriaBuilderFactoryImpl.class.getName());
+
     private final PackageOpener packageOpener;
     private final EntityManagerFactory entityManagerFactory;
     private final EntityMetamodelImpl metamodel;
@@ -65,6 +78,9 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
+    private final QueryPlanCache queryPlanCache;
+    private final CountCache countCache;
+    private final KeysetSkipIndex keysetSkipIndex;
 
     private final MacroConfiguration macroConfiguration;
     private final String configuredDbms;
@@ -72,6 +88,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final Map<String, JpqlFunction> configuredRegisteredFunctions;
     private final JpaProviderFactory configuredJpaProviderFactory;
     private final JpaProvider jpaProvider;
+    private final QueryMetricsListener queryMetricsListener;
+    private final BootProfile bootProfile;
 
     public CriteriaBuilderFactoryImpl(CriteriaBuilderConfigurationImpl config, EntityManagerFactory entityManagerFactory) {
         List<EntityManagerFactoryIntegrator> integrators = config.getEntityManagerIntegrators();
@@ -82,6 +100,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             throw new IllegalArgumentException("Multiple EntityManagerFactoryIntegrator were found on the classpath! Please remove the wrong integrations from the classpath!");
         }
         EntityManagerFactoryIntegrator integrator = integrators.get(0);
+        BootProfile.Recorder bootProfileRecorder = new BootProfile.Recorder("CriteriaBuilderFactory", 0);
+        bootProfileRecorder.startPhase("function registration");
         EntityManagerFactory emf = integrator.registerFunctions(entityManagerFactory, config.getFunctions());
         Map<String, JpqlFunction> registeredFunctions = new HashMap<>(integrator.getRegisteredFunctions(emf));
         String dbms = integrator.getDbms(emf);
@@ -100,12 +120,30 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.configuredJpaProviderFactory = integrator.getJpaProviderFactory(emf);
 
         this.queryConfiguration = new ImmutableQueryConfiguration((Map<String, String>) (Map<?, ?>) config.getProperties());
+        int queryPlanCacheMaxSize = PropertyUtils.getAsIntegerProperty((Map<String, String>) (Map<?, ?>) config.getProperties(), ConfigurationProperties.QUERY_PLAN_CACHE_MAX_SIZE, 2048);
+        this.queryPlanCache = queryPlanCacheMaxSize > 0 ? new QueryPlanCache(queryPlanCacheMaxSize) : null;
+        if (config.getCountCache() == null) {
+            int countCacheMaxSize = PropertyUtils.getAsIntegerProperty((Map<String, String>) (Map<?, ?>) config.getProperties(), ConfigurationProperties.COUNT_CACHE_MAX_SIZE, 1024);
+            this.countCache = countCacheMaxSize > 0 ? new DefaultCountCache(countCacheMaxSize) : null;
+        } else {
+            this.countCache = config.getCountCache();
+        }
+        int keysetSkipIndexMaxSize = PropertyUtils.getAsIntegerProperty((Map<String, String>) (Map<?, ?>) config.getProperties(), ConfigurationProperties.KEYSET_SKIP_INDEX_MAX_SIZE, 256);
+        if (keysetSkipIndexMaxSize > 0) {
+            long keysetSkipIndexTimeToLive = PropertyUtils.getAsLongProperty((Map<String, String>) (Map<?, ?>) config.getProperties(), ConfigurationProperties.KEYSET_SKIP_INDEX_TIME_TO_LIVE, 300000L);
+            this.keysetSkipIndex = new KeysetSkipIndex(keysetSkipIndexMaxSize, keysetSkipIndexTimeToLive);
+        } else {
+            this.keysetSkipIndex = null;
+        }
+        this.queryMetricsListener = createQueryMetricsListener(config.getQueryMetricsListeners());
         final boolean compatibleMode = queryConfiguration.isCompatibleModeEnabled();
         final boolean optimize = queryConfiguration.isExpressionOptimizationEnabled();
 
         this.entityManagerFactory = entityManagerFactory;
+        bootProfileRecorder.startPhase("entity metamodel");
         this.metamodel = new EntityMetamodelImpl(entityManagerFactory, configuredJpaProviderFactory);
         this.jpaProvider = new CachingJpaProvider(metamodel);
+        bootProfileRecorder.startPhase("expression factory");
 
         this.transientEntityParameterTransformerFactory = new TransientEntityAssociationParameterTransformerFactory(metamodel, new AssociationToIdParameterTransformer(jpaProvider));
         this.extendedQuerySupport = config.getExtendedQuerySupport();
@@ -113,16 +151,53 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), (Map<String, String>) (Map<?, ?>) config.getProperties());
         ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
-        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize, originalExpressionFactory));
+        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), !compatibleMode, optimize, originalExpressionFactory), createCache(queryConfiguration.getExpressionCacheClass(), (Map<String, String>) (Map<?, ?>) config.getProperties()));
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
         JpqlMacroStorage macroStorage = new JpqlMacroStorage(null, macroConfiguration);
         this.expressionFactory = new JpqlMacroAwareExpressionFactory(cachingExpressionFactory, macroStorage);
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
+
+        bootProfileRecorder.count("entities", metamodel.getEntities().size());
+        bootProfileRecorder.count("managed types", metamodel.getManagedTypes().size());
+        bootProfileRecorder.count("functions", functions.size());
+        bootProfileRecorder.count("macros", config.getMacros().size());
+        this.bootProfile = bootProfileRecorder.finish();
+        if (PropertyUtils.getAsBooleanProperty(config.getProperties(), ConfigurationProperties.BOOT_PROFILE_LOGGING, false)) {
+            LOG.info(bootProfile.toString());
+        }
     }
 
-    private ExpressionCache createCache(String className) {
+    private static QueryMetricsListener createQueryMetricsListener(List<QueryMetricsListener> listeners) {
+        if (listeners.isEmpty()) {
+            return null;
+        } else if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        final QueryMetricsListener[] listenerArray = listeners.toArray(new QueryMetricsListener[listeners.size()]);
+        return new QueryMetricsListener() {
+            @Override
+            public void onQueryExecuted(QueryMetrics metrics) {
+                for (QueryMetricsListener listener : listenerArray) {
+                    listener.onQueryExecuted(metrics);
+                }
+            }
+        };
+    }
+
+    private ExpressionCache createCache(String className, Map<String, String> properties) {
+        if (BoundedExpressionCache.class.getName().equals(className)) {
+            int defaultMaximumSize = PropertyUtils.getAsIntegerProperty(properties, ConfigurationProperties.EXPRESSION_CACHE_MAX_SIZE, BoundedExpressionCache.DEFAULT_MAXIMUM_SIZE);
+            Map<String, Integer> maximumSizes = new HashMap<>();
+            String cacheNamePrefix = ConfigurationProperties.EXPRESSION_CACHE_MAX_SIZE + ".";
+            for (String key : properties.keySet()) {
+                if (key.startsWith(cacheNamePrefix)) {
+                    maximumSizes.put(key.substring(cacheNamePrefix.length()), PropertyUtils.getAsIntegerProperty(properties, key, defaultMaximumSize));
+                }
+            }
+            return new BoundedExpressionCache(defaultMaximumSize, maximumSizes);
+        }
         try {
             return (ExpressionCache) Class.forName(className).newInstance();
         } catch (Exception ex) {
@@ -167,6 +242,18 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return queryConfiguration;
     }
 
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    public KeysetSkipIndex getKeysetSkipIndex() {
+        return keysetSkipIndex;
+    }
+
     public EntityMetamodelImpl getMetamodel() {
         return metamodel;
     }
@@ -183,6 +270,10 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return extendedQuerySupport;
     }
 
+    public QueryMetricsListener getQueryMetricsListener() {
+        return queryMetricsListener;
+    }
+
     public Map<String, Boolean> getFunctions() {
         return functions;
     }
@@ -337,6 +428,16 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) jpaProvider;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
+        } else if (QueryPlanCache.class.equals(serviceClass)) {
+            return (T) queryPlanCache;
+        } else if (CountCache.class.equals(serviceClass)) {
+            return (T) countCache;
+        } else if (KeysetSkipIndex.class.equals(serviceClass)) {
+            return (T) keysetSkipIndex;
+        } else if (BootProfile.class.equals(serviceClass)) {
+            return (T) bootProfile;
+        } else if (QueryMetricsListener.class.equals(serviceClass)) {
+            return (T) queryMetricsListener;
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
             return (T) metamodel;
         } else if (EntityManagerFactory.class.equals(serviceClass)) {
@@ -22,6 +22,7 @@ import com.blazebit.persistence.LeafOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
+import com.blazebit.persistence.spi.JpqlQuery;
 import com.blazebit.persistence.spi.SetOperationType;
 
 import javax.persistence.TypedQuery;
@@ -42,6 +43,16 @@ public class CriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T, Criteria
         super(mainQuery, isMainQuery, clazz, alias, null);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X getService(Class<X> serviceClass) {
+        if (JpqlQuery.class.equals(serviceClass)) {
+            // Set operations render a different query than the one of this builder
+            return finalSetOperationBuilder == null ? (X) getJpqlQuery() : null;
+        }
+        return super.getService(serviceClass);
+    }
+
     @Override
     protected void prepareForModification(ClauseType changedClause) {
         super.prepareForModification(changedClause);
@@ -39,11 +39,14 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final boolean implicitGroupByFromHavingEnabled;
     private final boolean implicitGroupByFromOrderByEnabled;
     private final boolean valuesClauseFilterNullsEnabled;
+    private final boolean valuesClauseArrayEnabled;
     private final boolean parameterAsLiteralRenderingEnabled;
     private final boolean optimizedKeysetPredicateRenderingEnabled;
     private final Boolean inlineIdQuery;
     private final Boolean inlineCountQuery;
     private final Boolean inlineCtes;
+    private final int streamingFetchSize;
+    private final boolean inListPadding;
 
     public ImmutableQueryConfiguration(Map<String, String> properties) {
         this.compatibleModeEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.COMPATIBLE_MODE, false);
@@ -56,6 +59,7 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.implicitGroupByFromHavingEnabled =             getBooleanProperty(properties, ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_HAVING,       "true");
         this.implicitGroupByFromOrderByEnabled =            getBooleanProperty(properties, ConfigurationProperties.IMPLICIT_GROUP_BY_FROM_ORDER_BY,     "true");
         this.valuesClauseFilterNullsEnabled =               getBooleanProperty(properties, ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS,          "true");
+        this.valuesClauseArrayEnabled =                     getBooleanProperty(properties, ConfigurationProperties.VALUES_CLAUSE_ARRAY,                 "false");
         this.parameterAsLiteralRenderingEnabled =           getBooleanProperty(properties, ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING,      "true");
         this.optimizedKeysetPredicateRenderingEnabled =     getBooleanProperty(properties, ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING,"true");
         String inlineIdQuery =                              getProperty(properties, ConfigurationProperties.INLINE_ID_QUERY,                            "auto");
@@ -64,6 +68,8 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineIdQuery = "auto".equalsIgnoreCase(inlineIdQuery) ? null : Boolean.parseBoolean(inlineIdQuery);
         this.inlineCountQuery = "auto".equalsIgnoreCase(inlineCountQuery) ? null : Boolean.parseBoolean(inlineCountQuery);
         this.inlineCtes = "auto".equalsIgnoreCase(inlineCtes) ? null : Boolean.parseBoolean(inlineCtes);
+        this.streamingFetchSize = PropertyUtils.getAsIntegerProperty(properties, ConfigurationProperties.STREAMING_FETCH_SIZE, 1000);
+        this.inListPadding = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.IN_LIST_PADDING, false);
     }
 
     @Override
@@ -111,6 +117,11 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return valuesClauseFilterNullsEnabled;
     }
 
+    @Override
+    public boolean isValuesClauseArrayEnabled() {
+        return valuesClauseArrayEnabled;
+    }
+
     @Override
     public boolean isParameterAsLiteralRenderingEnabled() {
         return parameterAsLiteralRenderingEnabled;
@@ -136,6 +147,16 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return inlineCtes;
     }
 
+    @Override
+    public int getStreamingFetchSize() {
+        return streamingFetchSize;
+    }
+
+    @Override
+    public boolean isInListPaddingEnabled() {
+        return inListPadding;
+    }
+
     @Override
     public void setCacheable(boolean cacheable) {
         throw new UnsupportedOperationException("Can't set cacheable on immutable query configuration!");
@@ -158,11 +179,14 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION: return Boolean.toString(expressionOptimizationEnabled);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS: return expressionCacheClass;
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS: return Boolean.toString(valuesClauseFilterNullsEnabled);
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY: return Boolean.toString(valuesClauseArrayEnabled);
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING: return Boolean.toString(parameterAsLiteralRenderingEnabled);
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING: return Boolean.toString(optimizedKeysetPredicateRenderingEnabled);
             case ConfigurationProperties.INLINE_ID_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_COUNT_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_CTES: return inlineCtes == null ? "auto" : Boolean.toString(inlineCtes);
+            case ConfigurationProperties.STREAMING_FETCH_SIZE: return Integer.toString(streamingFetchSize);
+            case ConfigurationProperties.IN_LIST_PADDING: return Boolean.toString(inListPadding);
             default: return null;
         }
     }
@@ -179,11 +203,14 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.EXPRESSION_OPTIMIZATION, Boolean.toString(expressionOptimizationEnabled));
         properties.put(ConfigurationProperties.EXPRESSION_CACHE_CLASS, expressionCacheClass);
         properties.put(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, Boolean.toString(valuesClauseFilterNullsEnabled));
+        properties.put(ConfigurationProperties.VALUES_CLAUSE_ARRAY, Boolean.toString(valuesClauseArrayEnabled));
         properties.put(ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING, Boolean.toString(parameterAsLiteralRenderingEnabled));
         properties.put(ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING, Boolean.toString(optimizedKeysetPredicateRenderingEnabled));
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, getInlineIdQueryEnabled() == null ? "auto" : Boolean.toString(getInlineIdQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
+        properties.put(ConfigurationProperties.STREAMING_FETCH_SIZE, Integer.toString(streamingFetchSize));
+        properties.put(ConfigurationProperties.IN_LIST_PADDING, Boolean.toString(inListPadding));
         return properties;
     }
 
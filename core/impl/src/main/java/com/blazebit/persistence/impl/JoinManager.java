@@ -62,11 +62,13 @@ import com.blazebit.persistence.parser.predicate.PredicateBuilder;
 import com.blazebit.persistence.parser.util.ExpressionUtils;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
 import com.blazebit.persistence.spi.AttributeAccessor;
+import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ValuesStrategy;
 
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.BasicType;
@@ -441,7 +443,14 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
             }
         }
 
-        String[][] parameterNames = new String[valueCount][attributePaths.size()];
+        String[] arrayCastedParameters = null;
+        boolean arrayStrategy = mainQuery.dbmsDialect.getValuesStrategy() == ValuesStrategy.ARRAY || mainQuery.getQueryConfiguration().isValuesClauseArrayEnabled();
+        if (arrayStrategy && !identifiableReference && qualificationExpression == null) {
+            arrayCastedParameters = getValuesArrayCastedParameters(valueHolderEntityClass, valueClass, valuesLikeAttribute, attributePaths);
+        }
+        // With array parameters, a single parameter per attribute holds all values
+        int parameterRows = arrayCastedParameters == null ? valueCount : 1;
+        String[][] parameterNames = new String[parameterRows][attributePaths.size()];
         String[] attributes = new String[attributePaths.size()];
         AttributeAccessor<Object, Object>[] pathExpressions = new AttributeAccessor[attributePaths.size()];
 
@@ -451,13 +460,13 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
             attributes[i] = attributeName;
             if (simpleValueAttributePrefix.isEmpty()) {
                 pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName);
-                for (int j = 0; j < valueCount; j++) {
+                for (int j = 0; j < parameterRows; j++) {
                     parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                 }
             } else {
                 if (attributeName.startsWith(simpleValueAttributePrefix)) {
                     pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName.substring(simpleValueAttributePrefix.length()));
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterRows; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 } else if (simpleValue || attributeName.equals(valuesClassAttributeName)) {
@@ -465,22 +474,22 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                     if (qualificationExpression != null) {
                         parameterPart += '_' + qualificationExpression.toLowerCase();
                     }
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterRows; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 } else {
                     pathExpressions[i] = CompositeAttributeAccessor.of(mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass), attributeName);
-                    for (int j = 0; j < valueCount; j++) {
+                    for (int j = 0; j < parameterRows; j++) {
                         parameterNames[j][i] = rootAlias + '_' + parameterPart + '_' + j;
                     }
                 }
             }
         }
 
-        parameterManager.registerValuesParameter(rootAlias, valueClass, parameterNames, pathExpressions, queryBuilder);
+        parameterManager.registerValuesParameter(rootAlias, valueClass, parameterNames, pathExpressions, valueCount, arrayCastedParameters != null, queryBuilder);
 
         JoinAliasInfo rootAliasInfo = new JoinAliasInfo(rootAlias, rootAlias, true, true, aliasManager);
-        JoinNode rootNode = JoinNode.createValuesRootNode(type, entityType, typeName, valueCount, idAttributeNames, valueLikeClause, qualificationExpression, valueClazzAttributeSingular, simpleValue, valuesClassAttributeName, castedParameter, attributes, rootAliasInfo);
+        JoinNode rootNode = JoinNode.createValuesRootNode(type, entityType, typeName, valueCount, idAttributeNames, valueLikeClause, qualificationExpression, valueClazzAttributeSingular, simpleValue, valuesClassAttributeName, castedParameter, arrayCastedParameters, attributes, rootAliasInfo);
         rootAliasInfo.setJoinNode(rootNode);
         rootNodes.add(rootNode);
         explicitJoinNodes.add(rootNode);
@@ -490,6 +499,41 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         return rootAlias;
     }
 
+    private String[] getValuesArrayCastedParameters(Class<?> valueHolderEntityClass, Class<?> valueClass, ExtendedAttribute<?, ?> valuesLikeAttribute, List<String> attributePaths) {
+        DbmsDialect dbmsDialect = mainQuery.dbmsDialect;
+        if (valueHolderEntityClass == ValuesEntity.class) {
+            String sqlType = dbmsDialect.getSqlType(valueClass);
+            if (sqlType == null || !ValuesParameterBinder.supportsArrayParameters(valueClass)) {
+                return null;
+            }
+            String arraySqlType = dbmsDialect.getArraySqlType(sqlType);
+            if (arraySqlType == null) {
+                return null;
+            }
+            return new String[]{ dbmsDialect.cast("?", arraySqlType) };
+        }
+        // Embeddables and values like clauses use the default strategy
+        if (valueHolderEntityClass != valueClass || valuesLikeAttribute != null) {
+            return null;
+        }
+        ExtendedManagedType<?> managedType = mainQuery.metamodel.getManagedType(ExtendedManagedType.class, valueClass);
+        String[] castedParameters = new String[attributePaths.size()];
+        for (int i = 0; i < castedParameters.length; i++) {
+            ExtendedAttribute<?, ?> attribute = managedType.getAttribute(attributePaths.get(i));
+            String[] columnTypes = attribute.getColumnTypes();
+            if (attribute.getAttribute().getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                    || columnTypes.length != 1 || !ValuesParameterBinder.supportsArrayParameters(attribute.getElementClass())) {
+                return null;
+            }
+            String arraySqlType = dbmsDialect.getArraySqlType(columnTypes[0]);
+            if (arraySqlType == null) {
+                return null;
+            }
+            castedParameters[i] = dbmsDialect.cast("?", arraySqlType);
+        }
+        return castedParameters;
+    }
+
     String addRoot(EntityType<?> entityType, String rootAlias) {
         if (rootAlias == null) {
             // TODO: not sure if other JPA providers support case sensitive queries like hibernate
@@ -1077,13 +1121,19 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         int valueCount = rootNode.getValueCount();
         if (!externalRepresentation) {
             if (valueCount > 0) {
+                boolean valuesArray = rootNode.isValuesArray();
+                int parameterRows = valuesArray ? 1 : valueCount;
                 String typeName = rootNode.getValuesTypeName() == null ? null : rootNode.getValuesTypeName().toUpperCase();
                 String[] attributes = rootNode.getValuesAttributes();
                 String valueClazzAttributeName = rootNode.getValuesLikeAttribute();
                 String prefix = rootNode.getAlias();
 
-                for (int i = 0; i < valueCount; i++) {
+                for (int i = 0; i < parameterRows; i++) {
                     for (int j = 0; j < attributes.length; j++) {
+                        // Array parameters are bound as array literal strings
+                        if (valuesArray) {
+                            sb.append(mainQuery.jpaProvider.getCustomFunctionInvocation("cast_string", 1));
+                        }
                         if (typeName != null) {
                             sb.append("TREAT_");
                             sb.append(typeName);
@@ -1117,6 +1167,9 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
                                 sb.append(')');
                             }
                         }
+                        if (valuesArray) {
+                            sb.append(')');
+                        }
 
                         sb.append(" = ");
 
@@ -83,6 +83,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
     private final boolean valueClazzSimpleValue;
     private final String valuesLikeAttribute;
     private final String valuesCastedParameter;
+    private final String[] valuesArrayCastedParameters;
     private final String[] valuesAttributes;
     private final String qualificationExpression;
     private final JoinAliasInfo aliasInfo;
@@ -123,6 +124,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valueClazzSimpleValue = treatedJoinNode.valueClazzSimpleValue;
         this.valuesLikeAttribute = treatedJoinNode.valuesLikeAttribute;
         this.valuesCastedParameter = treatedJoinNode.valuesCastedParameter;
+        this.valuesArrayCastedParameters = treatedJoinNode.valuesArrayCastedParameters;
         this.valuesAttributes = treatedJoinNode.valuesAttributes;
         this.aliasInfo = treatedJoinAliasInfo;
         this.lateral = treatedJoinNode.lateral;
@@ -150,6 +152,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valueClazzSimpleValue = false;
         this.valuesLikeAttribute = null;
         this.valuesCastedParameter = null;
+        this.valuesArrayCastedParameters = null;
         this.valuesAttributes = null;
         this.qualificationExpression = qualificationExpression;
         this.aliasInfo = aliasInfo;
@@ -172,7 +175,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         onUpdate(null);
     }
 
-    private JoinNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdNames, String valuesLikeClause, String valueClazzAttributeQualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
+    private JoinNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdNames, String valuesLikeClause, String valueClazzAttributeQualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesArrayCastedParameters, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
         this.parent = null;
         this.parentTreeNode = null;
         this.joinType = null;
@@ -189,6 +192,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         this.valueClazzSimpleValue = valueClazzSimpleValue;
         this.valuesLikeAttribute = valuesLikeAttribute;
         this.valuesCastedParameter = valuesCastedParameter;
+        this.valuesArrayCastedParameters = valuesArrayCastedParameters;
         this.valuesAttributes = valuesAttributes;
         this.qualificationExpression = valueClazzAttributeQualificationExpression;
         this.aliasInfo = aliasInfo;
@@ -201,8 +205,8 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         return new JoinNode(null, null, null, null, null, nodeType, null, null, aliasInfo, false);
     }
 
-    public static JoinNode createValuesRootNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdName, String valuesLikeClause, String qualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
-        return new JoinNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdName, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, aliasInfo);
+    public static JoinNode createValuesRootNode(Type<?> nodeType, EntityType<?> valueType, String valuesTypeName, int valueCount, Set<String> valuesIdName, String valuesLikeClause, String qualificationExpression, boolean valueClazzAttributeSingular, boolean valueClazzSimpleValue, String valuesLikeAttribute, String valuesCastedParameter, String[] valuesArrayCastedParameters, String[] valuesAttributes, JoinAliasInfo aliasInfo) {
+        return new JoinNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdName, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesArrayCastedParameters, valuesAttributes, aliasInfo);
     }
 
     public static JoinNode createCorrelationRootNode(JoinNode correlationParent, String correlationPath, Attribute<?, ?> correlatedAttribute, Type<?> nodeType, EntityType<?> treatType, JoinAliasInfo aliasInfo, boolean lateral) {
@@ -221,7 +225,7 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         // NOTE: no cloning of treatedJoinNodes and entityJoinNodes is intentional
         JoinNode newNode;
         if (valueCount > 0) {
-            newNode = createValuesRootNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdNames, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesAttributes, aliasInfo);
+            newNode = createValuesRootNode(nodeType, valueType, valuesTypeName, valueCount, valuesIdNames, valuesLikeClause, qualificationExpression, valueClazzAttributeSingular, valueClazzSimpleValue, valuesLikeAttribute, valuesCastedParameter, valuesArrayCastedParameters, valuesAttributes, aliasInfo);
         } else if (correlationParent == null) {
             newNode = createRootNode((EntityType<?>) nodeType, aliasInfo);
         } else {
@@ -701,6 +705,14 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         return valuesCastedParameter;
     }
 
+    public String[] getValuesArrayCastedParameters() {
+        return valuesArrayCastedParameters;
+    }
+
+    public boolean isValuesArray() {
+        return valuesArrayCastedParameters != null;
+    }
+
     public String[] getValuesAttributes() {
         return valuesAttributes;
     }
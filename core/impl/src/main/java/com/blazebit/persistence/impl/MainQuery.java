@@ -47,7 +47,7 @@ public class MainQuery {
     private final JpqlMacroStorage macroStorage;
     private QueryConfiguration queryConfiguration;
 
-    private MainQuery(CriteriaBuilderFactoryImpl cbf, EntityManager em, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions, ParameterManager parameterManager) {
+    private MainQuery(CriteriaBuilderFactoryImpl cbf, EntityManager em, JpaProvider jpaProvider, DbmsDialect dbmsDialect, Map<String, JpqlFunction> registeredFunctions) {
         super();
         this.cbf = cbf;
         this.queryConfiguration = cbf.getQueryConfiguration();
@@ -60,7 +60,7 @@ public class MainQuery {
         this.jpaProvider = jpaProvider;
         this.dbmsDialect = dbmsDialect;
         this.registeredFunctions = registeredFunctions;
-        this.parameterManager = parameterManager;
+        this.parameterManager = new ParameterManager(this);
         this.cteManager = new CTEManager(this);
 
         if (jpaProvider.supportsTransientEntityAsParameter()) {
@@ -78,8 +78,7 @@ public class MainQuery {
             throw new NullPointerException("entityManager");
         }
         
-        ParameterManager parameterManager = new ParameterManager();
-        return new MainQuery(cbf, em, cbf.getJpaProvider(), dbmsDialect, registeredFunctions, parameterManager);
+        return new MainQuery(cbf, em, cbf.getJpaProvider(), dbmsDialect, registeredFunctions);
     }
 
     public final void registerMacro(String macroName, JpqlMacro jpqlMacro) {
@@ -37,12 +37,15 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private boolean implicitGroupByFromHavingEnabled;
     private boolean implicitGroupByFromOrderByEnabled;
     private boolean valuesClauseFilterNullsEnabled;
+    private boolean valuesClauseArrayEnabled;
     private boolean parameterAsLiteralRenderingEnabled;
     private boolean optimizedKeysetPredicateRenderingEnabled;
     private boolean cacheable;
     private Boolean inlineIdQuery;
     private Boolean inlineCountQuery;
     private Boolean inlineCtes;
+    private int streamingFetchSize;
+    private boolean inListPadding;
 
     public MutableQueryConfiguration(QueryConfiguration queryConfiguration) {
         this.compatibleModeEnabled = queryConfiguration.isCompatibleModeEnabled();
@@ -54,12 +57,15 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         this.implicitGroupByFromHavingEnabled = queryConfiguration.isImplicitGroupByFromHavingEnabled();
         this.implicitGroupByFromOrderByEnabled = queryConfiguration.isImplicitGroupByFromOrderByEnabled();
         this.valuesClauseFilterNullsEnabled = queryConfiguration.isValuesClauseFilterNullsEnabled();
+        this.valuesClauseArrayEnabled = queryConfiguration.isValuesClauseArrayEnabled();
         this.parameterAsLiteralRenderingEnabled = queryConfiguration.isParameterAsLiteralRenderingEnabled();
         this.optimizedKeysetPredicateRenderingEnabled = queryConfiguration.isOptimizedKeysetPredicateRenderingEnabled();
         this.cacheable = queryConfiguration.isCacheable();
         this.inlineIdQuery = queryConfiguration.getInlineIdQueryEnabled();
         this.inlineCountQuery = queryConfiguration.getInlineCountQueryEnabled();
         this.inlineCtes = queryConfiguration.getInlineCtesEnabled();
+        this.streamingFetchSize = queryConfiguration.getStreamingFetchSize();
+        this.inListPadding = queryConfiguration.isInListPaddingEnabled();
     }
 
     @Override
@@ -107,6 +113,11 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return valuesClauseFilterNullsEnabled;
     }
 
+    @Override
+    public boolean isValuesClauseArrayEnabled() {
+        return valuesClauseArrayEnabled;
+    }
+
     @Override
     public boolean isParameterAsLiteralRenderingEnabled() {
         return parameterAsLiteralRenderingEnabled;
@@ -132,6 +143,16 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return inlineCtes;
     }
 
+    @Override
+    public int getStreamingFetchSize() {
+        return streamingFetchSize;
+    }
+
+    @Override
+    public boolean isInListPaddingEnabled() {
+        return inListPadding;
+    }
+
     @Override
     public void setCacheable(boolean cacheable) {
         this.cacheable = cacheable;
@@ -162,11 +183,14 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.EXPRESSION_OPTIMIZATION:               throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.EXPRESSION_CACHE_CLASS:                throw propertySetNotAllowed(propertyName);
             case ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS:            valuesClauseFilterNullsEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.VALUES_CLAUSE_ARRAY:                   valuesClauseArrayEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.PARAMETER_AS_LITERAL_RENDERING:        parameterAsLiteralRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.OPTIMIZED_KEYSET_PREDICATE_RENDERING:  optimizedKeysetPredicateRenderingEnabled = booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_ID_QUERY:                       inlineIdQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_COUNT_QUERY:                    inlineCountQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_CTES:                           inlineCtes = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.STREAMING_FETCH_SIZE:                  streamingFetchSize = positiveIntOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.IN_LIST_PADDING:                       inListPadding = booleanOrFail(propertyName, propertyValue); break;
             default: break;
         }
         // CHECKSTYLE:ON: OneStatementPerLine
@@ -185,4 +209,17 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
 
         throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for boolean property '" + propertyName + "'");
     }
+
+    private int positiveIntOrFail(String propertyName, String propertyValue) {
+        try {
+            int value = Integer.parseInt(propertyValue);
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for positive integer property '" + propertyName + "'");
+    }
 }
@@ -17,6 +17,7 @@
 package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.CaseWhenStarterBuilder;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
@@ -41,15 +42,20 @@ import com.blazebit.persistence.impl.function.pageposition.PagePositionFunction;
 import com.blazebit.persistence.impl.function.rowvalue.RowValueSubqueryComparisonFunction;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.keyset.KeysetSkipIndex;
 import com.blazebit.persistence.impl.keyset.SimpleKeysetLink;
 import com.blazebit.persistence.impl.query.CTENode;
 import com.blazebit.persistence.impl.query.CustomQuerySpecification;
 import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
 import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.QueryMetricsRecorder;
 import com.blazebit.persistence.impl.query.QuerySpecification;
+import com.blazebit.persistence.impl.util.QueryCacheKey;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.Parameter;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -58,9 +64,12 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -80,6 +89,12 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private boolean withForceIdQuery = false;
     private Boolean withInlineIdQuery;
     private boolean withInlineCountQuery;
+    private long cachedCountTimeToLive;
+    private long countCap;
+    private boolean withEstimatedCount;
+    private EntityManagerFactory parallelCountEntityManagerFactory;
+    private Executor parallelCountExecutor;
+    private int keysetSkipIndexPageInterval;
     private int highestOffset = 0;
     private final KeysetPage keysetPage;
     private final ResolvedExpression[] identifierExpressions;
@@ -91,10 +106,12 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private String[] identifierToUseSelectAliases;
     private KeysetMode keysetMode;
     private boolean forceFirstResult;
+    private int keysetSkipOffset;
 
     // Cache
     private String cachedIdQueryString;
     private String cachedExternalIdQueryString;
+    private String cachedCountSelectQueryString;
 
     public PaginatedCriteriaBuilderImpl(AbstractFullQueryBuilder<T, ? extends FullQueryBuilder<T, ?>, ?, ?, ?> baseBuilder, boolean keysetExtraction, Object entityId, int pageSize, ResolvedExpression[] identifierExpressions) {
         super(baseBuilder);
@@ -153,6 +170,15 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         builder.withCountQuery(withCountQuery);
         builder.withForceIdQuery(withForceIdQuery);
         builder.withHighestKeysetOffset(highestOffset);
+        if (cachedCountTimeToLive > 0) {
+            builder.withCachedCount(cachedCountTimeToLive, TimeUnit.MILLISECONDS);
+        }
+        builder.withCountCap(countCap);
+        builder.withEstimatedCount(withEstimatedCount);
+        if (parallelCountEntityManagerFactory != null) {
+            builder.withParallelCount(parallelCountEntityManagerFactory, parallelCountExecutor);
+        }
+        builder.withKeysetSkipIndex(keysetSkipIndexPageInterval);
         return builder;
     }
 
@@ -207,6 +233,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         this.keysetExtraction = keysetExtraction;
         if (!keysetExtraction) {
             this.withExtractAllKeysets = false;
+            this.keysetSkipIndexPageInterval = 0;
         }
         return this;
     }
@@ -221,6 +248,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         this.withExtractAllKeysets = withExtractAllKeysets;
         if (withExtractAllKeysets) {
             this.keysetExtraction = true;
+        } else {
+            this.keysetSkipIndexPageInterval = 0;
         }
         return this;
     }
@@ -230,6 +259,24 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return withExtractAllKeysets;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withKeysetSkipIndex(int pageInterval) {
+        if (pageInterval < 0) {
+            throw new IllegalArgumentException("Invalid negative page interval for the keyset skip index: " + pageInterval);
+        }
+        // The skip index records the keysets of the rows at the page interval boundaries
+        if (pageInterval > 0) {
+            withExtractAllKeysets(true);
+        }
+        this.keysetSkipIndexPageInterval = pageInterval;
+        return this;
+    }
+
+    @Override
+    public int getKeysetSkipIndexPageInterval() {
+        return keysetSkipIndexPageInterval;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> withCountQuery(boolean withCountQuery) {
         this.withCountQuery = withCountQuery;
@@ -322,6 +369,77 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return this;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withCachedCount(long timeToLive, TimeUnit timeUnit) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Invalid negative time to live for the count cache: " + timeToLive);
+        }
+        long timeToLiveMillis = timeUnit.toMillis(timeToLive);
+        // The count query must be executed separately to be able to skip it
+        if (timeToLiveMillis > 0 && withInlineCountQuery) {
+            withInlineCountQuery(false);
+        }
+        this.cachedCountTimeToLive = timeToLiveMillis;
+        return this;
+    }
+
+    @Override
+    public long getCachedCountTimeToLive() {
+        return cachedCountTimeToLive;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withCountCap(long countCap) {
+        if (countCap < 0) {
+            throw new IllegalArgumentException("Invalid negative count cap: " + countCap);
+        }
+        // The count query must be executed separately to be able to cap it
+        if (countCap > 0 && withInlineCountQuery) {
+            withInlineCountQuery(false);
+        }
+        this.countCap = countCap;
+        return this;
+    }
+
+    @Override
+    public long getCountCap() {
+        return countCap;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount) {
+        // The count query must be executed separately to be able to replace it with an estimate
+        if (withEstimatedCount && withInlineCountQuery) {
+            withInlineCountQuery(false);
+        }
+        this.withEstimatedCount = withEstimatedCount;
+        return this;
+    }
+
+    @Override
+    public boolean isWithEstimatedCount() {
+        return withEstimatedCount;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withParallelCount(EntityManagerFactory entityManagerFactory, Executor executor) {
+        if (entityManagerFactory == null ^ executor == null) {
+            throw new IllegalArgumentException("The entity manager factory and the executor for the parallel count query must either both be set or both be null!");
+        }
+        // The count query must be executed separately to be able to run it concurrently
+        if (entityManagerFactory != null && withInlineCountQuery) {
+            withInlineCountQuery(false);
+        }
+        this.parallelCountEntityManagerFactory = entityManagerFactory;
+        this.parallelCountExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public boolean isWithParallelCount() {
+        return parallelCountEntityManagerFactory != null;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> setProperty(String propertyName, String propertyValue) {
         super.setProperty(propertyName, propertyValue);
@@ -412,8 +530,21 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return countQuery;
     }
 
+    private String getCountEstimateSql(TypedQuery<?> countSelectQuery, boolean normalQueryMode) {
+        // Estimation requires the plain SQL of the count query which we can only retrieve if it doesn't need parameters
+        if (!withEstimatedCount || !normalQueryMode || !countSelectQuery.getParameters().isEmpty() || cbf.getExtendedQuerySupport() == null) {
+            return null;
+        }
+        String sql = cbf.getExtendedQuerySupport().getSql(em, countSelectQuery);
+        return mainQuery.dbmsDialect.getRowCountEstimateSql(sql);
+    }
+
     @Override
     public PaginatedTypedQueryImpl<T> getQuery() {
+        return getPaginatedQuery(null);
+    }
+
+    private PaginatedTypedQueryImpl<T> getPaginatedQuery(KeysetSkipIndex.Entry keysetSkipEntry) {
         prepareAndCheck();
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
         Set<JoinNode> keyRestrictedLeftJoins = joinManager.getKeyRestrictedLeftJoins();
@@ -421,13 +552,71 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         TypedQuery<?> countQuery;
         String countQueryString = getPageCountQueryStringWithoutCheck();
 
+        Query countEstimateQuery = null;
+        ParallelCountQuery parallelCountQuery = null;
+
         if (entityId == null) {
-            // No reference entity id, so just do a simple count query
-            countQuery = getCountQuery(countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins);
+            String countEstimateSql = null;
+            String countSelectQueryString = null;
+            Class<?> countSelectResultType = null;
+            TypedQuery<?> countSelectQuery = null;
+            if (countCap > 0 || withEstimatedCount) {
+                countSelectQueryString = getPageCountSelectQueryStringWithoutCheck();
+                countSelectResultType = getIdentifierExpressionsToUse().length == 1 ? Object.class : Object[].class;
+                countSelectQuery = getCountQuery(countSelectQueryString, countSelectResultType, normalQueryMode, keyRestrictedLeftJoins);
+                countEstimateSql = getCountEstimateSql(countSelectQuery, normalQueryMode);
+                if (countEstimateSql != null) {
+                    countEstimateQuery = em.createNativeQuery(countEstimateSql);
+                }
+            }
+            if (countCap > 0) {
+                // A capped count query selects the counted rows with a limit and counts the result
+                countQuery = countSelectQuery;
+            } else {
+                // No reference entity id, so just do a simple count query
+                countQuery = getCountQuery(countQueryString, Long.class, normalQueryMode, keyRestrictedLeftJoins);
+            }
+            // A parallel count query is recreated from the query string, so it can't require custom SQL
+            if (parallelCountEntityManagerFactory != null && normalQueryMode && isEmpty(keyRestrictedLeftJoins, COUNT_QUERY_CLAUSE_EXCLUSIONS)) {
+                if (countCap > 0) {
+                    parallelCountQuery = new ParallelCountQuery(parallelCountEntityManagerFactory, parallelCountExecutor, countSelectQueryString, countSelectResultType, countEstimateSql);
+                } else {
+                    parallelCountQuery = new ParallelCountQuery(parallelCountEntityManagerFactory, parallelCountExecutor, countQueryString, Long.class, countEstimateSql);
+                }
+            }
         } else {
             countQuery = getCountQuery(countQueryString, Object[].class, normalQueryMode, keyRestrictedLeftJoins);
         }
 
+        KeysetSkipIndex.Positions keysetSkipPositions = null;
+        if (keysetSkipIndexPageInterval > 0 && entityId == null && keysetExtraction && cbf.getKeysetSkipIndex() != null) {
+            keysetSkipPositions = cbf.getKeysetSkipIndex().getPositions(getKeysetSkipIndexQueryString(), getParameterValues(countQuery));
+            // The copy used for seeking can't carry custom identifier expressions, so we skip via offset in that case
+            if (keysetSkipEntry == null && keysetMode == KeysetMode.NONE && firstResult > 0 && identifierExpressions == null) {
+                KeysetSkipIndex.Entry entry = keysetSkipPositions.seek(firstResult);
+                if (entry != null) {
+                    return createKeysetSkipBuilder(entry).getPaginatedQuery(entry);
+                }
+            }
+        }
+
+        return getQuery(countQuery, countEstimateQuery, parallelCountQuery, normalQueryMode, keyRestrictedLeftJoins, keysetSkipPositions, keysetSkipEntry);
+    }
+
+    private PaginatedCriteriaBuilderImpl<T> createKeysetSkipBuilder(KeysetSkipIndex.Entry keysetSkipEntry) {
+        // Seek from the nearest recorded keyset and only skip the remaining rows via offset
+        // This is done on a copy so that the keyset state of this builder isn't changed by building the query
+        PaginatedCriteriaBuilderImpl<T> builder = (PaginatedCriteriaBuilderImpl<T>) copy(resultType);
+        builder.selectManager.setSelectObjectBuilder(selectManager.getSelectObjectBuilder());
+        builder.keysetManager.setKeysetLink(new SimpleKeysetLink(keysetSkipEntry.getKeyset(), KeysetMode.NEXT));
+        builder.keysetMode = KeysetMode.NEXT;
+        builder.keysetSkipOffset = firstResult - keysetSkipEntry.getPosition();
+        builder.prepareForModification(ClauseType.WHERE);
+        return builder;
+    }
+
+    private PaginatedTypedQueryImpl<T> getQuery(TypedQuery<?> countQuery, Query countEstimateQuery, ParallelCountQuery parallelCountQuery, boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins,
+                                                KeysetSkipIndex.Positions keysetSkipPositions, KeysetSkipIndex.Entry keysetSkipEntry) {
         TypedQuery<?> idQuery = null;
         TypedQuery<T> objectQuery;
         ObjectBuilder<T> objectBuilder;
@@ -464,14 +653,70 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 keysetPage,
                 forceFirstResult,
                 inlinedIdQuery,
-                inlinedCountQuery
+                inlinedCountQuery,
+                cachedCountTimeToLive > 0 && !inlinedCountQuery && entityId == null ? cbf.getCountCache() : null,
+                cachedCountTimeToLive,
+                getExternalPageCountQueryString(),
+                entityId == null ? countCap : 0L,
+                countEstimateQuery,
+                mainQuery.dbmsDialect,
+                mainQuery.metamodel,
+                mainQuery.jpaProvider,
+                parallelCountQuery,
+                keysetSkipPositions,
+                keysetSkipIndexPageInterval * maxResults,
+                keysetSkipEntry
         );
         return query;
     }
 
+    private String getKeysetSkipIndexQueryString() {
+        // The recorded positions depend on the filtered rows and their order, but not on the page
+        StringBuilder sb = new StringBuilder(getExternalPageCountQueryString());
+        orderByManager.buildOrderBy(sb, false, false, false, false);
+        return sb.toString();
+    }
+
+    private Map<String, Object> getParameterValues(Query query) {
+        Map<String, Object> parameterValues = new HashMap<>();
+        for (Parameter<?> parameter : query.getParameters()) {
+            String name = parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName();
+            parameterValues.put(name, query.getParameterValue(parameter));
+        }
+        // The keyset skip index outlives the query, so it must not refer to mutable parameter values
+        return QueryCacheKey.normalizeParameterValues(parameterValues, mainQuery.metamodel, mainQuery.jpaProvider);
+    }
+
     @Override
     public PagedList<T> getResultList() {
-        return getQuery().getResultList();
+        long startNanos = System.nanoTime();
+        PaginatedTypedQueryImpl<T> query = getQuery();
+        QueryMetricsRecorder recorder = createQueryMetricsRecorder(startNanos);
+        if (recorder == null) {
+            return query.getResultList();
+        }
+
+        // The count, id and object queries are reported as a single execution
+        int resultCount = -1;
+        RuntimeException exception = null;
+        recorder.startSqlGeneration();
+        recorder.startExecution();
+        try {
+            PagedList<T> result = query.getResultList();
+            resultCount = result.size();
+            return result;
+        } catch (RuntimeException ex) {
+            exception = ex;
+            throw ex;
+        } finally {
+            recorder.finish(resultCount, exception);
+        }
+    }
+
+    @Override
+    public CloseableIterator<T> getResultIterator() {
+        // A page is already bounded by the max results, so we materialize the page and just iterate over it
+        return new PageIterator<>(getResultList().iterator());
     }
 
     @Override
@@ -503,6 +748,14 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return cachedCountQueryString;
     }
 
+    private String getPageCountSelectQueryStringWithoutCheck() {
+        if (cachedCountSelectQueryString == null) {
+            cachedCountSelectQueryString = buildPageCountSelectQueryString(false);
+        }
+
+        return cachedCountSelectQueryString;
+    }
+
     protected String getExternalPageCountQueryString() {
         if (cachedExternalCountQueryString == null) {
             cachedExternalCountQueryString = buildPageCountQueryString(true, false);
@@ -569,6 +822,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         super.prepareForModification(changedClause);
         cachedIdQueryString = null;
         cachedExternalIdQueryString = null;
+        cachedCountSelectQueryString = null;
     }
 
     @Override
@@ -1165,6 +1419,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 sbSelectFrom.append(',').append(maxResults);
                 if (firstResult != 0 && (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null)) {
                     sbSelectFrom.append(',').append(firstResult);
+                } else if (keysetSkipOffset != 0) {
+                    sbSelectFrom.append(',').append(keysetSkipOffset);
                 }
                 sbSelectFrom.append(')');
                 if (needsNewIdList && !externalRepresentation) {
@@ -1192,6 +1448,8 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 sbSelectFrom.append(',').append(maxResults);
                 if (firstResult != 0 && (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null)) {
                     sbSelectFrom.append(',').append(firstResult);
+                } else if (keysetSkipOffset != 0) {
+                    sbSelectFrom.append(',').append(keysetSkipOffset);
                 }
                 sbSelectFrom.append(')');
                 if (needsNewIdList && !externalRepresentation) {
@@ -1333,4 +1591,38 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     public <Y> PaginatedCriteriaBuilder<Y> selectNew(ObjectBuilder<Y> builder) {
         return (PaginatedCriteriaBuilder<Y>) super.selectNew(builder);
     }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class PageIterator<T> implements CloseableIterator<T> {
+
+        private final Iterator<T> iterator;
+
+        public PageIterator(Iterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close as the page is fetched eagerly
+        }
+    }
 }
@@ -21,13 +21,21 @@ import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PagedArrayList;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedTypedQuery;
+import com.blazebit.persistence.TotalSizeType;
 import com.blazebit.persistence.impl.builder.object.CountExtractionObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilder;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.DefaultKeysetPage;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.keyset.KeysetSkipIndex;
+import com.blazebit.persistence.impl.util.QueryCacheKey;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.CountCache;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.JpaProvider;
 
+import javax.persistence.EntityManager;
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
@@ -48,6 +56,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * @author Christian Beikov
@@ -77,9 +89,23 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean forceFirstResult;
     private final boolean inlinedIdQuery;
     private final boolean inlinedCountQuery;
+    private final CountCache countCache;
+    private final long countCacheTimeToLive;
+    private final String countQueryString;
+    private final long countCap;
+    private final Query countEstimateQuery;
+    private final DbmsDialect dbmsDialect;
+    private final EntityMetamodel metamodel;
+    private final JpaProvider jpaProvider;
+    private final ParallelCountQuery parallelCountQuery;
+    private final KeysetSkipIndex.Positions keysetSkipPositions;
+    private final int keysetSkipStride;
+    private final KeysetSkipIndex.Entry keysetSkipEntry;
 
     public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, int highestOffset, TypedQuery<?> countQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Set<Parameter<?>> parameters,
-                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery) {
+                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery,
+                                   CountCache countCache, long countCacheTimeToLive, String countQueryString, long countCap, Query countEstimateQuery, DbmsDialect dbmsDialect, EntityMetamodel metamodel, JpaProvider jpaProvider,
+                                   ParallelCountQuery parallelCountQuery, KeysetSkipIndex.Positions keysetSkipPositions, int keysetSkipStride, KeysetSkipIndex.Entry keysetSkipEntry) {
         this.withExtractAllKeysets = withExtractAllKeysets;
         this.withCount = withCount;
         this.highestOffset = highestOffset;
@@ -99,6 +125,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.forceFirstResult = forceFirstResult;
         this.inlinedIdQuery = inlinedIdQuery;
         this.inlinedCountQuery = inlinedCountQuery;
+        this.countCache = countCache;
+        this.countCacheTimeToLive = countCacheTimeToLive;
+        this.countQueryString = countQueryString;
+        this.countCap = countCap;
+        this.countEstimateQuery = countEstimateQuery;
+        this.dbmsDialect = dbmsDialect;
+        this.metamodel = metamodel;
+        this.jpaProvider = jpaProvider;
+        this.parallelCountQuery = parallelCountQuery;
+        this.keysetSkipPositions = keysetSkipPositions;
+        this.keysetSkipStride = keysetSkipStride;
+        this.keysetSkipEntry = keysetSkipEntry;
 
         Map<String, Parameter<?>> params = new HashMap<>(parameters.size());
         for (Parameter<?> parameter : parameters) {
@@ -156,14 +194,130 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
     @Override
     public long getTotalCount() {
-        return ((Number) countQuery.getSingleResult()).longValue();
+        return getTotalSize().size;
+    }
+
+    private TotalSize getTotalSize() {
+        Map<String, Object> cacheParameterValues = null;
+        if (countCache != null) {
+            cacheParameterValues = getCountCacheParameterValues(getCountQueryParameterValues());
+            Long cachedCount = countCache.get(countQueryString, cacheParameterValues);
+            if (cachedCount != null) {
+                return new TotalSize(cachedCount, TotalSizeType.EXACT, true);
+            }
+        }
+
+        return executeCountQuery(countQuery, countEstimateQuery, cacheParameterValues);
+    }
+
+    private Future<TotalSize> submitParallelCountQuery() {
+        // The parameter values must be read in the calling thread as the queries of this entity manager must not be accessed concurrently
+        final Map<String, Object> parameterValues = getCountQueryParameterValues();
+        final Map<String, Object> cacheParameterValues;
+        if (countCache == null) {
+            cacheParameterValues = null;
+        } else {
+            cacheParameterValues = getCountCacheParameterValues(parameterValues);
+            final Long cachedCount = countCache.get(countQueryString, cacheParameterValues);
+            if (cachedCount != null) {
+                // No need to hand the count to the executor, we just complete the future right away
+                FutureTask<TotalSize> task = new FutureTask<>(new Callable<TotalSize>() {
+                    @Override
+                    public TotalSize call() {
+                        return new TotalSize(cachedCount, TotalSizeType.EXACT, true);
+                    }
+                });
+                task.run();
+                return task;
+            }
+        }
+        FutureTask<TotalSize> task = new FutureTask<>(new Callable<TotalSize>() {
+            @Override
+            public TotalSize call() {
+                EntityManager em = parallelCountQuery.getEntityManagerFactory().createEntityManager();
+                try {
+                    TypedQuery<?> query = parallelCountQuery.createCountQuery(em, parameterValues);
+                    Query estimateQuery = parallelCountQuery.createCountEstimateQuery(em);
+                    return executeCountQuery(query, estimateQuery, cacheParameterValues);
+                } finally {
+                    em.close();
+                }
+            }
+        });
+        parallelCountQuery.getExecutor().execute(task);
+        return task;
+    }
+
+    private TotalSize awaitTotalSize(Future<TotalSize> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while waiting for the parallel count query", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new PersistenceException("The parallel count query failed", ex.getCause());
+        }
+    }
+
+    private TotalSize executeCountQuery(TypedQuery<?> countQuery, Query countEstimateQuery, Map<String, Object> cacheParameterValues) {
+        TotalSize totalSize = executeCountQuery(countQuery, countEstimateQuery);
+        // Only exact counts are cached, capped and estimated counts are cheap to determine anyway
+        if (countCache != null && totalSize.type == TotalSizeType.EXACT) {
+            countCache.put(countQueryString, cacheParameterValues, totalSize.size, countCacheTimeToLive);
+        }
+        return totalSize;
+    }
+
+    private TotalSize executeCountQuery(TypedQuery<?> countQuery, Query countEstimateQuery) {
+        if (countCap > 0) {
+            // The count query selects the counted rows, so we just need to fetch one row more than the cap to know if it is exceeded
+            countQuery.setMaxResults(countCap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) countCap + 1);
+            long count = countQuery.getResultList().size();
+            if (count <= countCap) {
+                return new TotalSize(count, TotalSizeType.EXACT, false);
+            }
+            long estimate = getRowCountEstimate(countEstimateQuery);
+            if (estimate > countCap) {
+                return new TotalSize(estimate, TotalSizeType.ESTIMATED, false);
+            }
+            return new TotalSize(countCap, TotalSizeType.CAPPED, false);
+        }
+
+        long estimate = getRowCountEstimate(countEstimateQuery);
+        if (estimate != -1L) {
+            return new TotalSize(estimate, TotalSizeType.ESTIMATED, false);
+        }
+        return new TotalSize(((Number) countQuery.getSingleResult()).longValue(), TotalSizeType.EXACT, false);
+    }
+
+    private long getRowCountEstimate(Query countEstimateQuery) {
+        if (countEstimateQuery == null) {
+            return -1L;
+        }
+        return dbmsDialect.getRowCountEstimate(countEstimateQuery.getResultList());
+    }
+
+    private Map<String, Object> getCountQueryParameterValues() {
+        Map<String, Object> parameterValues = new HashMap<>();
+        for (Parameter<?> parameter : countQuery.getParameters()) {
+            parameterValues.put(getParameterName(parameter), countQuery.getParameterValue(parameter));
+        }
+        return parameterValues;
+    }
+
+    private Map<String, Object> getCountCacheParameterValues(Map<String, Object> parameterValues) {
+        // The count cache outlives the query, so it must not refer to mutable parameter values
+        return QueryCacheKey.normalizeParameterValues(parameterValues, metamodel, jpaProvider);
     }
 
     @Override
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
-        return getResultList(queryFirstResult, firstRow, -1L);
+        return getResultList(queryFirstResult, firstRow, -1L, TotalSizeType.EXACT, false, null);
     }
 
     @Override
@@ -172,9 +326,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
         long totalSize = -1L;
+        TotalSizeType totalSizeType = TotalSizeType.EXACT;
+        boolean totalSizeCached = false;
+        Future<TotalSize> parallelTotalSize = null;
         if (withCount && !inlinedCountQuery) {
-            if (entityId == null) {
-                totalSize = ((Number) countQuery.getSingleResult()).longValue();
+            if (parallelCountQuery != null) {
+                // The count query runs concurrently and is joined before the paged list is created
+                parallelTotalSize = submitParallelCountQuery();
+            } else if (entityId == null) {
+                TotalSize countResult = getTotalSize();
+                totalSize = countResult.size;
+                totalSizeType = countResult.type;
+                totalSizeCached = countResult.cached;
             } else {
                 Object[] result = (Object[]) countQuery.getSingleResult();
                 totalSize = ((Number) result[0]).longValue();
@@ -192,18 +355,60 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         }
 
         if (totalSize == 0L) {
-            return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
+            return new PagedArrayList<X>(null, totalSize, totalSizeType, totalSizeCached, queryFirstResult, pageSize);
         }
 
-        return getResultList(queryFirstResult, firstRow, totalSize);
+        if (parallelTotalSize == null) {
+            return getResultList(queryFirstResult, firstRow, totalSize, totalSizeType, totalSizeCached, null);
+        }
+
+        boolean success = false;
+        try {
+            PagedList<X> result = getResultList(queryFirstResult, firstRow, totalSize, totalSizeType, totalSizeCached, parallelTotalSize);
+            success = true;
+            return result;
+        } finally {
+            if (!success) {
+                parallelTotalSize.cancel(false);
+            }
+        }
     }
 
-    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
+    private void recordKeysetSkipPositions(int firstRow, Serializable[][] keysets) {
+        // Positions are only known if the page was not requested relative to an explicit keyset
+        if (keysetSkipPositions == null || keysets == null || forceFirstResult) {
+            return;
+        }
+        for (int i = 0; i < keysets.length; i++) {
+            int nextPosition = firstRow + i + 1;
+            if (keysets[i] != null && nextPosition % keysetSkipStride == 0) {
+                keysetSkipPositions.record(nextPosition, keysets[i]);
+            }
+        }
+    }
+
+    private PagedList<X> createPagedList(List<X> list, KeysetPage keyset, long totalSize, TotalSizeType totalSizeType, boolean totalSizeCached, int queryFirstResult, Future<TotalSize> parallelTotalSize) {
+        if (parallelTotalSize != null) {
+            TotalSize countResult = awaitTotalSize(parallelTotalSize);
+            totalSize = countResult.size;
+            totalSizeType = countResult.type;
+            totalSizeCached = countResult.cached;
+        }
+        if (list == null) {
+            return new PagedArrayList<X>(keyset, totalSize, totalSizeType, totalSizeCached, queryFirstResult, pageSize);
+        }
+        return new PagedArrayList<X>(list, keyset, totalSize, totalSizeType, totalSizeCached, queryFirstResult, pageSize);
+    }
+
+    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize, TotalSizeType totalSizeType, boolean totalSizeCached, Future<TotalSize> parallelTotalSize) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
 
             if (forceFirstResult || keysetMode == KeysetMode.NONE) {
                 idQuery.setFirstResult(firstRow);
+            } else if (keysetSkipEntry != null) {
+                // When seeking from a keyset of the skip index, we only skip the rows between the keyset and the first row
+                idQuery.setFirstResult(firstRow - keysetSkipEntry.getPosition());
             } else {
                 idQuery.setFirstResult(0);
             }
@@ -212,12 +417,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             if (ids.isEmpty()) {
                 KeysetPage newKeysetPage = null;
-                if (keysetMode == KeysetMode.NEXT) {
+                if (keysetMode == KeysetMode.NEXT && keysetSkipEntry == null) {
                     // When we scroll over the last page to a non existing one, we reuse the current keyset
                     newKeysetPage = keysetPage;
                 }
 
-                return new PagedArrayList<X>(newKeysetPage, withCount && totalSize == -1 ? getTotalCount() : totalSize, queryFirstResult, pageSize);
+                if (withCount && totalSize == -1 && parallelTotalSize == null) {
+                    TotalSize countResult = getTotalSize();
+                    totalSize = countResult.size;
+                    totalSizeType = countResult.type;
+                    totalSizeCached = countResult.cached;
+                }
+                return createPagedList(null, newKeysetPage, totalSize, totalSizeType, totalSizeCached, queryFirstResult, parallelTotalSize);
             }
 
             Serializable[] lowest = null;
@@ -344,11 +555,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             if (keysetToSelectIndexMapping != null) {
                 newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
+                recordKeysetSkipPositions(firstRow, keysets);
             }
 
             List<X> queryResultList = objectQuery.getResultList();
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = createPagedList(queryResultList, newKeyset, totalSize, totalSizeType, totalSizeCached, queryFirstResult, parallelTotalSize);
             return pagedResultList;
         } else {
             if (!inlinedIdQuery) {
@@ -356,6 +568,9 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
                 if (forceFirstResult || keysetMode == KeysetMode.NONE) {
                     objectQuery.setFirstResult(firstRow);
+                } else if (keysetSkipEntry != null) {
+                    // When seeking from a keyset of the skip index, we only skip the rows between the keyset and the first row
+                    objectQuery.setFirstResult(firstRow - keysetSkipEntry.getPosition());
                 } else {
                     objectQuery.setFirstResult(0);
                 }
@@ -365,12 +580,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
 
             if (result.isEmpty()) {
                 KeysetPage newKeysetPage = null;
-                if (keysetMode == KeysetMode.NEXT) {
+                if (keysetMode == KeysetMode.NEXT && keysetSkipEntry == null) {
                     // When we scroll over the last page to a non existing one, we reuse the current keyset
                     newKeysetPage = keysetPage;
                 }
 
-                return new PagedArrayList<X>(newKeysetPage, totalSize, queryFirstResult, pageSize);
+                return createPagedList(null, newKeysetPage, totalSize, totalSizeType, totalSizeCached, queryFirstResult, parallelTotalSize);
             }
 
             if (keysetMode == KeysetMode.PREVIOUS) {
@@ -404,12 +619,13 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         totalSize = keysetExtractionObjectBuilder.getCount();
                     }
                     newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
+                    recordKeysetSkipPositions(firstRow, keysets);
                 } else if (objectBuilder instanceof CountExtractionObjectBuilder<?>) {
                     totalSize = ((CountExtractionObjectBuilder<X>) objectBuilder).getCount();
                 }
             }
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = createPagedList(result, newKeyset, totalSize, totalSizeType, totalSizeCached, queryFirstResult, parallelTotalSize);
             return pagedResultList;
         }
     }
@@ -673,6 +889,25 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         throw new PersistenceException("Unsupported unwrap: " + cls.getName());
     }
 
+    /**
+     * The result of determining the total size.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class TotalSize {
+
+        private final long size;
+        private final TotalSizeType type;
+        private final boolean cached;
+
+        public TotalSize(long size, TotalSizeType type, boolean cached) {
+            this.size = size;
+            this.type = type;
+            this.cached = cached;
+        }
+    }
+
     /**
      * @author Christian Beikov
      * @since 1.2.0
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds everything needed to recreate the count query of a paginated query on a separate entity manager,
+ * so that it can run concurrently with the id and object queries.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ParallelCountQuery {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Executor executor;
+    private final String countQueryString;
+    private final Class<?> resultType;
+    private final String countEstimateSql;
+
+    public ParallelCountQuery(EntityManagerFactory entityManagerFactory, Executor executor, String countQueryString, Class<?> resultType, String countEstimateSql) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.executor = executor;
+        this.countQueryString = countQueryString;
+        this.resultType = resultType;
+        this.countEstimateSql = countEstimateSql;
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public TypedQuery<?> createCountQuery(EntityManager em, Map<String, Object> parameterValues) {
+        TypedQuery<?> query = em.createQuery(countQueryString, resultType);
+        for (Map.Entry<String, Object> entry : parameterValues.entrySet()) {
+            query.setParameter(entry.getKey(), entry.getValue());
+        }
+        return query;
+    }
+
+    public Query createCountEstimateQuery(EntityManager em) {
+        if (countEstimateSql == null) {
+            return null;
+        }
+        return em.createNativeQuery(countEstimateSql);
+    }
+}
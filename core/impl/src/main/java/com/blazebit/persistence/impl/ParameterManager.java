@@ -46,13 +46,15 @@ public class ParameterManager {
 
     private static final String PREFIX = "param_";
     private int counter;
+    private final MainQuery mainQuery;
     private final Map<String, ParameterImpl<?>> parameters = new HashMap<>();
     private final Map<String, String> valuesParameters = new HashMap<>();
     private final ParameterRegistrationVisitor parameterRegistrationVisitor;
     private final ParameterUnregistrationVisitor parameterUnregistrationVisitor;
     private int positionalOffset = -1; // Records the last positional parameter index that was used
 
-    public ParameterManager() {
+    public ParameterManager(MainQuery mainQuery) {
+        this.mainQuery = mainQuery;
         this.parameterRegistrationVisitor = new ParameterRegistrationVisitor(this);
         this.parameterUnregistrationVisitor = new ParameterUnregistrationVisitor(this);
     }
@@ -215,6 +217,7 @@ public class ParameterManager {
     }
 
     void parameterizeQuery(Query q, String skippedParameterPrefix) {
+        boolean inListPadding = mainQuery.getQueryConfiguration().isInListPaddingEnabled();
         Set<String> requestedValueParameters = new HashSet<String>();
         for (Parameter<?> p : q.getParameters()) {
             String parameterName = p.getName();
@@ -242,16 +245,38 @@ public class ParameterManager {
                     q.setParameter(parameterName, parameter.getValue());
                 }
             } else {
-                parameter.bind(q);
+                parameter.bind(q, inListPadding);
             }
         }
 
         for (String parameterName : requestedValueParameters) {
             ParameterImpl<?> parameter = parameters.get(parameterName);
-            parameter.bind(q);
+            parameter.bind(q, false);
         }
     }
 
+    /**
+     * Pads the given collection to the next power of two size by repeating the last element,
+     * so that only a logarithmic number of distinct SQL statements is rendered for <code>IN</code> predicates.
+     *
+     * @param values The collection to pad
+     * @return The padded collection or the given collection if no padding is necessary
+     */
+    static Collection<?> padCollection(Collection<?> values) {
+        int size = values.size();
+        if (size < 3 || (size & (size - 1)) == 0) {
+            return values;
+        }
+        int paddedSize = Integer.highestOneBit(size) << 1;
+        List<Object> paddedValues = new ArrayList<>(paddedSize);
+        paddedValues.addAll(values);
+        Object lastValue = paddedValues.get(size - 1);
+        for (int i = size; i < paddedSize; i++) {
+            paddedValues.add(lastValue);
+        }
+        return paddedValues;
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public ParameterImpl<?> getParameter(String parameterName) {
         if (parameterName == null) {
@@ -403,14 +428,14 @@ public class ParameterManager {
         }
     }
 
-    public void registerValuesParameter(String parameterName, Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder) {
+    public void registerValuesParameter(String parameterName, Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, int valueCount, boolean arrayParameters, AbstractCommonQueryBuilder<?, ?, ?, ?, ?> queryBuilder) {
         if (parameterName == null) {
             throw new NullPointerException("parameterName");
         }
         if (parameters.containsKey(parameterName)) {
             throw new IllegalArgumentException("Can't register parameter for VALUES clause because there already exists a parameter with the name: " + parameterName);
         }
-        parameters.put(parameterName, new ParameterImpl<Object>(parameterName, false, ClauseType.JOIN, queryBuilder, new ValuesParameterWrapper(type, parameterNames, pathExpressions)));
+        parameters.put(parameterName, new ParameterImpl<Object>(parameterName, false, ClauseType.JOIN, queryBuilder, new ValuesParameterWrapper(type, parameterNames, pathExpressions, valueCount, arrayParameters)));
         for (int i = 0; i < parameterNames.length; i++) {
             for (int j = 0; j < parameterNames[i].length; j++) {
                 valuesParameters.put(parameterNames[i][j], parameterName);
@@ -630,7 +655,7 @@ public class ParameterManager {
             }
         }
 
-        public void bind(Query q) {
+        public void bind(Query q, boolean inListPadding) {
             if (valueSet) {
                 if (value instanceof ParameterValue) {
                     if (name == null) {
@@ -639,10 +664,14 @@ public class ParameterManager {
                         ((ParameterValue) value).bind(q, name);
                     }
                 } else {
+                    Object boundValue = value;
+                    if (inListPadding && collectionValued && boundValue instanceof Collection<?>) {
+                        boundValue = padCollection((Collection<?>) boundValue);
+                    }
                     if (name == null) {
-                        q.setParameter(position, value);
+                        q.setParameter(position, boundValue);
                     } else {
-                        q.setParameter(name, value);
+                        q.setParameter(name, boundValue);
                     }
                 }
             }
@@ -803,9 +832,9 @@ public class ParameterManager {
         private final ValuesParameterBinder binder;
         private Collection<Object> value;
 
-        public ValuesParameterWrapper(Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions) {
+        public ValuesParameterWrapper(Class<?> type, String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, int valueCount, boolean arrayParameters) {
             this.type = type;
-            this.binder = new ValuesParameterBinder(parameterNames, pathExpressions);
+            this.binder = new ValuesParameterBinder(parameterNames, pathExpressions, valueCount, arrayParameters);
         }
 
         private ValuesParameterWrapper(Class<?> type, ValuesParameterBinder binder) {
@@ -43,6 +43,8 @@ public interface QueryConfiguration {
 
     public boolean isValuesClauseFilterNullsEnabled();
 
+    public boolean isValuesClauseArrayEnabled();
+
     public boolean isParameterAsLiteralRenderingEnabled();
 
     public boolean isOptimizedKeysetPredicateRenderingEnabled();
@@ -53,6 +55,10 @@ public interface QueryConfiguration {
 
     public Boolean getInlineCtesEnabled();
 
+    public int getStreamingFetchSize();
+
+    public boolean isInListPaddingEnabled();
+
     public String getProperty(String name);
 
     public Map<String, String> getProperties();
@@ -130,6 +130,10 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
         return objectBuilder;
     }
 
+    void setSelectObjectBuilder(ObjectBuilder<T> objectBuilder) {
+        this.objectBuilder = objectBuilder;
+    }
+
     public List<SelectInfo> getSelectInfos() {
         return selectInfos;
     }
@@ -19,8 +19,14 @@ package com.blazebit.persistence.impl;
 import com.blazebit.persistence.spi.AttributeAccessor;
 
 import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  *
@@ -29,15 +35,57 @@ import java.util.Iterator;
  */
 public class ValuesParameterBinder {
 
+    private static final Set<String> ARRAY_ELEMENT_TYPES = new HashSet<>(Arrays.asList(
+            String.class.getName(),
+            Byte.class.getName(),
+            Short.class.getName(),
+            Integer.class.getName(),
+            Long.class.getName(),
+            Float.class.getName(),
+            Double.class.getName(),
+            BigInteger.class.getName(),
+            BigDecimal.class.getName(),
+            UUID.class.getName(),
+            java.sql.Date.class.getName(),
+            java.sql.Time.class.getName(),
+            java.sql.Timestamp.class.getName(),
+            "java.time.LocalDate",
+            "java.time.LocalTime",
+            "java.time.LocalDateTime"
+    ));
+
     private final String[][] parameterNames;
     private final AttributeAccessor<Object, Object>[] pathExpressions;
+    private final int valueCount;
+    private final boolean arrayParameters;
 
     public ValuesParameterBinder(String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions) {
+        this(parameterNames, pathExpressions, parameterNames.length, false);
+    }
+
+    public ValuesParameterBinder(String[][] parameterNames, AttributeAccessor<Object, Object>[] pathExpressions, int valueCount, boolean arrayParameters) {
         this.parameterNames = parameterNames;
         this.pathExpressions = pathExpressions;
+        this.valueCount = valueCount;
+        this.arrayParameters = arrayParameters;
+    }
+
+    /**
+     * Returns whether values of the given type can be bound as elements of an array literal for the ARRAY values strategy.
+     * Only types are supported for which the string representation is understood by the DBMS for the mapped column type.
+     *
+     * @param type The value type
+     * @return whether the type can be bound as array element
+     */
+    public static boolean supportsArrayParameters(Class<?> type) {
+        return ARRAY_ELEMENT_TYPES.contains(type.getName());
     }
 
     public void bind(Query query, Collection<Object> value) {
+        if (arrayParameters) {
+            bindArrays(query, value);
+            return;
+        }
         Iterator<Object> iterator = value.iterator();
         for (int i = 0; i < parameterNames.length; i++) {
             Object element;
@@ -57,6 +105,53 @@ public class ValuesParameterBinder {
         }
     }
 
+    private void bindArrays(Query query, Collection<Object> value) {
+        // Every column is bound as a single array literal string which is casted to the array type in SQL
+        StringBuilder sb = new StringBuilder(value.size() * 10);
+        for (int j = 0; j < parameterNames[0].length; j++) {
+            sb.setLength(0);
+            sb.append('{');
+            for (Object element : value) {
+                if (element == null) {
+                    appendArrayElement(sb, null);
+                } else if (pathExpressions[j] == null) {
+                    appendArrayElement(sb, element);
+                } else {
+                    appendArrayElement(sb, pathExpressions[j].getNullSafe(element));
+                }
+                sb.append(',');
+            }
+            if (value.isEmpty()) {
+                sb.append('}');
+            } else {
+                sb.setCharAt(sb.length() - 1, '}');
+            }
+            query.setParameter(parameterNames[0][j], sb.toString());
+        }
+    }
+
+    private static void appendArrayElement(StringBuilder sb, Object element) {
+        if (element == null) {
+            sb.append("NULL");
+            return;
+        }
+        String string;
+        if (element instanceof BigDecimal) {
+            string = ((BigDecimal) element).toPlainString();
+        } else {
+            string = element.toString();
+        }
+        sb.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
     public String[][] getParameterNames() {
         return parameterNames;
     }
@@ -65,7 +160,11 @@ public class ValuesParameterBinder {
         return pathExpressions;
     }
 
+    public boolean isArrayParameters() {
+        return arrayParameters;
+    }
+
     public int size() {
-        return parameterNames.length;
+        return valueCount;
     }
 }
@@ -24,6 +24,7 @@ import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.OrderByElement;
+import com.blazebit.persistence.spi.UpsertStyle;
 
 /**
  * @author Christian Beikov
@@ -279,4 +280,8 @@ public class DB2DbmsDialect extends DefaultDbmsDialect {
         return endIndex;
     }
 
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
 }
@@ -35,6 +35,7 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 /**
@@ -165,6 +166,11 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return LateralStyle.LATERAL;
     }
 
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.NONE;
+    }
+
     @Override
     public String getSqlType(Class<?> castType) {
         return sqlTypes.get(castType);
@@ -203,6 +209,120 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return null;
     }
 
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        switch (getUpsertStyle()) {
+            case ON_CONFLICT:
+                appendOnConflict(sqlSb, conflictColumns, updateColumns);
+                break;
+            case ON_DUPLICATE_KEY:
+                appendOnDuplicateKey(sqlSb, conflictColumns, updateColumns);
+                break;
+            case MERGE:
+                appendMerge(sqlSb, conflictColumns, updateColumns);
+                break;
+            default:
+                throw new IllegalArgumentException("Upserts are not supported by this dbms!");
+        }
+    }
+
+    protected void appendOnConflict(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        sqlSb.append(" on conflict (");
+        appendColumns(sqlSb, null, conflictColumns);
+        sqlSb.append(')');
+        if (updateColumns == null || updateColumns.length == 0) {
+            sqlSb.append(" do nothing");
+        } else {
+            sqlSb.append(" do update set ");
+            for (int i = 0; i < updateColumns.length; i++) {
+                if (i != 0) {
+                    sqlSb.append(',');
+                }
+                sqlSb.append(updateColumns[i]).append("=excluded.").append(updateColumns[i]);
+            }
+        }
+    }
+
+    protected void appendOnDuplicateKey(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        String tableName = extractInsertTableName(sqlSb);
+        sqlSb.append(" on duplicate key update ");
+        if (updateColumns == null || updateColumns.length == 0) {
+            // Assigning a column to itself does not change the conflicting row, which effectively ignores it
+            sqlSb.append(tableName).append('.').append(conflictColumns[0]).append('=').append(tableName).append('.').append(conflictColumns[0]);
+        } else {
+            for (int i = 0; i < updateColumns.length; i++) {
+                if (i != 0) {
+                    sqlSb.append(',');
+                }
+                sqlSb.append(tableName).append('.').append(updateColumns[i]).append("=values(").append(updateColumns[i]).append(')');
+            }
+        }
+    }
+
+    protected void appendMerge(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        int insertIndex = indexOfIgnoreCase(sqlSb, "insert into");
+        int columnsStartIndex = sqlSb.indexOf("(", insertIndex);
+        int columnsEndIndex = sqlSb.indexOf(")", columnsStartIndex);
+        String tableName = sqlSb.substring(insertIndex + "insert into".length(), columnsStartIndex).trim();
+        String[] insertColumns = sqlSb.substring(columnsStartIndex + 1, columnsEndIndex).split(",");
+        for (int i = 0; i < insertColumns.length; i++) {
+            insertColumns[i] = insertColumns[i].trim();
+        }
+        String selectSql = sqlSb.substring(columnsEndIndex + 1).trim();
+
+        sqlSb.setLength(insertIndex);
+        sqlSb.append("merge into ").append(tableName).append(" upsert_target_ using ");
+        appendMergeSource(sqlSb, selectSql, insertColumns);
+        sqlSb.append(" on (");
+        for (int i = 0; i < conflictColumns.length; i++) {
+            if (i != 0) {
+                sqlSb.append(" and ");
+            }
+            sqlSb.append("upsert_target_.").append(conflictColumns[i]).append("=upsert_source_.").append(conflictColumns[i]);
+        }
+        sqlSb.append(')');
+
+        if (updateColumns != null && updateColumns.length != 0) {
+            sqlSb.append(" when matched then update set ");
+            for (int i = 0; i < updateColumns.length; i++) {
+                if (i != 0) {
+                    sqlSb.append(',');
+                }
+                sqlSb.append(updateColumns[i]).append("=upsert_source_.").append(updateColumns[i]);
+            }
+        }
+
+        sqlSb.append(" when not matched then insert (");
+        appendColumns(sqlSb, null, insertColumns);
+        sqlSb.append(") values (");
+        appendColumns(sqlSb, "upsert_source_", insertColumns);
+        sqlSb.append(')');
+    }
+
+    protected void appendMergeSource(StringBuilder sqlSb, String selectSql, String[] columns) {
+        sqlSb.append('(').append(selectSql).append(") upsert_source_(");
+        appendColumns(sqlSb, null, columns);
+        sqlSb.append(')');
+    }
+
+    protected static void appendColumns(StringBuilder sqlSb, String qualifier, String[] columns) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i != 0) {
+                sqlSb.append(',');
+            }
+            if (qualifier != null) {
+                sqlSb.append(qualifier).append('.');
+            }
+            sqlSb.append(columns[i]);
+        }
+    }
+
+    protected static String extractInsertTableName(StringBuilder sqlSb) {
+        int insertIndex = indexOfIgnoreCase(sqlSb, "insert into");
+        int columnsStartIndex = sqlSb.indexOf("(", insertIndex);
+        return sqlSb.substring(insertIndex + "insert into".length(), columnsStartIndex).trim();
+    }
+
     @Override
     public void appendSet(StringBuilder sqlSb, SetOperationType setType, boolean isSubquery, List<String> operands, List<? extends OrderByElement> orderByElements, String limit, String offset) {
         if (isSubquery) {
@@ -487,6 +607,21 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return ValuesStrategy.VALUES;
     }
 
+    @Override
+    public String getArraySqlType(String sqlType) {
+        return null;
+    }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return null;
+    }
+
+    @Override
+    public long getRowCountEstimate(List<?> resultList) {
+        return -1L;
+    }
+
     @Override
     public boolean needsCastParameters() {
         return true;
@@ -21,6 +21,7 @@ import java.util.Map;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 /**
@@ -113,4 +114,9 @@ public class H2DbmsDialect extends DefaultDbmsDialect {
     public LateralStyle getLateralStyle() {
         return LateralStyle.NONE;
     }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
 }
@@ -23,6 +23,7 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 
 import java.util.Map;
 
@@ -193,4 +194,16 @@ public class MSSQLDbmsDialect extends DefaultDbmsDialect {
     public DbmsLimitHandler createLimitHandler() {
         return new MSSQL2012DbmsLimitHandler();
     }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
+
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        super.appendUpsert(sqlSb, conflictColumns, updateColumns);
+        // SQL Server requires a MERGE statement to be terminated
+        sqlSb.append(';');
+    }
 }
@@ -19,6 +19,7 @@ package com.blazebit.persistence.impl.dialect;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 import java.util.HashMap;
@@ -149,4 +150,8 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return false;
     }
 
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.ON_DUPLICATE_KEY;
+    }
 }
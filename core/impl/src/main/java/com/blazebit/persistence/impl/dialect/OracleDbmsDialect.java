@@ -32,6 +32,7 @@ import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 /**
@@ -272,4 +273,16 @@ public class OracleDbmsDialect extends DefaultDbmsDialect {
         }
     }
 
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.MERGE;
+    }
+
+    @Override
+    protected void appendMergeSource(StringBuilder sqlSb, String selectSql, String[] columns) {
+        // Oracle does not support derived column lists, but column lists for common table expressions
+        sqlSb.append("(with upsert_source_(");
+        appendColumns(sqlSb, null, columns);
+        sqlSb.append(") as (").append(selectSql).append(") select * from upsert_source_) upsert_source_");
+    }
 }
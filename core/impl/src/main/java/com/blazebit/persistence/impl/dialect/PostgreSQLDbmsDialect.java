@@ -21,11 +21,14 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 
 /**
  * @author Christian Beikov
@@ -33,6 +36,8 @@ import com.blazebit.persistence.spi.SetOperationType;
  */
 public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
 
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile(" rows=(\\d+)");
+
     public PostgreSQLDbmsDialect() {
     }
 
@@ -60,6 +65,33 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
         return true;
     }
 
+    @Override
+    public String getArraySqlType(String sqlType) {
+        return sqlType + "[]";
+    }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return "explain " + sql;
+    }
+
+    @Override
+    public long getRowCountEstimate(List<?> resultList) {
+        if (resultList.isEmpty()) {
+            return -1L;
+        }
+        // The first line of the plan describes the top node e.g. "Seq Scan on document  (cost=0.00..1.05 rows=5 width=4)"
+        Object firstLine = resultList.get(0);
+        if (firstLine instanceof Object[]) {
+            firstLine = ((Object[]) firstLine)[0];
+        }
+        Matcher matcher = PLAN_ROWS_PATTERN.matcher(String.valueOf(firstLine));
+        if (matcher.find()) {
+            return Long.parseLong(matcher.group(1));
+        }
+        return -1L;
+    }
+
     @Override
     protected boolean supportsPartitionInRowNumberOver() {
         return true;
@@ -265,4 +297,9 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsBooleanAggregation() {
         return true;
     }
+
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return UpsertStyle.ON_CONFLICT;
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.multiset;
+
+import com.blazebit.persistence.spi.FunctionRenderContext;
+import com.blazebit.persistence.spi.JpqlFunction;
+import com.blazebit.persistence.spi.TemplateRenderer;
+
+/**
+ * Aggregates the arguments of all rows into a JSON array of JSON arrays, one inner array per row.
+ * The positional layout avoids the need for column names and keeps <code>NULL</code> values.
+ * An empty group may produce <code>NULL</code> or an empty JSON array depending on the DBMS.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public abstract class AbstractMultisetAggregateFunction implements JpqlFunction {
+
+    public static final String FUNCTION_NAME = "multiset_agg";
+    protected final TemplateRenderer renderer;
+
+    public AbstractMultisetAggregateFunction(String template) {
+        this.renderer = new TemplateRenderer(template);
+    }
+
+    @Override
+    public boolean hasArguments() {
+        return true;
+    }
+
+    @Override
+    public boolean hasParenthesesIfNoArguments() {
+        return true;
+    }
+
+    @Override
+    public Class<?> getReturnType(Class<?> firstArgumentType) {
+        return String.class;
+    }
+
+    @Override
+    public void render(FunctionRenderContext context) {
+        int size = context.getArgumentsSize();
+        if (size == 0) {
+            throw new RuntimeException("The " + FUNCTION_NAME + " function needs at least one argument! args=" + context);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(context.getArgument(0));
+        for (int i = 1; i < size; i++) {
+            sb.append(", ");
+            sb.append(context.getArgument(i));
+        }
+        renderer.start(context).addParameter(sb.toString()).build();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.function.multiset;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class H2MultisetAggregateFunction extends AbstractMultisetAggregateFunction {
+
+    public H2MultisetAggregateFunction() {
+        super("cast(json_arrayagg(json_array(?1 null on null)) as varchar)");
+    }
+}
@@ -29,6 +29,7 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -109,43 +110,7 @@ public class KeysetManager extends AbstractKeysetBuilderEndedListener {
                     buildKeysetPredicate0(keysetMode, key, sb, orderByExpressions, positionalOffset);
                 }
             } else {
-                // we can use row value constructor syntax
-                // the rendering is heavily bound to the way this is parsed in RowValueComparisonFunction
-                queryGenerator.setClauseType(ClauseType.WHERE);
-                queryGenerator.setQueryBuffer(sb);
-                queryGenerator.setClauseType(null);
-
-                sb.append(jpaProvider.getCustomFunctionInvocation(RowValueComparisonFunction.FUNCTION_NAME, 1))
-                        .append('\'').append(keysetMode == KeysetMode.SAME ? "<=" : "<").append('\'');
-
-                for (int i = 0; i < orderByExpressions.size(); i++) {
-                    OrderByExpression orderByExpression = orderByExpressions.get(i);
-
-                    sb.append(",CASE WHEN (1=NULLIF(1,1) AND ");
-                    if (orderByExpression.isDescending() && keysetMode != KeysetMode.PREVIOUS || orderByExpression.isAscending() && keysetMode == KeysetMode.PREVIOUS) {
-                        // Placeholder is needed as we need to render the parameter at the end to retain JDBC parameter order
-                        sb.append("1=NULLIF(1,1)");
-                    } else {
-                        applyKeysetParameter(sb, i, key[i], positionalOffset);
-                        sb.append('=');
-                        queryGenerator.generate(orderByExpression.getExpression());
-                    }
-                    sb.append(") THEN 1 ELSE 0 END");
-                }
-                // We have to render right hand side parameters at the end to retain the correct order
-                for (int i = 0; i < orderByExpressions.size(); i++) {
-                    OrderByExpression orderByExpression = orderByExpressions.get(i);
-
-                    if (orderByExpression.isDescending() && keysetMode != KeysetMode.PREVIOUS || orderByExpression.isAscending() && keysetMode == KeysetMode.PREVIOUS) {
-                        sb.append(",CASE WHEN (1=NULLIF(1,1) AND ");
-                        queryGenerator.generate(orderByExpression.getExpression());
-                        sb.append('=');
-                        applyKeysetParameter(sb, i, key[i], positionalOffset);
-                        sb.append(") THEN 1 ELSE 0 END");
-                    }
-                }
-
-                sb.append(") = true");
+                buildRowValueKeysetPredicate0(keysetMode, key, sb, positionalOffset);
             }
         }
     }
@@ -161,6 +126,98 @@ public class KeysetManager extends AbstractKeysetBuilderEndedListener {
         }
     }
 
+    private void buildRowValueKeysetPredicate0(KeysetMode keysetMode, Serializable[] key, StringBuilder sb, int positionalOffset) {
+        int expressionCount = orderByExpressions.size();
+        // Split the order by items into runs of the same effective comparison direction
+        // A row value comparison is only index friendly if all elements are compared in the same direction
+        List<Integer> runStarts = new ArrayList<>();
+        runStarts.add(0);
+        for (int i = 1; i < expressionCount; i++) {
+            if (isGreaterComparison(orderByExpressions.get(i), keysetMode) != isGreaterComparison(orderByExpressions.get(i - 1), keysetMode)) {
+                runStarts.add(i);
+            }
+        }
+        runStarts.add(expressionCount);
+        int runCount = runStarts.size() - 1;
+
+        SimpleQueryGenerator.BooleanLiteralRenderingContext oldBooleanLiteralRenderingContext = queryGenerator.setBooleanLiteralRenderingContext(SimpleQueryGenerator.BooleanLiteralRenderingContext.CASE_WHEN);
+
+        if (runCount == 1) {
+            // All directions match, so a single row value comparison like (a, b, c) > (?, ?, ?) is enough
+            applyRowValueKeysetItem(sb, 0, expressionCount, getRowValueOperator(orderByExpressions.get(0), keysetMode, keysetMode == KeysetMode.SAME), key, positionalOffset, oldBooleanLiteralRenderingContext);
+        } else {
+            // For mixed directions we render a union of ranges over the runs
+            // WHERE run1 <= :keyset AND (run1 < :keyset OR (run1 = :keyset AND (run2 > :keyset OR (...))))
+            // The redundant bound on the first run allows the DBMS to use an index range scan
+            int firstRunEnd = runStarts.get(1);
+            applyRowValueKeysetItem(sb, 0, firstRunEnd, getRowValueOperator(orderByExpressions.get(0), keysetMode, true), key, positionalOffset, oldBooleanLiteralRenderingContext);
+            sb.append(" AND (");
+            int brackets = 1;
+            for (int run = 0; run < runCount; run++) {
+                int runStart = runStarts.get(run);
+                int runEnd = runStarts.get(run + 1);
+                boolean isLast = run + 1 == runCount;
+                applyRowValueKeysetItem(sb, runStart, runEnd, getRowValueOperator(orderByExpressions.get(runStart), keysetMode, isLast && keysetMode == KeysetMode.SAME), key, positionalOffset, oldBooleanLiteralRenderingContext);
+
+                if (!isLast) {
+                    brackets++;
+                    sb.append(" OR (");
+                    for (int i = runStart; i < runEnd; i++) {
+                        applyKeysetItem(sb, orderByExpressions.get(i).getExpression(), "=", i, key[i], positionalOffset);
+                        sb.append(" AND ");
+                    }
+                    if (run + 2 != runCount) {
+                        brackets++;
+                        sb.append('(');
+                    }
+                }
+            }
+
+            for (int i = 0; i < brackets; i++) {
+                sb.append(')');
+            }
+        }
+
+        queryGenerator.setBooleanLiteralRenderingContext(oldBooleanLiteralRenderingContext);
+    }
+
+    private static boolean isGreaterComparison(OrderByExpression orderByExpression, KeysetMode keysetMode) {
+        return orderByExpression.isAscending() != (keysetMode == KeysetMode.PREVIOUS);
+    }
+
+    private static String getRowValueOperator(OrderByExpression orderByExpression, KeysetMode keysetMode, boolean inclusive) {
+        if (isGreaterComparison(orderByExpression, keysetMode)) {
+            return inclusive ? ">=" : ">";
+        } else {
+            return inclusive ? "<=" : "<";
+        }
+    }
+
+    private void applyRowValueKeysetItem(StringBuilder sb, int start, int end, String operator, Serializable[] key, int positionalOffset, SimpleQueryGenerator.BooleanLiteralRenderingContext functionArgumentBooleanLiteralRenderingContext) {
+        if (end - start == 1) {
+            applyKeysetItem(sb, orderByExpressions.get(start).getExpression(), operator, start, key[start], positionalOffset);
+            return;
+        }
+
+        // The rendering is heavily bound to the way this is parsed in RowValueComparisonFunction
+        // Since the expressions are always on the left side, no placeholders are needed to retain the JDBC parameter order
+        SimpleQueryGenerator.BooleanLiteralRenderingContext oldBooleanLiteralRenderingContext = queryGenerator.setBooleanLiteralRenderingContext(functionArgumentBooleanLiteralRenderingContext);
+        queryGenerator.setQueryBuffer(sb);
+        sb.append(jpaProvider.getCustomFunctionInvocation(RowValueComparisonFunction.FUNCTION_NAME, 1))
+                .append('\'').append(operator).append('\'');
+
+        for (int i = start; i < end; i++) {
+            sb.append(",CASE WHEN (1=NULLIF(1,1) AND ");
+            queryGenerator.generate(orderByExpressions.get(i).getExpression());
+            sb.append('=');
+            applyKeysetParameter(sb, i, key[i], positionalOffset);
+            sb.append(") THEN 1 ELSE 0 END");
+        }
+
+        sb.append(") = true");
+        queryGenerator.setBooleanLiteralRenderingContext(oldBooleanLiteralRenderingContext);
+    }
+
     private void buildOptimizedPredicate0(KeysetMode keysetMode, Serializable[] key, StringBuilder sb, List<OrderByExpression> orderByExpressions, int positionalOffset) {
         int expressionCount = orderByExpressions.size();
         int brackets = 1;
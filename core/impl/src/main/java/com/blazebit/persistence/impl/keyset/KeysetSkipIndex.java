@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.keyset;
+
+import com.blazebit.persistence.DefaultKeyset;
+import com.blazebit.persistence.Keyset;
+import com.blazebit.persistence.impl.util.LruCache;
+import com.blazebit.persistence.impl.util.QueryCacheKey;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded, least recently used in-process cache of keysets at known absolute positions of a paginated query.
+ * Deep pages can be fetched by seeking from the nearest recorded keyset instead of skipping all preceding rows via offset.
+ * The positions of a query shape are discarded after the time to live, so that positions shifted by inserted or deleted rows are recorded again.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class KeysetSkipIndex {
+
+    private static final int MAX_POSITIONS_PER_QUERY = 1024;
+
+    private final LruCache<QueryCacheKey, Positions> cache;
+    private final long timeToLiveNanos;
+
+    public KeysetSkipIndex(final int maxSize, final long timeToLive) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid keyset skip index max size: " + maxSize);
+        }
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Invalid negative keyset skip index time to live: " + timeToLive);
+        }
+        this.cache = new LruCache<>(maxSize);
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    }
+
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    public long getTimeToLive() {
+        return TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos);
+    }
+
+    /**
+     * Returns the recorded positions for the query shape identified by the given query string and parameter values.
+     * Expired positions are discarded and replaced by empty positions.
+     *
+     * @param queryString The query string identifying the query shape, including the order by clause
+     * @param parameterValues The normalized parameter values of the query
+     * @return The recorded positions
+     */
+    public Positions getPositions(String queryString, Map<String, Object> parameterValues) {
+        QueryCacheKey key = new QueryCacheKey(queryString, parameterValues);
+        Positions positions = cache.get(key);
+        if (positions != null && timeToLiveNanos != 0L && positions.expirationNanos - System.nanoTime() <= 0) {
+            cache.remove(key, positions);
+            positions = null;
+        }
+        if (positions == null) {
+            positions = new Positions(System.nanoTime() + timeToLiveNanos);
+            Positions existingPositions = cache.putIfAbsent(key, positions);
+            if (existingPositions != null) {
+                positions = existingPositions;
+            }
+        }
+        return positions;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * The keysets recorded for a single query shape.
+     * The number of positions per query shape is limited, once the limit is reached keysets at new positions are ignored until the positions expire.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    public static final class Positions {
+        private final TreeMap<Integer, Serializable[]> keysets = new TreeMap<>();
+        private final long expirationNanos;
+
+        private Positions(long expirationNanos) {
+            this.expirationNanos = expirationNanos;
+        }
+
+        /**
+         * Records the keyset of the row before the given absolute position.
+         * Keysets at new positions are ignored once the maximum number of positions per query shape is recorded.
+         *
+         * @param position The absolute position of the row following the keyset
+         * @param keyset The keyset tuple of the row at <code>position - 1</code>
+         */
+        public synchronized void record(int position, Serializable[] keyset) {
+            if (keysets.size() < MAX_POSITIONS_PER_QUERY || keysets.containsKey(position)) {
+                keysets.put(position, keyset);
+            }
+        }
+
+        /**
+         * Returns the entry with the highest recorded position that is lower than or equal to the given position or <code>null</code>.
+         *
+         * @param position The absolute position to seek to
+         * @return The nearest entry or <code>null</code>
+         */
+        public synchronized Entry seek(int position) {
+            Map.Entry<Integer, Serializable[]> entry = keysets.floorEntry(position);
+            if (entry == null) {
+                return null;
+            }
+            return new Entry(entry.getKey(), new DefaultKeyset(entry.getValue()));
+        }
+
+        public synchronized int size() {
+            return keysets.size();
+        }
+    }
+
+    /**
+     * A recorded keyset after which the rows start at the absolute position.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    public static final class Entry {
+        private final int position;
+        private final Keyset keyset;
+
+        public Entry(int position, Keyset keyset) {
+            this.position = position;
+            this.keyset = keyset;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public Keyset getKeyset() {
+            return keyset;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.spi.BatchExtendedQuerySupport;
+import com.blazebit.persistence.spi.BatchParameterBinder;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.ServiceProvider;
 
@@ -50,4 +52,18 @@ public class CustomModificationQueryPlan implements ModificationQueryPlan {
         return extendedQuerySupport.executeUpdate(serviceProvider, participatingQueries, baseQuery, delegate, sql);
     }
 
+    @Override
+    public int[] executeBatch(BatchParameterBinder parameterBinder) {
+        if (extendedQuerySupport instanceof BatchExtendedQuerySupport) {
+            return ((BatchExtendedQuerySupport) extendedQuerySupport).executeBatch(serviceProvider, participatingQueries, baseQuery, delegate, sql, parameterBinder);
+        }
+
+        int[] updateCounts = new int[parameterBinder.getParameterSetCount()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            parameterBinder.bind(i);
+            updateCounts[i] = executeUpdate();
+        }
+        return updateCounts;
+    }
+
 }
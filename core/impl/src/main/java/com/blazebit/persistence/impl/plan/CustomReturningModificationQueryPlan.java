@@ -16,11 +16,14 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningObjectBuilder;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.impl.DefaultReturningResult;
+import com.blazebit.persistence.spi.BatchParameterBinder;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.ResultListIterator;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.Query;
@@ -70,6 +73,16 @@ public class CustomReturningModificationQueryPlan<T> implements ModificationQuer
         return result.getUpdateCount();
     }
 
+    @Override
+    public int[] executeBatch(BatchParameterBinder parameterBinder) {
+        int[] updateCounts = new int[parameterBinder.getParameterSetCount()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            parameterBinder.bind(i);
+            updateCounts[i] = executeUpdate();
+        }
+        return updateCounts;
+    }
+
     @Override
     public List<ReturningResult<T>> getResultList() {
         return Arrays.asList(getSingleResult());
@@ -95,4 +108,11 @@ public class CustomReturningModificationQueryPlan<T> implements ModificationQuer
         }
         return new DefaultReturningResult<T>(resultList, updateCount, dbmsDialect, objectBuilder);
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CloseableIterator<ReturningResult<T>> getResultIterator(int fetchSize) {
+        // The returning result is a single object that is produced by executing the modification query
+        return (CloseableIterator<ReturningResult<T>>) (CloseableIterator<?>) new ResultListIterator(getResultList());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.plan;
+
+import com.blazebit.persistence.impl.util.LruCache;
+import com.blazebit.persistence.impl.util.QueryCacheKey;
+import com.blazebit.persistence.spi.CountCache;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded, least recently used in-process count cache which invalidates entries after their time to live.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class DefaultCountCache implements CountCache {
+
+    private final LruCache<QueryCacheKey, Entry> cache;
+
+    public DefaultCountCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid count cache max size: " + maxSize);
+        }
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    @Override
+    public Long get(String queryString, Map<String, Object> parameterValues) {
+        QueryCacheKey key = new QueryCacheKey(queryString, parameterValues);
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationNanos - System.nanoTime() <= 0) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.count;
+    }
+
+    @Override
+    public void put(String queryString, Map<String, Object> parameterValues, long count, long timeToLive) {
+        Entry entry = new Entry(count, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLive));
+        cache.put(new QueryCacheKey(queryString, parameterValues), entry);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class Entry {
+        private final long count;
+        private final long expirationNanos;
+
+        public Entry(long count, long expirationNanos) {
+            this.count = count;
+            this.expirationNanos = expirationNanos;
+        }
+    }
+}
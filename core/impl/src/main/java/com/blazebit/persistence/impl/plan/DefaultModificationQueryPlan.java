@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.spi.BatchParameterBinder;
 import com.blazebit.persistence.spi.DbmsStatementType;
 
 import javax.persistence.Query;
@@ -49,4 +50,15 @@ public class DefaultModificationQueryPlan implements ModificationQueryPlan {
         return query.executeUpdate();
     }
 
+    @Override
+    public int[] executeBatch(BatchParameterBinder parameterBinder) {
+        // JPA has no batching for queries, so we execute the statement for every parameter set
+        int[] updateCounts = new int[parameterBinder.getParameterSetCount()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            parameterBinder.bind(i);
+            updateCounts[i] = executeUpdate();
+        }
+        return updateCounts;
+    }
+
 }
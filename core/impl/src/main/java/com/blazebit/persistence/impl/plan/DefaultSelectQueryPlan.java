@@ -16,6 +16,10 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.impl.util.ScrollUtils;
+import com.blazebit.persistence.spi.JpaProvider;
+
 import javax.persistence.Query;
 import java.util.List;
 
@@ -26,11 +30,13 @@ import java.util.List;
  */
 public class DefaultSelectQueryPlan<T> implements SelectQueryPlan<T> {
 
+    private final JpaProvider jpaProvider;
     private final Query query;
     private final int firstResult;
     private final int maxResults;
 
-    public DefaultSelectQueryPlan(Query query, int firstResult, int maxResults) {
+    public DefaultSelectQueryPlan(JpaProvider jpaProvider, Query query, int firstResult, int maxResults) {
+        this.jpaProvider = jpaProvider;
         this.query = query;
         this.firstResult = firstResult;
         this.maxResults = maxResults;
@@ -49,4 +55,11 @@ public class DefaultSelectQueryPlan<T> implements SelectQueryPlan<T> {
         query.setMaxResults(maxResults);
         return (T) query.getSingleResult();
     }
+
+    @Override
+    public CloseableIterator<T> getResultIterator(int fetchSize) {
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+        return (CloseableIterator<T>) ScrollUtils.scroll(jpaProvider, query, fetchSize);
+    }
 }
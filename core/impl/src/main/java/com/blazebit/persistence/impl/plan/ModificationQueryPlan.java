@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.impl.plan;
 
+import com.blazebit.persistence.spi.BatchParameterBinder;
+
 /**
  *
  * @author Christian Beikov
@@ -25,4 +27,6 @@ public interface ModificationQueryPlan {
 
     public int executeUpdate();
 
+    public int[] executeBatch(BatchParameterBinder parameterBinder);
+
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.plan;
+
+import com.blazebit.persistence.impl.util.LruCache;
+
+/**
+ * A bounded, least recently used cache shared by all queries of a criteria builder factory.
+ * It is used to reuse the transformed SQL and related artifacts of queries that have the same base query SQL.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class QueryPlanCache {
+
+    private final LruCache<Object, Object> cache;
+
+    public QueryPlanCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid query plan cache max size: " + maxSize);
+        }
+        this.cache = new LruCache<>(maxSize);
+    }
+
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V get(Object key) {
+        return (V) cache.get(key);
+    }
+
+    public void put(Object key, Object value) {
+        cache.put(key, value);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
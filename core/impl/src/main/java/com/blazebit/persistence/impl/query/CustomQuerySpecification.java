@@ -19,6 +19,7 @@ package com.blazebit.persistence.impl.query;
 import com.blazebit.persistence.impl.AbstractCommonQueryBuilder;
 import com.blazebit.persistence.impl.plan.CustomSelectQueryPlan;
 import com.blazebit.persistence.impl.plan.ModificationQueryPlan;
+import com.blazebit.persistence.impl.plan.QueryPlanCache;
 import com.blazebit.persistence.impl.plan.SelectQueryPlan;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsDialect;
@@ -32,6 +33,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,10 +49,13 @@ import java.util.Set;
  */
 public class CustomQuerySpecification<T> implements QuerySpecification<T> {
 
+    private static final SqlTemplate NON_EXPANDABLE_SQL_TEMPLATE = new SqlTemplate(null, null);
+
     protected final EntityManager em;
     protected final DbmsDialect dbmsDialect;
     protected final ServiceProvider serviceProvider;
     protected final ExtendedQuerySupport extendedQuerySupport;
+    protected final QueryPlanCache queryPlanCache;
 
     protected final DbmsStatementType statementType;
     protected final Query baseQuery;
@@ -69,6 +74,8 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     protected String sql;
     protected List<Query> participatingQueries;
     protected Map<String, String> addedCtes;
+    // The SQL aliases only depend on the base query, so they are determined once and reused for every cache key
+    private List<Map<String, String>> cteSqlAliasRemappings;
 
     public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Set<Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
                                     List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes) {
@@ -76,6 +83,7 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.dbmsDialect = commonQueryBuilder.getService(DbmsDialect.class);
         this.serviceProvider = commonQueryBuilder;
         this.extendedQuerySupport = commonQueryBuilder.getService(ExtendedQuerySupport.class);
+        this.queryPlanCache = commonQueryBuilder.getService(QueryPlanCache.class);
         this.statementType = commonQueryBuilder.getStatementType();
         this.baseQuery = baseQuery;
         this.parameters = parameters;
@@ -151,22 +159,231 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     }
 
     protected void initialize() {
+        SqlTemplate sqlTemplate = getSqlTemplate();
+        // The SQL only depends on the query shape, but the participating queries are bound to this query
         List<Query> participatingQueries = new ArrayList<>();
+        collectCteParticipatingQueries(baseQuery, participatingQueries);
+        participatingQueries.add(baseQuery);
+
+        this.sql = sqlTemplate.getSql(listParameters);
+        this.addedCtes = sqlTemplate.getAddedCtes();
+        this.participatingQueries = participatingQueries;
+        this.dirty = false;
+    }
+
+    private SqlTemplate getSqlTemplate() {
+        if (queryPlanCache != null && bindSingleElementListParameters()) {
+            // Collection parameters are bound with a single element, so the template is reusable for all collection sizes
+            String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
+            List<Object> cacheKey = createQueryPlanCacheKey(sqlQuery);
+            cacheKey.add(Boolean.TRUE);
+            SqlTemplate sqlTemplate = queryPlanCache.get(cacheKey);
+            if (sqlTemplate == null) {
+                sqlTemplate = compileSqlTemplate(sqlQuery);
+                queryPlanCache.put(cacheKey, sqlTemplate == null ? NON_EXPANDABLE_SQL_TEMPLATE : sqlTemplate);
+            }
+            bindListParameters();
+            if (sqlTemplate != null && sqlTemplate != NON_EXPANDABLE_SQL_TEMPLATE) {
+                return sqlTemplate;
+            }
+        } else {
+            bindListParameters();
+        }
 
+        // Fallback to a template for the actual collection parameter sizes
+        String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
+        List<Object> cacheKey = createQueryPlanCacheKey(sqlQuery);
+        SqlTemplate sqlTemplate = null;
+        if (cacheKey != null) {
+            cacheKey.add(Boolean.FALSE);
+            sqlTemplate = queryPlanCache.get(cacheKey);
+        }
+        if (sqlTemplate == null) {
+            sqlTemplate = renderSql(sqlQuery);
+            if (cacheKey != null) {
+                queryPlanCache.put(cacheKey, sqlTemplate);
+            }
+        }
+        return sqlTemplate;
+    }
+
+    private boolean bindSingleElementListParameters() {
+        if (listParameters.isEmpty()) {
+            return false;
+        }
+        for (Collection<?> value : listParameters.values()) {
+            if (value.isEmpty()) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Collection<?>> entry : listParameters.entrySet()) {
+            baseQuery.setParameter(entry.getKey(), Collections.singletonList(entry.getValue().iterator().next()));
+        }
+        return true;
+    }
+
+    private void bindListParameters() {
         for (Map.Entry<String, Collection<?>> entry : listParameters.entrySet()) {
             baseQuery.setParameter(entry.getKey(), entry.getValue());
         }
+    }
 
-        String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
+    /**
+     * Compiles the SQL of the base query, which is bound with single element collection parameters, into a template.
+     * To find the splice offsets of every collection parameter, the SQL is rendered once more per collection parameter with two elements
+     * and once more with three elements to verify that the provider expands the collection parameter linearly.
+     *
+     * @param sqlQuery The SQL of the base query
+     * @return The template or <code>null</code> if the collection parameter expansion can't be represented by a template
+     */
+    private SqlTemplate compileSqlTemplate(String sqlQuery) {
+        SqlTemplate template = renderSql(sqlQuery);
+        Map<String, String> expandedSqls = new HashMap<>(listParameters.size());
+        Map<String, String> verificationSqls = new HashMap<>(listParameters.size());
+        for (Map.Entry<String, Collection<?>> entry : listParameters.entrySet()) {
+            Object element = entry.getValue().iterator().next();
+            SqlTemplate expandedTemplate = renderExpandedSql(entry.getKey(), Arrays.asList(element, element));
+            SqlTemplate verificationTemplate = renderExpandedSql(entry.getKey(), Arrays.asList(element, element, element));
+            baseQuery.setParameter(entry.getKey(), Collections.singletonList(element));
+
+            if (!hasSameAddedCtes(template, expandedTemplate) || !hasSameAddedCtes(template, verificationTemplate)) {
+                return null;
+            }
+            expandedSqls.put(entry.getKey(), expandedTemplate.getSql());
+            verificationSqls.put(entry.getKey(), verificationTemplate.getSql());
+        }
+
+        return SqlTemplate.compile(template.getSql(), template.getAddedCtes(), expandedSqls, verificationSqls);
+    }
+
+    private SqlTemplate renderExpandedSql(String parameterName, List<Object> value) {
+        baseQuery.setParameter(parameterName, value);
+        return renderSql(extendedQuerySupport.getSql(em, baseQuery));
+    }
+
+    private static boolean hasSameAddedCtes(SqlTemplate template, SqlTemplate expandedTemplate) {
+        Map<String, String> addedCtes = template.getAddedCtes();
+        return addedCtes == null ? expandedTemplate.getAddedCtes() == null : addedCtes.equals(expandedTemplate.getAddedCtes());
+    }
+
+    private SqlTemplate renderSql(String sqlQuery) {
         StringBuilder sqlSb = applySqlTransformations(sqlQuery);
-        StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
+        // Participating queries are collected separately, since the SQL is shared between queries of the same shape
+        StringBuilder withClause = applyCtes(sqlSb, baseQuery, new ArrayList<Query>());
         Map<String, String> addedCtes = applyExtendedSql(sqlSb, false, false, withClause, null, null);
-        participatingQueries.add(baseQuery);
+        return new SqlTemplate(sqlSb.toString(), addedCtes);
+    }
 
-        this.sql = sqlSb.toString();
-        this.participatingQueries = participatingQueries;
-        this.addedCtes = addedCtes;
-        this.dirty = false;
+    /**
+     * Creates the key under which the SQL template produced by {@link #initialize()} is cached in the query plan cache.
+     * The key consists of the SQL of the base query, which already contains the expanded collection parameters,
+     * and all further inputs that are used for transforming that SQL.
+     * The SQL of the CTEs is generated anyway for collecting their participating queries, so adding it to the key is cheap.
+     *
+     * @param sqlQuery The SQL of the base query
+     * @return The cache key or <code>null</code> if the query plan cache is disabled
+     */
+    protected List<Object> createQueryPlanCacheKey(String sqlQuery) {
+        if (queryPlanCache == null) {
+            return null;
+        }
+
+        List<Object> key = new ArrayList<>(9 + ctes.size() * 12);
+        key.add(getClass());
+        key.add(statementType);
+        key.add(sqlQuery);
+        key.add(limit);
+        key.add(offset);
+        key.add(keyRestrictedLeftJoinAliases);
+        key.add(entityFunctionNodes);
+        key.add(recursive);
+        key.add(shouldRenderCtes);
+
+        if (shouldRenderCtes) {
+            List<Map<String, String>> sqlAliasRemappings = getCteSqlAliasRemappings();
+            int remappingIndex = 0;
+            for (CTENode cteInfo : ctes) {
+                key.add(cteInfo.getName());
+                key.add(cteInfo.getEntityName());
+                key.add(cteInfo.getHead());
+                key.add(cteInfo.getAliases() == null ? null : Arrays.asList(cteInfo.getAliases()));
+                key.add(cteInfo.isUnionAll());
+                key.add(cteInfo.getNonRecursiveWithClauseSuffix());
+                addQueryPlanCacheKeyParts(key, cteInfo.getNonRecursiveQuerySpecification(), sqlAliasRemappings.get(remappingIndex++));
+                addQueryPlanCacheKeyParts(key, cteInfo.getRecursiveQuerySpecification(), sqlAliasRemappings.get(remappingIndex++));
+            }
+        }
+
+        return key;
+    }
+
+    private void addQueryPlanCacheKeyParts(List<Object> key, QuerySpecification<?> querySpecification, Map<String, String> sqlAliasRemappings) {
+        if (querySpecification == null) {
+            key.add(null);
+            return;
+        }
+
+        key.add(querySpecification.getSql());
+        key.add(querySpecification.getAddedCtes());
+        key.add(sqlAliasRemappings);
+    }
+
+    private List<Map<String, String>> getCteSqlAliasRemappings() {
+        if (cteSqlAliasRemappings == null) {
+            List<Map<String, String>> remappings = new ArrayList<>(ctes.size() * 2);
+            for (CTENode cteInfo : ctes) {
+                remappings.add(getSqlAliasRemappings(cteInfo.getNonRecursiveTableNameRemappings()));
+                remappings.add(getSqlAliasRemappings(cteInfo.getRecursiveTableNameRemappings()));
+            }
+            cteSqlAliasRemappings = remappings;
+        }
+        return cteSqlAliasRemappings;
+    }
+
+    private Map<String, String> getSqlAliasRemappings(Map<String, String> tableNameRemappings) {
+        if (tableNameRemappings == null || tableNameRemappings.isEmpty()) {
+            return null;
+        }
+        // The remapping is applied to the SQL aliases of the base query, so we need to capture these as well
+        Map<String, String> sqlAliasRemappings = new HashMap<>(tableNameRemappings.size());
+        for (Map.Entry<String, String> entry : tableNameRemappings.entrySet()) {
+            sqlAliasRemappings.put(extendedQuerySupport.getSqlAlias(em, baseQuery, entry.getKey()), entry.getValue());
+        }
+        return sqlAliasRemappings;
+    }
+
+    /**
+     * Collects the participating queries of the CTEs in the same order as {@link #applyCtes(StringBuilder, Query, List)} does.
+     *
+     * @param baseQuery The base query
+     * @param participatingQueries The list to which to add the participating queries
+     */
+    protected void collectCteParticipatingQueries(Query baseQuery, List<Query> participatingQueries) {
+        if (!shouldRenderCtes || (ctes.isEmpty() && (statementType != DbmsStatementType.DELETE || !dbmsDialect.supportsModificationQueryInWithClause()))) {
+            return;
+        }
+
+        for (CTENode cteInfo : ctes) {
+            QuerySpecification<?> nonRecursiveQuerySpecification = cteInfo.getNonRecursiveQuerySpecification();
+            participatingQueries.addAll(nonRecursiveQuerySpecification.getParticipatingQueries());
+            if (cteInfo.isRecursive()) {
+                participatingQueries.addAll(cteInfo.getRecursiveQuerySpecification().getParticipatingQueries());
+            }
+            if (dbmsDialect.supportsModificationQueryInWithClause()) {
+                collectCascadingDeleteParticipatingQueries(nonRecursiveQuerySpecification.getBaseQuery(), participatingQueries);
+            }
+        }
+
+        if (dbmsDialect.supportsModificationQueryInWithClause()) {
+            collectCascadingDeleteParticipatingQueries(baseQuery, participatingQueries);
+        }
+    }
+
+    private void collectCascadingDeleteParticipatingQueries(Query baseQuery, List<Query> participatingQueries) {
+        int cascadingDeletes = extendedQuerySupport.getCascadingDeleteSql(em, baseQuery).size();
+        for (int i = 0; i < cascadingDeletes; i++) {
+            participatingQueries.add(baseQuery);
+        }
     }
 
     protected Map<String, String> applyExtendedSql(StringBuilder sqlSb, boolean isSubquery, boolean isEmbedded, StringBuilder withClause, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates) {
@@ -631,5 +848,4 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         }
         return extendedQuerySupport.getSql(em, query);
     }
-
 }
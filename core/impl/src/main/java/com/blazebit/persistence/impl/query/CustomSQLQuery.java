@@ -18,6 +18,7 @@ package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.impl.ParameterValueTransformer;
 import com.blazebit.persistence.impl.ValuesParameterBinder;
+import com.blazebit.persistence.spi.BatchParameterBinder;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
@@ -60,6 +61,21 @@ public class CustomSQLQuery extends AbstractCustomQuery<Object> {
         return querySpecification.createModificationPlan(firstResult, maxResults).executeUpdate();
     }
 
+    public int[] executeBatch(final BatchParameterBinder parameterBinder) {
+        return querySpecification.createModificationPlan(firstResult, maxResults).executeBatch(new BatchParameterBinder() {
+            @Override
+            public int getParameterSetCount() {
+                return parameterBinder.getParameterSetCount();
+            }
+
+            @Override
+            public void bind(int parameterSetIndex) {
+                parameterBinder.bind(parameterSetIndex);
+                bindParameters();
+            }
+        });
+    }
+
     @Override
     public Query setHint(String hintName, Object value) {
         // TODO: implement
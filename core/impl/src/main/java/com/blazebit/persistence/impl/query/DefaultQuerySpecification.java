@@ -22,6 +22,7 @@ import com.blazebit.persistence.impl.plan.ModificationQueryPlan;
 import com.blazebit.persistence.impl.plan.SelectQueryPlan;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.JpaProvider;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
@@ -44,13 +45,15 @@ public class DefaultQuerySpecification implements QuerySpecification {
     private final EntityManager em;
     private final Set<String> parameterListNames;
     private final ExtendedQuerySupport extendedQuerySupport;
+    private final JpaProvider jpaProvider;
 
-    public DefaultQuerySpecification(DbmsStatementType statementType, Query query, EntityManager em, Set<String> parameterListNames, ExtendedQuerySupport extendedQuerySupport) {
+    public DefaultQuerySpecification(DbmsStatementType statementType, Query query, EntityManager em, Set<String> parameterListNames, ExtendedQuerySupport extendedQuerySupport, JpaProvider jpaProvider) {
         this.statementType = statementType;
         this.query = query;
         this.em = em;
         this.parameterListNames = parameterListNames;
         this.extendedQuerySupport = extendedQuerySupport;
+        this.jpaProvider = jpaProvider;
     }
 
     @Override
@@ -60,7 +63,7 @@ public class DefaultQuerySpecification implements QuerySpecification {
 
     @Override
     public SelectQueryPlan createSelectPlan(int firstResult, int maxResults) {
-        return new DefaultSelectQueryPlan(query, firstResult, maxResults);
+        return new DefaultSelectQueryPlan(jpaProvider, query, firstResult, maxResults);
     }
 
     @Override
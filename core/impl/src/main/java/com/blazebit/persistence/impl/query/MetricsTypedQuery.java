@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import javax.persistence.NoResultException;
+import javax.persistence.NonUniqueResultException;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * A query wrapper that reports the time spent for SQL generation, execution and result transformation
+ * of every execution to a {@link QueryMetricsRecorder}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MetricsTypedQuery<X> extends TypedQueryWrapper<X> {
+
+    private final QueryMetricsRecorder recorder;
+
+    public MetricsTypedQuery(TypedQuery<X> delegate, QueryMetricsRecorder recorder) {
+        super(delegate);
+        this.recorder = recorder;
+    }
+
+    public TypedQuery<X> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<X> getResultList() {
+        ObjectBuilderTypedQuery<X> objectBuilderQuery = null;
+        TypedQuery<?> query = delegate;
+        if (delegate instanceof ObjectBuilderTypedQuery<?>) {
+            objectBuilderQuery = (ObjectBuilderTypedQuery<X>) delegate;
+            query = objectBuilderQuery.delegate;
+        }
+
+        int resultCount = -1;
+        RuntimeException exception = null;
+        recorder.startSqlGeneration();
+        try {
+            if (query instanceof AbstractCustomQuery<?>) {
+                // The SQL is cached in the query specification, so the execution will reuse it
+                ((AbstractCustomQuery<?>) query).getSql();
+            }
+            recorder.startExecution();
+            List<?> list = query.getResultList();
+            List<X> result;
+            if (objectBuilderQuery == null) {
+                result = (List<X>) list;
+            } else {
+                recorder.startTransformation();
+                result = objectBuilderQuery.transform(list);
+            }
+            resultCount = result.size();
+            return result;
+        } catch (RuntimeException ex) {
+            exception = ex;
+            throw ex;
+        } finally {
+            recorder.finish(resultCount, exception);
+        }
+    }
+
+    @Override
+    public X getSingleResult() {
+        if (delegate instanceof ObjectBuilderTypedQuery<?>) {
+            List<X> list = getResultList();
+            switch (list.size()) {
+                case 0:
+                    throw new NoResultException("No results for query: " + delegate);
+                case 1:
+                    return list.get(0);
+                default:
+                    throw new NonUniqueResultException("Expected a single result for query: " + delegate);
+            }
+        }
+
+        int resultCount = -1;
+        RuntimeException exception = null;
+        recorder.startSqlGeneration();
+        try {
+            if (delegate instanceof AbstractCustomQuery<?>) {
+                ((AbstractCustomQuery<?>) delegate).getSql();
+            }
+            recorder.startExecution();
+            X result = delegate.getSingleResult();
+            resultCount = 1;
+            return result;
+        } catch (RuntimeException ex) {
+            exception = ex;
+            throw ex;
+        } finally {
+            recorder.finish(resultCount, exception);
+        }
+    }
+}
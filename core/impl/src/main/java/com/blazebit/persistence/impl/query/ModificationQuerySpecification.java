@@ -45,6 +45,8 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
     protected final String[] returningColumns;
     protected final Map<DbmsModificationState, String> includedModificationStates;
     protected final Map<String, String> returningAttributeBindingMap;
+    protected final String[] upsertConflictColumns;
+    protected final String[] upsertUpdateColumns;
 
     protected Query query;
 
@@ -56,12 +58,21 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
     public ModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames,
                                           List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
                                           boolean isEmbedded, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates, Map<String, String> returningAttributeBindingMap) {
+        this(commonQueryBuilder, baseQuery, exampleQuery, parameters, parameterListNames, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCteNodes, isEmbedded, returningColumns, includedModificationStates, returningAttributeBindingMap, null, null);
+    }
+
+    public ModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames,
+                                          List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
+                                          boolean isEmbedded, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates, Map<String, String> returningAttributeBindingMap,
+                                          String[] upsertConflictColumns, String[] upsertUpdateColumns) {
         super(commonQueryBuilder, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCteNodes);
         this.exampleQuery = exampleQuery;
         this.isEmbedded = isEmbedded;
         this.returningColumns = returningColumns;
         this.includedModificationStates = includedModificationStates;
         this.returningAttributeBindingMap = new HashMap<>(returningAttributeBindingMap);
+        this.upsertConflictColumns = upsertConflictColumns;
+        this.upsertUpdateColumns = upsertUpdateColumns;
     }
 
     @Override
@@ -98,6 +109,9 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
         String sqlQuery = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sqlSb = applySqlTransformations(sqlQuery);
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
+        if (upsertConflictColumns != null) {
+            dbmsDialect.appendUpsert(sqlSb, upsertConflictColumns, upsertUpdateColumns);
+        }
         // NOTE: CTEs will only be added, if this is a subquery
         Map<String, String> addedCtes = applyExtendedSql(sqlSb, false, isEmbedded, withClause, returningColumns, includedModificationStates);
         participatingQueries.add(baseQuery);
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Builds objects from a tuple iterator in chunks of at most fetch size tuples.
+ * A chunk is only ever split between tuples of different groups as reported by a {@link GroupingObjectBuilder}.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ObjectBuilderResultIterator<X> implements CloseableIterator<X> {
+
+    private final CloseableIterator<Object> tupleIterator;
+    private final ObjectBuilder<X> builder;
+    private final GroupingObjectBuilder<X> groupingBuilder;
+    private final int chunkSize;
+    private final List<Object[]> tuples;
+    private Object[] pendingTuple;
+    private Iterator<X> currentChunk;
+
+    @SuppressWarnings("unchecked")
+    public ObjectBuilderResultIterator(CloseableIterator<Object> tupleIterator, ObjectBuilder<X> builder, int chunkSize) {
+        this.tupleIterator = tupleIterator;
+        this.builder = builder;
+        this.groupingBuilder = builder instanceof GroupingObjectBuilder<?> ? (GroupingObjectBuilder<X>) builder : null;
+        this.chunkSize = chunkSize;
+        this.tuples = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (currentChunk == null || !currentChunk.hasNext()) {
+            if (pendingTuple == null && !tupleIterator.hasNext()) {
+                currentChunk = null;
+                return false;
+            }
+            currentChunk = nextChunk();
+        }
+        return true;
+    }
+
+    @Override
+    public X next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentChunk.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        currentChunk = null;
+        pendingTuple = null;
+        tupleIterator.close();
+    }
+
+    private Iterator<X> nextChunk() {
+        tuples.clear();
+        Object[] previousTuple = null;
+        if (pendingTuple != null) {
+            previousTuple = pendingTuple;
+            tuples.add(pendingTuple);
+            pendingTuple = null;
+        }
+
+        while (tupleIterator.hasNext()) {
+            Object[] tuple = toTuple(tupleIterator.next());
+            if (tuples.size() >= chunkSize && (groupingBuilder == null || !groupingBuilder.isSameGroup(previousTuple, tuple))) {
+                pendingTuple = tuple;
+                break;
+            }
+            tuples.add(tuple);
+            previousTuple = tuple;
+        }
+
+        List<X> chunk = new ArrayList<>(tuples.size());
+        for (int i = 0; i < tuples.size(); i++) {
+            chunk.add(builder.build(tuples.get(i)));
+        }
+        return builder.buildList(chunk).iterator();
+    }
+
+    private static Object[] toTuple(Object result) {
+        if (result instanceof Object[]) {
+            return (Object[]) result;
+        }
+        return new Object[]{ result };
+    }
+}
@@ -16,7 +16,10 @@
 
 package com.blazebit.persistence.impl.query;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.impl.util.ScrollUtils;
+import com.blazebit.persistence.spi.JpaProvider;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -56,7 +59,10 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     @Override
     public List<X> getResultList() {
-        List<X> list = super.getResultList();
+        return transform(super.getResultList());
+    }
+
+    public List<X> transform(List<?> list) {
         int size = list.size();
         List<X> newList = new ArrayList<X>(size);
 
@@ -74,4 +80,15 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
         
         return builder.buildList(newList);
     }
+
+    @SuppressWarnings("unchecked")
+    public CloseableIterator<X> getResultIterator(JpaProvider jpaProvider, int fetchSize) {
+        CloseableIterator<Object> tupleIterator;
+        if (delegate instanceof CustomSQLTypedQuery<?>) {
+            tupleIterator = ((CustomSQLTypedQuery<Object>) (TypedQuery<?>) delegate).getResultIterator(fetchSize);
+        } else {
+            tupleIterator = ScrollUtils.scroll(jpaProvider, delegate, fetchSize);
+        }
+        return new ObjectBuilderResultIterator<>(tupleIterator, builder, fetchSize);
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.QueryMetrics;
+import com.blazebit.persistence.spi.QueryMetricsListener;
+
+/**
+ * Measures the phases of query executions and reports them to a {@link QueryMetricsListener}.
+ * An instance belongs to a single query object and, like the query object, must not be used concurrently.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public final class QueryMetricsRecorder {
+
+    private static final int SQL_GENERATION = 0;
+    private static final int EXECUTION = 1;
+    private static final int TRANSFORMATION = 2;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final QueryMetricsListener listener;
+    private final DbmsStatementType statementType;
+    private final QueryString queryString;
+    private long renderNanos;
+    private final long[] phaseNanos = new long[3];
+    private int phase;
+    private long phaseStart;
+
+    public QueryMetricsRecorder(QueryMetricsListener listener, DbmsStatementType statementType, QueryString queryString, long renderNanos) {
+        this.listener = listener;
+        this.statementType = statementType;
+        this.queryString = queryString;
+        this.renderNanos = renderNanos;
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of the given query string as hex string.
+     * The hash only depends on the query string, so it is stable across JVMs.
+     *
+     * @param queryString The query string
+     * @return The fingerprint
+     */
+    public static String fingerprint(String queryString) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < queryString.length(); i++) {
+            char c = queryString.charAt(i);
+            hash ^= c & 0xFF;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        String hex = Long.toHexString(hash);
+        if (hex.length() == 16) {
+            return hex;
+        }
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
+    public void startSqlGeneration() {
+        phaseNanos[SQL_GENERATION] = 0;
+        phaseNanos[EXECUTION] = 0;
+        phaseNanos[TRANSFORMATION] = 0;
+        phase = SQL_GENERATION;
+        phaseStart = System.nanoTime();
+    }
+
+    public void startExecution() {
+        startPhase(EXECUTION);
+    }
+
+    public void startTransformation() {
+        startPhase(TRANSFORMATION);
+    }
+
+    private void startPhase(int newPhase) {
+        long now = System.nanoTime();
+        phaseNanos[phase] += now - phaseStart;
+        phase = newPhase;
+        phaseStart = now;
+    }
+
+    /**
+     * Ends the current phase and reports the metrics of the execution to the listener.
+     * The render time is only reported for the first execution.
+     *
+     * @param resultCount The result count or <code>-1</code> if unknown
+     * @param exception The exception that happened during the execution or <code>null</code>
+     */
+    public void finish(int resultCount, Throwable exception) {
+        phaseNanos[phase] += System.nanoTime() - phaseStart;
+        long renderNanos = this.renderNanos;
+        this.renderNanos = 0;
+        listener.onQueryExecuted(new QueryMetrics(
+                statementType,
+                renderNanos,
+                phaseNanos[SQL_GENERATION],
+                phaseNanos[EXECUTION],
+                phaseNanos[TRANSFORMATION],
+                resultCount,
+                exception
+        ) {
+            @Override
+            public String getFingerprint() {
+                return queryString.getFingerprint();
+            }
+
+            @Override
+            public String getQueryString() {
+                return queryString.get();
+            }
+        });
+    }
+
+    /**
+     * The query string of a query object that is only rendered when a listener asks for it.
+     * The query objects of a builder share an instance until the builder is modified.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    public abstract static class QueryString {
+
+        private String queryString;
+        private String fingerprint;
+
+        public final String get() {
+            if (queryString == null) {
+                queryString = render();
+            }
+            return queryString;
+        }
+
+        public final String getFingerprint() {
+            if (fingerprint == null) {
+                fingerprint = fingerprint(get());
+            }
+            return fingerprint;
+        }
+
+        protected abstract String render();
+    }
+}
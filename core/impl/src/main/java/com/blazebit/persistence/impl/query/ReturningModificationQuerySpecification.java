@@ -41,13 +41,22 @@ public class ReturningModificationQuerySpecification<T> extends CustomQuerySpeci
     private final Query exampleQuery;
     private final String[] returningColumns;
     private final ReturningObjectBuilder<T> objectBuilder;
+    private final String[] upsertConflictColumns;
+    private final String[] upsertUpdateColumns;
 
     public ReturningModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
                                                    String[] returningColumns, ReturningObjectBuilder<T> objectBuilder) {
+        this(commonQueryBuilder, baseQuery, exampleQuery, parameters, parameterListNames, recursive, ctes, shouldRenderCteNodes, returningColumns, objectBuilder, null, null);
+    }
+
+    public ReturningModificationQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Query exampleQuery, Set<Parameter<?>> parameters, Set<String> parameterListNames, boolean recursive, List<CTENode> ctes, boolean shouldRenderCteNodes,
+                                                   String[] returningColumns, ReturningObjectBuilder<T> objectBuilder, String[] upsertConflictColumns, String[] upsertUpdateColumns) {
         super(commonQueryBuilder, baseQuery, parameters, parameterListNames, null, null, Collections.EMPTY_LIST, Collections.EMPTY_LIST, recursive, ctes, shouldRenderCteNodes);
         this.exampleQuery = exampleQuery;
         this.returningColumns = returningColumns;
         this.objectBuilder = objectBuilder;
+        this.upsertConflictColumns = upsertConflictColumns;
+        this.upsertUpdateColumns = upsertUpdateColumns;
     }
 
     @Override
@@ -77,6 +86,9 @@ public class ReturningModificationQuerySpecification<T> extends CustomQuerySpeci
 
         StringBuilder sqlSb = new StringBuilder(extendedQuerySupport.getSql(em, baseQuery));
         StringBuilder withClause = applyCtes(sqlSb, baseQuery, participatingQueries);
+        if (upsertConflictColumns != null) {
+            dbmsDialect.appendUpsert(sqlSb, upsertConflictColumns, upsertUpdateColumns);
+        }
         // NOTE: CTEs will only be added, if this is a subquery
         Map<String, String> addedCtes = applyExtendedSql(sqlSb, false, false, withClause, returningColumns, null);
         participatingQueries.add(baseQuery);
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The result of transforming the SQL of a query, compiled into a template that can be rendered for arbitrary collection parameter sizes.
+ * The template SQL is the transformed SQL with every collection parameter expanded to a single placeholder.
+ * For every collection parameter occurrence, a slot records the offset right after that placeholder and the separator the provider uses
+ * between expanded placeholders, so rendering is a linear concatenation without having to transform the SQL again.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+final class SqlTemplate {
+
+    private static final int[] EMPTY_POSITIONS = new int[0];
+    private static final String[] EMPTY_STRINGS = new String[0];
+
+    private final String sql;
+    private final Map<String, String> addedCtes;
+    private final int[] slotPositions;
+    private final String[] slotSeparators;
+    private final String[] slotParameterNames;
+
+    SqlTemplate(String sql, Map<String, String> addedCtes) {
+        this(sql, addedCtes, EMPTY_POSITIONS, EMPTY_STRINGS, EMPTY_STRINGS);
+    }
+
+    private SqlTemplate(String sql, Map<String, String> addedCtes, int[] slotPositions, String[] slotSeparators, String[] slotParameterNames) {
+        this.sql = sql;
+        this.addedCtes = addedCtes;
+        this.slotPositions = slotPositions;
+        this.slotSeparators = slotSeparators;
+        this.slotParameterNames = slotParameterNames;
+    }
+
+    /**
+     * Compiles a template by comparing the SQL rendered with single element collection parameters to the SQLs
+     * rendered with one of the collection parameters having two elements.
+     * The SQLs rendered with one of the collection parameters having three elements verify that the expansion is linear,
+     * which is not the case if the provider pads collection parameters like Hibernate does with <code>in_clause_parameter_padding</code>.
+     *
+     * @param sql The SQL rendered with single element collection parameters
+     * @param addedCtes The added CTEs of the SQL
+     * @param expandedSqls The SQLs rendered with the collection parameter of the key having two elements
+     * @param verificationSqls The SQLs rendered with the collection parameter of the key having three elements
+     * @return The template or <code>null</code> if the expansion of a collection parameter can't be represented by slots
+     */
+    static SqlTemplate compile(String sql, Map<String, String> addedCtes, Map<String, String> expandedSqls, Map<String, String> verificationSqls) {
+        int[] placeholders = findPlaceholders(sql);
+        // Position -> [separator, parameterName]
+        Map<Integer, String[]> slots = new TreeMap<>();
+        for (Map.Entry<String, String> entry : expandedSqls.entrySet()) {
+            if (!collectSlots(sql, placeholders, entry.getValue(), entry.getKey(), slots)) {
+                return null;
+            }
+        }
+
+        if (slots.isEmpty()) {
+            return new SqlTemplate(sql, addedCtes);
+        }
+
+        int[] slotPositions = new int[slots.size()];
+        String[] slotSeparators = new String[slots.size()];
+        String[] slotParameterNames = new String[slots.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String[]> entry : slots.entrySet()) {
+            slotPositions[i] = entry.getKey();
+            slotSeparators[i] = entry.getValue()[0];
+            slotParameterNames[i] = entry.getValue()[1];
+            i++;
+        }
+
+        SqlTemplate template = new SqlTemplate(sql, addedCtes, slotPositions, slotSeparators, slotParameterNames);
+        for (Map.Entry<String, String> entry : verificationSqls.entrySet()) {
+            Map<String, Collection<?>> listParameters = new HashMap<>(expandedSqls.size());
+            for (String parameterName : expandedSqls.keySet()) {
+                listParameters.put(parameterName, Collections.singletonList(null));
+            }
+            listParameters.put(entry.getKey(), Arrays.asList(new Object[3]));
+            if (!template.getSql(listParameters).equals(entry.getValue())) {
+                return null;
+            }
+        }
+
+        return template;
+    }
+
+    private static boolean collectSlots(String sql, int[] placeholders, String expandedSql, String parameterName, Map<Integer, String[]> slots) {
+        int[] expandedPlaceholders = findPlaceholders(expandedSql);
+        int sqlIndex = 0;
+        int expandedIndex = 0;
+        while (true) {
+            while (sqlIndex < sql.length() && expandedIndex < expandedSql.length() && sql.charAt(sqlIndex) == expandedSql.charAt(expandedIndex)) {
+                sqlIndex++;
+                expandedIndex++;
+            }
+            if (sqlIndex == sql.length() && expandedIndex == expandedSql.length()) {
+                return true;
+            }
+
+            // The expansion inserts a separator and another placeholder right after the placeholder of the parameter
+            int placeholderIndex = Arrays.binarySearch(placeholders, sqlIndex);
+            placeholderIndex = placeholderIndex < 0 ? -placeholderIndex - 2 : placeholderIndex - 1;
+            int expandedPlaceholderIndex = Arrays.binarySearch(expandedPlaceholders, expandedIndex);
+            expandedPlaceholderIndex = expandedPlaceholderIndex < 0 ? -expandedPlaceholderIndex - 1 : expandedPlaceholderIndex;
+            if (placeholderIndex < 0 || expandedPlaceholderIndex == expandedPlaceholders.length) {
+                return false;
+            }
+
+            int slotPosition = placeholders[placeholderIndex] + 1;
+            int separatorStart = slotPosition + expandedIndex - sqlIndex;
+            int expandedPlaceholder = expandedPlaceholders[expandedPlaceholderIndex];
+            if (separatorStart > expandedPlaceholder) {
+                return false;
+            }
+
+            String separator = expandedSql.substring(separatorStart, expandedPlaceholder);
+            if (slots.put(slotPosition, new String[]{ separator, parameterName }) != null) {
+                return false;
+            }
+
+            sqlIndex = slotPosition;
+            expandedIndex = expandedPlaceholder + 1;
+        }
+    }
+
+    /**
+     * Returns the positions of the JDBC placeholders in the given SQL.
+     * Question marks in string literals, quoted identifiers and comments are skipped, as well as the <code>??</code> escape
+     * which the PostgreSQL driver uses for question mark operators like <code>?|</code>.
+     *
+     * @param sql The SQL
+     * @return The ascending positions of the placeholders
+     */
+    static int[] findPlaceholders(String sql) {
+        int[] positions = new int[8];
+        int count = 0;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '\'':
+                case '"':
+                case '`':
+                    // A doubled quote as escape just starts a new quoted region right after the end of the current one
+                    i = skipTo(sql, i + 1, String.valueOf(c));
+                    break;
+                case '-':
+                    if (i + 1 < length && sql.charAt(i + 1) == '-') {
+                        i = skipTo(sql, i + 2, "\n");
+                    }
+                    break;
+                case '/':
+                    if (i + 1 < length && sql.charAt(i + 1) == '*') {
+                        i = skipTo(sql, i + 2, "*/") + 1;
+                    }
+                    break;
+                case '?':
+                    if (i + 1 < length && sql.charAt(i + 1) == '?') {
+                        i++;
+                    } else {
+                        if (count == positions.length) {
+                            positions = Arrays.copyOf(positions, count << 1);
+                        }
+                        positions[count++] = i;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return Arrays.copyOf(positions, count);
+    }
+
+    private static int skipTo(String sql, int start, String end) {
+        int index = sql.indexOf(end, start);
+        return index == -1 ? sql.length() : index;
+    }
+
+    /**
+     * Renders the SQL for the given collection parameter values.
+     *
+     * @param listParameters The collection parameter values by parameter name
+     * @return The SQL
+     */
+    public String getSql(Map<String, Collection<?>> listParameters) {
+        if (slotPositions.length == 0) {
+            return sql;
+        }
+
+        StringBuilder sb = new StringBuilder(sql.length() + slotPositions.length * 16);
+        int start = 0;
+        for (int i = 0; i < slotPositions.length; i++) {
+            int size = listParameters.get(slotParameterNames[i]).size();
+            sb.append(sql, start, slotPositions[i]);
+            for (int j = 1; j < size; j++) {
+                sb.append(slotSeparators[i]).append('?');
+            }
+            start = slotPositions[i];
+        }
+
+        sb.append(sql, start, sql.length());
+        return sb.toString();
+    }
+
+    /**
+     * Returns the template SQL in which every collection parameter is expanded to a single placeholder.
+     *
+     * @return The template SQL
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public Map<String, String> getAddedCtes() {
+        return addedCtes;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.impl.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread safe cache that evicts the least recently used entry when the maximum size is exceeded.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final Map<K, V> cache;
+
+    public LruCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<K, V>(Math.min(maxSize, 256), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public V get(K key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (cache) {
+            cache.put(key, value);
+        }
+    }
+
+    /**
+     * Puts the value if there is no value for the key yet.
+     *
+     * @param key The key
+     * @param value The value to put
+     * @return The existing value or <code>null</code> if the given value was put
+     */
+    public V putIfAbsent(K key, V value) {
+        synchronized (cache) {
+            V existing = cache.get(key);
+            if (existing == null) {
+                cache.put(key, value);
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Removes the entry for the key if it is still mapped to the given value.
+     *
+     * @param key The key
+     * @param value The expected value
+     * @return Whether the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        synchronized (cache) {
+            if (cache.get(key) == value) {
+                cache.remove(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
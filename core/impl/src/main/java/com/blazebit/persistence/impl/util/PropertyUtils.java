@@ -37,4 +37,28 @@ public class PropertyUtils {
         String value = properties.get(key);
         return value == null ? defaultValue : Boolean.parseBoolean(value);
     }
+
+    public static int getAsIntegerProperty(Map<String, String> properties, String key, int defaultValue) {
+        String value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + value + "' for integer property '" + key + "'", ex);
+        }
+    }
+
+    public static long getAsLongProperty(Map<String, String> properties, String key, long defaultValue) {
+        String value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + value + "' for long property '" + key + "'", ex);
+        }
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.impl.util;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.JpaProvider;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A cache key made up of a query string and the normalized parameter values of the query.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public final class QueryCacheKey {
+
+    private final String queryString;
+    private final Map<String, Object> parameterValues;
+    private final int hash;
+
+    /**
+     * Creates a new key. The parameter values are expected to be normalized via {@link #normalizeParameterValues(Map, EntityMetamodel, JpaProvider)}
+     * so that they are not changed after the key was created.
+     *
+     * @param queryString The query string
+     * @param parameterValues The normalized parameter values
+     */
+    public QueryCacheKey(String queryString, Map<String, Object> parameterValues) {
+        this.queryString = queryString;
+        this.parameterValues = parameterValues;
+        this.hash = 31 * queryString.hashCode() + parameterValues.hashCode();
+    }
+
+    /**
+     * Returns a copy of the given parameter values sorted by name that doesn't refer to any mutable parameter value.
+     * Entities are replaced by their identifiers, collections and arrays by lists or sets of normalized elements
+     * and dates and calendars are copied.
+     *
+     * @param parameterValues The parameter values
+     * @param metamodel The entity metamodel
+     * @param jpaProvider The JPA provider
+     * @return The normalized parameter values
+     */
+    public static Map<String, Object> normalizeParameterValues(Map<String, Object> parameterValues, EntityMetamodel metamodel, JpaProvider jpaProvider) {
+        Map<String, Object> normalizedValues = new TreeMap<>();
+        for (Map.Entry<String, Object> entry : parameterValues.entrySet()) {
+            normalizedValues.put(entry.getKey(), normalize(entry.getValue(), metamodel, jpaProvider));
+        }
+        return normalizedValues;
+    }
+
+    private static Object normalize(Object value, EntityMetamodel metamodel, JpaProvider jpaProvider) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        }
+        if (value instanceof Set<?>) {
+            Set<Object> set = new HashSet<>(((Set<?>) value).size());
+            for (Object element : (Set<?>) value) {
+                set.add(normalize(element, metamodel, jpaProvider));
+            }
+            return set;
+        }
+        if (value instanceof Collection<?>) {
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                list.add(normalize(element, metamodel, jpaProvider));
+            }
+            return list;
+        }
+        if (value instanceof Map<?, ?>) {
+            Map<Object, Object> map = new HashMap<>(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(normalize(entry.getKey(), metamodel, jpaProvider), normalize(entry.getValue(), metamodel, jpaProvider));
+            }
+            return map;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass.isArray()) {
+            // Arrays don't implement value equality, so we copy the elements into a list
+            int length = Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(normalize(Array.get(value, i), metamodel, jpaProvider));
+            }
+            return list;
+        }
+        // Entity proxies are subclasses of the entity class
+        for (Class<?> c = valueClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            if (metamodel.getEntity(c) != null) {
+                // The parameter type is fixed by the query string, so the identifier is enough to identify the entity
+                return jpaProvider.getIdentifier(value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryCacheKey)) {
+            return false;
+        }
+        QueryCacheKey that = (QueryCacheKey) o;
+        return queryString.equals(that.queryString) && parameterValues.equals(that.parameterValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.util;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ResultListIterator;
+import com.blazebit.persistence.spi.ScrollableExtendedQuerySupport;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
+import com.blazebit.persistence.spi.ServiceProvider;
+
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Utility methods to iterate over query results, falling back to the result list if the integration doesn't support scrolling.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ScrollUtils {
+
+    private ScrollUtils() {
+    }
+
+    public static CloseableIterator<Object> scroll(JpaProvider jpaProvider, Query query, int fetchSize) {
+        if (jpaProvider instanceof ScrollableJpaProvider) {
+            return ((ScrollableJpaProvider) jpaProvider).scroll(query, fetchSize);
+        }
+        return new ResultListIterator(query.getResultList());
+    }
+
+    public static CloseableIterator<Object> scroll(ExtendedQuerySupport extendedQuerySupport, ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize) {
+        if (extendedQuerySupport instanceof ScrollableExtendedQuerySupport) {
+            return ((ScrollableExtendedQuerySupport) extendedQuerySupport).scroll(serviceProvider, participatingQueries, query, sqlOverride, fetchSize);
+        }
+        return new ResultListIterator(extendedQuerySupport.getResultList(serviceProvider, participatingQueries, query, sqlOverride));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SqlTemplateTest {
+
+    @Test
+    public void renderSingleSlot() {
+        SqlTemplate template = compile("select a from b where a in (?) and c = ?", "ids", "select a from b where a in (?, ?) and c = ?");
+
+        Assert.assertEquals("select a from b where a in (?) and c = ?", template.getSql(sizes("ids", 1)));
+        Assert.assertEquals("select a from b where a in (?, ?, ?) and c = ?", template.getSql(sizes("ids", 3)));
+    }
+
+    @Test
+    public void renderRepeatedParameter() {
+        SqlTemplate template = compile("select a from b where a in (?) or c in (?)", "ids", "select a from b where a in (?,?) or c in (?,?)");
+
+        Assert.assertEquals("select a from b where a in (?,?,?) or c in (?,?,?)", template.getSql(sizes("ids", 3)));
+    }
+
+    @Test
+    public void renderMultipleParameters() {
+        Map<String, String> expandedSqls = new HashMap<>();
+        expandedSqls.put("ids", "select a from b where a in (?, ?) and c in (?)");
+        expandedSqls.put("names", "select a from b where a in (?) and c in (?, ?)");
+        SqlTemplate template = SqlTemplate.compile("select a from b where a in (?) and c in (?)", null, expandedSqls, Collections.<String, String>emptyMap());
+
+        Map<String, Collection<?>> sizes = sizes("ids", 2);
+        sizes.putAll(sizes("names", 4));
+        Assert.assertEquals("select a from b where a in (?, ?) and c in (?, ?, ?, ?)", template.getSql(sizes));
+    }
+
+    @Test
+    public void renderSlotAtEnd() {
+        SqlTemplate template = compile("select a from b where a = ?", "ids", "select a from b where a = ? or a = ?");
+
+        Assert.assertEquals("select a from b where a = ? or a = ? or a = ?", template.getSql(sizes("ids", 3)));
+    }
+
+    @Test
+    public void rejectUnexpectedExpansion() {
+        Assert.assertNull(compile("select a from b where a in (?)", "ids", "select a from b where a in (1, 2)"));
+        Assert.assertNull(compile("select a from b where a in (?)", "ids", "select x from b where a in (?, ?)"));
+    }
+
+    @Test
+    public void renderIgnoresQuotedPlaceholders() {
+        SqlTemplate template = compile(
+                "select '?', \"?\" from b /* ? */ where a in (?) and c = 'it''s?' -- ?\nand d = ?",
+                "ids",
+                "select '?', \"?\" from b /* ? */ where a in (?, ?) and c = 'it''s?' -- ?\nand d = ?"
+        );
+
+        Assert.assertEquals("select '?', \"?\" from b /* ? */ where a in (?, ?, ?) and c = 'it''s?' -- ?\nand d = ?", template.getSql(sizes("ids", 3)));
+    }
+
+    @Test
+    public void renderIgnoresEscapedQuestionMarkOperators() {
+        SqlTemplate template = compile("select a from b where a in (?) and c ??| d and e ?? ?", "ids", "select a from b where a in (?, ?) and c ??| d and e ?? ?");
+
+        Assert.assertEquals("select a from b where a in (?, ?, ?) and c ??| d and e ?? ?", template.getSql(sizes("ids", 3)));
+        Assert.assertArrayEquals(new int[]{ 28, 52 }, SqlTemplate.findPlaceholders("select a from b where a in (?) and c ??| d and e ?? ?"));
+    }
+
+    @Test
+    public void rejectExpansionInsideQuotedRegion() {
+        Assert.assertNull(compile("select a from b where a = '?'", "ids", "select a from b where a = '?, ?'"));
+        Assert.assertNull(compile("select a from b where a = ? /* ? */", "ids", "select a from b where a = ? /* ?, ? */"));
+    }
+
+    @Test
+    public void rejectPaddedExpansion() {
+        // Hibernate pads the expansion of collection parameters to the next power of two with in_clause_parameter_padding
+        SqlTemplate template = SqlTemplate.compile(
+                "select a from b where a in (?)",
+                null,
+                Collections.singletonMap("ids", "select a from b where a in (?, ?)"),
+                Collections.singletonMap("ids", "select a from b where a in (?, ?, ?, ?)")
+        );
+
+        Assert.assertNull(template);
+    }
+
+    @Test
+    public void verifyLinearExpansion() {
+        SqlTemplate template = SqlTemplate.compile(
+                "select a from b where a in (?)",
+                null,
+                Collections.singletonMap("ids", "select a from b where a in (?, ?)"),
+                Collections.singletonMap("ids", "select a from b where a in (?, ?, ?)")
+        );
+
+        Assert.assertEquals("select a from b where a in (?, ?, ?, ?, ?)", template.getSql(sizes("ids", 5)));
+    }
+
+    private static SqlTemplate compile(String sql, String parameterName, String expandedSql) {
+        return SqlTemplate.compile(sql, null, Collections.singletonMap(parameterName, expandedSql), Collections.<String, String>emptyMap());
+    }
+
+    private static Map<String, Collection<?>> sizes(String parameterName, int size) {
+        Map<String, Collection<?>> sizes = new HashMap<>();
+        sizes.put(parameterName, Arrays.asList(new Object[size]));
+        return sizes;
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An expression cache that bounds the amount of entries per cache name and evicts based on the W-TinyLFU policy.
+ *
+ * New entries enter a small LRU admission window. Entries leaving the window only enter the main segmented LRU
+ * if their estimated access frequency, tracked by a count-min sketch, is higher than the one of the main space victim.
+ * This keeps frequently used expressions cached while one-off expressions, like ones containing literal values, are evicted early.
+ *
+ * Reads never block. Access bookkeeping is skipped when the lock of a cache is contended, which only makes the policy less precise.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BoundedExpressionCache<T> implements StatisticsExpressionCache<T> {
+
+    /**
+     * The default maximum amount of entries per cache name.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private final int defaultMaximumSize;
+    private final Map<String, Integer> maximumSizes;
+    private final ConcurrentMap<String, Cache<T>> cacheManager;
+
+    public BoundedExpressionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public BoundedExpressionCache(int maximumSize) {
+        this(maximumSize, Collections.<String, Integer>emptyMap());
+    }
+
+    /**
+     * Creates a cache with the given default maximum size and maximum sizes per cache name.
+     * A cache name may be given fully qualified or by its last name part e.g. <code>SimpleExpression</code>.
+     *
+     * @param defaultMaximumSize The maximum size for caches that have no explicit maximum size
+     * @param maximumSizes The maximum sizes per cache name
+     */
+    public BoundedExpressionCache(int defaultMaximumSize, Map<String, Integer> maximumSizes) {
+        checkMaximumSize(null, defaultMaximumSize);
+        for (Map.Entry<String, Integer> entry : maximumSizes.entrySet()) {
+            checkMaximumSize(entry.getKey(), entry.getValue());
+        }
+        this.defaultMaximumSize = defaultMaximumSize;
+        this.maximumSizes = new HashMap<>(maximumSizes);
+        this.cacheManager = new ConcurrentHashMap<>();
+    }
+
+    private static void checkMaximumSize(String cacheName, Integer maximumSize) {
+        if (maximumSize == null || maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size " + maximumSize + (cacheName == null ? "" : " for expression cache " + cacheName) + ". The maximum size must be at least 1!");
+        }
+    }
+
+    @Override
+    public T get(String cacheName, Key key) {
+        return getCache(cacheName).get(key);
+    }
+
+    @Override
+    public T putIfAbsent(String cacheName, Key key, T value) {
+        return getCache(cacheName).putIfAbsent(key, value);
+    }
+
+    @Override
+    public Statistics getStatistics(String cacheName) {
+        Cache<T> cache = cacheManager.get(cacheName);
+        return cache == null ? null : cache.getStatistics();
+    }
+
+    @Override
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> statistics = new HashMap<>(cacheManager.size());
+        for (Map.Entry<String, Cache<T>> entry : cacheManager.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    public int getMaximumSize(String cacheName) {
+        Integer maximumSize = maximumSizes.get(cacheName);
+        if (maximumSize == null) {
+            maximumSize = maximumSizes.get(cacheName.substring(cacheName.lastIndexOf('.') + 1));
+            if (maximumSize == null) {
+                return defaultMaximumSize;
+            }
+        }
+        return maximumSize;
+    }
+
+    private Cache<T> getCache(String cacheName) {
+        Cache<T> cache = cacheManager.get(cacheName);
+        if (cache == null) {
+            cache = new Cache<>(getMaximumSize(cacheName));
+            Cache<T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
+            if (oldCache != null) {
+                cache = oldCache;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * A single bounded cache. The entries are split into an admission window, a probation and a protected segment.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class Cache<T> {
+
+        private static final byte WINDOW = 0;
+        private static final byte PROBATION = 1;
+        private static final byte PROTECTED = 2;
+        private static final byte REMOVED = 3;
+
+        private final ConcurrentMap<Key, Node<T>> data = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong evictionCount = new AtomicLong();
+        private final int maximumSize;
+        private final int maximumWindowSize;
+        private final int maximumProtectedSize;
+        private final FrequencySketch sketch;
+        private final NodeDeque<T> window = new NodeDeque<>();
+        private final NodeDeque<T> probation = new NodeDeque<>();
+        private final NodeDeque<T> protectedDeque = new NodeDeque<>();
+
+        Cache(int maximumSize) {
+            this.maximumSize = maximumSize;
+            // Like in the original W-TinyLFU paper, the window takes 1% and the protected segment 80% of the main space
+            this.maximumWindowSize = Math.max(1, maximumSize / 100);
+            this.maximumProtectedSize = (int) ((maximumSize - maximumWindowSize) * 0.8);
+            this.sketch = new FrequencySketch(maximumSize);
+        }
+
+        T get(Key key) {
+            Node<T> node = data.get(key);
+            if (node == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            if (lock.tryLock()) {
+                try {
+                    if (node.queue != REMOVED) {
+                        onAccess(node);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return node.value;
+        }
+
+        T putIfAbsent(Key key, T value) {
+            Node<T> node = data.get(key);
+            if (node != null) {
+                return node.value;
+            }
+            lock.lock();
+            try {
+                node = data.get(key);
+                if (node != null) {
+                    return node.value;
+                }
+                node = new Node<>(key, value);
+                data.put(key, node);
+                sketch.increment(key);
+                window.addLast(node);
+                evict();
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Statistics getStatistics() {
+            return new Statistics(hitCount.get(), missCount.get(), evictionCount.get(), data.size(), maximumSize);
+        }
+
+        private void onAccess(Node<T> node) {
+            sketch.increment(node.key);
+            switch (node.queue) {
+                case WINDOW:
+                    window.moveToBack(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    node.queue = PROTECTED;
+                    protectedDeque.addLast(node);
+                    // Demote the least recently used protected entries to make room
+                    while (protectedDeque.size > maximumProtectedSize) {
+                        Node<T> demoted = protectedDeque.pollFirst();
+                        demoted.queue = PROBATION;
+                        probation.addLast(demoted);
+                    }
+                    break;
+                case PROTECTED:
+                    protectedDeque.moveToBack(node);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void evict() {
+            // Entries leaving the window become admission candidates at the tail of the probation segment
+            Node<T> candidate = null;
+            while (window.size > maximumWindowSize) {
+                Node<T> node = window.pollFirst();
+                node.queue = PROBATION;
+                probation.addLast(node);
+                if (candidate == null) {
+                    candidate = node;
+                }
+            }
+
+            while (window.size + probation.size + protectedDeque.size > maximumSize) {
+                Node<T> victim = probation.peekFirst();
+                if (victim == null) {
+                    victim = protectedDeque.peekFirst();
+                    if (victim == null) {
+                        victim = window.peekFirst();
+                    }
+                    remove(victim);
+                } else if (candidate == null) {
+                    remove(victim);
+                } else if (victim == candidate) {
+                    candidate = candidate.next;
+                    remove(victim);
+                } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    remove(victim);
+                } else {
+                    Node<T> nextCandidate = candidate.next;
+                    remove(candidate);
+                    candidate = nextCandidate;
+                }
+            }
+        }
+
+        private void remove(Node<T> node) {
+            switch (node.queue) {
+                case WINDOW:
+                    window.remove(node);
+                    break;
+                case PROBATION:
+                    probation.remove(node);
+                    break;
+                case PROTECTED:
+                    protectedDeque.remove(node);
+                    break;
+                default:
+                    return;
+            }
+            node.queue = REMOVED;
+            data.remove(node.key, node);
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class Node<T> {
+        final Key key;
+        final T value;
+        byte queue;
+        Node<T> prev;
+        Node<T> next;
+
+        Node(Key key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * An intrusive doubly linked list ordered from least to most recently used.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class NodeDeque<T> {
+        Node<T> first;
+        Node<T> last;
+        int size;
+
+        Node<T> peekFirst() {
+            return first;
+        }
+
+        Node<T> pollFirst() {
+            Node<T> node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void addLast(Node<T> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void remove(Node<T> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToBack(Node<T> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch with 4 bit counters that estimates the access frequency of keys.
+     * All counters are halved after a sample period so that the frequencies reflect recent usage.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class FrequencySketch {
+
+        private static final int[] SEEDS = { 0x97CB3127, 0xB1A5C3E1, 0xC2B2AE35, 0x85EBCA6B };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] table;
+        private final int shift;
+        private final int samplePeriod;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+            this.table = new byte[SEEDS.length][width];
+            this.shift = Integer.numberOfLeadingZeros(width) + 1;
+            this.samplePeriod = maximumSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : maximumSize * 10;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                if (table[i][index] < MAX_COUNT) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= samplePeriod) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions >>>= 1;
+        }
+
+        private int index(int hash, int row) {
+            // Multiplicative hashing, the high bits of the product depend on all bits of the hash
+            return (hash * SEEDS[row]) >>> shift;
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
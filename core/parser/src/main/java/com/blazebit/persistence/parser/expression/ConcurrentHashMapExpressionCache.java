@@ -16,17 +16,21 @@
 
 package com.blazebit.persistence.parser.expression;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * An unbounded expression cache that never evicts entries.
  *
  * @author Christian Beikov
  * @since 1.2.0
  */
-public class ConcurrentHashMapExpressionCache<T> implements ExpressionCache<T> {
+public class ConcurrentHashMapExpressionCache<T> implements StatisticsExpressionCache<T> {
 
-    private final ConcurrentMap<String, ConcurrentMap<Key, T>> cacheManager;
+    private final ConcurrentMap<String, Cache<T>> cacheManager;
 
     public ConcurrentHashMapExpressionCache() {
         this.cacheManager = new ConcurrentHashMap<>();
@@ -34,29 +38,71 @@ public class ConcurrentHashMapExpressionCache<T> implements ExpressionCache<T> {
 
     @Override
     public T get(String cacheName, Key key) {
-        final ConcurrentMap<Key, T> cache = cacheManager.get(cacheName);
-        return cache == null ? null : cache.get(key);
+        final Cache<T> cache = cacheManager.get(cacheName);
+        if (cache == null) {
+            return null;
+        }
+        T value = cache.map.get(key);
+        if (value == null) {
+            cache.missCount.incrementAndGet();
+        } else {
+            cache.hitCount.incrementAndGet();
+        }
+        return value;
     }
 
     @Override
     public T putIfAbsent(String cacheName, Key key, T value) {
         // Find the cache manager
-        ConcurrentMap<Key, T> cache = cacheManager.get(cacheName);
+        Cache<T> cache = cacheManager.get(cacheName);
 
         if (cache == null) {
-            cache = new ConcurrentHashMap<>();
-            ConcurrentMap<Key, T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
+            cache = new Cache<>();
+            Cache<T> oldCache = cacheManager.putIfAbsent(cacheName, cache);
 
             if (oldCache != null) {
                 cache = oldCache;
+            } else {
+                // The get call that lead to this put didn't find a cache and couldn't record the miss
+                cache.missCount.incrementAndGet();
             }
         }
 
-        T oldValue = cache.putIfAbsent(key, value);
+        T oldValue = cache.map.putIfAbsent(key, value);
         if (oldValue != null) {
             return oldValue;
         }
 
         return value;
     }
+
+    @Override
+    public Statistics getStatistics(String cacheName) {
+        Cache<T> cache = cacheManager.get(cacheName);
+        return cache == null ? null : cache.getStatistics();
+    }
+
+    @Override
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> statistics = new HashMap<>(cacheManager.size());
+        for (Map.Entry<String, Cache<T>> entry : cacheManager.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class Cache<T> {
+        final ConcurrentMap<Key, T> map = new ConcurrentHashMap<>();
+        final AtomicLong hitCount = new AtomicLong();
+        final AtomicLong missCount = new AtomicLong();
+
+        Statistics getStatistics() {
+            return new Statistics(hitCount.get(), missCount.get(), 0L, map.size(), -1);
+        }
+    }
 }
@@ -25,7 +25,7 @@ package com.blazebit.persistence.parser.expression;
 public class SimpleCachingExpressionFactory extends AbstractCachingExpressionFactory {
 
     public SimpleCachingExpressionFactory(ExpressionFactory delegate) {
-        super(delegate, new ConcurrentHashMapExpressionCache());
+        super(delegate, new BoundedExpressionCache());
     }
 
     public SimpleCachingExpressionFactory(ExpressionFactory delegate, ExpressionCache expressionCache) {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.Map;
+
+/**
+ * An expression cache that also collects hit, miss and eviction counters.
+ * Whether statistics are available for the configured expression cache can be checked with <code>instanceof</code>.
+ *
+ * @param <T> The type of the cached values
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public interface StatisticsExpressionCache<T> extends ExpressionCache<T> {
+
+    /**
+     * Returns a snapshot of the statistics of the cache with the given name or <code>null</code> if no such cache exists yet.
+     *
+     * @param cacheName The name of the cache
+     * @return The statistics snapshot or <code>null</code>
+     */
+    public Statistics getStatistics(String cacheName);
+
+    /**
+     * Returns snapshots of the statistics of all caches, keyed by cache name.
+     *
+     * @return The statistics snapshots
+     */
+    public Map<String, Statistics> getStatistics();
+
+    /**
+     * A point in time snapshot of the hit, miss and eviction counters of a cache.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final int maximumSize;
+
+        public Statistics(long hitCount, long missCount, long evictionCount, int size, int maximumSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.maximumSize = maximumSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the maximum amount of entries of the cache or <code>-1</code> if the cache is unbounded.
+         *
+         * @return The maximum size or <code>-1</code>
+         */
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", maximumSize=" + maximumSize +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.StatisticsExpressionCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String CACHE_NAME = "com.blazebit.persistence.parser.expression.cache.SimpleExpression";
+
+    private static ExpressionCache.Key key(String expression) {
+        return new ExpressionCache.Key(expression, false, false, false);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        StatisticsExpressionCache<String> cache = new BoundedExpressionCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.putIfAbsent(CACHE_NAME, key("a.b = " + i), "value" + i);
+        }
+
+        StatisticsExpressionCache.Statistics statistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertEquals(100, statistics.getSize());
+        Assert.assertEquals(100, statistics.getMaximumSize());
+        Assert.assertEquals(900, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveOneOffEntries() {
+        StatisticsExpressionCache<String> cache = new BoundedExpressionCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(CACHE_NAME, key("hot" + i), "hot" + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("hot" + i, cache.get(CACHE_NAME, key("hot" + i)));
+            }
+        }
+        // Expressions with literals are usually used only once while the others are reused
+        for (int i = 0; i < 10000; i++) {
+            if (i % 100 == 0) {
+                for (int j = 0; j < 50; j++) {
+                    cache.get(CACHE_NAME, key("hot" + j));
+                }
+            }
+            String expression = "a.b = " + i;
+            Assert.assertNull(cache.get(CACHE_NAME, key(expression)));
+            cache.putIfAbsent(CACHE_NAME, key(expression), expression);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals("hot" + i, cache.get(CACHE_NAME, key("hot" + i)));
+        }
+        Assert.assertEquals(100, cache.getStatistics(CACHE_NAME).getSize());
+    }
+
+    @Test
+    public void testStatistics() {
+        StatisticsExpressionCache<String> cache = new BoundedExpressionCache<>(10);
+        Assert.assertNull(cache.getStatistics(CACHE_NAME));
+        Assert.assertNull(cache.get(CACHE_NAME, key("a")));
+        Assert.assertEquals("1", cache.putIfAbsent(CACHE_NAME, key("a"), "1"));
+        Assert.assertEquals("1", cache.putIfAbsent(CACHE_NAME, key("a"), "2"));
+        Assert.assertEquals("1", cache.get(CACHE_NAME, key("a")));
+        Assert.assertEquals("1", cache.get(CACHE_NAME, key("a")));
+
+        StatisticsExpressionCache.Statistics statistics = cache.getStatistics(CACHE_NAME);
+        Assert.assertEquals(2, statistics.getHitCount());
+        Assert.assertEquals(1, statistics.getMissCount());
+        Assert.assertEquals(0, statistics.getEvictionCount());
+        Assert.assertEquals(1, statistics.getSize());
+        Assert.assertEquals(Collections.singleton(CACHE_NAME), cache.getStatistics().keySet());
+    }
+
+    @Test
+    public void testMaximumSizePerCacheName() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(100, Collections.singletonMap("SimpleExpression", 10));
+        Assert.assertEquals(10, cache.getMaximumSize(CACHE_NAME));
+        Assert.assertEquals(100, cache.getMaximumSize("com.blazebit.persistence.parser.expression.cache.PathExpression"));
+        for (int i = 0; i < 100; i++) {
+            cache.putIfAbsent(CACHE_NAME, key("a.b = " + i), "value" + i);
+        }
+        Assert.assertEquals(10, cache.getStatistics(CACHE_NAME).getSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new BoundedExpressionCache<>(0);
+    }
+}
@@ -23,6 +23,7 @@ import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.SetOperationType;
+import com.blazebit.persistence.spi.UpsertStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
 import java.sql.PreparedStatement;
@@ -190,6 +191,16 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.getLateralStyle();
     }
 
+    @Override
+    public UpsertStyle getUpsertStyle() {
+        return delegate.getUpsertStyle();
+    }
+
+    @Override
+    public void appendUpsert(StringBuilder sqlSb, String[] conflictColumns, String[] updateColumns) {
+        delegate.appendUpsert(sqlSb, conflictColumns, updateColumns);
+    }
+
     @Override
     public boolean supportsFullRowValueComparison() {
         return delegate.supportsFullRowValueComparison();
@@ -205,6 +216,21 @@ public class DelegatingDbmsDialect implements DbmsDialect {
         return delegate.getValuesStrategy();
     }
 
+    @Override
+    public String getArraySqlType(String sqlType) {
+        return delegate.getArraySqlType(sqlType);
+    }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return delegate.getRowCountEstimateSql(sql);
+    }
+
+    @Override
+    public long getRowCountEstimate(List<?> resultList) {
+        return delegate.getRowCountEstimate(resultList);
+    }
+
     @Override
     public boolean needsCastParameters() {
         return delegate.needsCastParameters();
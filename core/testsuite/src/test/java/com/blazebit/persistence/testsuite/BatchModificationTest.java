@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.DeleteCriteriaBuilder;
+import com.blazebit.persistence.UpdateCriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.KeysetEntity;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BatchModificationTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            KeysetEntity.class
+        };
+    }
+
+    @Before
+    public void setUp() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new KeysetEntity(1, 1, 1));
+                em.persist(new KeysetEntity(2, 2, 2));
+                em.persist(new KeysetEntity(3, 3, 3));
+            }
+        });
+    }
+
+    @Test
+    public void testUpdateBatch() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                UpdateCriteriaBuilder<KeysetEntity> cb = cbf.update(em, KeysetEntity.class, "k");
+                cb.setExpression("a", ":a");
+                cb.where("id").eqExpression(":id");
+
+                List<Map<String, Object>> parameterSets = new ArrayList<>();
+                parameterSets.add(parameters(1, 10));
+                parameterSets.add(parameters(2, 20));
+                parameterSets.add(parameters(4, 40));
+
+                int[] updateCounts = cb.executeBatch(parameterSets);
+                assertArrayEquals(new int[]{ 1, 1, 0 }, updateCounts);
+            }
+        });
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertEquals(Integer.valueOf(10), em.find(KeysetEntity.class, 1).getA());
+                assertEquals(Integer.valueOf(20), em.find(KeysetEntity.class, 2).getA());
+                assertEquals(Integer.valueOf(3), em.find(KeysetEntity.class, 3).getA());
+            }
+        });
+    }
+
+    @Test
+    public void testDeleteBatch() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                DeleteCriteriaBuilder<KeysetEntity> cb = cbf.delete(em, KeysetEntity.class, "k");
+                cb.where("id").eqExpression(":id");
+
+                List<Map<String, Object>> parameterSets = new ArrayList<>();
+                parameterSets.add(Collections.<String, Object>singletonMap("id", 1));
+                parameterSets.add(Collections.<String, Object>singletonMap("id", 3));
+
+                int[] updateCounts = cb.executeBatch(parameterSets);
+                assertArrayEquals(new int[]{ 1, 1 }, updateCounts);
+            }
+        });
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertNull(em.find(KeysetEntity.class, 1));
+                assertEquals(Integer.valueOf(2), em.find(KeysetEntity.class, 2).getA());
+                assertNull(em.find(KeysetEntity.class, 3));
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                DeleteCriteriaBuilder<KeysetEntity> cb = cbf.delete(em, KeysetEntity.class, "k");
+                cb.where("id").eqExpression(":id");
+
+                int[] updateCounts = cb.executeBatch(Collections.<Map<String, Object>>emptyList());
+                assertEquals(0, updateCounts.length);
+            }
+        });
+    }
+
+    @Test
+    public void testCollectionParameterNotSupported() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                DeleteCriteriaBuilder<KeysetEntity> cb = cbf.delete(em, KeysetEntity.class, "k");
+                cb.where("id").inExpressions(":ids");
+
+                try {
+                    cb.executeBatch(Collections.singletonList(Collections.<String, Object>singletonMap("ids", Arrays.asList(1, 2))));
+                    fail("Expected IllegalArgumentException");
+                } catch (IllegalArgumentException ex) {
+                    // expected
+                }
+            }
+        });
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesParameterBatch() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                DeleteCriteriaBuilder<KeysetEntity> cb = cbf.delete(em, KeysetEntity.class, "k");
+                cb.where("id").in()
+                        .fromValues(Integer.class, "v", 1)
+                        .select("v")
+                    .end();
+
+                List<Map<String, Object>> parameterSets = new ArrayList<>();
+                parameterSets.add(Collections.<String, Object>singletonMap("v", Collections.singletonList(1)));
+                parameterSets.add(Collections.<String, Object>singletonMap("v", Collections.singletonList(3)));
+
+                int[] updateCounts = cb.executeBatch(parameterSets);
+                assertArrayEquals(new int[]{ 1, 1 }, updateCounts);
+            }
+        });
+
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertNull(em.find(KeysetEntity.class, 1));
+                assertEquals(Integer.valueOf(2), em.find(KeysetEntity.class, 2).getA());
+                assertNull(em.find(KeysetEntity.class, 3));
+            }
+        });
+    }
+
+    private static Map<String, Object> parameters(Integer id, Integer a) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("id", id);
+        parameters.put("a", a);
+        return parameters;
+    }
+}
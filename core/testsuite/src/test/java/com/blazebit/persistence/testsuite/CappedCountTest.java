@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.TotalSizeType;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class CappedCountTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("P1");
+                em.persist(p);
+                em.persist(new Document("D1", p));
+                em.persist(new Document("D2", p));
+                em.persist(new Document("D3", p));
+                em.persist(new Document("E1", p));
+            }
+        });
+    }
+
+    @Test
+    public void testCountBelowCapIsExact() {
+        PagedList<Document> result = getPage("D%", 0, 5);
+
+        assertEquals(3L, result.getTotalSize());
+        assertEquals(TotalSizeType.EXACT, result.getTotalSizeType());
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testCountAtCapIsExact() {
+        PagedList<Document> result = getPage("D%", 0, 3);
+
+        assertEquals(3L, result.getTotalSize());
+        assertEquals(TotalSizeType.EXACT, result.getTotalSizeType());
+    }
+
+    @Test
+    public void testCountAboveCapIsCapped() {
+        PagedList<Document> result = getPage("D%", 0, 2);
+
+        assertEquals(2L, result.getTotalSize());
+        assertEquals(TotalSizeType.CAPPED, result.getTotalSizeType());
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testPageBeyondCap() {
+        PagedList<Document> result = getPage("D%", 2, 2);
+
+        assertEquals(TotalSizeType.CAPPED, result.getTotalSizeType());
+        assertEquals(1, result.size());
+        assertEquals("D3", result.get(0).getName());
+    }
+
+    @Test
+    public void testCappedCountWithCollectionJoin() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .leftJoin("d.people", "p")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withCountCap(10)
+                .getResultList();
+
+        assertEquals(4L, result.getTotalSize());
+        assertEquals(TotalSizeType.EXACT, result.getTotalSizeType());
+    }
+
+    @Test
+    public void testUncappedCountIsExact() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d").orderByAsc("d.id").page(0, 1).getResultList();
+
+        assertEquals(4L, result.getTotalSize());
+        assertEquals(TotalSizeType.EXACT, result.getTotalSizeType());
+    }
+
+    @Test
+    public void testCountCapDisablesInlineCountQuery() {
+        assertFalse(cbf.create(em, Document.class, "d").orderByAsc("d.id").page(0, 1).withCountCap(10).isWithInlineCountQuery());
+    }
+
+    private PagedList<Document> getPage(String namePattern, int firstResult, long countCap) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.name").like().value(namePattern).noEscape()
+                .orderByAsc("d.id")
+                .page(firstResult, 1)
+                .withCountCap(countCap)
+                .getResultList();
+    }
+}
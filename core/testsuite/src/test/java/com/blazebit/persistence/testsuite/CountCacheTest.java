@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.impl.plan.DefaultCountCache;
+import com.blazebit.persistence.spi.CountCache;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class CountCacheTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("P1");
+                em.persist(p);
+                em.persist(new Document("D1", p));
+                em.persist(new Document("D2", p));
+                em.persist(new Document("E1", p));
+            }
+        });
+    }
+
+    @Before
+    public void clearCountCache() {
+        ((DefaultCountCache) cbf.getService(CountCache.class)).clear();
+    }
+
+    @Test
+    public void testCachedCount() {
+        PagedList<Document> first = getPage("D%", 0);
+        PagedList<Document> second = getPage("D%", 1);
+
+        assertEquals(2L, first.getTotalSize());
+        assertFalse(first.isTotalSizeCached());
+        assertEquals(2L, second.getTotalSize());
+        assertTrue(second.isTotalSizeCached());
+    }
+
+    @Test
+    public void testCachedCountIsKeyedByParameterValues() {
+        getPage("D%", 0);
+        PagedList<Document> other = getPage("E%", 0);
+
+        assertEquals(1L, other.getTotalSize());
+        assertFalse(other.isTotalSizeCached());
+    }
+
+    @Test
+    public void testCachedCountIsKeyedByEntityIdentifier() {
+        Person owner = cbf.create(em, Person.class, "p").getSingleResult();
+        getPageByOwner(owner, 0);
+        em.clear();
+        Person reloadedOwner = cbf.create(em, Person.class, "p").getSingleResult();
+        PagedList<Document> result = getPageByOwner(reloadedOwner, 1);
+
+        assertEquals(3L, result.getTotalSize());
+        assertTrue(result.isTotalSizeCached());
+    }
+
+    @Test
+    public void testCachedCountCopiesParameterValues() {
+        List<String> names = new ArrayList<>(Arrays.asList("D1", "D2"));
+        getPageByNames(names, 0);
+        names.remove("D2");
+        PagedList<Document> changed = getPageByNames(names, 0);
+        PagedList<Document> original = getPageByNames(new ArrayList<>(Arrays.asList("D1", "D2")), 1);
+
+        assertEquals(1L, changed.getTotalSize());
+        assertFalse(changed.isTotalSizeCached());
+        assertEquals(2L, original.getTotalSize());
+        assertTrue(original.isTotalSizeCached());
+    }
+
+    @Test
+    public void testCachedCountExpires() throws Exception {
+        cbf.create(em, Document.class, "d").where("d.name").like().value("D%").noEscape()
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withCachedCount(1, TimeUnit.MILLISECONDS)
+                .getResultList();
+        Thread.sleep(10L);
+        PagedList<Document> result = cbf.create(em, Document.class, "d").where("d.name").like().value("D%").noEscape()
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withCachedCount(1, TimeUnit.MILLISECONDS)
+                .getResultList();
+
+        assertFalse(result.isTotalSizeCached());
+    }
+
+    @Test
+    public void testCachedCountDisablesInlineCountQuery() {
+        assertFalse(cbf.create(em, Document.class, "d").orderByAsc("d.id").page(0, 1).withCachedCount(1, TimeUnit.MINUTES).isWithInlineCountQuery());
+    }
+
+    private PagedList<Document> getPageByOwner(Person owner, int page) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner").eq(owner)
+                .orderByAsc("d.id")
+                .page(page, 1)
+                .withCachedCount(1, TimeUnit.MINUTES)
+                .getResultList();
+    }
+
+    private PagedList<Document> getPageByNames(List<String> names, int page) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.name").in(names)
+                .orderByAsc("d.id")
+                .page(page, 1)
+                .withCachedCount(1, TimeUnit.MINUTES)
+                .getResultList();
+    }
+
+    private PagedList<Document> getPage(String namePattern, int page) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.name").like().value(namePattern).noEscape()
+                .orderByAsc("d.id")
+                .page(page, 1)
+                .withCachedCount(1, TimeUnit.MINUTES)
+                .getResultList();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQLOld;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.IdHolderCTE;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class InListPaddingTest extends AbstractCoreTest {
+
+    private Document doc1;
+    private Document doc2;
+    private Document doc3;
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return concat(super.getEntityClasses(), new Class<?>[] {
+            IdHolderCTE.class
+        });
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("P1");
+                em.persist(o1);
+
+                doc1 = new Document("D1", o1);
+                doc2 = new Document("D2", o1);
+                doc3 = new Document("D3", o1);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Test
+    public void testPaddingDisabledByDefault() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .from(Document.class, "d")
+                .select("d.id")
+                .where("d.id").inExpressions(":ids")
+                .setParameter("ids", Arrays.asList(doc1.getId(), doc2.getId(), doc3.getId()));
+
+        TypedQuery<Long> query = cb.getQuery();
+        assertEquals(3, ((Collection<?>) query.getParameterValue("ids")).size());
+        assertEquals(3, query.getResultList().size());
+    }
+
+    @Test
+    public void testPadding() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .from(Document.class, "d")
+                .select("d.id")
+                .where("d.id").inExpressions(":ids")
+                .setProperty(ConfigurationProperties.IN_LIST_PADDING, "true")
+                .setParameter("ids", Arrays.asList(doc1.getId(), doc2.getId(), doc3.getId()));
+
+        TypedQuery<Long> query = cb.getQuery();
+        assertEquals(Arrays.asList(doc1.getId(), doc2.getId(), doc3.getId(), doc3.getId()), query.getParameterValue("ids"));
+        assertEquals(3, query.getResultList().size());
+    }
+
+    @Test
+    public void testNoPaddingForPowerOfTwo() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .from(Document.class, "d")
+                .select("d.id")
+                .where("d.id").inExpressions(":ids")
+                .setProperty(ConfigurationProperties.IN_LIST_PADDING, "true")
+                .setParameter("ids", Arrays.asList(doc1.getId(), doc2.getId()));
+
+        TypedQuery<Long> query = cb.getQuery();
+        assertEquals(2, ((Collection<?>) query.getParameterValue("ids")).size());
+        assertEquals(2, query.getResultList().size());
+    }
+
+    // Padding must also apply to parameters of custom SQL queries
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQLOld.class })
+    public void testPaddingWithCte() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .with(IdHolderCTE.class)
+                    .from(Document.class, "d")
+                    .bind("id").select("d.id")
+                    .where("d.id").inExpressions(":ids")
+                .end()
+                .from(IdHolderCTE.class, "h")
+                .select("h.id")
+                .setProperty(ConfigurationProperties.IN_LIST_PADDING, "true")
+                .setParameter("ids", Arrays.asList(doc1.getId(), doc2.getId(), doc3.getId()));
+
+        TypedQuery<Long> query = cb.getQuery();
+        assertEquals(4, ((Collection<?>) query.getParameterValue("ids")).size());
+        List<Long> resultList = query.getResultList();
+        assertEquals(3, resultList.size());
+    }
+}
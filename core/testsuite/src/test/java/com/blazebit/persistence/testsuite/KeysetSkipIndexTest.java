@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.keyset.KeysetSkipIndex;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class KeysetSkipIndexTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("P1");
+                em.persist(p);
+                for (int i = 0; i < 10; i++) {
+                    em.persist(new Document("D" + i, p));
+                }
+            }
+        });
+    }
+
+    @Before
+    public void clearKeysetSkipIndex() {
+        cbf.getService(KeysetSkipIndex.class).clear();
+    }
+
+    @Test
+    public void testSeekFromRecordedKeyset() {
+        // Serving the first two pages records the keyset of the fourth row
+        createPageBuilder(0).getResultList();
+        createPageBuilder(2).getResultList();
+
+        PaginatedCriteriaBuilder<Document> cb = createPageBuilder(6);
+        String offsetQueryString = cb.getQueryString();
+        PagedList<Document> result = cb.getResultList();
+
+        assertEquals(10L, result.getTotalSize());
+        assertEquals(6, result.getFirstResult());
+        assertEquals(2, result.size());
+        assertEquals("D6", result.get(0).getName());
+        assertEquals("D7", result.get(1).getName());
+        assertNotNull(result.getKeysetPage());
+        // Seeking happens on a copy, so the builder itself is not changed
+        assertEquals(offsetQueryString, cb.getQueryString());
+        PagedList<Document> repeatedResult = cb.getResultList();
+        assertEquals(2, repeatedResult.size());
+        assertEquals("D6", repeatedResult.get(0).getName());
+        assertEquals("D7", repeatedResult.get(1).getName());
+    }
+
+    @Test
+    public void testRecordedPositionsAreBoundToParameters() {
+        cbf.create(em, Document.class, "d")
+                .where("d.name").notEqExpression(":name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(2, 2)
+                .withKeysetSkipIndex(2)
+                .setParameter("name", "D9")
+                .getResultList();
+
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .where("d.name").notEqExpression(":name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(4, 2)
+                .withKeysetSkipIndex(2)
+                .setParameter("name", "D0")
+                .getResultList();
+
+        assertEquals(2, result.size());
+        assertEquals("D5", result.get(0).getName());
+        assertEquals("D6", result.get(1).getName());
+    }
+
+    @Test
+    public void testKeysetSkipIndexEnablesExtractAllKeysets() {
+        assertTrue(createPageBuilder(0).isWithExtractAllKeysets());
+        assertEquals(0, createPageBuilder(0).withKeysetExtraction(false).getKeysetSkipIndexPageInterval());
+    }
+
+    @Test
+    public void testExpiredPositionsAreDiscarded() throws Exception {
+        KeysetSkipIndex keysetSkipIndex = new KeysetSkipIndex(16, 1L);
+        Map<String, Object> parameterValues = Collections.emptyMap();
+        keysetSkipIndex.getPositions("SELECT d FROM Document d", parameterValues).record(2, new Serializable[]{ "D1" });
+        Thread.sleep(10L);
+
+        KeysetSkipIndex.Positions positions = keysetSkipIndex.getPositions("SELECT d FROM Document d", parameterValues);
+        assertEquals(0, positions.size());
+        assertNull(positions.seek(2));
+    }
+
+    @Test
+    public void testPositionsWithoutTimeToLiveDoNotExpire() throws Exception {
+        KeysetSkipIndex keysetSkipIndex = new KeysetSkipIndex(16, 0L);
+        Map<String, Object> parameterValues = Collections.emptyMap();
+        keysetSkipIndex.getPositions("SELECT d FROM Document d", parameterValues).record(2, new Serializable[]{ "D1" });
+        Thread.sleep(10L);
+
+        KeysetSkipIndex.Entry entry = keysetSkipIndex.getPositions("SELECT d FROM Document d", parameterValues).seek(3);
+        assertNotNull(entry);
+        assertEquals(2, entry.getPosition());
+    }
+
+    private PaginatedCriteriaBuilder<Document> createPageBuilder(int firstResult) {
+        return cbf.create(em, Document.class, "d")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(firstResult, 2)
+                .withKeysetSkipIndex(2);
+    }
+}
@@ -176,7 +176,9 @@ public class OptimizedKeysetPaginationRowValueConstructorTest extends AbstractCo
         assertEquals("doc1", result.get(1).get(0));
         assertEquals(
                 "SELECT d.name, owner_1.name, CASE WHEN d.age = 18 THEN true ELSE false END AS underaged, d.id FROM Document d JOIN d.owner owner_1 "
-                        + "WHERE " + function("compare_row_value", "'<'", "CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_2=CASE WHEN d.age = 18 THEN true ELSE false END) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_3=d.id) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END") + " = true"
+                        + "WHERE " + function("compare_row_value", "'<='", "CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END") + " = true"
+                        + " AND (" + function("compare_row_value", "'<'", "CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END") + " = true"
+                        + " OR (owner_1.name = :_keysetParameter_0 AND d.name = :_keysetParameter_1 AND " + function("compare_row_value", "'>'", "CASE WHEN (1=NULLIF(1,1) AND CASE WHEN d.age = 18 THEN true ELSE false END=:_keysetParameter_2) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.id=:_keysetParameter_3) THEN 1 ELSE 0 END") + " = true))"
                         + " ORDER BY owner_1.name DESC, d.name DESC, underaged ASC, d.id ASC",
                 pcb.withInlineCountQuery(false).getQueryString()
         );
@@ -189,7 +191,9 @@ public class OptimizedKeysetPaginationRowValueConstructorTest extends AbstractCo
         assertEquals("doc3", result.get(1).get(0));
         assertEquals(
                 "SELECT d.name, owner_1.name, CASE WHEN d.age = 18 THEN true ELSE false END AS underaged, d.id FROM Document d JOIN d.owner owner_1 "
-                        + "WHERE " + function("compare_row_value", "'<'", "CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_0=owner_1.name) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_1=d.name) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND CASE WHEN d.age = 18 THEN true ELSE false END=:_keysetParameter_2) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.id=:_keysetParameter_3) THEN 1 ELSE 0 END") + " = true"
+                        + "WHERE " + function("compare_row_value", "'>='", "CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END") + " = true"
+                        + " AND (" + function("compare_row_value", "'>'", "CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END") + " = true"
+                        + " OR (owner_1.name = :_keysetParameter_0 AND d.name = :_keysetParameter_1 AND " + function("compare_row_value", "'<'", "CASE WHEN (1=NULLIF(1,1) AND CASE WHEN d.age = 18 THEN true ELSE false END=:_keysetParameter_2) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.id=:_keysetParameter_3) THEN 1 ELSE 0 END") + " = true))"
                         + " ORDER BY owner_1.name ASC, d.name ASC, underaged DESC, d.id DESC",
                 pcb.withInlineCountQuery(false).getQueryString()
         );
@@ -298,7 +302,8 @@ public class OptimizedKeysetPaginationRowValueConstructorTest extends AbstractCo
         result = pcb.getResultList();
         // Finally we can use the key set
         expectedObjectQuery = "SELECT d.name, owner_1.name, d.id FROM Document d JOIN d.owner owner_1 "
-                + "WHERE " + function("compare_row_value", "'<'", "CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_1=d.name) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_2=d.id) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END") + " = true"
+                + "WHERE owner_1.name <= :_keysetParameter_0 AND (owner_1.name < :_keysetParameter_0"
+                + " OR (owner_1.name = :_keysetParameter_0 AND " + function("compare_row_value", "'>'", "CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.id=:_keysetParameter_2) THEN 1 ELSE 0 END") + " = true))"
                 + " ORDER BY owner_1.name DESC, d.name ASC, d.id ASC";
         assertEquals(expectedObjectQuery, pcb.withInlineCountQuery(false).getQueryString());
 
@@ -306,7 +311,8 @@ public class OptimizedKeysetPaginationRowValueConstructorTest extends AbstractCo
         result = pcb.getResultList();
         // Same page again key set
         expectedObjectQuery = "SELECT d.name, owner_1.name, d.id FROM Document d JOIN d.owner owner_1 "
-                + "WHERE " + function("compare_row_value", "'<='", "CASE WHEN (1=NULLIF(1,1) AND 1=NULLIF(1,1)) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_1=d.name) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND :_keysetParameter_2=d.id) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND owner_1.name=:_keysetParameter_0) THEN 1 ELSE 0 END") + " = true"
+                + "WHERE owner_1.name <= :_keysetParameter_0 AND (owner_1.name < :_keysetParameter_0"
+                + " OR (owner_1.name = :_keysetParameter_0 AND " + function("compare_row_value", "'>='", "CASE WHEN (1=NULLIF(1,1) AND d.name=:_keysetParameter_1) THEN 1 ELSE 0 END,CASE WHEN (1=NULLIF(1,1) AND d.id=:_keysetParameter_2) THEN 1 ELSE 0 END") + " = true))"
                 + " ORDER BY owner_1.name DESC, d.name ASC, d.id ASC";
         assertEquals(expectedObjectQuery, pcb.withInlineCountQuery(false).getQueryString());
 
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ParallelCountTest extends AbstractCoreTest {
+
+    private ExecutorService executor;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("P1");
+                em.persist(p);
+                em.persist(new Document("D1", p));
+                em.persist(new Document("D2", p));
+                em.persist(new Document("E1", p));
+            }
+        });
+    }
+
+    @Before
+    public void createExecutor() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testParallelCount() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .where("d.name").like().value("D%").noEscape()
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withParallelCount(emf, executor)
+                .getResultList();
+
+        assertEquals(2L, result.getTotalSize());
+        assertEquals(1, result.size());
+        assertEquals("D1", result.get(0).getName());
+    }
+
+    @Test
+    public void testParallelCountWithParameter() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .where("d.name").eqExpression(":name")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withParallelCount(emf, executor)
+                .setParameter("name", "E1")
+                .getResultList();
+
+        assertEquals(1L, result.getTotalSize());
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testParallelCountOfEmptyPage() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(10, 1)
+                .withParallelCount(emf, executor)
+                .getResultList();
+
+        assertEquals(3L, result.getTotalSize());
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void testParallelCountDisablesInlineCountQuery() {
+        assertTrue(cbf.create(em, Document.class, "d").orderByAsc("d.id").page(0, 1).withParallelCount(emf, executor).isWithParallelCount());
+        assertFalse(cbf.create(em, Document.class, "d").orderByAsc("d.id").page(0, 1).withParallelCount(emf, executor).isWithInlineCountQuery());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.QueryMetrics;
+import com.blazebit.persistence.spi.QueryMetricsListener;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class QueryMetricsListenerTest extends AbstractCoreTest {
+
+    private static final List<QueryMetrics> METRICS = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected CriteriaBuilderConfiguration configure(CriteriaBuilderConfiguration config) {
+        config = super.configure(config);
+        config.registerQueryMetricsListener(new QueryMetricsListener() {
+            @Override
+            public void onQueryExecuted(QueryMetrics metrics) {
+                METRICS.add(metrics);
+            }
+        });
+        return config;
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("P1");
+                em.persist(p);
+                Document doc1 = new Document("D1", p);
+                Document doc2 = new Document("D2", p);
+                em.persist(doc1);
+                em.persist(doc2);
+            }
+        });
+    }
+
+    @Before
+    public void clearMetrics() {
+        METRICS.clear();
+    }
+
+    @Test
+    public void testSelectMetrics() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(Document.class, "d")
+                .select("d.name")
+                .where("d.name").eq("D1");
+        TypedQuery<Tuple> query = cb.getQuery();
+        assertEquals(1, query.getResultList().size());
+        assertEquals(1, query.getResultList().size());
+
+        assertEquals(2, METRICS.size());
+        QueryMetrics first = METRICS.get(0);
+        QueryMetrics second = METRICS.get(1);
+        assertEquals(DbmsStatementType.SELECT, first.getStatementType());
+        assertEquals(cb.getQueryString(), first.getQueryString());
+        assertEquals(1, first.getResultCount());
+        assertNull(first.getException());
+        assertTrue(first.getRenderNanos() > 0);
+        assertTrue(first.getExecutionNanos() > 0);
+        // The render time is only reported for the first execution of a query object
+        assertEquals(0, second.getRenderNanos());
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+    }
+
+    @Test
+    public void testQueryStringOfQueryCreatedBeforeModification() {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                .where("d.name").eq("D1");
+        String queryString = cbf.create(em, Document.class, "d").where("d.name").eq("D1").getQueryString();
+        TypedQuery<Document> query = cb.getQuery();
+        cb.where("d.age").eq(1L);
+        query.getResultList();
+
+        assertEquals(1, METRICS.size());
+        assertEquals(queryString, METRICS.get(0).getQueryString());
+        assertNotEquals(cb.getQueryString(), METRICS.get(0).getQueryString());
+    }
+
+    @Test
+    public void testFingerprintIsIndependentOfParameterValues() {
+        cbf.create(em, Document.class, "d").where("d.name").eq("D1").getResultList();
+        cbf.create(em, Document.class, "d").where("d.name").eq("D2").getResultList();
+        cbf.create(em, Document.class, "d").where("d.age").eq(1L).getResultList();
+
+        assertEquals(3, METRICS.size());
+        assertEquals(METRICS.get(0).getFingerprint(), METRICS.get(1).getFingerprint());
+        assertNotEquals(METRICS.get(0).getFingerprint(), METRICS.get(2).getFingerprint());
+    }
+
+    @Test
+    public void testUpdateMetrics() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Document.class, "d").set("name", "D3").where("d.name").eq("D2").executeUpdate();
+            }
+        });
+
+        assertEquals(1, METRICS.size());
+        assertEquals(DbmsStatementType.UPDATE, METRICS.get(0).getStatementType());
+        assertEquals(1, METRICS.get(0).getResultCount());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.plan.QueryPlanCache;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQLOld;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.RecursiveEntity;
+import com.blazebit.persistence.testsuite.entity.TestCTE;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class QueryPlanCacheTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            RecursiveEntity.class,
+            TestCTE.class
+        };
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                RecursiveEntity root1 = new RecursiveEntity("root1");
+                RecursiveEntity child1_1 = new RecursiveEntity("child1_1", root1);
+                RecursiveEntity root2 = new RecursiveEntity("root2");
+
+                em.persist(root1);
+                em.persist(child1_1);
+                em.persist(root2);
+            }
+        });
+    }
+
+    @Test
+    // NOTE: CTEs are only supported on Hibernate
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQLOld.class })
+    public void sameQueryShapeReusesCachedSql() {
+        QueryPlanCache queryPlanCache = cbf.getService(QueryPlanCache.class);
+        queryPlanCache.clear();
+
+        List<TestCTE> root1Result = createRecursiveQuery("root1").getResultList();
+        int cacheSize = queryPlanCache.size();
+        List<TestCTE> root2Result = createRecursiveQuery("root2").getResultList();
+
+        assertTrue(cacheSize > 0);
+        assertEquals(cacheSize, queryPlanCache.size());
+        assertEquals(2, root1Result.size());
+        assertEquals(1, root2Result.size());
+        assertEquals("root2", root2Result.get(0).getName());
+    }
+
+    @Test
+    // NOTE: CTEs are only supported on Hibernate
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class, NoMySQLOld.class })
+    public void differentCollectionSizesReuseCachedSql() {
+        QueryPlanCache queryPlanCache = cbf.getService(QueryPlanCache.class);
+        queryPlanCache.clear();
+
+        List<TestCTE> singleResult = createRecursiveQuery("root1")
+                .where("t.name").in(Arrays.asList("child1_1"))
+                .getResultList();
+        int cacheSize = queryPlanCache.size();
+        List<TestCTE> twoResult = createRecursiveQuery("root1")
+                .where("t.name").in(Arrays.asList("root1", "child1_1"))
+                .getResultList();
+        List<TestCTE> threeResult = createRecursiveQuery("root1")
+                .where("t.name").in(Arrays.asList("root1", "child1_1", "root2"))
+                .getResultList();
+
+        assertEquals(cacheSize, queryPlanCache.size());
+        assertEquals(1, singleResult.size());
+        assertEquals("child1_1", singleResult.get(0).getName());
+        assertEquals(2, twoResult.size());
+        assertEquals(2, threeResult.size());
+    }
+
+    private CriteriaBuilder<TestCTE> createRecursiveQuery(String rootName) {
+        CriteriaBuilder<TestCTE> cb = cbf.create(em, TestCTE.class, "t").orderByAsc("t.level");
+        cb.withRecursive(TestCTE.class)
+            .from(RecursiveEntity.class, "e")
+            .bind("id").select("e.id")
+            .bind("name").select("e.name")
+            .bind("level").select("0")
+            .where("e.name").eq(rootName)
+        .unionAll()
+            .from(TestCTE.class, "t")
+            .innerJoinOn(RecursiveEntity.class, "e")
+                .on("t.id").eqExpression("e.parent.id")
+            .end()
+            .bind("id").select("e.id")
+            .bind("name").select("e.name")
+            .bind("level").select("t.level + 1")
+        .end();
+        return cb;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.model.DocumentViewModel;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ResultIteratorTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person p = new Person("Karl");
+                em.persist(p);
+
+                for (int i = 0; i < 5; i++) {
+                    em.persist(new Document("Doc" + i, p));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void iterateEntities() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.name");
+        criteria.setProperty(ConfigurationProperties.STREAMING_FETCH_SIZE, "2");
+
+        List<String> names = new ArrayList<>();
+        try (CloseableIterator<Document> iterator = criteria.getResultIterator()) {
+            while (iterator.hasNext()) {
+                names.add(iterator.next().getName());
+            }
+            assertFalse(iterator.hasNext());
+        }
+
+        assertEquals(5, names.size());
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals("Doc" + i, names.get(i));
+        }
+    }
+
+    @Test
+    public void iterateWithObjectBuilderInChunks() {
+        CriteriaBuilder<DocumentViewModel> criteria = cbf.create(em, Document.class, "d")
+                .selectNew(DocumentViewModel.class).with("d.name").end()
+                .orderByAsc("d.name");
+        criteria.setProperty(ConfigurationProperties.STREAMING_FETCH_SIZE, "2");
+
+        List<String> names = new ArrayList<>();
+        try (CloseableIterator<DocumentViewModel> iterator = criteria.getResultIterator()) {
+            while (iterator.hasNext()) {
+                names.add(iterator.next().getName());
+            }
+        }
+
+        assertEquals(5, names.size());
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals("Doc" + i, names.get(i));
+        }
+    }
+
+    @Test
+    public void iterateWithObjectBuilderUsesFetchSizeChunks() {
+        final List<Integer> chunkSizes = new ArrayList<>();
+        CriteriaBuilder<String> criteria = cbf.create(em, Document.class, "d")
+                .selectNew(new ObjectBuilder<String>() {
+                    @Override
+                    public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+                        selectBuilder.select("d.name");
+                    }
+
+                    @Override
+                    public String build(Object[] tuple) {
+                        return (String) tuple[0];
+                    }
+
+                    @Override
+                    public List<String> buildList(List<String> list) {
+                        chunkSizes.add(list.size());
+                        return list;
+                    }
+                })
+                .orderByAsc("d.name");
+        criteria.setProperty(ConfigurationProperties.STREAMING_FETCH_SIZE, "2");
+
+        List<String> names = new ArrayList<>();
+        try (CloseableIterator<String> iterator = criteria.getResultIterator()) {
+            while (iterator.hasNext()) {
+                names.add(iterator.next());
+            }
+        }
+
+        assertEquals(5, names.size());
+        assertEquals(Arrays.asList(2, 2, 1), chunkSizes);
+    }
+
+    @Test
+    public void closeBeforeExhaustion() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.name");
+        criteria.setProperty(ConfigurationProperties.STREAMING_FETCH_SIZE, "2");
+
+        try (CloseableIterator<Document> iterator = criteria.getResultIterator()) {
+            assertEquals("Doc0", iterator.next().getName());
+        }
+    }
+}
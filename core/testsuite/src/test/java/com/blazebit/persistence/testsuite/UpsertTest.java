@@ -0,0 +1,220 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.InsertCriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.UpsertStyle;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQLOld;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.IdHolderCTE;
+import com.blazebit.persistence.testsuite.entity.KeysetEntity;
+import com.blazebit.persistence.testsuite.entity.KeysetEntity2;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+// NOTE: Firebird and SQLite have no upsert support in their dialects
+@Category({ NoFirebird.class, NoSQLite.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class UpsertTest extends AbstractCoreTest {
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            KeysetEntity.class,
+            KeysetEntity2.class,
+            IdHolderCTE.class
+        };
+    }
+
+    @Before
+    public void setUp() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.persist(new KeysetEntity(1, 1, 1));
+                em.persist(new KeysetEntity2(1, 10, 10, null));
+                em.persist(new KeysetEntity2(2, 20, 20, null));
+            }
+        });
+    }
+
+    @Test
+    public void testOnConflictDoNothing() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.onConflictDoNothing("id");
+                String expected = "INSERT INTO KeysetEntity(a, b, id)\n"
+                        + "SELECT k.a, k.b, k.id FROM KeysetEntity2 k ON CONFLICT (id) DO NOTHING";
+
+                assertEquals(expected, cb.getQueryString());
+                cb.executeUpdate();
+            }
+        });
+
+        assertKeysetEntity(1, 1, 1);
+        assertKeysetEntity(2, 20, 20);
+    }
+
+    @Test
+    public void testOnConflictDoUpdate() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.onConflictDoUpdate("id");
+                String expected = "INSERT INTO KeysetEntity(a, b, id)\n"
+                        + "SELECT k.a, k.b, k.id FROM KeysetEntity2 k ON CONFLICT (id) DO UPDATE";
+
+                assertEquals(expected, cb.getQueryString());
+                cb.executeUpdate();
+            }
+        });
+
+        assertKeysetEntity(1, 10, 10);
+        assertKeysetEntity(2, 20, 20);
+    }
+
+    @Test
+    public void testUnboundConflictAttribute() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = cbf.insert(em, KeysetEntity.class);
+                cb.from(KeysetEntity2.class, "k");
+                cb.bind("a").select("k.a");
+                cb.onConflictDoUpdate("id");
+                try {
+                    cb.executeUpdate();
+                    fail("Expected IllegalStateException");
+                } catch (IllegalStateException ex) {
+                    // expected
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testOnConflictDoUpdateFromValues() {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = cbf.insert(em, KeysetEntity.class);
+                cb.fromValues(Integer.class, "v", Arrays.asList(1, 3));
+                cb.bind("id").select("v");
+                cb.bind("a").select("v * 10");
+                cb.bind("b").select("v * 10");
+                cb.onConflictDoUpdate("id");
+                String expected = "INSERT INTO KeysetEntity(a, b, id)\n"
+                        + "SELECT v * 10, v * 10, v FROM Integer(2 VALUES) v ON CONFLICT (id) DO UPDATE";
+
+                assertEquals(expected, cb.getQueryString());
+                cb.executeUpdate();
+            }
+        });
+
+        assertKeysetEntity(1, 10, 10);
+        assertKeysetEntity(3, 30, 30);
+    }
+
+    // NOTE: MySQL does not support CTEs
+    @Test
+    @Category({ NoMySQLOld.class })
+    public void testOnConflictDoUpdateWithCte() {
+        final boolean merge = cbf.getService(DbmsDialect.class).getUpsertStyle() == UpsertStyle.MERGE;
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                InsertCriteriaBuilder<KeysetEntity> cb = createUpsert(em);
+                cb.with(IdHolderCTE.class)
+                        .from(KeysetEntity2.class, "k2")
+                        .bind("id").select("k2.id")
+                        .where("k2.id").eq(1)
+                    .end();
+                cb.where("k.id").in()
+                        .from(IdHolderCTE.class, "h")
+                        .select("h.id")
+                    .end();
+                cb.onConflictDoUpdate("id");
+                if (merge) {
+                    try {
+                        cb.executeUpdate();
+                        fail("Expected IllegalStateException");
+                    } catch (IllegalStateException ex) {
+                        // expected
+                    }
+                } else {
+                    cb.executeUpdate();
+                }
+            }
+        });
+
+        if (!merge) {
+            assertKeysetEntity(1, 10, 10);
+            assertNoKeysetEntity(2);
+        }
+    }
+
+    private InsertCriteriaBuilder<KeysetEntity> createUpsert(EntityManager em) {
+        InsertCriteriaBuilder<KeysetEntity> cb = cbf.insert(em, KeysetEntity.class);
+        cb.from(KeysetEntity2.class, "k");
+        cb.bind("id").select("k.id");
+        cb.bind("a").select("k.a");
+        cb.bind("b").select("k.b");
+        return cb;
+    }
+
+    private void assertNoKeysetEntity(final Integer id) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                assertNull(em.find(KeysetEntity.class, id));
+            }
+        });
+    }
+
+    private void assertKeysetEntity(final Integer id, final Integer a, final Integer b) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                KeysetEntity entity = em.find(KeysetEntity.class, id);
+                assertEquals(a, entity.getA());
+                assertEquals(b, entity.getB());
+            }
+        });
+    }
+}
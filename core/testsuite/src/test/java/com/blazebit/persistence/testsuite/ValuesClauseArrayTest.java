@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.impl.query.CustomSQLTypedQuery;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.IntIdEntity;
+import com.blazebit.persistence.testsuite.entity.NameObject;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the VALUES clause with the array strategy enabled. On DBMS without array support, the regular strategies are used.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ValuesClauseArrayTest extends AbstractCoreTest {
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testBasicValues() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(Long.class, "val", Arrays.asList(1L, 2L, 3L));
+        cb.select("val");
+        cb.orderByAsc("val");
+
+        assertUsesArrays(cb, true);
+        assertEquals(Arrays.asList(1L, 2L, 3L), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testBasicValuesWithNulls() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(Long.class, "val", Arrays.asList(1L, null, 3L));
+        cb.select("val");
+        cb.orderByAsc("val");
+
+        assertUsesArrays(cb, true);
+        assertEquals(Arrays.asList(1L, 3L), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testStringValuesWithSpecialCharacters() {
+        List<String> values = Arrays.asList("a\"b", "c,d", "{e}", "f\\g", "it's", "NULL", " padded ", null);
+        CriteriaBuilder<String> cb = cbf.create(em, String.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(String.class, "val", values);
+        cb.select("val");
+
+        assertUsesArrays(cb, true);
+        Set<String> expected = new HashSet<>(values);
+        expected.remove(null);
+        assertEquals(expected, new HashSet<>(cb.getResultList()));
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testEntityValues() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(IntIdEntity.class, "intEntity", Arrays.asList(
+                new IntIdEntity("a,\"b\"", 1),
+                new IntIdEntity("{c}\\", null)
+        ));
+        cb.select("intEntity.name");
+        cb.select("intEntity.value");
+        cb.orderByAsc("intEntity.name");
+
+        assertUsesArrays(cb, true);
+        List<Tuple> resultList = cb.getResultList();
+        assertEquals(2, resultList.size());
+        assertEquals("a,\"b\"", resultList.get(0).get(0));
+        assertEquals(1, resultList.get(0).get(1));
+        assertEquals("{c}\\", resultList.get(1).get(0));
+        assertEquals(null, resultList.get(1).get(1));
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testEmbeddableValuesUseValuesStrategy() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(NameObject.class, "embeddable", Arrays.asList(new NameObject("a,b", "{c}"), new NameObject("d\"", null)));
+        cb.select("embeddable.primaryName");
+        cb.select("embeddable.secondaryName");
+        cb.orderByAsc("embeddable.primaryName");
+
+        assertUsesArrays(cb, false);
+        List<Tuple> resultList = cb.getResultList();
+        assertEquals(2, resultList.size());
+        assertEquals("a,b", resultList.get(0).get(0));
+        assertEquals("{c}", resultList.get(0).get(1));
+        assertEquals("d\"", resultList.get(1).get(0));
+        assertEquals(null, resultList.get(1).get(1));
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testArraysAreOptIn() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class);
+        cb.fromValues(Long.class, "val", Arrays.asList(1L, 2L));
+        cb.select("val");
+        cb.orderByAsc("val");
+
+        assertUsesArrays(cb, false);
+        assertEquals(Arrays.asList(1L, 2L), cb.getResultList());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesLikeEntityAttributeUseValuesStrategy() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class);
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_ARRAY, "true");
+        cb.fromValues(Document.class, "name", "n", Arrays.asList("x,y", "z"));
+        cb.select("n");
+        cb.orderByAsc("n");
+
+        assertUsesArrays(cb, false);
+        assertEquals(Arrays.asList("x,y", "z"), cb.getResultList());
+    }
+
+    private void assertUsesArrays(CriteriaBuilder<?> cb, boolean expectArrays) {
+        String sql = ((CustomSQLTypedQuery<?>) cb.getQuery()).getQuerySpecification().getSql();
+        if (expectArrays && dbmsDialect.getArraySqlType("integer") != null) {
+            assertTrue(sql, sql.contains("unnest("));
+        } else {
+            assertFalse(sql, sql.contains("unnest("));
+        }
+    }
+}
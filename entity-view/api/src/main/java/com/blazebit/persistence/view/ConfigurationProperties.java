@@ -50,6 +50,38 @@ public final class ConfigurationProperties {
      * @since 1.0.6
      */
     public static final String PROXY_UNSAFE_ALLOWED = "com.blazebit.persistence.view.proxy.unsafe_allowed";
+    /**
+     * A boolean flag to make it possible to load proxy classes that were generated at build time instead of generating them on startup.
+     * When enabled, the class loader of an entity view is asked for the proxy class before it is generated.
+     * By default the loading of pre-generated proxies is disabled to avoid using stale proxy classes.
+     * A pre-generated proxy class that was generated for a different definition of the entity view is rejected.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.4.1
+     */
+    public static final String PROXY_PREGENERATED_LOADING = "com.blazebit.persistence.view.proxy.pregenerated_loading";
+    /**
+     * The path to a directory to which the class files of generated proxies are written.
+     * In combination with {@link #PROXY_EAGER_LOADING} this allows to generate the proxy classes at build time
+     * so that they can be packaged and loaded via {@link #PROXY_PREGENERATED_LOADING}.
+     * By default no directory is configured.
+     *
+     * @since 1.4.1
+     */
+    public static final String PROXY_GENERATION_DIRECTORY = "com.blazebit.persistence.view.proxy.generation_directory";
+    /**
+     * A boolean flag to make it possible to let the proxies of updatable entity views allocate the initial state array lazily.
+     * When enabled, a proxy that is constructed for an existing object does not copy the initial state eagerly,
+     * but only copies the initial value of an attribute on the first write to it and the rest of the mutable state when the initial state is requested.
+     * This avoids an array allocation per loaded object for read mostly workloads.
+     * The mode can be enabled for a specific entity view by appending the fully qualified entity view class name to the property name
+     * i.e. <code>com.blazebit.persistence.view.proxy.lazy_initial_state.com.test.MyUpdatableCatView</code>.
+     * By default the initial state is copied eagerly.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.4.1
+     */
+    public static final String PROXY_LAZY_INITIAL_STATE = "com.blazebit.persistence.view.proxy.lazy_initial_state";
     /**
      * A boolean flag to make it possible to disable the expression validation.
      * By default the expression validation is enabled, but since the validation is not bullet proof, it can be disabled.
@@ -66,6 +98,26 @@ public final class ConfigurationProperties {
      * @since 1.3.0
      */
     public static final String MANAGED_TYPE_VALIDATION_DISABLED = "com.blazebit.persistence.view.managed_type_validation_disabled";
+    /**
+     * A boolean flag to make it possible to use multiple threads for building the entity view metamodel on startup.
+     * When enabled, the expression validation, the validation of JPA managed types and the eager loading of templates
+     * are done in parallel for the entity views. The resulting metamodel and reported errors are the same as for sequential building.
+     * By default the parallel boot is disabled.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.4.1
+     */
+    public static final String PARALLEL_BOOT = "com.blazebit.persistence.view.parallel_boot";
+    /**
+     * A boolean flag to make it possible to log the boot profile of the entity view manager on startup.
+     * The boot profile contains the time spent in the individual boot phases, the number of processed views
+     * and the views that took the longest to process. It is always available via <code>getService(BootProfile.class)</code>.
+     * By default the boot profile is not logged.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.4.1
+     */
+    public static final String BOOT_PROFILE_LOGGING = "com.blazebit.persistence.view.boot_profile_logging";
     /**
      * An integer value that defines the default batch size for entity view attributes.
      * By default the value is 1 and can be overridden either via {@linkplain com.blazebit.persistence.view.BatchFetch#size()}
@@ -24,6 +24,8 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * An interface that gives access to the metamodel and object builders.
@@ -64,6 +66,21 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public <T> T find(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId);
 
+    /**
+     * Loads and returns entity views as determined by the given type {@link EntityViewSetting} having the given entity ids.
+     * The entity views are loaded in batches with <code>IN</code> predicates whose parameter lists are padded to a fixed set of sizes.
+     * The returned list contains an element for every given entity id in the iteration order of the given collection,
+     * or <code>null</code> if no entity with the respective id exists.
+     *
+     * @param entityManager The entity manager to use for querying
+     * @param entityViewSetting The entity view setting to use
+     * @param entityIds The ids of the entities
+     * @param <T> The type of the entity view class
+     * @return The loaded instances of the given entity view type in the order of the ids
+     * @since 1.4.1
+     */
+    public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds);
+
     /**
      * Creates a reference instance of the entity view class for the given id and returns it.
      *
@@ -239,6 +256,30 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public FlushOperationBuilder saveFullWithTo(EntityManager entityManager, Object view, Object entity);
 
+    /**
+     * Saves the entities which the given entity views map to.
+     * Issues partial updates if enabled for the given views.
+     * The update statements of views with the same type and dirty attributes are executed as one JDBC batch if the JPA provider supports it.
+     * Note that the update statements are executed after all views were flushed, so post update listeners are invoked before the statements are executed.
+     * If the optimistic lock check fails for some views, an {@link OptimisticLockException} is thrown for the first of these views
+     * with the exceptions for the other views added as suppressed exceptions.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.4.1
+     */
+    public void saveAll(EntityManager entityManager, Iterable<?> views);
+
+    /**
+     * Saves the entities which the given entity views map to like {@link #saveAll(EntityManager, Iterable)}.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @return A flush operation builder for further configuring the flush operation
+     * @since 1.4.1
+     */
+    public FlushOperationBuilder saveAllWith(EntityManager entityManager, Iterable<?> views);
+
     /**
      * Removes the entity represented by the given view.
      * Also cascades deletes to attributes that have {@link CascadeType#DELETE} enabled.
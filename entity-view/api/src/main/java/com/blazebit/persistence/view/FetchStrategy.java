@@ -35,5 +35,13 @@ public enum FetchStrategy {
     /**
      * A strategy that defines that the target elements are selected in a single query containing the source query as subquery.
      */
-    SUBSELECT;
+    SUBSELECT,
+    /**
+     * A strategy that defines that the target elements are aggregated into a single column per source row by a correlated subquery in the source query.
+     * The elements are aggregated as JSON in the database and decoded when building the entity view.
+     * This strategy is only supported for non-indexed collection attributes using {@link Mapping} and requires a DBMS with JSON aggregation support.
+     *
+     * @since 1.4.1
+     */
+    MULTISET;
 }
@@ -67,7 +67,11 @@ public class EntityViewConfigurationImpl implements EntityViewConfiguration {
     private void loadDefaultProperties() {
         properties.put(ConfigurationProperties.PROXY_EAGER_LOADING, "false");
         properties.put(ConfigurationProperties.PROXY_UNSAFE_ALLOWED, "true");
+        properties.put(ConfigurationProperties.PROXY_PREGENERATED_LOADING, "false");
+        properties.put(ConfigurationProperties.PROXY_LAZY_INITIAL_STATE, "false");
         properties.put(ConfigurationProperties.MANAGED_TYPE_VALIDATION_DISABLED, "false");
+        properties.put(ConfigurationProperties.PARALLEL_BOOT, "false");
+        properties.put(ConfigurationProperties.BOOT_PROFILE_LOGGING, "false");
         properties.put(ConfigurationProperties.UPDATER_DISALLOW_OWNED_UPDATABLE_SUBVIEW, "true");
         properties.put(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK, "true");
         properties.put(ConfigurationProperties.UPDATER_ERROR_ON_INVALID_PLURAL_SETTER, "false");
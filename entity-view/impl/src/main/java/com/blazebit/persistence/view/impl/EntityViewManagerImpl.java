@@ -29,6 +29,7 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.MacroFunction;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.BootProfile;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlMacro;
@@ -125,18 +126,32 @@ import javax.persistence.EntityManager;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.Metamodel;
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.TypeVariable;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 
 /**
  *
@@ -145,7 +160,11 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class EntityViewManagerImpl implements EntityViewManager {
 
+    private static final Logger LOG = Logger.getLogger(EntityViewManagerImpl.class.getName());
     private static final Set<ViewTransition> VIEW_TRANSITIONS = EnumSet.allOf(ViewTransition.class);
+    private static final int SLOWEST_VIEWS_IN_BOOT_PROFILE = 10;
+    // A power of two, so that full batches are never padded
+    private static final int FIND_ALL_BATCH_SIZE = 128;
 
     private final CriteriaBuilderFactory cbf;
     private final JpaProvider jpaProvider;
@@ -171,8 +190,11 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final Map<Class<?>, Set<Class<?>>> convertibleManagedViewTypes;
     private final boolean unsafeDisabled;
     private final boolean strictCascadingCheck;
+    private final BootProfile bootProfile;
 
     public EntityViewManagerImpl(EntityViewConfigurationImpl config, CriteriaBuilderFactory cbf) {
+        final BootProfile.Recorder bootProfileRecorder = new BootProfile.Recorder("EntityViewManager", SLOWEST_VIEWS_IN_BOOT_PROFILE);
+        bootProfileRecorder.startPhase("configuration");
         this.cbf = cbf;
         this.jpaProvider = cbf.getService(JpaProvider.class);
         this.dbmsDialect = cbf.getService(DbmsDialect.class);
@@ -182,15 +204,19 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.entityIdAccessor = new EntityIdAttributeAccessor(jpaProvider);
         this.unsafeDisabled = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
         this.strictCascadingCheck = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK)));
-        this.proxyFactory = new ProxyFactory(unsafeDisabled, strictCascadingCheck, packageOpener);
+        boolean pregeneratedLoading = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_PREGENERATED_LOADING)));
+        Object generationDirectory = config.getProperty(ConfigurationProperties.PROXY_GENERATION_DIRECTORY);
+        boolean lazyInitialState = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_LAZY_INITIAL_STATE)));
+        this.proxyFactory = new ProxyFactory(unsafeDisabled, strictCascadingCheck, pregeneratedLoading, getProxyGenerationDirectory(generationDirectory), lazyInitialState, getLazyInitialStateOverrides(config.getProperties()), packageOpener);
         this.transactionSupport = config.getTransactionSupport();
 
+        boolean parallelBoot = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PARALLEL_BOOT)));
         boolean validateManagedTypes = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.MANAGED_TYPE_VALIDATION_DISABLED)));
         boolean validateExpressions = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.EXPRESSION_VALIDATION_DISABLED)));
 
         Set<String> errors = config.getBootContext().getErrors();
 
-        MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
+        final MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
                 config.getProperties(),
                 new DefaultBasicUserTypeRegistry(config.getUserTypeRegistry(), cbf),
                 entityMetamodel,
@@ -206,10 +232,15 @@ public class EntityViewManagerImpl implements EntityViewManager {
         RuntimeException exception = null;
         Map<Class<?>, Object> typeTestValues = config.getTypeTestValues();
 
+        ExecutorService bootExecutor = parallelBoot ? createBootExecutor() : null;
         try {
-            viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, typeTestValues, validateManagedTypes, validateExpressions);
+            viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, typeTestValues, validateManagedTypes, validateExpressions, bootExecutor, bootProfileRecorder);
         } catch (RuntimeException ex) {
             exception = ex;
+        } finally {
+            if (bootExecutor != null) {
+                bootExecutor.shutdown();
+            }
         }
 
         if (!errors.isEmpty()) {
@@ -226,6 +257,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
             throw new IllegalArgumentException("An error happened during entity view metamodel building!", exception);
         }
 
+        bootProfileRecorder.startPhase("listener registration");
         this.metamodel = viewMetamodel;
         this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
         this.objectBuilderCache = new ConcurrentHashMap<>();
@@ -345,29 +377,115 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.listeners = listeners;
 
         if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)))) {
-            for (ViewTypeImpl<?> view : metamodel.views()) {
-                // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
-                String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
-                MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
-                EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
-                getTemplate(macroAwareExpressionFactory, view, null, null, null, embeddingViewJpqlMacro);
-
-                for (MappingConstructor<?> constructor : view.getConstructors()) {
-                    getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, null, embeddingViewJpqlMacro);
+            bootProfileRecorder.startPhase("template loading");
+            if (parallelBoot) {
+                List<Callable<Object>> tasks = new ArrayList<>(metamodel.views().size());
+                for (final ViewTypeImpl<?> view : metamodel.views()) {
+                    tasks.add(new Callable<Object>() {
+                        @Override
+                        public Object call() {
+                            loadTemplates(context, view, bootProfileRecorder);
+                            return null;
+                        }
+                    });
+                }
+                bootExecutor = createBootExecutor();
+                try {
+                    for (Future<Object> future : bootExecutor.invokeAll(tasks)) {
+                        future.get();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted during the eager loading of entity view templates!", ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw new IllegalStateException("An error happened during the eager loading of entity view templates!", ex.getCause());
+                } finally {
+                    bootExecutor.shutdown();
+                }
+            } else {
+                for (ViewTypeImpl<?> view : metamodel.views()) {
+                    loadTemplates(context, view, bootProfileRecorder);
                 }
             }
         } else if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)))) {
             // Loading template will always involve also loading the proxies, so we use else if
+            bootProfileRecorder.startPhase("proxy loading");
             for (ViewType<?> view : metamodel.getViews()) {
+                long start = System.nanoTime();
                 proxyFactory.getProxy(this, (ManagedViewTypeImplementor<Object>) view, null);
+                bootProfileRecorder.element(view.getJavaType().getName(), System.nanoTime() - start);
             }
         }
 
         if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_EAGER_LOADING)))) {
+            bootProfileRecorder.startPhase("updater loading");
             for (ManagedViewType<?> view : metamodel.getViews()) {
+                long start = System.nanoTime();
                 getUpdater((ManagedViewTypeImplementor<?>) view, null, null, null);
+                bootProfileRecorder.element(view.getJavaType().getName(), System.nanoTime() - start);
+            }
+        }
+
+        bootProfileRecorder.count("entities", entityMetamodel.getEntities().size());
+        bootProfileRecorder.count("views", metamodel.getViews().size());
+        bootProfileRecorder.count("flat views", metamodel.getManagedViews().size() - metamodel.getViews().size());
+        bootProfileRecorder.count("functions", cbf.getRegisteredFunctions().size());
+        this.bootProfile = bootProfileRecorder.finish();
+        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.BOOT_PROFILE_LOGGING)))) {
+            LOG.info(bootProfile.toString());
+        }
+    }
+
+    private static ExecutorService createBootExecutor() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadTemplates(MetamodelBuildingContext context, ViewTypeImpl<?> view, BootProfile.Recorder bootProfileRecorder) {
+        long start = System.nanoTime();
+        // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
+        String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
+        MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
+        EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
+        getTemplate(macroAwareExpressionFactory, view, null, null, null, embeddingViewJpqlMacro);
+
+        for (MappingConstructor<?> constructor : view.getConstructors()) {
+            getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, null, embeddingViewJpqlMacro);
+        }
+        bootProfileRecorder.element(view.getJavaType().getName(), System.nanoTime() - start);
+    }
+
+    private static java.nio.file.Path getProxyGenerationDirectory(Object directory) {
+        if (directory == null) {
+            return null;
+        }
+        java.nio.file.Path path;
+        if (directory instanceof java.nio.file.Path) {
+            path = (java.nio.file.Path) directory;
+        } else if (directory instanceof File) {
+            path = ((File) directory).toPath();
+        } else {
+            path = Paths.get(directory.toString());
+        }
+        if (!Files.isDirectory(path)) {
+            throw new IllegalArgumentException("The given proxy generation directory does not exist: " + path.toAbsolutePath());
+        }
+        return path.toAbsolutePath();
+    }
+
+    private static Map<String, Boolean> getLazyInitialStateOverrides(Properties properties) {
+        String prefix = ConfigurationProperties.PROXY_LAZY_INITIAL_STATE + ".";
+        Map<String, Boolean> overrides = new HashMap<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            String key = (String) entry.getKey();
+            if (key.startsWith(prefix) && entry.getValue() != null) {
+                overrides.put(key.substring(prefix.length()), Boolean.valueOf(entry.getValue().toString()));
             }
         }
+        return overrides;
     }
 
     private boolean isConvertible(ManagedViewType<?> sourceType, ManagedViewType<?> targetType) {
@@ -492,6 +610,8 @@ public class EntityViewManagerImpl implements EntityViewManager {
             return (T) metamodel.getEntityMetamodel();
         } else if (TransactionSupport.class.isAssignableFrom(serviceClass)) {
             return (T) transactionSupport;
+        } else if (BootProfile.class.equals(serviceClass)) {
+            return (T) bootProfile;
         }
         return null;
     }
@@ -533,6 +653,39 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return resultList.isEmpty() ? null : resultList.get(0);
     }
 
+    @Override
+    public <T> List<T> findAll(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Collection<?> entityIds) {
+        ViewTypeImpl<T> managedViewType = metamodel.view(entityViewSetting.getEntityViewClass());
+        EntityType<?> entityType = (EntityType<?>) managedViewType.getJpaManagedType();
+        javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getSingleIdAttribute(entityType);
+        boolean subviewId = managedViewType.getIdAttribute().isSubview();
+        Set<Object> uniqueIds = new LinkedHashSet<>(entityIds);
+        uniqueIds.remove(null);
+        Map<Object, T> views = new HashMap<>(uniqueIds.size());
+        List<Object> batch = new ArrayList<>(Math.min(uniqueIds.size(), FIND_ALL_BATCH_SIZE));
+        Iterator<Object> iterator = uniqueIds.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == FIND_ALL_BATCH_SIZE || !iterator.hasNext()) {
+                // The padding of the IN list keeps the number of distinct query plans logarithmic in the batch size
+                CriteriaBuilder<?> cb = cbf.create(entityManager, managedViewType.getEntityClass())
+                        .setProperty(com.blazebit.persistence.ConfigurationProperties.IN_LIST_PADDING, "true")
+                        .where(idAttribute.getName()).in(batch);
+                for (T view : applySetting(entityViewSetting, cb).getResultList()) {
+                    EntityViewProxy proxy = (EntityViewProxy) view;
+                    views.put(subviewId ? getEntityId(entityManager, proxy) : proxy.$$_getId(), view);
+                }
+                batch.clear();
+            }
+        }
+
+        List<T> resultList = new ArrayList<>(entityIds.size());
+        for (Object entityId : entityIds) {
+            resultList.add(entityId == null ? null : views.get(entityId));
+        }
+        return resultList;
+    }
+
     @Override
     public <T> T getReference(Class<T> entityViewClass, Object id) {
         Constructor<T> constructor = (Constructor<T>) referenceConstructorCache.get(entityViewClass);
@@ -671,6 +824,16 @@ public class EntityViewManagerImpl implements EntityViewManager {
         updateTo(em, view, entity, true);
     }
 
+    @Override
+    public void saveAll(EntityManager em, Iterable<?> views) {
+        updateAll(new DefaultUpdateContext(this, em, false, false, false, null, views, null, true), views);
+    }
+
+    @Override
+    public FlushOperationBuilder saveAllWith(EntityManager em, Iterable<?> views) {
+        return new DefaultUpdateContext(this, em, false, false, false, null, views, null, true);
+    }
+
     @Override
     public void remove(EntityManager entityManager, Object view) {
         remove(new DefaultUpdateContext(this, entityManager, false, false, true, null, view, null), view);
@@ -784,6 +947,32 @@ public class EntityViewManagerImpl implements EntityViewManager {
         }
     }
 
+    public void updateAll(UpdateContext context, Iterable<?> views) {
+        for (Object view : views) {
+            if (!(view instanceof MutableStateTrackable)) {
+                throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
+            }
+        }
+
+        try {
+            for (Object view : views) {
+                MutableStateTrackable updatableProxy = (MutableStateTrackable) view;
+                Class<?> entityViewClass = updatableProxy.$$_getEntityViewClass();
+                ManagedViewTypeImplementor<?> viewType = metamodel.managedView(entityViewClass);
+                EntityViewUpdater updater = getUpdater(viewType, null, null, null);
+                if (updatableProxy.$$_isNew()) {
+                    updater.executePersist(context, updatableProxy);
+                } else {
+                    updater.executeUpdate(context, updatableProxy);
+                }
+            }
+            context.getUpdateQueryBatch().execute();
+        } catch (Throwable t) {
+            context.getTransactionAccess().markRollbackOnly();
+            ExceptionUtils.doThrow(t);
+        }
+    }
+
     public void updateTo(UpdateContext context, Object view, Object entity) {
         if (!(view instanceof MutableStateTrackable)) {
             throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
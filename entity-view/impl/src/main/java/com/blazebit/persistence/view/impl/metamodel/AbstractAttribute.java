@@ -88,6 +88,7 @@ import java.util.regex.Pattern;
  */
 public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
 
+    public static final String MULTISET_FUNCTION_NAME = "multiset_agg";
     private static final String[] EMPTY = new String[0];
     private static final String THIS = "this";
     private static final Pattern PREFIX_THIS_REPLACE_PATTERN = Pattern.compile("([^a-zA-Z0-9\\.])this\\.");
@@ -176,7 +177,8 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             this.mappingType = MappingType.BASIC;
             this.subqueryExpression = null;
             this.subqueryAlias = null;
-            if (fetchStrategy == FetchStrategy.JOIN) {
+            // The MULTISET strategy aggregates the elements with a correlated subquery in the main query and needs no correlation provider
+            if (fetchStrategy == FetchStrategy.JOIN || fetchStrategy == FetchStrategy.MULTISET) {
                 this.correlationProvider = null;
                 this.correlationProviderFactory = null;
                 this.correlationResult = null;
@@ -295,6 +297,9 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
                 context.addError("The correlation provider is defined as non-static inner class. Make it static, otherwise it can't be instantiated: " + mapping.getErrorLocation());
             }
             this.correlationProviderFactory = CorrelationProviderHelper.getFactory(correlationProvider);
+            if (fetchStrategy == FetchStrategy.MULTISET) {
+                context.addError("The MULTISET fetch strategy is only supported for @Mapping but was used for the " + mapping.getErrorLocation());
+            }
         } else if (mappingAnnotation instanceof MappingCorrelatedSimple) {
             MappingCorrelatedSimple mappingCorrelated = (MappingCorrelatedSimple) mappingAnnotation;
             this.mapping = null;
@@ -325,6 +330,9 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
             if (mappingCorrelated.correlationBasis().isEmpty()) {
                 context.addError("Illegal empty correlation basis in the " + mapping.getErrorLocation());
             }
+            if (fetchStrategy == FetchStrategy.MULTISET) {
+                context.addError("The MULTISET fetch strategy is only supported for @Mapping but was used for the " + mapping.getErrorLocation());
+            }
             if (!(declaringType instanceof ViewType<?>) && (fetchStrategy == FetchStrategy.SELECT || fetchStrategy == FetchStrategy.SUBSELECT)) {
                 // This check is not perfect, but good enough since we also check it at runtime
                 if (mappingCorrelated.correlationExpression().toUpperCase().contains("EMBEDDING_VIEW")) {
@@ -788,6 +796,15 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
 
         // TODO: key fetches?
 
+        if (fetchStrategy == FetchStrategy.MULTISET) {
+            if (!isCollection() || isIndexed()) {
+                context.addError("The MULTISET fetch strategy is only supported for non-indexed collection attributes but was used for the " + getLocation());
+            }
+            if (!context.getJpqlFunctions().containsKey(MULTISET_FUNCTION_NAME)) {
+                context.addError("The MULTISET fetch strategy is not supported by the DBMS as the JPQL function '" + MULTISET_FUNCTION_NAME + "' is not registered but was used for the " + getLocation());
+            }
+        }
+
         if (isCollection()) {
             elementType = getElementType().getJavaType();
 
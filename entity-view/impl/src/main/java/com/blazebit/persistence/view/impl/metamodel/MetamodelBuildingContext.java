@@ -90,6 +90,16 @@ public interface MetamodelBuildingContext {
 
     public boolean hasErrors();
 
+    /**
+     * Runs the given task and returns the errors it added instead of registering them.
+     * This allows to run tasks in parallel and register the errors in a deterministic order afterwards.
+     *
+     * @param task The task to run
+     * @return The errors added by the task
+     * @since 1.4.1
+     */
+    public List<String> collectErrors(Runnable task);
+
     public boolean isEntityView(Class<?> clazz);
 
     public Set<Class<?>> findSubtypes(Class<?> entityViewClass);
@@ -90,6 +90,7 @@ public class MetamodelBuildingContextImpl implements MetamodelBuildingContext {
     private final Map<ViewMappingInitializationKey, ManagedViewTypeImplementor<?>> initializingManagedViews;
     private final Map<ManagedViewTypeImplementor<?>, List<Runnable>> managedViewFinishListeners;
     private final Set<String> errors;
+    private final ThreadLocal<List<String>> collectedErrors = new ThreadLocal<>();
 
     private final boolean disallowOwnedUpdatableSubview;
     private final boolean strictCascadingCheck;
@@ -511,7 +512,29 @@ public class MetamodelBuildingContextImpl implements MetamodelBuildingContext {
 
     @Override
     public void addError(String error) {
-        errors.add(error);
+        List<String> errorCollector = collectedErrors.get();
+        if (errorCollector == null) {
+            errors.add(error);
+        } else {
+            errorCollector.add(error);
+        }
+    }
+
+    @Override
+    public List<String> collectErrors(Runnable task) {
+        List<String> errorCollector = new ArrayList<>();
+        List<String> oldErrorCollector = collectedErrors.get();
+        collectedErrors.set(errorCollector);
+        try {
+            task.run();
+        } finally {
+            if (oldErrorCollector == null) {
+                collectedErrors.remove();
+            } else {
+                collectedErrors.set(oldErrorCollector);
+            }
+        }
+        return errorCollector;
     }
 
     @Override
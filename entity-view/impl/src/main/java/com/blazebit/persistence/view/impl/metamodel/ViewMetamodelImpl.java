@@ -18,6 +18,7 @@ package com.blazebit.persistence.view.impl.metamodel;
 
 import com.blazebit.persistence.parser.EntityMetamodel;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.BootProfile;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.metamodel.FlatViewType;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
@@ -47,6 +48,10 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -61,6 +66,10 @@ public class ViewMetamodelImpl implements ViewMetamodel {
     private final Map<Class<?>, ManagedViewTypeImplementor<?>> managedViews;
 
     public ViewMetamodelImpl(EntityMetamodel entityMetamodel, MetamodelBuildingContext context, Map<Class<?>, Object> typeTestValues, boolean validateManagedTypes, boolean validateExpressions) {
+        this(entityMetamodel, context, typeTestValues, validateManagedTypes, validateExpressions, null, new BootProfile.Recorder("ViewMetamodel", 0));
+    }
+
+    public ViewMetamodelImpl(EntityMetamodel entityMetamodel, final MetamodelBuildingContext context, final Map<Class<?>, Object> typeTestValues, boolean validateManagedTypes, boolean validateExpressions, ExecutorService executorService, final BootProfile.Recorder bootProfileRecorder) {
         this.metamodel = entityMetamodel;
 
         Collection<ViewMapping> viewMappings = context.getViewMappings();
@@ -69,6 +78,7 @@ public class ViewMetamodelImpl implements ViewMetamodel {
         Map<Class<?>, ManagedViewTypeImplementor<?>> managedViews = new HashMap<>(viewMappings.size());
 
         // Phase 1: Wire up all view mappings into attributes, inheritance sub- and super types
+        bootProfileRecorder.startPhase("view mapping initialization");
         for (ViewMapping viewMapping : viewMappings) {
             viewMapping.initializeViewMappings(context, null);
         }
@@ -80,8 +90,11 @@ public class ViewMetamodelImpl implements ViewMetamodel {
         }
 
         // Phase 3: Build the ManagedViewType instances representing the metamodel
+        bootProfileRecorder.startPhase("view type building");
         for (ViewMapping viewMapping : viewMappings) {
+            long start = System.nanoTime();
             ManagedViewTypeImplementor<?> managedView = context.getManagedViewType(viewMapping, null);
+            bootProfileRecorder.element(viewMapping.getEntityViewClass().getName(), System.nanoTime() - start);
 
             managedViews.put(viewMapping.getEntityViewClass(), managedView);
             if (managedView instanceof FlatViewType<?>) {
@@ -98,16 +111,36 @@ public class ViewMetamodelImpl implements ViewMetamodel {
         // Phase 4: Validate expressions against the entity model
         if (!context.hasErrors()) {
             if (validateExpressions) {
-                List<AbstractAttribute<?, ?>> parents = new ArrayList<>();
-                for (ManagedViewTypeImplementor<?> t : managedViews.values()) {
-                    t.checkAttributes(context);
-                    t.checkNestedAttributes(parents, context);
+                bootProfileRecorder.startPhase("expression validation");
+                if (executorService == null) {
+                    List<AbstractAttribute<?, ?>> parents = new ArrayList<>();
+                    for (ManagedViewTypeImplementor<?> t : managedViews.values()) {
+                        long start = System.nanoTime();
+                        t.checkAttributes(context);
+                        t.checkNestedAttributes(parents, context);
+                        bootProfileRecorder.element(t.getJavaType().getName(), System.nanoTime() - start);
+                    }
+                } else {
+                    List<Runnable> tasks = new ArrayList<>(managedViews.size());
+                    for (final ManagedViewTypeImplementor<?> t : managedViews.values()) {
+                        tasks.add(new Runnable() {
+                            @Override
+                            public void run() {
+                                long start = System.nanoTime();
+                                t.checkAttributes(context);
+                                t.checkNestedAttributes(new ArrayList<AbstractAttribute<?, ?>>(), context);
+                                bootProfileRecorder.element(t.getJavaType().getName(), System.nanoTime() - start);
+                            }
+                        });
+                    }
+                    runParallel(executorService, context, tasks);
                 }
             }
         }
 
         // Phase 5: Validate that JPA types that are used in entity views have sane equals/hashCode implementations
         if (validateManagedTypes) {
+            bootProfileRecorder.startPhase("managed type validation");
             Set<ManagedType<?>> jpaManagedTypes = new HashSet<>();
             for (ManagedViewTypeImplementor<?> managedViewType : managedViews.values()) {
                 for (MethodAttribute<?, ?> attribute : managedViewType.getAttributes()) {
@@ -136,45 +169,104 @@ public class ViewMetamodelImpl implements ViewMetamodel {
 
             // A null might end up in here because we don't filter it out before adding, so remove it here again
             jpaManagedTypes.remove(null);
-            for (ManagedType<?> jpaManagedType : jpaManagedTypes) {
-                Class<?> javaType = jpaManagedType.getJavaType();
-                if ((javaType.getModifiers() & Modifier.ABSTRACT) == 0) {
-                    try {
-                        Constructor<?> declaredConstructor = javaType.getDeclaredConstructor();
-                        declaredConstructor.setAccessible(true);
-                        Object instance1 = declaredConstructor.newInstance();
-                        Object instance2 = declaredConstructor.newInstance();
-                        Object instance3 = declaredConstructor.newInstance();
-
-                        // Try to set any value on instance3 so that it would differ from instance1
-                        String error = createValue(jpaManagedType, instance2, typeTestValues, true);
+            if (executorService == null) {
+                for (ManagedType<?> jpaManagedType : jpaManagedTypes) {
+                    validateManagedType(jpaManagedType, typeTestValues, context);
+                }
+            } else {
+                List<Runnable> tasks = new ArrayList<>(jpaManagedTypes.size());
+                for (final ManagedType<?> jpaManagedType : jpaManagedTypes) {
+                    tasks.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            validateManagedType(jpaManagedType, typeTestValues, context);
+                        }
+                    });
+                }
+                runParallel(executorService, context, tasks);
+            }
+        }
+        bootProfileRecorder.endPhase();
+    }
 
-                        if (error != null) {
-                            context.addError(error);
-                        } else {
-                            error = createValue(jpaManagedType, instance3, typeTestValues, true);
-                            if (error != null) {
-                                context.addError(error);
-                            } else {
-                                String infoText = "Equals/hashCode should be based on the identifier for entities and the full state for embeddables. Consider using a subview instead or add a proper equals/hashCode implementation!";
-                                if (!instance2.equals(instance3)) {
-                                    context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with the same state are not equal. " + infoText);
-                                }
-                                if (instance2.hashCode() != instance3.hashCode()) {
-                                    context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with the same state do not have the same hashCode. " + infoText);
-                                }
-                                if (instance1.equals(instance3)) {
-                                    context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with different state are equal. " + infoText);
-                                }
-                            }
+    private static void runParallel(ExecutorService executorService, final MetamodelBuildingContext context, List<Runnable> tasks) {
+        List<Callable<List<String>>> callables = new ArrayList<>(tasks.size());
+        for (final Runnable task : tasks) {
+            callables.add(new Callable<List<String>>() {
+                @Override
+                public List<String> call() {
+                    return context.collectErrors(task);
+                }
+            });
+        }
+
+        List<Future<List<String>>> futures;
+        try {
+            futures = executorService.invokeAll(callables);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during the parallel entity view metamodel building!", ex);
+        }
+
+        // Register the errors in task order so that the result is the same as for sequential building
+        for (Future<List<String>> future : futures) {
+            List<String> errors;
+            try {
+                errors = future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during the parallel entity view metamodel building!", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                } else if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+            for (String error : errors) {
+                context.addError(error);
+            }
+        }
+    }
+
+    private void validateManagedType(ManagedType<?> jpaManagedType, Map<Class<?>, Object> typeTestValues, MetamodelBuildingContext context) {
+        Class<?> javaType = jpaManagedType.getJavaType();
+        if ((javaType.getModifiers() & Modifier.ABSTRACT) == 0) {
+            try {
+                Constructor<?> declaredConstructor = javaType.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                Object instance1 = declaredConstructor.newInstance();
+                Object instance2 = declaredConstructor.newInstance();
+                Object instance3 = declaredConstructor.newInstance();
+
+                // Try to set any value on instance3 so that it would differ from instance1
+                String error = createValue(jpaManagedType, instance2, typeTestValues, true);
+
+                if (error != null) {
+                    context.addError(error);
+                } else {
+                    error = createValue(jpaManagedType, instance3, typeTestValues, true);
+                    if (error != null) {
+                        context.addError(error);
+                    } else {
+                        String infoText = "Equals/hashCode should be based on the identifier for entities and the full state for embeddables. Consider using a subview instead or add a proper equals/hashCode implementation!";
+                        if (!instance2.equals(instance3)) {
+                            context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with the same state are not equal. " + infoText);
+                        }
+                        if (instance2.hashCode() != instance3.hashCode()) {
+                            context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with the same state do not have the same hashCode. " + infoText);
+                        }
+                        if (instance1.equals(instance3)) {
+                            context.addError("The use of the JPA managed type '" + javaType.getName() + "' in entity views is problematic because two instances with different state are equal. " + infoText);
                         }
-                    } catch (Exception ex) {
-                        StringWriter sw = new StringWriter();
-                        sw.append("Error during validation of equals/hashCode implementations of managed type [").append(javaType.getName()).append("]. If you think this is due to a bug, please report the problem and temporarily deactivate the type checking by setting the property '").append(ConfigurationProperties.MANAGED_TYPE_VALIDATION_DISABLED).append("' to true.\n");
-                        ex.printStackTrace(new PrintWriter(sw));
-                        context.addError(sw.toString());
                     }
                 }
+            } catch (Exception ex) {
+                StringWriter sw = new StringWriter();
+                sw.append("Error during validation of equals/hashCode implementations of managed type [").append(javaType.getName()).append("]. If you think this is due to a bug, please report the problem and temporarily deactivate the type checking by setting the property '").append(ConfigurationProperties.MANAGED_TYPE_VALIDATION_DISABLED).append("' to true.\n");
+                ex.printStackTrace(new PrintWriter(sw));
+                context.addError(sw.toString());
             }
         }
     }
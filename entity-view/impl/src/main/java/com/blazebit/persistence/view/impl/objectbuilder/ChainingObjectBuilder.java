@@ -19,7 +19,9 @@ package com.blazebit.persistence.view.impl.objectbuilder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.SelectBuilder;
@@ -32,14 +34,16 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTrans
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ChainingObjectBuilder<T> implements ObjectBuilder<T> {
+public class ChainingObjectBuilder<T> implements GroupingObjectBuilder<T> {
 
     private final TupleTransformator transformator;
     private final ObjectBuilder<T> objectBuilder;
+    private final int[] idPositions;
 
-    public ChainingObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int startIndex) {
+    public ChainingObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int startIndex, int[] idPositions) {
         this.transformator = transformatorFactory.create(parameterHolder, optionalParameters, entityViewConfiguration);
         this.objectBuilder = objectBuilder;
+        this.idPositions = idPositions;
     }
 
     @Override
@@ -63,4 +67,17 @@ public class ChainingObjectBuilder<T> implements ObjectBuilder<T> {
         }
         return objectBuilder.buildList(resultList);
     }
+
+    @Override
+    public boolean isSameGroup(Object[] previousTuple, Object[] tuple) {
+        if (idPositions == null || idPositions.length == 0) {
+            return false;
+        }
+        for (int i = 0; i < idPositions.length; i++) {
+            if (!Objects.equals(previousTuple[idPositions[i]], tuple[idPositions[i]])) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -51,6 +51,7 @@ import com.blazebit.persistence.view.impl.objectbuilder.mapper.ConstrainedTupleE
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionCorrelationJoinTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ExpressionTupleElementMapper;
+import com.blazebit.persistence.view.impl.objectbuilder.mapper.MultisetTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedAliasExpressionSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedAliasSubqueryTupleElementMapper;
 import com.blazebit.persistence.view.impl.objectbuilder.mapper.ParameterizedExpressionCorrelationJoinTupleElementMapper;
@@ -64,6 +65,7 @@ import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTrans
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.CollectionTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.IndexedListTupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.MapTupleListTransformer;
+import com.blazebit.persistence.view.impl.objectbuilder.transformer.MultisetTupleListTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.SubviewTupleTransformerFactory;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.BasicCorrelator;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation.CorrelatedCollectionBatchTupleListTransformerFactory;
@@ -520,7 +522,10 @@ public class ViewTypeObjectBuilderTemplate<T> {
                         newTupleIdDescriptor = tupleIdDescriptor;
                     }
 
-                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
+                    if (pluralAttribute.getFetchStrategy() == FetchStrategy.MULTISET) {
+                        MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
+                        applyMultisetMapping(mappingAttribute, attributePath, (ManagedViewTypeImplementor<Object[]>) pluralAttribute.getElementType(), mapperBuilder, embeddingViewJpqlMacro, ef, dirtyTracking);
+                    } else if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
                         ManagedViewTypeImplementor<Object> managedViewType = (ManagedViewTypeImplementor<Object>) pluralAttribute.getElementType();
                         applyCorrelatedSubviewMapping(attribute, attributePath, newTupleIdDescriptor, (ManagedViewTypeImplementor<Object[]>) (ManagedViewTypeImplementor<?>) managedViewType, mapperBuilder, embeddingViewJpqlMacro, ef, batchSize, dirtyTracking);
                     } else {
@@ -534,7 +539,10 @@ public class ViewTypeObjectBuilderTemplate<T> {
                     MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
                     applyCollectionFunctionMapping("VALUE", "", mappingAttribute, attributePath, mapperBuilder, mappingAttribute.getFetches());
                 } else {
-                    if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
+                    if (pluralAttribute.getFetchStrategy() == FetchStrategy.MULTISET) {
+                        MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
+                        applyMultisetMapping(mappingAttribute, attributePath, null, mapperBuilder, embeddingViewJpqlMacro, ef, dirtyTracking);
+                    } else if (pluralAttribute.isCorrelated() || pluralAttribute.getFetchStrategy() != FetchStrategy.JOIN) {
                         applyBasicCorrelatedMapping(attribute, attributePath, mapperBuilder, ef, batchSize, dirtyTracking);
                     } else {
                         MappingAttribute<? super T, ?> mappingAttribute = (MappingAttribute<? super T, ?>) attribute;
@@ -658,6 +666,102 @@ public class ViewTypeObjectBuilderTemplate<T> {
         embeddingViewJpqlMacro.setEmbeddingViewPath(oldEmbeddingViewPath);
     }
 
+    @SuppressWarnings("unchecked")
+    private void applyMultisetMapping(MappingAttribute<? super T, ?> mappingAttribute, String attributePath, ManagedViewTypeImplementor<Object[]> elementViewType, TupleElementMapperBuilder mapperBuilder, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, ExpressionFactory ef, boolean dirtyTracking) {
+        PluralAttribute<?, ?, ?> pluralAttribute = (PluralAttribute<?, ?, ?>) mappingAttribute;
+        String correlationPath = mapperBuilder.getMapping(mappingAttribute);
+        String multisetAlias = ("multiset_" + attributePath.replace('.', '_')).intern();
+        String embeddingViewPath = mapperBuilder.getMapping("");
+        int startIndex = tupleOffset + mapperBuilder.mapperIndex();
+        ViewTypeObjectBuilderTemplate<Object[]> template;
+        String[] elementExpressions;
+        Class<?>[] elementTypes;
+
+        switch (pluralAttribute.getCollectionType()) {
+            case COLLECTION:
+                if (pluralAttribute.isSorted()) {
+                    throw new IllegalArgumentException("The collection attribute '" + pluralAttribute + "' can not be sorted!");
+                }
+                break;
+            case LIST:
+                if (pluralAttribute.isSorted()) {
+                    throw new IllegalArgumentException("The list attribute '" + pluralAttribute + "' can not be sorted!");
+                }
+                break;
+            case SET:
+                break;
+            case MAP:
+                throw new IllegalArgumentException("Map type unsupported for the MULTISET fetch strategy!");
+            default:
+                throw new IllegalArgumentException("Unknown collection type: " + pluralAttribute.getCollectionType());
+        }
+
+        if (elementViewType == null) {
+            template = null;
+            elementExpressions = new String[]{ multisetAlias };
+            elementTypes = new Class<?>[]{ getMultisetColumnType(pluralAttribute.getElementType()) };
+        } else {
+            Map<ManagedViewTypeImplementor<? extends Object[]>, String> inheritanceSubtypeMappings = (Map<ManagedViewTypeImplementor<? extends Object[]>, String>) (Map<?, ?>) pluralAttribute.getElementInheritanceSubtypeMappings();
+            String oldEmbeddingViewPath = embeddingViewJpqlMacro.getEmbeddingViewPath();
+            embeddingViewJpqlMacro.setEmbeddingViewPath(embeddingViewPath);
+            // The element template works on the decoded element tuples which only contain the element columns
+            template = new ViewTypeObjectBuilderTemplate<Object[]>(viewRoot, viewRootAlias, attributePath, multisetAlias, multisetAlias, multisetAlias, new TupleIdDescriptor(), new TupleIdDescriptor(),
+                    0, embeddingViewJpqlMacro, inheritanceSubtypeMappings, evm, ef, elementViewType, getSubviewMappingConstructor(elementViewType), proxyFactory);
+            embeddingViewJpqlMacro.setEmbeddingViewPath(oldEmbeddingViewPath);
+
+            if (template.hasSubtypes || template.hasParameters || template.tupleTransformatorFactory.hasTransformers()) {
+                throw new IllegalArgumentException("The MULTISET fetch strategy used for the attribute '" + pluralAttribute + "' only supports element views without inheritance, collections, parameters or correlations!");
+            }
+
+            elementExpressions = new String[template.mappers.length];
+            elementTypes = new Class<?>[template.mappers.length];
+            for (int i = 0; i < template.mappers.length; i++) {
+                TupleElementMapper mapper = template.mappers[i];
+                if (!(mapper instanceof ExpressionTupleElementMapper)) {
+                    throw new IllegalArgumentException("The MULTISET fetch strategy used for the attribute '" + pluralAttribute + "' only supports element views with simple expression mappings but found the mapping for '" + mapper.getAttributePath() + "'!");
+                }
+                elementExpressions[i] = ((ExpressionTupleElementMapper) mapper).getExpression();
+                elementTypes[i] = getMultisetColumnType(elementViewType, mapper.getAttributePath().substring(attributePath.length() + 1));
+            }
+        }
+
+        mapperBuilder.addMapper(new MultisetTupleElementMapper(AbstractAttribute.MULTISET_FUNCTION_NAME.toUpperCase(), correlationPath, multisetAlias, elementExpressions, attributePath, embeddingViewPath));
+        mapperBuilder.setTupleListTransformerFactory(new MultisetTupleListTransformerFactory(startIndex, template, elementTypes, ((AbstractAttribute<?, ?>) mappingAttribute).getCollectionInstantiator(), dirtyTracking, (TypeConverter<Object, Object>) pluralAttribute.getElementType().getConverter()));
+    }
+
+    private Class<?> getMultisetColumnType(ManagedViewType<?> managedViewType, String path) {
+        int dotIndex = path.indexOf('.');
+        String name = dotIndex == -1 ? path : path.substring(0, dotIndex);
+        Attribute<?, ?> attribute;
+        if (name.charAt(0) == '$') {
+            MappingConstructor<?> constructor;
+            if (managedViewType.getConstructors().size() == 1) {
+                constructor = managedViewType.getConstructors().iterator().next();
+            } else {
+                constructor = managedViewType.getConstructor("init");
+            }
+            attribute = constructor == null ? null : constructor.getParameterAttributes().get(Integer.parseInt(name.substring(1)));
+        } else {
+            attribute = managedViewType.getAttribute(name);
+        }
+        if (!(attribute instanceof SingularAttribute<?, ?>)) {
+            return Object.class;
+        }
+        Type<?> type = ((SingularAttribute<?, ?>) attribute).getType();
+        if (dotIndex != -1 && type instanceof ManagedViewType<?>) {
+            return getMultisetColumnType((ManagedViewType<?>) type, path.substring(dotIndex + 1));
+        }
+        return getMultisetColumnType(type);
+    }
+
+    private Class<?> getMultisetColumnType(Type<?> type) {
+        // The tuple contains the values before conversion, so we have to produce the converted type
+        if (type.getConvertedType() instanceof Class<?>) {
+            return (Class<?>) type.getConvertedType();
+        }
+        return type.getJavaType();
+    }
+
     @SuppressWarnings("unchecked")
     private void applyCorrelatedSubviewMapping(AbstractAttribute<?, ?> attribute, String attributePath, TupleIdDescriptor tupleIdDescriptor, ManagedViewTypeImplementor<Object[]> managedViewType, TupleElementMapperBuilder mapperBuilder, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, ExpressionFactory ef, int batchSize, boolean dirtyTracking) {
         String correlationResult = attribute.getCorrelationResult();
@@ -1137,7 +1241,7 @@ public class ViewTypeObjectBuilderTemplate<T> {
         }
 
         if (tupleTransformatorFactory.hasTransformers() && !isSubview) {
-            result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, tupleOffset);
+            result = new ChainingObjectBuilder<T>(tupleTransformatorFactory, result, parameterHolder, optionalParameters, entityViewConfiguration, tupleOffset, hasId ? idPositions : null);
         }
 
         return result;
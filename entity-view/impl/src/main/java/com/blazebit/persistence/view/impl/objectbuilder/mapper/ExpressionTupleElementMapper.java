@@ -65,6 +65,10 @@ public class ExpressionTupleElementMapper implements TupleElementMapper {
         embeddingViewJpqlMacro.setEmbeddingViewPath(oldEmbeddingViewPath);
     }
 
+    public String getExpression() {
+        return expression;
+    }
+
     @Override
     public String getAttributePath() {
         return attributePath;
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.mapper;
+
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+
+import java.util.Map;
+
+/**
+ * Selects the elements of a collection as a single multiset column by aggregating the element expressions
+ * in a correlated subquery with the <code>MULTISET_AGG</code> function.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MultisetTupleElementMapper implements TupleElementMapper {
+
+    private final String correlationPath;
+    private final String correlationAlias;
+    private final String aggregateExpression;
+    private final String attributePath;
+    private final String embeddingViewPath;
+
+    public MultisetTupleElementMapper(String functionName, String correlationPath, String correlationAlias, String[] elementExpressions, String attributePath, String embeddingViewPath) {
+        this.correlationPath = correlationPath;
+        this.correlationAlias = correlationAlias;
+        StringBuilder sb = new StringBuilder();
+        sb.append("FUNCTION('").append(functionName).append('\'');
+        for (int i = 0; i < elementExpressions.length; i++) {
+            sb.append(", ");
+            sb.append(elementExpressions[i]);
+        }
+        sb.append(')');
+        this.aggregateExpression = sb.toString().intern();
+        this.attributePath = attributePath;
+        this.embeddingViewPath = embeddingViewPath;
+    }
+
+    @Override
+    public void applyMapping(SelectBuilder<?> queryBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+        String oldEmbeddingViewPath = embeddingViewJpqlMacro.getEmbeddingViewPath();
+        embeddingViewJpqlMacro.setEmbeddingViewPath(embeddingViewPath);
+        queryBuilder.selectSubquery()
+                .from(correlationPath, correlationAlias)
+                .select(aggregateExpression)
+                .end();
+        embeddingViewJpqlMacro.setEmbeddingViewPath(oldEmbeddingViewPath);
+    }
+
+    @Override
+    public String getAttributePath() {
+        return attributePath;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/**
+ * A minimal parser for the JSON arrays of arrays produced by the <code>MULTISET_AGG</code> function.
+ * The values of the nested arrays are converted to the given column types.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+final class MultisetJsonParser {
+
+    private final String json;
+    private int position;
+
+    private MultisetJsonParser(String json) {
+        this.json = json;
+    }
+
+    public static List<Object[]> parse(Object value, Class<?>[] columnTypes) {
+        String json = toString(value);
+        if (json == null) {
+            return Collections.emptyList();
+        }
+        MultisetJsonParser parser = new MultisetJsonParser(json);
+        Object result = parser.parseValue();
+        parser.skipWhitespace();
+        if (parser.position != json.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        if (result == null) {
+            return Collections.emptyList();
+        }
+        if (!(result instanceof List<?>)) {
+            throw new IllegalArgumentException("Expected a JSON array for the multiset but got: " + json);
+        }
+        List<?> rows = (List<?>) result;
+        List<Object[]> tuples = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            if (!(row instanceof List<?>)) {
+                throw new IllegalArgumentException("Expected a JSON array for the multiset element but got: " + row);
+            }
+            List<?> columns = (List<?>) row;
+            if (columns.size() != columnTypes.length) {
+                throw new IllegalArgumentException("Expected " + columnTypes.length + " values for the multiset element but got: " + columns);
+            }
+            Object[] tuple = new Object[columnTypes.length];
+            for (int i = 0; i < columnTypes.length; i++) {
+                tuple[i] = convert(columns.get(i), columnTypes[i]);
+            }
+            tuples.add(tuple);
+        }
+        return tuples;
+    }
+
+    private static String toString(Object value) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            try (Reader reader = clob.getCharacterStream()) {
+                StringBuilder sb = new StringBuilder((int) clob.length());
+                char[] buffer = new char[4096];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    sb.append(buffer, 0, read);
+                }
+                return sb.toString();
+            } catch (SQLException | IOException ex) {
+                throw new IllegalArgumentException("Could not read the multiset CLOB", ex);
+            }
+        }
+        return value.toString();
+    }
+
+    /* Parsing */
+
+    private Object parseValue() {
+        skipWhitespace();
+        if (position >= json.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = json.charAt(position);
+        switch (c) {
+            case '[':
+                return parseArray();
+            case '"':
+                return parseString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                if (c == '-' || c >= '0' && c <= '9') {
+                    return parseNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private List<Object> parseArray() {
+        position++;
+        List<Object> list = new ArrayList<>();
+        skipWhitespace();
+        if (position < json.length() && json.charAt(position) == ']') {
+            position++;
+            return list;
+        }
+        while (true) {
+            list.add(parseValue());
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw error("Unterminated array");
+            }
+            char c = json.charAt(position++);
+            if (c == ']') {
+                return list;
+            } else if (c != ',') {
+                throw error("Expected ',' or ']' but got '" + c + "'");
+            }
+        }
+    }
+
+    private String parseString() {
+        position++;
+        StringBuilder sb = null;
+        int start = position;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '"') {
+                String result;
+                if (sb == null) {
+                    result = json.substring(start, position);
+                } else {
+                    result = sb.append(json, start, position).toString();
+                }
+                position++;
+                return result;
+            } else if (c == '\\') {
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(json, start, position);
+                position++;
+                if (position >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > json.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        sb.append(escaped);
+                        break;
+                }
+                start = position;
+            } else {
+                position++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private BigDecimal parseNumber() {
+        int start = position;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        return new BigDecimal(json.substring(start, position));
+    }
+
+    private void expect(String literal) {
+        if (!json.startsWith(literal, position)) {
+            throw error("Expected '" + literal + "'");
+        }
+        position += literal.length();
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in multiset JSON: " + json);
+    }
+
+    /* Conversion */
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object convert(Object value, Class<?> type) {
+        if (value == null || type == Object.class || type.isInstance(value)) {
+            return value;
+        }
+        Class<?> targetType = type.isPrimitive() ? wrap(type) : type;
+        if (targetType.isInstance(value)) {
+            return value;
+        }
+
+        if (value instanceof BigDecimal) {
+            BigDecimal number = (BigDecimal) value;
+            if (targetType == Integer.class) {
+                return number.intValue();
+            } else if (targetType == Long.class) {
+                return number.longValue();
+            } else if (targetType == Short.class) {
+                return number.shortValue();
+            } else if (targetType == Byte.class) {
+                return number.byteValue();
+            } else if (targetType == Double.class) {
+                return number.doubleValue();
+            } else if (targetType == Float.class) {
+                return number.floatValue();
+            } else if (targetType == BigInteger.class) {
+                return number.toBigInteger();
+            } else if (targetType == Boolean.class) {
+                return number.signum() != 0;
+            } else if (targetType.isEnum()) {
+                return targetType.getEnumConstants()[number.intValue()];
+            } else if (targetType == String.class) {
+                return number.toPlainString();
+            }
+        }
+
+        String string = value.toString();
+        if (targetType == String.class) {
+            return string;
+        } else if (targetType == Character.class) {
+            return string.isEmpty() ? null : string.charAt(0);
+        } else if (targetType == Boolean.class) {
+            return "true".equalsIgnoreCase(string) || "1".equals(string);
+        } else if (targetType == Integer.class) {
+            return Integer.valueOf(string);
+        } else if (targetType == Long.class) {
+            return Long.valueOf(string);
+        } else if (targetType == Short.class) {
+            return Short.valueOf(string);
+        } else if (targetType == Byte.class) {
+            return Byte.valueOf(string);
+        } else if (targetType == Double.class) {
+            return Double.valueOf(string);
+        } else if (targetType == Float.class) {
+            return Float.valueOf(string);
+        } else if (targetType == BigDecimal.class) {
+            return new BigDecimal(string);
+        } else if (targetType == BigInteger.class) {
+            return new BigInteger(string);
+        } else if (targetType.isEnum()) {
+            return Enum.valueOf((Class<Enum>) targetType, string);
+        } else if (targetType == UUID.class) {
+            return UUID.fromString(string);
+        } else if (targetType == java.sql.Date.class) {
+            return java.sql.Date.valueOf(string.substring(0, 10));
+        } else if (targetType == java.sql.Time.class) {
+            return java.sql.Time.valueOf(string.substring(0, 8));
+        } else if (targetType == java.sql.Timestamp.class || targetType == java.util.Date.class) {
+            return toTimestamp(string);
+        } else if (targetType == Calendar.class) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(toTimestamp(string));
+            return calendar;
+        } else if (targetType.getName().startsWith("java.time.")) {
+            // Avoid a hard dependency on Java 8 types
+            if (string.length() > 10 && zoneIndex(string) != -1) {
+                // Local types can't be parsed from a string with an offset, so we go through the instant
+                if ("java.time.LocalDateTime".equals(targetType.getName())) {
+                    return invoke(toTimestamp(string), "toLocalDateTime");
+                } else if ("java.time.Instant".equals(targetType.getName())) {
+                    return invoke(toTimestamp(string), "toInstant");
+                }
+            }
+            return invokeStatic(targetType, "parse", CharSequence.class, string.replace(' ', 'T'));
+        }
+
+        Object result = invokeStatic(targetType, "valueOf", String.class, string);
+        if (result == null) {
+            try {
+                Constructor<?> constructor = targetType.getConstructor(String.class);
+                result = constructor.newInstance(string);
+            } catch (NoSuchMethodException ex) {
+                return value;
+            } catch (Exception ex) {
+                throw new IllegalArgumentException("Could not convert multiset value '" + string + "' to " + targetType.getName(), ex);
+            }
+        }
+        return result;
+    }
+
+    private static java.sql.Timestamp toTimestamp(String string) {
+        String timestamp = string.replace('T', ' ');
+        int zoneIndex = zoneIndex(timestamp);
+        String zone = null;
+        if (zoneIndex != -1) {
+            zone = timestamp.substring(zoneIndex);
+            timestamp = timestamp.substring(0, zoneIndex);
+        }
+        if (timestamp.length() == 10) {
+            timestamp += " 00:00:00";
+        }
+        java.sql.Timestamp localTimestamp = java.sql.Timestamp.valueOf(timestamp);
+        if (zone == null) {
+            // Timestamps without a zone are interpreted in the JVM time zone
+            return localTimestamp;
+        }
+
+        // Interpret the local date time fields in the given offset to determine the instant
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setTimeZone(TimeZone.getTimeZone("Z".equals(zone) ? "GMT" : "GMT" + zone));
+        java.sql.Timestamp result;
+        try {
+            result = new java.sql.Timestamp(format.parse(timestamp.substring(0, 19)).getTime());
+        } catch (ParseException ex) {
+            throw new IllegalArgumentException("Could not convert multiset value '" + string + "' to a timestamp", ex);
+        }
+        result.setNanos(localTimestamp.getNanos());
+        return result;
+    }
+
+    private static int zoneIndex(String timestamp) {
+        if (timestamp.endsWith("Z")) {
+            return timestamp.length() - 1;
+        }
+        // The date part contains '-' characters, so we only look for an offset sign after it
+        int zoneIndex = Math.max(timestamp.lastIndexOf('+'), timestamp.lastIndexOf('-'));
+        if (zoneIndex > 10) {
+            return zoneIndex;
+        }
+        return -1;
+    }
+
+    private static Object invoke(Object object, String methodName) {
+        try {
+            return object.getClass().getMethod(methodName).invoke(object);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not invoke " + methodName + " on multiset value '" + object + "'", ex);
+        }
+    }
+
+    private static Object invokeStatic(Class<?> type, String methodName, Class<?> parameterType, String argument) {
+        Method method;
+        try {
+            method = type.getMethod(methodName, parameterType);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+        try {
+            return method.invoke(null, argument);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Could not convert multiset value '" + argument + "' to " + type.getName(), ex);
+        }
+    }
+
+    private static Class<?> wrap(Class<?> primitiveType) {
+        if (primitiveType == int.class) {
+            return Integer.class;
+        } else if (primitiveType == long.class) {
+            return Long.class;
+        } else if (primitiveType == boolean.class) {
+            return Boolean.class;
+        } else if (primitiveType == double.class) {
+            return Double.class;
+        } else if (primitiveType == float.class) {
+            return Float.class;
+        } else if (primitiveType == short.class) {
+            return Short.class;
+        } else if (primitiveType == byte.class) {
+            return Byte.class;
+        } else {
+            return Character.class;
+        }
+    }
+}
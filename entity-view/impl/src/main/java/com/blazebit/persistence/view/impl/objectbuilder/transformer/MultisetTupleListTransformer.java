@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.collection.CollectionInstantiator;
+import com.blazebit.persistence.view.impl.collection.RecordingCollection;
+import com.blazebit.persistence.view.spi.type.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decodes the JSON produced by the <code>MULTISET_AGG</code> function into a collection of elements.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MultisetTupleListTransformer extends TupleListTransformer {
+
+    private final ObjectBuilder<Object[]> elementObjectBuilder;
+    private final Class<?>[] elementTypes;
+    private final CollectionInstantiator collectionInstantiator;
+    private final boolean dirtyTracking;
+    private final TypeConverter<Object, Object> elementConverter;
+
+    public MultisetTupleListTransformer(int startIndex, ObjectBuilder<Object[]> elementObjectBuilder, Class<?>[] elementTypes, CollectionInstantiator collectionInstantiator, boolean dirtyTracking, TypeConverter<Object, Object> elementConverter) {
+        super(startIndex);
+        this.elementObjectBuilder = elementObjectBuilder;
+        this.elementTypes = elementTypes;
+        this.collectionInstantiator = collectionInstantiator;
+        this.dirtyTracking = dirtyTracking;
+        this.elementConverter = elementConverter;
+    }
+
+    @Override
+    public int getConsumableIndex() {
+        return -1;
+    }
+
+    @Override
+    public List<Object[]> transform(List<Object[]> tuples) {
+        for (Object[] tuple : tuples) {
+            List<Object[]> elementTuples = MultisetJsonParser.parse(tuple[startIndex], elementTypes);
+            tuple[startIndex] = createCollection(elementTuples);
+        }
+        return tuples;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object> createCollection(List<Object[]> elementTuples) {
+        Collection<Object> collection;
+        Collection<Object> target;
+        if (dirtyTracking) {
+            collection = (Collection<Object>) collectionInstantiator.createRecordingCollection(elementTuples.size());
+            target = ((RecordingCollection<?, Object>) collection).getDelegate();
+        } else {
+            collection = (Collection<Object>) collectionInstantiator.createCollection(elementTuples.size());
+            target = collection;
+        }
+
+        List<Object> elements;
+        if (elementObjectBuilder == null) {
+            elements = new ArrayList<>(elementTuples.size());
+            for (Object[] elementTuple : elementTuples) {
+                elements.add(elementTuple[0]);
+            }
+        } else {
+            List<Object[]> builtElements = new ArrayList<>(elementTuples.size());
+            for (Object[] elementTuple : elementTuples) {
+                builtElements.add(elementObjectBuilder.build(elementTuple));
+            }
+            elements = (List<Object>) (List<?>) elementObjectBuilder.buildList(builtElements);
+        }
+
+        for (Object element : elements) {
+            if (elementConverter != null) {
+                element = elementConverter.convertToViewType(element);
+            }
+            if (element != null) {
+                target.add(element);
+            }
+        }
+
+        if (collectionInstantiator.requiresPostConstruct()) {
+            collectionInstantiator.postConstruct(collection);
+        }
+        return collection;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.collection.CollectionInstantiator;
+import com.blazebit.persistence.view.impl.objectbuilder.ViewTypeObjectBuilderTemplate;
+import com.blazebit.persistence.view.spi.type.TypeConverter;
+
+import java.util.Map;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MultisetTupleListTransformerFactory implements TupleListTransformerFactory {
+
+    private final int startIndex;
+    private final ViewTypeObjectBuilderTemplate<Object[]> template;
+    private final Class<?>[] elementTypes;
+    private final CollectionInstantiator collectionInstantiator;
+    private final boolean dirtyTracking;
+    private final TypeConverter<Object, Object> elementConverter;
+
+    public MultisetTupleListTransformerFactory(int startIndex, ViewTypeObjectBuilderTemplate<Object[]> template, Class<?>[] elementTypes, CollectionInstantiator collectionInstantiator, boolean dirtyTracking, TypeConverter<Object, Object> elementConverter) {
+        this.startIndex = startIndex;
+        this.template = template;
+        this.elementTypes = elementTypes;
+        this.collectionInstantiator = collectionInstantiator;
+        this.dirtyTracking = dirtyTracking;
+        this.elementConverter = elementConverter;
+    }
+
+    @Override
+    public int getConsumableIndex() {
+        return -1;
+    }
+
+    @Override
+    public TupleListTransformer create(Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration) {
+        ObjectBuilder<Object[]> elementObjectBuilder = null;
+        if (template != null) {
+            elementObjectBuilder = template.createObjectBuilder(entityViewConfiguration.getCriteriaBuilder(), optionalParameters, entityViewConfiguration, 0, false, false);
+        }
+        return new MultisetTupleListTransformer(startIndex, elementObjectBuilder, elementTypes, collectionInstantiator, dirtyTracking, elementConverter);
+    }
+
+}
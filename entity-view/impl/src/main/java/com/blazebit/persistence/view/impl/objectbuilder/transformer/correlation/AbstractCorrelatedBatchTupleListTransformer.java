@@ -20,6 +20,7 @@ import com.blazebit.persistence.CTEBuilder;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.JpqlQuery;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.CorrelationProviderFactory;
@@ -37,6 +38,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
@@ -60,10 +63,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected CorrelatedSubqueryEmbeddingViewJpqlMacro embeddingViewJpqlMacro;
     protected Query query;
+    // The batch correlation mode the current criteria builder was built for
+    private BatchCorrelationMode correlationQueryMode;
+    // Shared with the factory, null if the correlation provider is parameterized
+    private final ConcurrentMap<BatchCorrelationMode, CorrelationQueryTemplate> correlationQueryTemplates;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ManagedViewType<?> viewRootType, ManagedViewType<?> embeddingViewType, String correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches,
-                                                       boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, EntityViewConfiguration entityViewConfiguration) {
+                                                       boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, EntityViewConfiguration entityViewConfiguration,
+                                                       ConcurrentMap<BatchCorrelationMode, CorrelationQueryTemplate> correlationQueryTemplates) {
         super(ef, correlator, viewRootType, embeddingViewType, correlationResult, correlationProviderFactory, attributePath, fetches, viewRootIndex, embeddingViewIndex, tupleIndex, correlationBasisType, correlationBasisEntity, entityViewConfiguration);
+        this.correlationQueryTemplates = correlationQueryTemplates;
         this.batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
         this.correlatesThis = correlatesThis;
         this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
@@ -180,38 +189,39 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         // We have the correlation key on the first position if we do batching
         int tupleOffset = batchSize > 1 ? 1 : 0;
 
-        final String correlationRoot = applyAndGetCorrelationRoot(expectBatchCorrelationMode);
-        // Add select items so that macros are properly used and we can query usage
-        correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
-        if (batchSize > 1) {
-            criteriaBuilder.select(correlationSelectExpression);
+        CorrelationQueryTemplate template = correlationQueryTemplates == null ? null : correlationQueryTemplates.get(expectBatchCorrelationMode);
+        if (template == null) {
+            // Build the query for the expected mode first so that we can query the macro usage
+            buildCorrelationQuery(expectBatchCorrelationMode, tupleOffset);
+            template = createCorrelationQueryTemplate();
+            if (correlationQueryTemplates != null) {
+                correlationQueryTemplates.putIfAbsent(expectBatchCorrelationMode, template);
+            }
         }
 
         // If a view macro is used, we have to decide whether we do batches for each view id or correlation param
-        if (embeddingViewJpqlMacro.usesViewMacroNonId() || !correlatesThis && embeddingViewJpqlMacro.usesViewMacro()) {
-            if (!(embeddingViewType instanceof ViewType<?>)) {
-                throw new IllegalStateException("The use of EMBEDDING_VIEW in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the embedding view type '" + embeddingViewType.getJavaType().getName() + "' does not declare a @IdMapping!");
-            }
-            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, embeddingViewJpqlMacro, BatchCorrelationMode.EMBEDDING_VIEWS, embeddingViewType, embeddingViewIndex);
-        } else if (viewRootJpqlMacro.usesViewMacro()) {
-            if (!(viewRootType instanceof ViewType<?>)) {
-                throw new IllegalStateException("The use of VIEW_ROOT in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the view root type '" + viewRootType.getJavaType().getName() + "' does not declare a @IdMapping!");
-            }
-            transformViewMacroAware(tuples, correlationParams, tupleOffset, correlationRoot, viewRootJpqlMacro, BatchCorrelationMode.VIEW_ROOTS, viewRootType, viewRootIndex);
+        if (template.batchCorrelationMode == BatchCorrelationMode.EMBEDDING_VIEWS) {
+            transformViewMacroAware(tuples, correlationParams, tupleOffset, template.usesViewMacro, BatchCorrelationMode.EMBEDDING_VIEWS, embeddingViewType, embeddingViewIndex);
+        } else if (template.batchCorrelationMode == BatchCorrelationMode.VIEW_ROOTS) {
+            transformViewMacroAware(tuples, correlationParams, tupleOffset, template.usesViewMacro, BatchCorrelationMode.VIEW_ROOTS, viewRootType, viewRootIndex);
         } else {
-            EntityManager em = criteriaBuilder.getEntityManager();
-            // Implementation detail: the tuple list is a LinkedList
-            Iterator<Object[]> tupleListIter = tuples.iterator();
-            if (batchSize > 1) {
-                // If the expectation was wrong, we have to create a new criteria builder
-                if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
-                    correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
-                    criteriaBuilder.select(correlationSelectExpression);
+            EntityManager em;
+            if (criteriaBuilder == null && batchSize == 1 && template.jpqlQuery != null && template.correlationParamName.equals(generateCorrelationParamName())) {
+                // The query string was rendered by a previous execution, so we only have to create the query and bind the correlation parameter
+                em = entityViewConfiguration.getCriteriaBuilder().getEntityManager();
+                correlationParamName = template.correlationParamName;
+                query = em.createQuery(template.jpqlQuery.getQueryString(), template.jpqlQuery.getResultType());
+                if (template.jpqlQuery.isCacheable()) {
+                    jpaProvider.setCacheable(query);
                 }
+            } else {
+                prepareCorrelationQuery(BatchCorrelationMode.VALUES, tupleOffset);
+                populateParameters(criteriaBuilder);
+                query = criteriaBuilder.getQuery();
+                em = criteriaBuilder.getEntityManager();
             }
-            populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
+            // Implementation detail: the tuple list is a LinkedList
+            Iterator<Object[]> tupleListIter = tuples.iterator();
 
             Map<Object, TuplePromise> correlationValues = new HashMap<>(tuples.size());
             while (tupleListIter.hasNext()) {
@@ -258,6 +268,49 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         return tuples;
     }
 
+    private void buildCorrelationQuery(BatchCorrelationMode batchCorrelationMode, int tupleOffset) {
+        String correlationRoot = applyAndGetCorrelationRoot(batchCorrelationMode);
+        // Add select items so that macros are properly used and we can query usage
+        correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+        if (batchSize > 1) {
+            criteriaBuilder.select(correlationSelectExpression);
+        }
+        correlationQueryMode = batchCorrelationMode;
+    }
+
+    private void prepareCorrelationQuery(BatchCorrelationMode batchCorrelationMode, int tupleOffset) {
+        // Without batching, the query built for the expected mode is used as is
+        BatchCorrelationMode mode = batchSize > 1 ? batchCorrelationMode : expectBatchCorrelationMode;
+        // If the expectation was wrong or we skipped the initial query, we have to create a new criteria builder
+        if (criteriaBuilder == null || correlationQueryMode != mode) {
+            buildCorrelationQuery(mode, tupleOffset);
+        }
+    }
+
+    private CorrelationQueryTemplate createCorrelationQueryTemplate() {
+        if (embeddingViewJpqlMacro.usesViewMacroNonId() || !correlatesThis && embeddingViewJpqlMacro.usesViewMacro()) {
+            if (!(embeddingViewType instanceof ViewType<?>)) {
+                throw new IllegalStateException("The use of EMBEDDING_VIEW in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the embedding view type '" + embeddingViewType.getJavaType().getName() + "' does not declare a @IdMapping!");
+            }
+            return new CorrelationQueryTemplate(BatchCorrelationMode.EMBEDDING_VIEWS, embeddingViewJpqlMacro.usesViewMacro(), null, null);
+        } else if (viewRootJpqlMacro.usesViewMacro()) {
+            if (!(viewRootType instanceof ViewType<?>)) {
+                throw new IllegalStateException("The use of VIEW_ROOT in the correlation for '" + embeddingViewType.getJavaType().getName() + "." + attributePath.substring(attributePath.lastIndexOf('.') + 1) + "' is illegal because the view root type '" + viewRootType.getJavaType().getName() + "' does not declare a @IdMapping!");
+            }
+            return new CorrelationQueryTemplate(BatchCorrelationMode.VIEW_ROOTS, true, null, null);
+        }
+        // Without batching and view macros, the query string only depends on the correlation parameter name
+        // as long as the correlation provider doesn't introduce further parameters and isn't parameterized
+        if (correlationQueryTemplates != null && batchSize == 1 && !embeddingViewJpqlMacro.usesViewMacro() && isOnlyCorrelationParameter(criteriaBuilder.getParameters())) {
+            return new CorrelationQueryTemplate(BatchCorrelationMode.VALUES, false, criteriaBuilder.getService(JpqlQuery.class), correlationParamName);
+        }
+        return new CorrelationQueryTemplate(BatchCorrelationMode.VALUES, false, null, null);
+    }
+
+    private boolean isOnlyCorrelationParameter(Set<? extends Parameter<?>> parameters) {
+        return parameters.size() == 1 && correlationParamName.equals(parameters.iterator().next().getName());
+    }
+
     @Override
     protected void populateParameters(FullQueryBuilder<?, ?> queryBuilder) {
         FullQueryBuilder<?, ?> mainBuilder = entityViewConfiguration.getCriteriaBuilder();
@@ -273,8 +326,7 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
-    private void transformViewMacroAware(List<Object[]> tuples, FixedArrayList correlationParams, int tupleOffset, String correlationRoot, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode correlationMode, ManagedViewType<?> viewType, int viewIndex) {
-        EntityManager em = criteriaBuilder.getEntityManager();
+    private void transformViewMacroAware(List<Object[]> tuples, FixedArrayList correlationParams, int tupleOffset, boolean usesViewMacro, BatchCorrelationMode correlationMode, ManagedViewType<?> viewType, int viewIndex) {
         // Implementation detail: the tuple list is a LinkedList
         Iterator<Object[]> tupleListIter = tuples.iterator();
         int totalSize = tuples.size();
@@ -314,26 +366,21 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
         }
 
-        boolean batchCorrelationValues = !macro.usesViewMacro() && viewRoots.size() <= correlationValues.size();
+        boolean batchCorrelationValues = !usesViewMacro && viewRoots.size() <= correlationValues.size();
         FixedArrayList viewRootIds = new FixedArrayList(batchSize);
+        prepareCorrelationQuery(batchCorrelationValues ? BatchCorrelationMode.VALUES : correlationMode, tupleOffset);
+        CorrelatedSubqueryViewRootJpqlMacro macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
+        if (batchSize > 1) {
+            macro.addBatchPredicate(criteriaBuilder);
+        } else {
+            // We have to bind the view id value, otherwise we might get wrong results
+            macro.addIdParamPredicate(criteriaBuilder);
+        }
+        populateParameters(criteriaBuilder);
+        query = criteriaBuilder.getQuery();
+        EntityManager em = criteriaBuilder.getEntityManager();
 
         if (batchCorrelationValues) {
-            if (batchSize > 1) {
-                // If the expectation was wrong, we have to create a new criteria builder
-                if (expectBatchCorrelationMode != BatchCorrelationMode.VALUES) {
-                    applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES);
-                    macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
-                    correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
-                    criteriaBuilder.select(correlationSelectExpression);
-                }
-                macro.addBatchPredicate(criteriaBuilder);
-            } else {
-                // We have to bind the view id value, otherwise we might get wrong results
-                macro.addIdParamPredicate(criteriaBuilder);
-            }
-            populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
-
             for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : viewRoots.entrySet()) {
                 Map<Object, TuplePromise> batchValues = batchEntry.getValue();
                 for (Map.Entry<Object, TuplePromise> batchValueEntry : batchValues.entrySet()) {
@@ -363,22 +410,6 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
             fillDefaultValues(viewRoots);
         } else {
-            if (batchSize > 1) {
-                // If the expectation was wrong, we have to create a new criteria builder
-                if (expectBatchCorrelationMode != correlationMode) {
-                    applyAndGetCorrelationRoot(correlationMode);
-                    macro = BatchCorrelationMode.VIEW_ROOTS == correlationMode ? viewRootJpqlMacro : embeddingViewJpqlMacro;
-                    correlator.finish(criteriaBuilder, entityViewConfiguration, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
-                    criteriaBuilder.select(correlationSelectExpression);
-                }
-                macro.addBatchPredicate(criteriaBuilder);
-            } else {
-                // We have to bind the view id value, otherwise we might get wrong results
-                macro.addIdParamPredicate(criteriaBuilder);
-            }
-            populateParameters(criteriaBuilder);
-            query = criteriaBuilder.getQuery();
-
             for (Map.Entry<Object, Map<Object, TuplePromise>> batchEntry : correlationValues.entrySet()) {
                 Map<Object, TuplePromise> batchValues = batchEntry.getValue();
                 for (Map.Entry<Object, TuplePromise> batchValueEntry : batchValues.entrySet()) {
@@ -411,7 +442,10 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
     private void batchLoad(Map<Object, TuplePromise> correlationValues, FixedArrayList batchParameters, FixedArrayList viewRootIds, Object defaultKey, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode batchCorrelationMode) {
         batchParameters.clearRest();
-        if (criteriaBuilder.containsParameter(correlationParamName)) {
+        if (criteriaBuilder == null) {
+            // A query created from a cached query string always contains just the correlation parameter
+            query.setParameter(correlationParamName, batchParameters.get(0));
+        } else if (criteriaBuilder.containsParameter(correlationParamName)) {
             if (batchSize > 1 && batchCorrelationMode == BatchCorrelationMode.VALUES) {
                 criteriaBuilder.setParameter(correlationParamName, batchParameters);
                 query.setParameter(correlationParamName, batchParameters);
@@ -440,4 +474,25 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
     protected abstract void populateResult(Map<Object, TuplePromise> correlationValues, Object defaultKey, List<Object> list);
 
+    /**
+     * The execution independent result of the initial correlation query i.e. which batch correlation mode has to be used
+     * and, if possible, the rendered query string for correlating without batching.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    static final class CorrelationQueryTemplate {
+        private final BatchCorrelationMode batchCorrelationMode;
+        private final boolean usesViewMacro;
+        private final JpqlQuery jpqlQuery;
+        private final String correlationParamName;
+
+        private CorrelationQueryTemplate(BatchCorrelationMode batchCorrelationMode, boolean usesViewMacro, JpqlQuery jpqlQuery, String correlationParamName) {
+            this.batchCorrelationMode = batchCorrelationMode;
+            this.usesViewMacro = usesViewMacro;
+            this.jpqlQuery = jpqlQuery;
+            this.correlationParamName = correlationParamName;
+        }
+    }
+
 }
@@ -17,9 +17,13 @@
 package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
 
 import com.blazebit.persistence.view.CorrelationProviderFactory;
+import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformerFactory;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  *
  * @author Christian Beikov
@@ -41,6 +45,8 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
     protected final int tupleIndex;
     protected final Class<?> correlationBasisType;
     protected final Class<?> correlationBasisEntity;
+    // The batch correlation mode to use only depends on the macro usage of the correlation provider, so we determine it once per expected mode
+    protected final ConcurrentMap<BatchCorrelationMode, AbstractCorrelatedBatchTupleListTransformer.CorrelationQueryTemplate> correlationQueryTemplates;
 
     public AbstractCorrelatedBatchTupleListTransformerFactory(Correlator correlator, ManagedViewType<?> viewRootType, ManagedViewType<?> embeddingViewType, String correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches,
                                                               boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int batchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity) {
@@ -58,6 +64,12 @@ public abstract class AbstractCorrelatedBatchTupleListTransformerFactory impleme
         this.fetches = fetches;
         this.correlationBasisType = correlationBasisType;
         this.correlationBasisEntity = correlationBasisEntity;
+        // The macro usage of parameterized correlation providers might differ between executions
+        if (correlationProviderFactory.isParameterized()) {
+            this.correlationQueryTemplates = null;
+        } else {
+            this.correlationQueryTemplates = new ConcurrentHashMap<>();
+        }
     }
 
     @Override
@@ -104,17 +104,19 @@ public abstract class AbstractReflectionInstantiator<T> implements ObjectInstant
 
     protected final void finalizeInstance(Object instance) {
         if (mutableBasicUserTypes.length != 0) {
-            Object[] initialState = ((DirtyStateTrackable) instance).$$_getInitialState();
+            // The initial values are the same objects as the mutable values after construction
+            // Reading them from the mutable state avoids materializing a lazily copied initial state
+            Object[] mutableState = ((DirtyStateTrackable) instance).$$_getMutableState();
             for (int i = 0; i < mutableBasicUserTypes.length; i++) {
                 MutableBasicUserTypeEntry entry = mutableBasicUserTypes[i];
-                Object value = initialState[entry.index];
+                Object value = mutableState[entry.index];
                 if (value != null) {
                     BasicUserType<Object> userType = entry.userType;
                     // User types end up here only if they support dirty checking or if they should be cloned
                     if (userType.supportsDirtyTracking() && value instanceof BasicDirtyTracker) {
                         ((BasicDirtyTracker) value).$$_setParent((BasicDirtyTracker) instance, entry.index);
                     } else {
-                        initialState[entry.index] = userType.deepClone(value);
+                        ((DirtyStateTrackable) instance).$$_setInitialStateValue(entry.index, userType.deepClone(value));
                     }
                 }
             }
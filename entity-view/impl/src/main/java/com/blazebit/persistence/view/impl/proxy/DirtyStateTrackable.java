@@ -31,4 +31,13 @@ public interface DirtyStateTrackable extends MutableStateTrackable {
      */
     public Object[] $$_getInitialState();
 
+    /**
+     * Sets the initial state value at the given index without materializing a lazily copied initial state.
+     *
+     * @param index The index of the attribute in the initial state
+     * @param value The initial value
+     * @since 1.4.1
+     */
+    public void $$_setInitialStateValue(int index, Object value);
+
 }
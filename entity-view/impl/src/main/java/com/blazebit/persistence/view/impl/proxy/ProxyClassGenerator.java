@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.proxy;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Generates the class files of the entity view proxies into a directory at build time.
+ * The classes can then be packaged with the application and loaded via {@link ConfigurationProperties#PROXY_PREGENERATED_LOADING}
+ * which avoids the bytecode generation on startup.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public final class ProxyClassGenerator {
+
+    private ProxyClassGenerator() {
+    }
+
+    /**
+     * Generates the proxy classes for all entity views of the given configuration into the given directory.
+     *
+     * @param configuration The entity view configuration
+     * @param criteriaBuilderFactory The criteria builder factory
+     * @param directory The directory to write the class files to
+     */
+    public static void generate(EntityViewConfiguration configuration, CriteriaBuilderFactory criteriaBuilderFactory, Path directory) {
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("The given directory does not exist: " + directory.toAbsolutePath());
+        }
+        // Loading the templates also generates the proxies of subviews and subtypes
+        configuration.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+        configuration.setProperty(ConfigurationProperties.PROXY_EAGER_LOADING, "true");
+        configuration.setProperty(ConfigurationProperties.PROXY_PREGENERATED_LOADING, "false");
+        configuration.setProperty(ConfigurationProperties.PROXY_GENERATION_DIRECTORY, directory.toAbsolutePath().toString());
+        configuration.createEntityViewManager(criteriaBuilderFactory);
+    }
+
+    /**
+     * Generates the proxy classes for the given entity views. Expects the arguments
+     * <code>persistenceUnitName outputDirectory entityViewClassName...</code>.
+     *
+     * @param args The arguments
+     * @throws ClassNotFoundException When an entity view class can't be found
+     */
+    public static void main(String[] args) throws ClassNotFoundException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: ProxyClassGenerator <persistenceUnitName> <outputDirectory> <entityViewClassName>...");
+        }
+
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        EntityViewConfiguration configuration = EntityViews.createDefaultConfiguration();
+        for (int i = 2; i < args.length; i++) {
+            configuration.addEntityView(Class.forName(args[i], false, classLoader));
+        }
+
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory(args[0]);
+        try {
+            CriteriaBuilderFactory cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+            generate(configuration, cbf, Paths.get(args[1]));
+        } finally {
+            emf.close();
+        }
+    }
+}
@@ -91,10 +91,14 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -127,6 +131,10 @@ public class ProxyFactory {
     private final ClassPool pool;
     private final boolean unsafeDisabled;
     private final boolean strictCascadingCheck;
+    private final boolean pregeneratedLoading;
+    private final Path generationDirectory;
+    private final boolean lazyInitialState;
+    private final Map<String, Boolean> lazyInitialStateOverrides;
     private final PackageOpener packageOpener;
 
     static {
@@ -176,9 +184,21 @@ public class ProxyFactory {
     }
 
     public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, PackageOpener packageOpener) {
+        this(unsafeDisabled, strictCascadingCheck, false, null, packageOpener);
+    }
+
+    public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, boolean pregeneratedLoading, Path generationDirectory, PackageOpener packageOpener) {
+        this(unsafeDisabled, strictCascadingCheck, pregeneratedLoading, generationDirectory, false, Collections.<String, Boolean>emptyMap(), packageOpener);
+    }
+
+    public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, boolean pregeneratedLoading, Path generationDirectory, boolean lazyInitialState, Map<String, Boolean> lazyInitialStateOverrides, PackageOpener packageOpener) {
         this.pool = new ClassPool(ClassPool.getDefault());
         this.unsafeDisabled = unsafeDisabled;
         this.strictCascadingCheck = strictCascadingCheck;
+        this.pregeneratedLoading = pregeneratedLoading;
+        this.generationDirectory = generationDirectory;
+        this.lazyInitialState = lazyInitialState;
+        this.lazyInitialStateOverrides = lazyInitialStateOverrides;
         this.packageOpener = packageOpener;
     }
 
@@ -266,7 +286,12 @@ public class ProxyFactory {
             synchronized (proxyLock) {
                 proxyClass = (Class<? extends T>) classes.get(key);
                 if (proxyClass == null) {
-                    proxyClass = createProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    if (pregeneratedLoading) {
+                        proxyClass = loadPregeneratedProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    }
+                    if (proxyClass == null) {
+                        proxyClass = createProxyClass(entityViewManager, viewType, inheritanceBase, unsafe);
+                    }
                     classes.put(key, proxyClass);
                 }
             }
@@ -275,6 +300,104 @@ public class ProxyFactory {
         return proxyClass;
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> Class<? extends T> loadPregeneratedProxyClass(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
+        Class<?> clazz = managedViewType.getJavaType();
+        String proxyClassName = getProxyClassName(managedViewType, inheritanceBase, unsafe);
+        Class<? extends T> proxyClass;
+        try {
+            proxyClass = (Class<? extends T>) Class.forName(proxyClassName, false, clazz.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+
+        try {
+            // A proxy class generated for a different definition of the view would silently map the wrong state
+            if (!getViewDefinition(managedViewType, inheritanceBase).equals(proxyClass.getField("$$_viewDefinition").get(null))) {
+                throw new IllegalArgumentException("The pre-generated proxy class '" + proxyClassName + "' was generated for a different definition of the entity view '" + clazz.getName() + "'. Please regenerate the proxy classes!");
+            }
+            proxyClass.getField("$$_evm").set(null, entityViewManager);
+        } catch (NoSuchFieldException | IllegalAccessException ex) {
+            throw new IllegalArgumentException("The pre-generated proxy class '" + proxyClassName + "' is incompatible. Please regenerate the proxy classes!", ex);
+        }
+
+        return proxyClass;
+    }
+
+    private static String getViewDefinition(ManagedViewTypeImplementor<?> managedViewType, ManagedViewTypeImplementor<?> inheritanceBase) {
+        StringBuilder sb = new StringBuilder();
+        appendViewDefinition(sb, managedViewType);
+        if (inheritanceBase != null) {
+            sb.append('/');
+            appendViewDefinition(sb, inheritanceBase);
+            Set<String> subtypes = new TreeSet<>();
+            for (ManagedViewType<?> subtype : inheritanceBase.getInheritanceSubtypes()) {
+                subtypes.add(subtype.getJavaType().getName());
+            }
+            sb.append(subtypes);
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static void appendViewDefinition(StringBuilder sb, ManagedViewTypeImplementor<?> managedViewType) {
+        sb.append(managedViewType.getJavaType().getName())
+                .append('(').append(managedViewType.getEntityClass().getName())
+                .append(',').append(managedViewType instanceof ViewType<?>)
+                .append(',').append(managedViewType.isUpdatable())
+                .append(',').append(managedViewType.isCreatable())
+                .append(')');
+        for (MethodAttribute<?, ?> attribute : managedViewType.getAttributes()) {
+            sb.append(';').append(attribute.getName()).append(':').append(attribute.getJavaType().getName());
+            if (attribute instanceof PluralAttribute<?, ?, ?>) {
+                if (attribute instanceof MapAttribute<?, ?, ?>) {
+                    sb.append('<').append(((MapAttribute<?, ?, ?>) attribute).getKeyType().getJavaType().getName()).append('>');
+                }
+                sb.append('<').append(((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType().getName()).append('>');
+            }
+            sb.append(',').append(attribute.isUpdatable())
+                    .append(',').append(attribute.isMutable())
+                    .append(',').append(attribute.isSubview());
+            AbstractMethodAttribute<?, ?> methodAttribute = (AbstractMethodAttribute<?, ?>) attribute;
+            if (methodAttribute.hasDirtyStateIndex()) {
+                sb.append(',').append(methodAttribute.getDirtyStateIndex());
+            }
+        }
+
+        Map<String, List<String>> constructors = new TreeMap<>();
+        for (MappingConstructor<?> constructor : managedViewType.getConstructors()) {
+            List<String> parameterTypes = new ArrayList<>();
+            for (ParameterAttribute<?, ?> parameter : constructor.getParameterAttributes()) {
+                parameterTypes.add(parameter.getJavaType().getName());
+            }
+            constructors.put(constructor.getName(), parameterTypes);
+        }
+        sb.append(constructors);
+    }
+
+    private static String getProxyClassName(ManagedViewTypeImplementor<?> managedViewType, ManagedViewTypeImplementor<?> inheritanceBase, boolean unsafe) {
+        String suffix = unsafe ? "unsafe_" : "";
+        String baseName;
+
+        if (inheritanceBase == null) {
+            baseName = managedViewType.getJavaType().getName();
+        } else {
+            baseName = inheritanceBase.getJavaType().getName();
+            baseName += "_" + managedViewType.getJavaType().getSimpleName();
+        }
+
+        return baseName + "_$$_javassist_entityview_" + suffix;
+    }
+
     private Class<?> getProxyBase(Class<?> baseClass) {
         if (baseClass.isInterface() || !java.lang.reflect.Modifier.isAbstract(baseClass.getSuperclass().getModifiers())) {
             return baseClass;
@@ -358,19 +481,13 @@ public class ProxyFactory {
     private <T> Class<? extends T> createProxyClass(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> managedViewType, ManagedViewTypeImplementor<? super T> inheritanceBase, boolean unsafe) {
         ViewType<T> viewType = managedViewType instanceof ViewType<?> ? (ViewType<T>) managedViewType : null;
         Class<?> clazz = managedViewType.getJavaType();
-        String suffix = unsafe ? "unsafe_" : "";
-        String baseName;
         int subtypeIndex = 0;
 
-        if (inheritanceBase == null) {
-            baseName = clazz.getName();
-        } else {
+        if (inheritanceBase != null) {
             subtypeIndex = managedViewType.getSubtypeIndex(inheritanceBase);
-            baseName = inheritanceBase.getJavaType().getName();
-            baseName += "_" + managedViewType.getJavaType().getSimpleName();
         }
 
-        String proxyClassName = baseName + "_$$_javassist_entityview_" + suffix;
+        String proxyClassName = getProxyClassName(managedViewType, inheritanceBase, unsafe);
         CtClass cc = pool.makeClass(proxyClassName);
         CtClass superCc;
 
@@ -393,6 +510,7 @@ public class ProxyFactory {
             CtField parentIndexField = null;
             CtField initialStateField = null;
             CtField mutableStateField = null;
+            CtField initialStateCopiedField = null;
             CtMethod markDirtyStub = null;
             cc.addInterface(pool.get(EntityViewProxy.class.getName()));
             addGetJpaManagedClass(cc, managedViewType.getEntityClass());
@@ -404,14 +522,23 @@ public class ProxyFactory {
             evmField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.VOLATILE);
             cc.addField(evmField);
 
+            CtField viewDefinitionField = new CtField(pool.get(String.class.getName()), "$$_viewDefinition", cc);
+            viewDefinitionField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL);
+            cc.addField(viewDefinitionField, CtField.Initializer.constant(getViewDefinition(managedViewType, inheritanceBase)));
+
             if (managedViewType.isUpdatable() || managedViewType.isCreatable()) {
                 if (true || managedViewType.getFlushMode() == FlushMode.LAZY || managedViewType.getFlushMode() == FlushMode.PARTIAL) {
                     cc.addInterface(pool.get(DirtyStateTrackable.class.getName()));
+                    boolean copyInitialStateOnWrite = isLazyInitialState(managedViewType);
                     initialStateField = new CtField(pool.get(Object[].class.getName()), "$$_initialState", cc);
-                    initialStateField.setModifiers(getModifiers(false));
+                    initialStateField.setModifiers(getModifiers(copyInitialStateOnWrite));
                     cc.addField(initialStateField);
-
-                    addGetter(cc, initialStateField, "$$_getInitialState");
+                    if (copyInitialStateOnWrite) {
+                        // The bits of the attributes whose initial value was copied into a sparse initial state, or 0 if the initial state is complete
+                        initialStateCopiedField = new CtField(CtClass.longType, "$$_initialStateCopied", cc);
+                        initialStateCopiedField.setModifiers(getModifiers(true));
+                        cc.addField(initialStateCopiedField);
+                    }
                 }
 
                 cc.addInterface(pool.get(MutableStateTrackable.class.getName()));
@@ -434,6 +561,14 @@ public class ProxyFactory {
                 dirtyChecking = true;
 
                 addGetter(cc, mutableStateField, "$$_getMutableState");
+                if (initialStateField != null) {
+                    if (initialStateCopiedField != null) {
+                        addLazyInitialStateGetter(cc, initialStateField, initialStateCopiedField, mutableStateField);
+                    } else {
+                        addGetter(cc, initialStateField, "$$_getInitialState");
+                    }
+                    addSetInitialStateValue(cc, initialStateField, initialStateCopiedField, mutableStateField);
+                }
                 addGetter(cc, readOnlyParentsField, "$$_getReadOnlyParents");
                 addGetter(cc, parentField, "$$_getParent");
                 addGetter(cc, parentIndexField, "$$_getParentIndex");
@@ -459,7 +594,7 @@ public class ProxyFactory {
             if (viewType != null) {
                 idAttribute = (AbstractMethodAttribute<? super T, ?>) viewType.getIdAttribute();
                 versionAttribute = (AbstractMethodAttribute<? super T, ?>) viewType.getVersionAttribute();
-                idField = addMembersForAttribute(idAttribute, clazz, cc, null, false, true, mutableStateField != null);
+                idField = addMembersForAttribute(idAttribute, clazz, cc, null, null, false, true, mutableStateField != null);
                 fieldMap.put(idAttribute.getName(), idField);
                 attributeFields[0] = idField;
                 attributeTypes[0] = idField.getType();
@@ -480,7 +615,7 @@ public class ProxyFactory {
             for (MethodAttribute<?, ?> attribute : attributes) {
                 AbstractMethodAttribute<?, ?> methodAttribute = (AbstractMethodAttribute<?, ?>) attribute;
                 boolean forceMutable = mutableStateField != null && methodAttribute == versionAttribute;
-                CtField attributeField = addMembersForAttribute(methodAttribute, clazz, cc, mutableStateField, dirtyChecking, false, forceMutable);
+                CtField attributeField = addMembersForAttribute(methodAttribute, clazz, cc, mutableStateField, initialStateCopiedField, dirtyChecking, false, forceMutable);
                 fieldMap.put(attribute.getName(), attributeField);
                 attributeFields[i] = attributeField;
                 attributeTypes[i] = attributeField.getType();
@@ -554,6 +689,8 @@ public class ProxyFactory {
                 cc.addConstructor(createCreateConstructor(entityViewManager, managedViewType, cc, attributeFields, attributeTypes, idField, initialStateField, mutableStateField, methodAttributes, mutableAttributeCount, unsafe));
             }
 
+            // In the lazy initial state mode, the initial state of objects constructed from existing state is copied on the first write
+            CtField normalInitialStateField = initialStateCopiedField != null ? null : initialStateField;
             boolean addedReferenceConstructor = false;
             if (idField != null && hasEmptyConstructor) {
                 // Id only constructor for reference models
@@ -563,7 +700,7 @@ public class ProxyFactory {
 
             if (inheritanceBase == null) {
                 if (shouldAddDefaultConstructor(hasEmptyConstructor, addedReferenceConstructor, attributeFields)) {
-                    cc.addConstructor(createNormalConstructor(entityViewManager, managedViewType, cc, attributeFields, attributeTypes, initialStateField, mutableStateField, methodAttributes, mutableAttributeCount, unsafe));
+                    cc.addConstructor(createNormalConstructor(entityViewManager, managedViewType, cc, attributeFields, attributeTypes, normalInitialStateField, mutableStateField, methodAttributes, mutableAttributeCount, unsafe));
                 }
 
                 for (MappingConstructorImpl<?> constructor : constructors) {
@@ -579,10 +716,10 @@ public class ProxyFactory {
                     CtConstructor superConstructor = findConstructor(superCc, constructor);
                     System.arraycopy(superConstructor.getParameterTypes(), 0, constructorAttributeTypes, attributeFields.length, superConstructor.getParameterTypes().length);
 
-                    cc.addConstructor(createNormalConstructor(entityViewManager, managedViewType, cc, attributeFields, constructorAttributeTypes, initialStateField, mutableStateField, methodAttributes, mutableAttributeCount, unsafe));
+                    cc.addConstructor(createNormalConstructor(entityViewManager, managedViewType, cc, attributeFields, constructorAttributeTypes, normalInitialStateField, mutableStateField, methodAttributes, mutableAttributeCount, unsafe));
                 }
             } else {
-                createInheritanceConstructors(entityViewManager, constructors, inheritanceBase, managedViewType, subtypeIndex, addedReferenceConstructor, unsafe, cc, initialStateField, mutableStateField, fieldMap);
+                createInheritanceConstructors(entityViewManager, constructors, inheritanceBase, managedViewType, subtypeIndex, addedReferenceConstructor, unsafe, cc, normalInitialStateField, mutableStateField, fieldMap);
             }
 
             return defineOrGetClass(entityViewManager, unsafe, clazz, cc);
@@ -624,6 +761,9 @@ public class ProxyFactory {
             if (DEBUG_DUMP_DIRECTORY != null) {
                 cc.writeFile(DEBUG_DUMP_DIRECTORY.toString());
             }
+            if (generationDirectory != null) {
+                cc.writeFile(generationDirectory.toString());
+            }
 
             Class<? extends T> c;
             if (unsafe) {
@@ -982,7 +1122,7 @@ public class ProxyFactory {
             cc.addField(isNewField);
 
             addGetter(cc, isNewField, "$$_isNew");
-            addSetter(null, cc, isNewField, "$$_setIsNew", null, false, false);
+            addSetter(null, cc, isNewField, "$$_setIsNew", null, null, false, false);
         } else {
             ClassPool classPool = cc.getClassPool();
             try {
@@ -994,6 +1134,70 @@ public class ProxyFactory {
         }
     }
     
+    private boolean isLazyInitialState(ManagedViewType<?> managedViewType) {
+        Boolean lazy = lazyInitialStateOverrides.get(managedViewType.getJavaType().getName());
+        if (lazy == null) {
+            return lazyInitialState;
+        }
+        return lazy;
+    }
+
+    private CtMethod addLazyInitialStateGetter(CtClass cc, CtField initialStateField, CtField initialStateCopiedField, CtField mutableStateField) throws CannotCompileException {
+        ConstPool cp = cc.getClassFile2().getConstPool();
+        MethodInfo minfo = new MethodInfo(cp, "$$_getInitialState", "()" + initialStateField.getFieldInfo().getDescriptor());
+        minfo.setAccessFlags(AccessFlag.PUBLIC);
+        CtMethod method = CtMethod.make(minfo, cc);
+
+        String initialStateName = initialStateField.getName();
+        String initialStateCopiedName = initialStateCopiedField.getName();
+        String mutableStateName = mutableStateField.getName();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        // The initial value of attributes that weren't written yet is still the value of the mutable state
+        sb.append("\tif ($0.").append(initialStateName).append(" == null || $0.").append(initialStateCopiedName).append(" != 0L) {\n");
+        sb.append("\t\tif ($0.").append(initialStateName).append(" == null) {\n");
+        sb.append("\t\t\t$0.").append(initialStateName).append(" = new Object[$0.").append(mutableStateName).append(".length];\n");
+        sb.append("\t\t}\n");
+        sb.append("\t\tfor (int i = 0; i < $0.").append(mutableStateName).append(".length; i++) {\n");
+        sb.append("\t\t\tif (($0.").append(initialStateCopiedName).append(" & (1L << i)) == 0L) {\n");
+        sb.append("\t\t\t\t$0.").append(initialStateName).append("[i] = $0.").append(mutableStateName).append("[i];\n");
+        sb.append("\t\t\t}\n");
+        sb.append("\t\t}\n");
+        sb.append("\t\t$0.").append(initialStateCopiedName).append(" = 0L;\n");
+        sb.append("\t}\n");
+        sb.append("\treturn $0.").append(initialStateName).append(";\n");
+        sb.append("}");
+        method.setBody(sb.toString());
+        cc.addMethod(method);
+        return method;
+    }
+
+    private CtMethod addSetInitialStateValue(CtClass cc, CtField initialStateField, CtField initialStateCopiedField, CtField mutableStateField) throws CannotCompileException {
+        ConstPool cp = cc.getClassFile2().getConstPool();
+        MethodInfo minfo = new MethodInfo(cp, "$$_setInitialStateValue", "(ILjava/lang/Object;)V");
+        minfo.setAccessFlags(AccessFlag.PUBLIC);
+        CtMethod method = CtMethod.make(minfo, cc);
+
+        String initialStateName = initialStateField.getName();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        if (initialStateCopiedField != null) {
+            // Only the written attribute is copied into a sparse initial state
+            String initialStateCopiedName = initialStateCopiedField.getName();
+            sb.append("\tif ($0.").append(initialStateName).append(" == null) {\n");
+            sb.append("\t\t$0.").append(initialStateName).append(" = new Object[$0.").append(mutableStateField.getName()).append(".length];\n");
+            sb.append("\t\t$0.").append(initialStateCopiedName).append(" = 1L << $1;\n");
+            sb.append("\t} else if ($0.").append(initialStateCopiedName).append(" != 0L) {\n");
+            sb.append("\t\t$0.").append(initialStateCopiedName).append(" |= 1L << $1;\n");
+            sb.append("\t}\n");
+        }
+        sb.append("\t$0.").append(initialStateName).append("[$1] = $2;\n");
+        sb.append("}");
+        method.setBody(sb.toString());
+        cc.addMethod(method);
+        return method;
+    }
+
     private CtMethod addGetter(CtClass cc, CtField field, String methodName) throws CannotCompileException {
         return addGetter(cc, field, methodName, field.getFieldInfo().getDescriptor(), false);
     }
@@ -1047,7 +1251,7 @@ public class ProxyFactory {
         return method;
     }
 
-    private CtField addMembersForAttribute(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, CtField mutableStateField, boolean dirtyChecking, boolean isId, boolean forceMutable) throws CannotCompileException, NotFoundException {
+    private CtField addMembersForAttribute(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, CtField mutableStateField, CtField initialStateCopiedField, boolean dirtyChecking, boolean isId, boolean forceMutable) throws CannotCompileException, NotFoundException {
         Method getter = attribute.getJavaMethod();
         Method setter = ReflectionUtils.getSetter(clazz, attribute.getName());
         
@@ -1060,12 +1264,12 @@ public class ProxyFactory {
         }
         cc.addField(attributeField);
         
-        createGettersAndSetters(attribute, clazz, cc, getter, setter, mutableStateField, attributeField, dirtyChecking, isId);
+        createGettersAndSetters(attribute, clazz, cc, getter, setter, mutableStateField, initialStateCopiedField, attributeField, dirtyChecking, isId);
         
         return attributeField;
     }
 
-    private void createGettersAndSetters(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, Method getter, Method setter, CtField mutableStateField, CtField attributeField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
+    private void createGettersAndSetters(AbstractMethodAttribute<?, ?> attribute, Class<?> clazz, CtClass cc, Method getter, Method setter, CtField mutableStateField, CtField initialStateCopiedField, CtField attributeField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
         SignatureAttribute sa = (SignatureAttribute)attributeField.getFieldInfo2().getAttribute(SignatureAttribute.tag);
         String genericSignature = sa == null ? null : sa.getSignature();
         List<Method> bridgeGetters = getBridgeGetters(clazz, attribute, getter);
@@ -1083,7 +1287,7 @@ public class ProxyFactory {
         }
         
         if (setter != null) {
-            CtMethod attributeSetter = addSetter(attribute, cc, attributeField, setter.getName(), mutableStateField, dirtyChecking, isId);
+            CtMethod attributeSetter = addSetter(attribute, cc, attributeField, setter.getName(), mutableStateField, initialStateCopiedField, dirtyChecking, isId);
             List<Method> bridgeSetters = getBridgeSetters(clazz, attribute, setter);
 
             if (genericSignature != null) {
@@ -1699,7 +1903,7 @@ public class ProxyFactory {
         }
     }
 
-    private CtMethod addSetter(AbstractMethodAttribute<?, ?> attribute, CtClass cc, CtField attributeField, String methodName, CtField mutableStateField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
+    private CtMethod addSetter(AbstractMethodAttribute<?, ?> attribute, CtClass cc, CtField attributeField, String methodName, CtField mutableStateField, CtField initialStateCopiedField, boolean dirtyChecking, boolean isId) throws CannotCompileException, NotFoundException {
         FieldInfo finfo = attributeField.getFieldInfo2();
         String fieldType = finfo.getDescriptor();
         String desc = "(" + fieldType + ")V";
@@ -1856,6 +2060,13 @@ public class ProxyFactory {
             }
 
             if (mutableStateField != null) {
+                if (initialStateCopiedField != null) {
+                    // Copy the initial value of the attribute before the first write unless the initial state is already complete
+                    String initialStateCopiedName = initialStateCopiedField.getName();
+                    sb.append("\tif ($0.$$_initialState == null || $0.").append(initialStateCopiedName).append(" != 0L && ($0.").append(initialStateCopiedName).append(" & (1L << ").append(mutableStateIndex).append(")) == 0L) {\n");
+                    sb.append("\t\t$0.$$_setInitialStateValue(").append(mutableStateIndex).append(", $0.").append(mutableStateField.getName()).append("[").append(mutableStateIndex).append("]);\n");
+                    sb.append("\t}\n");
+                }
                 // this.mutableState[mutableStateIndex] = $1
                 sb.append("\t$0.").append(mutableStateField.getName()).append("[").append(mutableStateIndex).append("] = ");
                 renderValueForArray(sb, attributeField.getType(), 1);
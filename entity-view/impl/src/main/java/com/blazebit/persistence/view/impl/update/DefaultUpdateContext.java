@@ -82,12 +82,17 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
     private final TransactionAccess transactionAccess;
     private final InitialStateResetter initialStateResetter;
     private final ListenerManager listenerManager;
+    private final UpdateQueryBatch updateQueryBatch;
     private Map<Object, Object> removedObjects;
     private Map<EntityKey, List<ViewCacheEntry>> viewCache;
     private Set<EntityKey> versionChecked;
     private List<PostFlushDeleter> orphanRemovalDeleters = new ArrayList<>();
 
     public DefaultUpdateContext(EntityViewManagerImpl evm, EntityManager em, boolean forceFull, boolean forceEntity, boolean remove, Class<?> entityViewClass, Object object, Object entity) {
+        this(evm, em, forceFull, forceEntity, remove, entityViewClass, object, entity, false);
+    }
+
+    public DefaultUpdateContext(EntityViewManagerImpl evm, EntityManager em, boolean forceFull, boolean forceEntity, boolean remove, Class<?> entityViewClass, Object object, Object entity, boolean batch) {
         this.evm = evm;
         this.em = em;
         this.forceFull = forceFull;
@@ -97,6 +102,7 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
         this.entityViewClass = entityViewClass;
         this.object = object;
         this.entity = entity;
+        this.updateQueryBatch = batch ? new UpdateQueryBatch(evm, em) : null;
 
         if (!transactionAccess.isActive()) {
             throw new IllegalStateException("Transaction is not active!");
@@ -246,6 +252,11 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
         }
     }
 
+    @Override
+    public UpdateQueryBatch getUpdateQueryBatch() {
+        return updateQueryBatch;
+    }
+
     @Override
     public void invokePrePersist(MutableStateTrackable updatableProxy, Object entity) {
         listenerManager.invokePrePersist(this, updatableProxy, entity);
@@ -644,6 +655,8 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
             } else {
                 evm.remove(this, entityViewClass, object);
             }
+        } else if (updateQueryBatch != null) {
+            evm.updateAll(this, (Iterable<?>) object);
         } else {
             if (entity == null) {
                 evm.update(this, object);
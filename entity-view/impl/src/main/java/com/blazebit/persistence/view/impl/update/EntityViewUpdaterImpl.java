@@ -99,6 +99,7 @@ import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.SingularAttribute;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -108,6 +109,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
@@ -117,6 +120,8 @@ import java.util.TreeMap;
 public class EntityViewUpdaterImpl implements EntityViewUpdater {
 
     public static final String WHERE_CLAUSE_PREFIX = "_";
+    // The number of distinct dirty attribute combinations for which update query strings are cached per updater
+    private static final int UPDATE_QUERY_STRING_CACHE_MAX_SIZE = 128;
 
     private final boolean fullFlush;
     private final boolean rootUpdateAllowed;
@@ -129,6 +134,7 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
     private final String updatePrefixString;
     private final String updatePostfixString;
     private final String fullUpdateQueryString;
+    private final ConcurrentMap<FlusherMask, String> updateQueryStringCache = new ConcurrentHashMap<>();
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public EntityViewUpdaterImpl(EntityViewManagerImpl evm, ManagedViewTypeImplementor<?> viewType, ManagedViewTypeImplementor<?> declaredViewType, EntityViewUpdaterImpl owner, String ownerMapping) {
@@ -640,30 +646,51 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
             queryString = fullUpdateQueryString;
             needsOptimisticLocking = fullFlusher.hasVersionFlusher();
         } else {
-            StringBuilder sb = new StringBuilder(updatePrefixString.length() + updatePostfixString.length() + 250);
-            sb.append(updatePrefixString);
-            int initialLength = sb.length();
-            flusher.appendUpdateQueryFragment(context, sb, "e.", "", ", ");
-            if (sb.length() == initialLength) {
-                // If we still need optimistic locking, we just append a flush for the version increment
-                if (needsOptimisticLocking = fullFlusher.hasVersionFlusher() && flusher.isOptimisticLockProtected()) {
-                    versionFlusher.appendUpdateQueryFragment(context, sb, "e.", "", ", ");
+            // The update query string only depends on the participating flushers, so we can reuse it for the same flusher mask
+            FlusherMask flusherMask = null;
+            if (flusher instanceof CompositeAttributeFlusher) {
+                long[] mask = ((CompositeAttributeFlusher) flusher).getUpdateQueryFlusherMask();
+                if (mask != null) {
+                    flusherMask = new FlusherMask(mask);
+                }
+            }
+            queryString = flusherMask == null ? null : updateQueryStringCache.get(flusherMask);
+            if (queryString != null) {
+                needsOptimisticLocking = fullFlusher.hasVersionFlusher() && flusher.isOptimisticLockProtected();
+            } else {
+                StringBuilder sb = new StringBuilder(updatePrefixString.length() + updatePostfixString.length() + 250);
+                sb.append(updatePrefixString);
+                int initialLength = sb.length();
+                flusher.appendUpdateQueryFragment(context, sb, "e.", "", ", ");
+                if (sb.length() == initialLength) {
+                    // If we still need optimistic locking, we just append a flush for the version increment
+                    if (needsOptimisticLocking = fullFlusher.hasVersionFlusher() && flusher.isOptimisticLockProtected()) {
+                        versionFlusher.appendUpdateQueryFragment(context, sb, "e.", "", ", ");
+                        sb.append(updatePostfixString);
+                        queryString = sb.toString();
+                    } else {
+                        queryString = null;
+                        needsOptimisticLocking = false;
+                    }
+                } else {
                     sb.append(updatePostfixString);
                     queryString = sb.toString();
-                } else {
-                    queryString = null;
-                    needsOptimisticLocking = false;
+                    needsOptimisticLocking = fullFlusher.hasVersionFlusher() && flusher.isOptimisticLockProtected();
+                }
+
+                if (flusherMask != null && queryString != null && updateQueryStringCache.size() < UPDATE_QUERY_STRING_CACHE_MAX_SIZE) {
+                    updateQueryStringCache.putIfAbsent(flusherMask, queryString);
                 }
-            } else {
-                sb.append(updatePostfixString);
-                queryString = sb.toString();
-                needsOptimisticLocking = fullFlusher.hasVersionFlusher() && flusher.isOptimisticLockProtected();
             }
         }
 
         Query query = null;
         if (queryString != null) {
             query = context.getEntityManager().createQuery(queryString);
+            UpdateQueryBatch updateQueryBatch = context.getUpdateQueryBatch();
+            if (updateQueryBatch != null) {
+                updateQueryBatch.registerQueryString(query, queryString, updatableProxy);
+            }
             if (idFlusher != null) {
                 idFlusher.flushQuery(context, WHERE_CLAUSE_PREFIX, null, query, updatableProxy, updatableProxy, updatableProxy.$$_getId(), null);
             }
@@ -693,12 +720,24 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
                 return flusher.flushEntity(context, entity, updatableProxy, updatableProxy, updatableProxy, null);
             } else {
                 int orphanRemovalStartIndex = context.getOrphanRemovalDeleters().size();
-                Query query = flusher.flushQuery(context, null, this, null, updatableProxy, updatableProxy, updatableProxy, null);
-                if (query != null) {
-                    int updated = query.executeUpdate();
-
-                    if (updated != 1) {
-                        throw new OptimisticLockException(entity, updatableProxy);
+                UpdateQueryBatch updateQueryBatch = context.getUpdateQueryBatch();
+                // Only the update query of the root view is batched, nested updates are executed right away
+                boolean rootUpdate = updateQueryBatch != null && updateQueryBatch.startRootUpdate(updatableProxy);
+                try {
+                    Query query = flusher.flushQuery(context, null, this, null, updatableProxy, updatableProxy, updatableProxy, null);
+                    if (query != null) {
+                        // Orphans can only be removed after the update, so we only defer the update if there are none
+                        if (!rootUpdate || context.getOrphanRemovalDeleters().size() != orphanRemovalStartIndex || !updateQueryBatch.add(query, entity)) {
+                            int updated = query.executeUpdate();
+
+                            if (updated != 1) {
+                                throw new OptimisticLockException(entity, updatableProxy);
+                            }
+                        }
+                    }
+                } finally {
+                    if (rootUpdate) {
+                        updateQueryBatch.endRootUpdate();
                     }
                 }
                 context.removeOrphans(orphanRemovalStartIndex);
@@ -1388,4 +1427,35 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         );
     }
 
+    /**
+     * The mask of the flushers that participate in an update query.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class FlusherMask {
+        private final long[] mask;
+        private final int hashCode;
+
+        private FlusherMask(long[] mask) {
+            this.mask = mask;
+            this.hashCode = Arrays.hashCode(mask);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FlusherMask)) {
+                return false;
+            }
+            return Arrays.equals(mask, ((FlusherMask) o).mask);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -102,6 +102,11 @@ public class SimpleUpdateContext implements UpdateContext {
     public void removeOrphans(int orphanRemovalStartIndex) {
     }
 
+    @Override
+    public UpdateQueryBatch getUpdateQueryBatch() {
+        return null;
+    }
+
     @Override
     public void invokePrePersist(MutableStateTrackable updatableProxy, Object entity) {
     }
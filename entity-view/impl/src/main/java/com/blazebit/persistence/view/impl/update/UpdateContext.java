@@ -58,6 +58,8 @@ public interface UpdateContext {
 
     public void removeOrphans(int orphanRemovalStartIndex);
 
+    public UpdateQueryBatch getUpdateQueryBatch();
+
     public void invokePrePersist(MutableStateTrackable updatableProxy, Object entity);
 
     public void invokePostPersist(MutableStateTrackable updatableProxy, Object entity);
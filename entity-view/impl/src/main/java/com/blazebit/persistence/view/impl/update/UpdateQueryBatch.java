@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.update;
+
+import com.blazebit.persistence.spi.BatchExtendedQuerySupport;
+import com.blazebit.persistence.spi.BatchParameterBinder;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.ServiceProvider;
+import com.blazebit.persistence.view.OptimisticLockException;
+import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
+import com.blazebit.persistence.view.impl.proxy.MutableStateTrackable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the update queries of a bulk save, grouped by query string, so that every group can be executed as one JDBC batch.
+ * Since the update query string of a view is determined by the updater and the dirty attributes, views with the same dirty attributes end up in the same group.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class UpdateQueryBatch implements ServiceProvider {
+
+    private final EntityViewManagerImpl evm;
+    private final EntityManager em;
+    private final Map<String, List<BatchEntry>> batches = new LinkedHashMap<>();
+    private MutableStateTrackable rootView;
+    private Query rootQuery;
+    private String rootQueryString;
+
+    public UpdateQueryBatch(EntityViewManagerImpl evm, EntityManager em) {
+        this.evm = evm;
+        this.em = em;
+    }
+
+    /**
+     * Starts the update of the given view, if no other update is in progress.
+     * Only the update query of this root view is a candidate for batching, updates of nested views are executed directly.
+     *
+     * @param view The view that is updated
+     * @return true if the view is the root view of the update, false if another update is in progress
+     */
+    public boolean startRootUpdate(MutableStateTrackable view) {
+        if (rootView != null) {
+            return false;
+        }
+        rootView = view;
+        return true;
+    }
+
+    /**
+     * Ends the update of the current root view.
+     */
+    public void endRootUpdate() {
+        rootView = null;
+        rootQuery = null;
+        rootQueryString = null;
+    }
+
+    /**
+     * Registers the query string of the given update query if the query updates the current root view.
+     * The query string is used as batch key when the query is added.
+     *
+     * @param query The update query
+     * @param queryString The query string of the update query
+     * @param view The view that is updated by the query
+     */
+    public void registerQueryString(Query query, String queryString, MutableStateTrackable view) {
+        if (view == rootView && rootQuery == null) {
+            rootQuery = query;
+            rootQueryString = queryString;
+        }
+    }
+
+    /**
+     * Adds the given update query of the current root view to the batch, if its query string is known.
+     *
+     * @param query The update query
+     * @param entity The entity that is updated or <code>null</code>
+     * @return true if the query was added, false if it must be executed directly
+     */
+    public boolean add(Query query, Object entity) {
+        if (query != rootQuery) {
+            return false;
+        }
+        List<BatchEntry> entries = batches.get(rootQueryString);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            batches.put(rootQueryString, entries);
+        }
+        entries.add(new BatchEntry(query, entity, rootView));
+        return true;
+    }
+
+    /**
+     * Executes all collected update queries and throws an {@link OptimisticLockException} for the first view for which no row was updated.
+     * The exceptions for further failed views are added as suppressed exceptions.
+     */
+    public void execute() {
+        ExtendedQuerySupport extendedQuerySupport = evm.getCriteriaBuilderFactory().getService(ExtendedQuerySupport.class);
+        boolean batchingSupported = extendedQuerySupport instanceof BatchExtendedQuerySupport && extendedQuerySupport.supportsAdvancedSql();
+        OptimisticLockException exception = null;
+        for (List<BatchEntry> entries : batches.values()) {
+            int[] updateCounts;
+            if (batchingSupported && entries.size() > 1) {
+                updateCounts = executeBatch(extendedQuerySupport, entries);
+            } else {
+                updateCounts = new int[entries.size()];
+                for (int i = 0; i < entries.size(); i++) {
+                    updateCounts[i] = entries.get(i).query.executeUpdate();
+                }
+            }
+
+            for (int i = 0; i < updateCounts.length; i++) {
+                // Some drivers don't report the update counts of batched statements
+                if (updateCounts[i] != 1 && updateCounts[i] != Statement.SUCCESS_NO_INFO) {
+                    BatchEntry entry = entries.get(i);
+                    OptimisticLockException lockException = new OptimisticLockException(entry.entity, entry.view);
+                    if (exception == null) {
+                        exception = lockException;
+                    } else {
+                        exception.addSuppressed(lockException);
+                    }
+                }
+            }
+        }
+
+        batches.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private int[] executeBatch(ExtendedQuerySupport extendedQuerySupport, List<BatchEntry> entries) {
+        final Query query = entries.get(0).query;
+        final List<Map<String, Object>> parameterSets = new ArrayList<>(entries.size());
+        for (BatchEntry entry : entries) {
+            Map<String, Object> parameterSet = new HashMap<>();
+            for (Parameter<?> parameter : entry.query.getParameters()) {
+                parameterSet.put(parameter.getName(), entry.query.getParameterValue(parameter.getName()));
+            }
+            parameterSets.add(parameterSet);
+        }
+
+        String sql = extendedQuerySupport.getSql(em, query);
+        return ((BatchExtendedQuerySupport) extendedQuerySupport).executeBatch(this, Collections.singletonList(query), query, query, sql, new BatchParameterBinder() {
+            @Override
+            public int getParameterSetCount() {
+                return parameterSets.size();
+            }
+
+            @Override
+            public void bind(int parameterSetIndex) {
+                for (Map.Entry<String, Object> entry : parameterSets.get(parameterSetIndex).entrySet()) {
+                    query.setParameter(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getService(Class<T> serviceClass) {
+        if (EntityManager.class.equals(serviceClass)) {
+            return (T) em;
+        }
+        return evm.getCriteriaBuilderFactory().getService(serviceClass);
+    }
+
+    /**
+     * A collected update query.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class BatchEntry {
+        private final Query query;
+        private final Object entity;
+        private final MutableStateTrackable view;
+
+        private BatchEntry(Query query, Object entity, MutableStateTrackable view) {
+            this.query = query;
+            this.entity = entity;
+            this.view = view;
+        }
+    }
+}
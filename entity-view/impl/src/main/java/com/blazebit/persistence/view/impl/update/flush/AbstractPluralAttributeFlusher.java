@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.update.flush;
 
+import com.blazebit.persistence.Executable;
 import com.blazebit.persistence.view.FlushStrategy;
 import com.blazebit.persistence.view.impl.accessor.AttributeAccessor;
 import com.blazebit.persistence.view.impl.accessor.InitialValueAttributeAccessor;
@@ -28,11 +29,14 @@ import com.blazebit.persistence.view.impl.update.UpdateQueryFactory;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
 import javax.persistence.Query;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -242,6 +246,53 @@ public abstract class AbstractPluralAttributeFlusher<X extends AbstractPluralAtt
         return value;
     }
 
+    /**
+     * Executes the given collection modification statement for the owner of the given view once for every parameter set.
+     * Multiple parameter sets are executed as JDBC batch if the JPA provider supports it.
+     *
+     * @param context The update context
+     * @param modificationBuilder The collection modification statement
+     * @param ownerView The owner view of the collection
+     * @param view The view containing the collection
+     * @param parameterSets The parameter sets to execute the statement for
+     */
+    protected final void executeBatch(UpdateContext context, Executable modificationBuilder, Object ownerView, Object view, List<Map<String, Object>> parameterSets) {
+        if (parameterSets.isEmpty()) {
+            return;
+        }
+        Query query = modificationBuilder.getQuery();
+        ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
+        if (parameterSets.size() == 1) {
+            for (Map.Entry<String, Object> entry : parameterSets.get(0).entrySet()) {
+                query.setParameter(entry.getKey(), entry.getValue());
+            }
+            query.executeUpdate();
+            return;
+        }
+
+        // The owner id flusher binds to the query, so we have to copy the owner id values into every parameter set
+        Map<String, Object> ownerIdParameters = new HashMap<>();
+        for (Parameter<?> parameter : query.getParameters()) {
+            if (parameter.getName() != null && query.isBound(parameter)) {
+                ownerIdParameters.put(parameter.getName(), query.getParameterValue(parameter.getName()));
+            }
+        }
+        List<Map<String, Object>> boundParameterSets = new ArrayList<>(parameterSets.size());
+        for (Map<String, Object> parameterSet : parameterSets) {
+            Map<String, Object> boundParameterSet = new HashMap<>(ownerIdParameters);
+            boundParameterSet.putAll(parameterSet);
+            boundParameterSets.add(boundParameterSet);
+        }
+        modificationBuilder.executeBatch(boundParameterSets);
+    }
+
+    protected static Map<String, Object> createParameterSet(String parameterName1, Object value1, String parameterName2, Object value2) {
+        Map<String, Object> parameterSet = new HashMap<>();
+        parameterSet.put(parameterName1, value1);
+        parameterSet.put(parameterName2, value2);
+        return parameterSet;
+    }
+
     protected abstract V createJpaCollection();
 
     @Override
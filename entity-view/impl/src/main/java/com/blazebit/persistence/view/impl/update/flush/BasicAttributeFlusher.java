@@ -153,6 +153,16 @@ public class BasicAttributeFlusher<E, V> extends BasicDirtyChecker<V> implements
         return mapping;
     }
 
+    /**
+     * Returns whether this flusher renders the same update query fragment as the flusher it was created from.
+     *
+     * @return true if the update query fragment is the one of the original flusher, false otherwise
+     * @since 1.4.1
+     */
+    public boolean hasOriginalUpdateQueryFragment() {
+        return flushOperation == null || update;
+    }
+
     @Override
     public boolean appendUpdateQueryFragment(UpdateContext context, StringBuilder sb, String mappingPrefix, String parameterPrefix, String separator) {
         // It must be updatable and the value must have changed
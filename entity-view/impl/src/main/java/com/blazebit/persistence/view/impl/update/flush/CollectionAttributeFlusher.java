@@ -44,7 +44,6 @@ import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.persistence.Tuple;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -487,11 +486,11 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
                 insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
             }
             insertCb.bind(mapping).select("val");
-            Query insertQuery = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, insertQuery, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
 
             boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
             if (flushAtOnce) {
+                Query insertQuery = insertCb.getQuery();
+                ownerIdFlusher.flushQuery(context, null, null, insertQuery, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
                 if (checkTransient) {
                     for (Object o : elementsToAdd) {
                         if (elementDescriptor.getBasicUserType().shouldPersist(o)) {
@@ -501,19 +500,16 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
                 }
                 insertQuery.executeUpdate();
             } else {
-                // TODO: Use batching when we implement #657
-                Object[] singletonArray = new Object[1];
-                List<Object> singletonList = Arrays.asList(singletonArray);
+                List<Map<String, Object>> parameterSets = new ArrayList<>(elementsToAdd.size());
                 for (Object o : elementsToAdd) {
                     if (o != null) {
                         if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(o)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + o);
                         }
-                        singletonArray[0] = o;
-                        insertQuery.setParameter("val", singletonList);
-                        insertQuery.executeUpdate();
+                        parameterSets.add(Collections.<String, Object>singletonMap("val", Collections.singletonList(o)));
                     }
                 }
+                executeBatch(context, insertCb, ownerView, view, parameterSets);
             }
         } else {
             for (Object o : elementsToAdd) {
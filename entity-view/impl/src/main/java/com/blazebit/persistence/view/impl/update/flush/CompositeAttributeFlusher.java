@@ -271,6 +271,27 @@ public class CompositeAttributeFlusher extends CompositeAttributeFetchGraphNode<
         return features;
     }
 
+    /**
+     * Returns a bit mask of the flushers participating in this flusher if the update query fragment is fully determined by it, otherwise <code>null</code>.
+     * This is the case when every flusher renders the same update query fragment as the respective flusher of the full flusher.
+     *
+     * @return The flusher mask or <code>null</code>
+     * @since 1.4.1
+     */
+    public long[] getUpdateQueryFlusherMask() {
+        long[] mask = new long[(flushers.length + 63) >>> 6];
+        for (int i = 0; i < flushers.length; i++) {
+            DirtyAttributeFlusher<?, Object, Object> flusher = flushers[i];
+            if (flusher != null) {
+                if (flusher != fullFlushers[i] && (flusher.getClass() != BasicAttributeFlusher.class || !((BasicAttributeFlusher<?, ?>) flusher).hasOriginalUpdateQueryFragment())) {
+                    return null;
+                }
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
     public boolean hasVersionFlusher() {
         return versionFlusher != null;
     }
@@ -789,6 +810,10 @@ public class CompositeAttributeFlusher extends CompositeAttributeFetchGraphNode<
                 } else if (parent != null && persistViewMapper != null) {
                     // In case of a singular attribute, we replace the mutable state object to signal the parent flusher
                     // SubviewAttributeFlusher is the parent, that uses this object for setting the actual and initial state
+                    if (parent instanceof DirtyStateTrackable) {
+                        // Make sure a lazily copied initial state still contains the old object
+                        ((DirtyStateTrackable) parent).$$_getInitialState();
+                    }
                     ((MutableStateTrackable) parent).$$_getMutableState()[parentIndex] = newObject;
                     updatableProxy.$$_unsetParent();
                 }
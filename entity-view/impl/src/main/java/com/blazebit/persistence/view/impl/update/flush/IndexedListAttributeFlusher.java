@@ -41,11 +41,12 @@ import com.blazebit.persistence.view.impl.update.UpdateContext;
 import com.blazebit.persistence.view.spi.type.BasicUserType;
 
 import javax.persistence.EntityManager;
-import javax.persistence.Query;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -201,15 +202,16 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
                 updateCb.setWhereExpression(ownerIdWhereFragment);
                 updateCb.where("INDEX(" + mapping + ")").geExpression(":minIdx");
                 updateCb.where("INDEX(" + mapping + ")").ltExpression(":maxIdx");
-                Query query = updateCb.getQuery();
-                ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
+                List<Map<String, Object>> parameterSets = new ArrayList<>(translations.size());
                 for (int i = 0; i < translations.size(); i++) {
                     FusedCollectionIndexActions.IndexTranslateOperation translation = translations.get(i);
-                    query.setParameter("minIdx", translation.getStartIndex());
-                    query.setParameter("maxIdx", translation.getEndIndex());
-                    query.setParameter("offset", translation.getOffset());
-                    query.executeUpdate();
+                    Map<String, Object> parameterSet = new HashMap<>();
+                    parameterSet.put("minIdx", translation.getStartIndex());
+                    parameterSet.put("maxIdx", translation.getEndIndex());
+                    parameterSet.put("offset", translation.getOffset());
+                    parameterSets.add(parameterSet);
                 }
+                executeBatch(context, updateCb, ownerView, view, parameterSets);
             }
 
             List<FusedCollectionIndexActions.ReplaceOperation> replaces = indexActions.getReplaces();
@@ -218,38 +220,30 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
                 updateCb.setExpression(mapping, ":element");
                 updateCb.setWhereExpression(ownerIdWhereFragment);
                 updateCb.where("INDEX(" + mapping + ")").eqExpression(":idx");
-                Query query = updateCb.getQuery();
+                List<Map<String, Object>> parameterSets = new ArrayList<>();
 
                 if (replaces.size() != 0) {
-                    ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
                     boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
-                    if (elementDescriptor.getViewToEntityMapper() == null) {
-                        for (int i = 0; i < replaces.size(); i++) {
-                            FusedCollectionIndexActions.ReplaceOperation replace = replaces.get(i);
-                            if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(replace.getNewObject())) {
-                                throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + replace.getNewObject());
+                    ViewToEntityMapper loadOnlyViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
+                    for (int i = 0; i < replaces.size(); i++) {
+                        FusedCollectionIndexActions.ReplaceOperation replace = replaces.get(i);
+                        Object element = replace.getNewObject();
+                        if (loadOnlyViewToEntityMapper == null) {
+                            if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(element)) {
+                                throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + element);
                             }
-                            query.setParameter("idx", replace.getIndex());
-                            query.setParameter("element", replace.getNewObject());
-                            query.executeUpdate();
-                        }
-                    } else {
-                        ViewToEntityMapper loadOnlyViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
-                        for (int i = 0; i < replaces.size(); i++) {
-                            FusedCollectionIndexActions.ReplaceOperation replace = replaces.get(i);
-                            query.setParameter("idx", replace.getIndex());
-                            query.setParameter("element", loadOnlyViewToEntityMapper.applyToEntity(context, null, replace.getNewObject()));
-                            query.executeUpdate();
+                        } else {
+                            element = loadOnlyViewToEntityMapper.applyToEntity(context, null, element);
                         }
+                        parameterSets.add(createParameterSet("idx", replace.getIndex(), "element", element));
                     }
                 }
                 if (embeddablesToUpdate != null && !embeddablesToUpdate.isEmpty()) {
                     for (int i = 0; i < embeddablesToUpdate.size(); i++) {
-                        query.setParameter("idx", i);
-                        query.setParameter("element", embeddablesToUpdate.get(i));
-                        query.executeUpdate();
+                        parameterSets.add(createParameterSet("idx", i, "element", embeddablesToUpdate.get(i)));
                     }
                 }
+                executeBatch(context, updateCb, ownerView, view, parameterSets);
             }
 
             appends = indexActions.getAdded(context);
@@ -274,36 +268,24 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
                 insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
             }
             insertCb.bind(mapping).select("val");
-            Query query = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
-
-            // TODO: Use batching when we implement #657
-            Object[] singletonArray = new Object[1];
-            List<Object> singletonList = Arrays.asList(singletonArray);
-            if (elementDescriptor.getViewToEntityMapper() == null) {
-                boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
-                for (Object object : appends) {
-                    if (object != null) {
+
+            List<Map<String, Object>> parameterSets = new ArrayList<>(appends.size());
+            ViewToEntityMapper loadOnlyViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
+            boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
+            for (Object object : appends) {
+                if (object != null) {
+                    if (loadOnlyViewToEntityMapper == null) {
                         if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(object)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + object);
                         }
-                        singletonArray[0] = object;
-                        query.setParameter("idx", appendIndex++);
-                        query.setParameter("val", singletonList);
-                        query.executeUpdate();
-                    }
-                }
-            } else {
-                ViewToEntityMapper loadOnlyViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
-                for (Object object : appends) {
-                    if (object != null) {
-                        singletonArray[0] = loadOnlyViewToEntityMapper.applyToEntity(context, null, object);
-                        query.setParameter("idx", appendIndex++);
-                        query.setParameter("val", singletonList);
-                        query.executeUpdate();
+                    } else {
+                        object = loadOnlyViewToEntityMapper.applyToEntity(context, null, object);
                     }
+                    // The VALUES clause has exactly one row, so every parameter set gets its own singleton list
+                    parameterSets.add(createParameterSet("idx", appendIndex++, "val", Collections.singletonList(object)));
                 }
             }
+            executeBatch(context, insertCb, ownerView, view, parameterSets);
         }
     }
 
@@ -49,7 +49,6 @@ import javax.persistence.Query;
 import javax.persistence.Tuple;
 import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
@@ -442,10 +441,9 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
                 updateCb.setExpression(mapping, ":element");
                 updateCb.setWhereExpression(ownerIdWhereFragment);
                 updateCb.where("KEY(" + mapping + ")").eqExpression(":key");
-                Query query = updateCb.getQuery();
+                List<Map<String, Object>> parameterSets = new ArrayList<>();
 
                 if (replaces.size() != 0) {
-                    ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
                     boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
                     ViewToEntityMapper keyViewToEntityMapper = keyDescriptor.getLoadOnlyViewToEntityMapper();
                     ViewToEntityMapper valueViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
@@ -467,18 +465,15 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
                             v = valueViewToEntityMapper.applyToEntity(context, null, v);
                         }
 
-                        query.setParameter("key", k);
-                        query.setParameter("element", v);
-                        query.executeUpdate();
+                        parameterSets.add(createParameterSet("key", k, "element", v));
                     }
                 }
                 if (embeddablesToUpdate != null && !embeddablesToUpdate.isEmpty()) {
                     for (Map.Entry<Object, Object> entry : embeddablesToUpdate.entrySet()) {
-                        query.setParameter("key", entry.getKey());
-                        query.setParameter("element", entry.getValue());
-                        query.executeUpdate();
+                        parameterSets.add(createParameterSet("key", entry.getKey(), "element", entry.getValue()));
                     }
                 }
+                executeBatch(context, updateCb, ownerView, view, parameterSets);
             }
 
             appends = fusedCollectionActions.getAdded();
@@ -511,14 +506,8 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
                 insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
             }
             insertCb.bind(mapping).select("val");
-            Query query = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null);
-
-            // TODO: Use batching when we implement #657
-            Object[] singletonKeyArray = new Object[1];
-            Object[] singletonValueArray = new Object[1];
-            List<Object> singletonKeyList = Arrays.asList(singletonKeyArray);
-            List<Object> singletonValueList = Arrays.asList(singletonValueArray);
+
+            List<Map<String, Object>> parameterSets = new ArrayList<>(appends.size());
             ViewToEntityMapper keyViewToEntityMapper = keyDescriptor.getLoadOnlyViewToEntityMapper();
             ViewToEntityMapper valueViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
             boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
@@ -530,23 +519,21 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
                         if (checkTransient && keyDescriptor.getBasicUserType().shouldPersist(k)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + k);
                         }
-                        singletonKeyArray[0] = k;
                     } else {
-                        singletonKeyArray[0] = keyViewToEntityMapper.applyToEntity(context, null, k);
+                        k = keyViewToEntityMapper.applyToEntity(context, null, k);
                     }
                     if (valueViewToEntityMapper == null) {
                         if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(v)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + v);
                         }
-                        singletonValueArray[0] = v;
                     } else {
-                        singletonValueArray[0] = valueViewToEntityMapper.applyToEntity(context, null, v);
+                        v = valueViewToEntityMapper.applyToEntity(context, null, v);
                     }
-                    query.setParameter("key", singletonKeyList);
-                    query.setParameter("val", singletonValueList);
-                    query.executeUpdate();
+                    // The VALUES clauses have exactly one row, so every parameter set gets its own singleton lists
+                    parameterSets.add(createParameterSet("key", Collections.singletonList(k), "val", Collections.singletonList(v)));
                 }
             }
+            executeBatch(context, insertCb, ownerView, view, parameterSets);
         }
     }
 
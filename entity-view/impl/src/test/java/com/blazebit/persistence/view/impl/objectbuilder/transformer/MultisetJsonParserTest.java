@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MultisetJsonParserTest {
+
+    @Test
+    public void parseNull() {
+        assertTrue(MultisetJsonParser.parse(null, new Class<?>[]{ String.class }).isEmpty());
+        assertTrue(MultisetJsonParser.parse("null", new Class<?>[]{ String.class }).isEmpty());
+        assertTrue(MultisetJsonParser.parse("[]", new Class<?>[]{ String.class }).isEmpty());
+    }
+
+    @Test
+    public void parseElements() {
+        List<Object[]> tuples = MultisetJsonParser.parse("[[1, \"a\\\"b\", true], [2, null, false]]", new Class<?>[]{ Long.class, String.class, boolean.class });
+        assertEquals(2, tuples.size());
+        assertArrayEquals(new Object[]{ 1L, "a\"b", true }, tuples.get(0));
+        assertArrayEquals(new Object[]{ 2L, null, false }, tuples.get(1));
+    }
+
+    @Test
+    public void convertValues() {
+        assertEquals(new BigDecimal("1.50"), MultisetJsonParser.convert(new BigDecimal("1.50"), BigDecimal.class));
+        assertEquals(Integer.valueOf(3), MultisetJsonParser.convert(new BigDecimal("3"), int.class));
+        assertEquals(Thread.State.BLOCKED, MultisetJsonParser.convert(new BigDecimal("2"), Thread.State.class));
+        assertEquals(Thread.State.BLOCKED, MultisetJsonParser.convert("BLOCKED", Thread.State.class));
+        assertEquals(Boolean.TRUE, MultisetJsonParser.convert(new BigDecimal("1"), Boolean.class));
+        assertEquals(Timestamp.valueOf("2020-01-02 03:04:05"), MultisetJsonParser.convert("2020-01-02T03:04:05", Timestamp.class));
+        assertEquals(java.sql.Date.valueOf("2020-01-02"), MultisetJsonParser.convert("2020-01-02", java.sql.Date.class));
+    }
+
+    @Test
+    public void convertTimestampsWithOffset() {
+        assertEquals(utcTimestamp(2020, 1, 2, 2, 4, 5, 123000000), MultisetJsonParser.convert("2020-01-02 03:04:05.123+01:00", Timestamp.class));
+        assertEquals(utcTimestamp(2020, 1, 2, 5, 4, 5, 0), MultisetJsonParser.convert("2020-01-02T03:04:05-02:00", Timestamp.class));
+        assertEquals(utcTimestamp(2020, 1, 2, 3, 4, 5, 0), MultisetJsonParser.convert("2020-01-02T03:04:05Z", Timestamp.class));
+        assertEquals(utcTimestamp(2020, 1, 1, 23, 4, 5, 0), MultisetJsonParser.convert("2020-01-02T03:04:05+0400", java.util.Date.class));
+    }
+
+    private static Timestamp utcTimestamp(int year, int month, int day, int hour, int minute, int second, int nanos) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        Timestamp timestamp = new Timestamp(calendar.getTimeInMillis());
+        timestamp.setNanos(nanos);
+        return timestamp;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectMalformedJson() {
+        MultisetJsonParser.parse("[[1, 2]", new Class<?>[]{ Long.class, Long.class });
+    }
+}
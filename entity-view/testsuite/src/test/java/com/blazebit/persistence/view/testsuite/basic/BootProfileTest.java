@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.spi.BootProfile;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentViewInterface;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonView;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BootProfileTest extends AbstractEntityViewTest {
+
+    @Test
+    public void testBootProfile() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+        cfg.addEntityView(DocumentViewInterface.class);
+        cfg.addEntityView(PersonView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        BootProfile bootProfile = evm.getService(BootProfile.class);
+        Assert.assertNotNull(bootProfile);
+        Assert.assertEquals("EntityViewManager", bootProfile.getName());
+        Assert.assertTrue(bootProfile.getPhaseNanos().containsKey("view type building"));
+        Assert.assertTrue(bootProfile.getPhaseNanos().containsKey("template loading"));
+        Assert.assertEquals(2, bootProfile.getCounts().get("views").intValue());
+        Assert.assertEquals(2, bootProfile.getSlowestElements().size());
+
+        long phaseNanos = 0;
+        for (Long nanos : bootProfile.getPhaseNanos().values()) {
+            phaseNanos += nanos;
+        }
+        Assert.assertTrue(phaseNanos <= bootProfile.getTotalNanos());
+        for (int i = 1; i < bootProfile.getSlowestElements().size(); i++) {
+            Assert.assertTrue(bootProfile.getSlowestElements().get(i - 1).getNanos() >= bootProfile.getSlowestElements().get(i).getNanos());
+        }
+    }
+
+    @Test
+    public void testCriteriaBuilderFactoryBootProfile() {
+        BootProfile bootProfile = cbf.getService(BootProfile.class);
+        Assert.assertNotNull(bootProfile);
+        Assert.assertTrue(bootProfile.getPhaseNanos().containsKey("entity metamodel"));
+        Assert.assertTrue(bootProfile.getCounts().get("entities") > 0);
+        Assert.assertTrue(bootProfile.getCounts().get("functions") > 0);
+    }
+}
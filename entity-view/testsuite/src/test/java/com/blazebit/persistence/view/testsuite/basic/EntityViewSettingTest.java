@@ -35,6 +35,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import javax.persistence.EntityManager;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -198,4 +199,23 @@ public class EntityViewSettingTest extends AbstractEntityViewTest {
         assertNotNull(view.getId());
         assertNull(view.getOwner());
     }
+
+    @Test
+    public void testFindAll() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentWithEntityView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        Long doc1Id = cbf.create(em, Long.class).from(Document.class, "d").select("d.id").where("d.name").eq("MyTest").getSingleResult();
+        Long doc3Id = cbf.create(em, Long.class).from(Document.class, "d").select("d.id").where("d.name").eq("NoContacts").getSingleResult();
+
+        EntityViewSetting<DocumentWithEntityView, CriteriaBuilder<DocumentWithEntityView>> setting = EntityViewSetting.create(DocumentWithEntityView.class);
+        List<DocumentWithEntityView> result = evm.findAll(em, setting, Arrays.asList(doc3Id, -1L, doc1Id, doc3Id));
+
+        assertEquals(4, result.size());
+        assertEquals("NoContacts", result.get(0).getName());
+        assertNull(result.get(1));
+        assertEquals("MyTest", result.get(2).getName());
+        assertSame(result.get(0), result.get(3));
+    }
 }
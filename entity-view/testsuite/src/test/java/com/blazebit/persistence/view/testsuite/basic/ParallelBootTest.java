@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.basic;
+
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.ViewMetamodel;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentViewAbstractClass;
+import com.blazebit.persistence.view.testsuite.basic.model.DocumentViewInterface;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonDuplicateCollectionUsageValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonValidationView;
+import com.blazebit.persistence.view.testsuite.basic.model.PersonView;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class ParallelBootTest extends AbstractEntityViewTest {
+
+    @Test
+    public void testParallelBootBuildsSameMetamodel() {
+        Class<?>[] views = { DocumentViewInterface.class, DocumentViewAbstractClass.class, PersonView.class, DocumentValidationView.class, PersonValidationView.class };
+        ViewMetamodel sequentialMetamodel = createConfiguration(false, views).createEntityViewManager(cbf).getMetamodel();
+        ViewMetamodel parallelMetamodel = createConfiguration(true, views).createEntityViewManager(cbf).getMetamodel();
+
+        Assert.assertEquals(getViewClasses(sequentialMetamodel), getViewClasses(parallelMetamodel));
+        for (ManagedViewType<?> managedView : sequentialMetamodel.getManagedViews()) {
+            Assert.assertEquals(managedView.getAttributes().size(), parallelMetamodel.managedView(managedView.getJavaType()).getAttributes().size());
+        }
+    }
+
+    @Test
+    public void testParallelBootReportsSameErrors() {
+        Class<?>[] views = { PersonDuplicateCollectionUsageValidationView.class, DocumentValidationView.class };
+        Assert.assertEquals(getErrorMessage(createConfiguration(false, views)), getErrorMessage(createConfiguration(true, views)));
+    }
+
+    private EntityViewConfiguration createConfiguration(boolean parallel, Class<?>... views) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PARALLEL_BOOT, Boolean.toString(parallel));
+        cfg.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+        for (Class<?> view : views) {
+            cfg.addEntityView(view);
+        }
+        return cfg;
+    }
+
+    private static Set<Class<?>> getViewClasses(ViewMetamodel metamodel) {
+        Set<Class<?>> classes = new HashSet<>();
+        for (ManagedViewType<?> managedView : metamodel.getManagedViews()) {
+            classes.add(managedView.getJavaType());
+        }
+        return classes;
+    }
+
+    private String getErrorMessage(EntityViewConfiguration cfg) {
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+            return null;
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+    }
+}
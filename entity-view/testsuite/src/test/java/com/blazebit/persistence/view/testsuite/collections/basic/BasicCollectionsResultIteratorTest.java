@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.collections.basic;
+
+import com.blazebit.persistence.CloseableIterator;
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.collections.basic.model.BasicDocumentListMapSetView;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.DocumentForCollections;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.PersonForCollections;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BasicCollectionsResultIteratorTest extends AbstractEntityViewTest {
+
+    private DocumentForCollections doc1;
+    private DocumentForCollections doc2;
+    private DocumentForCollections doc3;
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[]{
+            DocumentForCollections.class,
+            PersonForCollections.class
+        };
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                doc1 = new DocumentForCollections("doc1");
+                doc2 = new DocumentForCollections("doc2");
+                doc3 = new DocumentForCollections("doc3");
+
+                PersonForCollections o1 = new PersonForCollections("pers1");
+                PersonForCollections o2 = new PersonForCollections("pers2");
+                PersonForCollections o3 = new PersonForCollections("pers3");
+                PersonForCollections o4 = new PersonForCollections("pers4");
+                o1.setPartnerDocument(doc1);
+                o2.setPartnerDocument(doc2);
+                o3.setPartnerDocument(doc1);
+                o4.setPartnerDocument(doc2);
+
+                doc1.setOwner(o1);
+                doc2.setOwner(o2);
+                doc3.setOwner(o3);
+
+                doc1.getContacts().put(1, o1);
+                doc2.getContacts().put(1, o2);
+                doc1.getContacts().put(2, o3);
+                doc2.getContacts().put(2, o4);
+
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(o3);
+                em.persist(o4);
+
+                doc1.getPartners().add(o1);
+                doc1.getPartners().add(o3);
+                doc2.getPartners().add(o2);
+                doc2.getPartners().add(o4);
+
+                doc1.getPersonList().add(o1);
+                doc1.getPersonList().add(o2);
+                doc2.getPersonList().add(o3);
+                doc2.getPersonList().add(o4);
+
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        doc1 = cbf.create(em, DocumentForCollections.class).where("name").eq("doc1").getSingleResult();
+        doc2 = cbf.create(em, DocumentForCollections.class).where("name").eq("doc2").getSingleResult();
+        doc3 = cbf.create(em, DocumentForCollections.class).where("name").eq("doc3").getSingleResult();
+    }
+
+    @Test
+    // NOTE: DataNucleus renders joins wrong: https://github.com/datanucleus/datanucleus-rdbms/issues/177
+    // Eclipselink has a result set mapping bug in case of map keys
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testIterateJoinFetchedCollections() {
+        // Every document produces multiple rows due to the join fetched collections, so a fetch size of 1 forces chunks to be extended to whole documents
+        List<BasicDocumentListMapSetView> results = iterate(1);
+
+        assertEquals(3, results.size());
+        assertDocument(doc1, results.get(0));
+        assertDocument(doc2, results.get(1));
+        assertDocument(doc3, results.get(2));
+    }
+
+    @Test
+    @Category({ NoEclipselink.class, NoDatanucleus.class })
+    public void testIterateJoinFetchedCollectionsWithFetchSizeSpanningObjects() {
+        List<BasicDocumentListMapSetView> results = iterate(3);
+
+        assertEquals(3, results.size());
+        assertDocument(doc1, results.get(0));
+        assertDocument(doc2, results.get(1));
+        assertDocument(doc3, results.get(2));
+    }
+
+    private List<BasicDocumentListMapSetView> iterate(int fetchSize) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(BasicDocumentListMapSetView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        CriteriaBuilder<BasicDocumentListMapSetView> cb = evm.applySetting(EntityViewSetting.create(BasicDocumentListMapSetView.class), criteria);
+        cb.setProperty(ConfigurationProperties.STREAMING_FETCH_SIZE, Integer.toString(fetchSize));
+
+        List<BasicDocumentListMapSetView> results = new ArrayList<>();
+        try (CloseableIterator<BasicDocumentListMapSetView> iterator = cb.getResultIterator()) {
+            while (iterator.hasNext()) {
+                results.add(iterator.next());
+            }
+        }
+        return results;
+    }
+
+    private void assertDocument(DocumentForCollections document, BasicDocumentListMapSetView view) {
+        assertEquals(document.getName(), view.getName());
+        assertEquals(document.getContacts(), view.getContacts());
+        assertEquals(document.getPartners(), view.getPartners());
+        assertEquals(document.getPersonList(), view.getPersonList());
+    }
+}
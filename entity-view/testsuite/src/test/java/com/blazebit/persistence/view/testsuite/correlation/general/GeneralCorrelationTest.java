@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.testsuite.correlation.general;
 
+import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus4;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
@@ -23,16 +24,32 @@ import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
 import com.blazebit.persistence.view.testsuite.correlation.AbstractCorrelationTest;
+import com.blazebit.persistence.view.testsuite.correlation.general.model.CountingOwnerOnlyRelatedCorrelationProvider;
+import com.blazebit.persistence.view.testsuite.correlation.general.model.CountingOwnerRelatedCorrelationProvider;
+import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentBatchCorrelationView;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewJoinId;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewJoinNormal;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewSubqueryId;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewSubqueryNormal;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewSubselectId;
 import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentCorrelationViewSubselectNormal;
+import com.blazebit.persistence.view.testsuite.correlation.general.model.DocumentSelectCorrelationView;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  *
  * @author Christian Beikov
@@ -96,6 +113,55 @@ public class GeneralCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentCorrelationViewSubqueryId.class, 20);
     }
 
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testBatchedCorrelationModeIsDeterminedOnce() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentBatchCorrelationView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CountingOwnerRelatedCorrelationProvider.APPLY_COUNT.set(0);
+        for (int i = 0; i < 2; i++) {
+            CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+            List<DocumentBatchCorrelationView> results = evm.applySetting(EntityViewSetting.create(DocumentBatchCorrelationView.class), criteria).getResultList();
+
+            assertEquals(4, results.size());
+            assertEquals(Collections.emptySet(), results.get(0).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc3.getId(), doc4.getId())), results.get(1).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc4.getId())), results.get(2).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId())), results.get(3).getOwnerRelatedDocumentIds());
+        }
+
+        // The first execution builds the query for the expected VALUES mode which reveals the VIEW_ROOT usage and then the VIEW_ROOTS query,
+        // the second execution reuses the batch correlation mode of the factory and builds the VIEW_ROOTS query right away
+        assertEquals(3, CountingOwnerRelatedCorrelationProvider.APPLY_COUNT.get());
+    }
+
+    @Test
+    // NOTE: Datenucleus issue: https://github.com/datanucleus/datanucleus-api-jpa/issues/77
+    @Category({ NoDatanucleus.class })
+    public void testUnbatchedCorrelationQueryIsRenderedOnce() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentSelectCorrelationView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CountingOwnerOnlyRelatedCorrelationProvider.APPLY_COUNT.set(0);
+        for (int i = 0; i < 2; i++) {
+            CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+            List<DocumentSelectCorrelationView> results = evm.applySetting(EntityViewSetting.create(DocumentSelectCorrelationView.class), criteria).getResultList();
+
+            assertEquals(4, results.size());
+            assertEquals(Collections.singleton(doc1.getId()), results.get(0).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(1).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(2).getOwnerRelatedDocumentIds());
+            assertEquals(new HashSet<>(Arrays.asList(doc2.getId(), doc3.getId(), doc4.getId())), results.get(3).getOwnerRelatedDocumentIds());
+        }
+
+        // The second execution creates the query from the query string rendered by the first execution
+        assertEquals(1, CountingOwnerOnlyRelatedCorrelationProvider.APPLY_COUNT.get());
+    }
+
     // TODO: test batch correlation expectation configuration
     // TODO: make explicit test for correlation key batching with view root usage maybe via nested subviews through collections?
 
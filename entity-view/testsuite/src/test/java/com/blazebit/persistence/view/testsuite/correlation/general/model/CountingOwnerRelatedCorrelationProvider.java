@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.correlation.general.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.CorrelationBuilder;
+import com.blazebit.persistence.view.CorrelationProvider;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Like {@link OwnerRelatedCorrelationProviderId} but counts how often the correlation is applied.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class CountingOwnerRelatedCorrelationProvider implements CorrelationProvider {
+
+    public static final AtomicInteger APPLY_COUNT = new AtomicInteger();
+
+    @Override
+    public void applyCorrelation(CorrelationBuilder correlationBuilder, String correlationExpression) {
+        APPLY_COUNT.incrementAndGet();
+        String correlatedDocument = correlationBuilder.getCorrelationAlias();
+        correlationBuilder.correlate(Document.class)
+            .on(correlatedDocument + ".owner.id").inExpressions(correlationExpression)
+            .on(correlatedDocument + ".id").notInExpressions("VIEW_ROOT(id)")
+        .end();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.fetch.multiset;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDB2;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoFirebird;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMSSQL;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoMySQLOld;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoSQLite;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.fetch.multiset.model.DocumentMultisetFetchSubView;
+import com.blazebit.persistence.view.testsuite.fetch.multiset.model.DocumentMultisetFetchView;
+import com.blazebit.persistence.view.testsuite.fetch.multiset.model.PersonMultisetFetchSubView;
+import com.blazebit.persistence.view.testsuite.fetch.multiset.model.PersonMultisetFetchView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the MULTISET fetch strategy end to end. The MULTISET_AGG function is only available for PostgreSQL, MySQL 5.7+, Oracle and H2.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+// NOTE: The other JPA providers don't support collection paths in the FROM clause of correlated subqueries in the select clause
+@Category({ NoMSSQL.class, NoMySQLOld.class, NoDB2.class, NoFirebird.class, NoSQLite.class, NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+public class MultisetFetchTest extends AbstractEntityViewTest {
+
+    private Document doc1;
+    private Document doc2;
+    private Document doc3;
+    private Person pers1;
+    private Person pers2;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1", 20);
+                Person o2 = new Person("pers2", 30);
+                Person o3 = new Person("pers3", 40);
+
+                Document d1 = new Document("doc1", o1);
+                Document d2 = new Document("doc2", o1);
+                Document d3 = new Document("doc3", o2);
+
+                d1.setLastModified(Timestamp.valueOf("2020-01-02 03:04:05.123"));
+                d2.setLastModified(null);
+                d3.setLastModified(Timestamp.valueOf("2000-12-31 23:59:59"));
+
+                // Strings that need escaping in JSON
+                d1.getStrings().add("a\"b");
+                d1.getStrings().add("c\\d");
+                d1.getStrings().add("e,[f]");
+                d2.getStrings().add("s1");
+
+                d1.getPartners().add(o1);
+                d1.getPartners().add(o3);
+                d2.getPartners().add(o2);
+
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(o3);
+
+                em.persist(d1);
+                em.persist(d2);
+                em.persist(d3);
+
+                o1.setPartnerDocument(d1);
+                o2.setPartnerDocument(d2);
+                o3.setPartnerDocument(d1);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        doc1 = cbf.create(em, Document.class).where("name").eq("doc1").getSingleResult();
+        doc2 = cbf.create(em, Document.class).where("name").eq("doc2").getSingleResult();
+        doc3 = cbf.create(em, Document.class).where("name").eq("doc3").getSingleResult();
+        pers1 = cbf.create(em, Person.class).where("name").eq("pers1").getSingleResult();
+        pers2 = cbf.create(em, Person.class).where("name").eq("pers2").getSingleResult();
+    }
+
+    @Test
+    public void testMultisetFetchSubviewsAndBasics() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(DocumentMultisetFetchView.class);
+        cfg.addEntityView(PersonMultisetFetchSubView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
+        List<DocumentMultisetFetchView> results = evm.applySetting(EntityViewSetting.create(DocumentMultisetFetchView.class), criteria).getResultList();
+
+        // The collections are fetched in the main query without multiplying the rows
+        assertEquals(3, results.size());
+
+        assertDocument(doc1, results.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("a\"b", "c\\d", "e,[f]")), results.get(0).getStrings());
+
+        assertDocument(doc2, results.get(1));
+        assertEquals(Collections.singleton("s1"), results.get(1).getStrings());
+
+        assertDocument(doc3, results.get(2));
+        assertEquals(0, results.get(2).getPartners().size());
+        assertEquals(0, results.get(2).getStrings().size());
+    }
+
+    @Test
+    public void testMultisetFetchTimestamps() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonMultisetFetchView.class);
+        cfg.addEntityView(DocumentMultisetFetchSubView.class);
+        EntityViewManager evm = cfg.createEntityViewManager(cbf);
+
+        CriteriaBuilder<Person> criteria = cbf.create(em, Person.class, "p")
+                .where("id").in(pers1.getId(), pers2.getId())
+                .orderByAsc("id");
+        List<PersonMultisetFetchView> results = evm.applySetting(EntityViewSetting.create(PersonMultisetFetchView.class), criteria).getResultList();
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).getOwnedDocuments().size());
+        assertEquals(1, results.get(1).getOwnedDocuments().size());
+
+        for (DocumentMultisetFetchSubView view : results.get(0).getOwnedDocuments()) {
+            if (doc1.getId().equals(view.getId())) {
+                assertEquals(doc1.getName(), view.getName());
+                assertNotNull(view.getLastModified());
+                assertEquals(doc1.getLastModified().getTime(), view.getLastModified().getTime());
+            } else {
+                assertEquals(doc2.getId(), view.getId());
+                assertEquals(doc2.getName(), view.getName());
+                assertNull(view.getLastModified());
+            }
+        }
+
+        DocumentMultisetFetchSubView view = results.get(1).getOwnedDocuments().iterator().next();
+        assertEquals(doc3.getId(), view.getId());
+        assertEquals(doc3.getLastModified().getTime(), view.getLastModified().getTime());
+    }
+
+    private void assertDocument(Document document, DocumentMultisetFetchView view) {
+        assertEquals(document.getId(), view.getId());
+        assertEquals(document.getName(), view.getName());
+        assertEquals(document.getPartners().size(), view.getPartners().size());
+        for (Person partner : document.getPartners()) {
+            PersonMultisetFetchSubView partnerView = null;
+            for (PersonMultisetFetchSubView v : view.getPartners()) {
+                if (v.getId().equals(partner.getId())) {
+                    partnerView = v;
+                    break;
+                }
+            }
+
+            assertNotNull(partnerView);
+            assertEquals(partner.getName().toUpperCase(), partnerView.getName());
+            assertEquals(partner.getAge(), partnerView.getAge());
+        }
+    }
+}
@@ -18,19 +18,25 @@ package com.blazebit.persistence.view.testsuite.proxy;
 
 import com.blazebit.persistence.spi.PackageOpener;
 import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViews;
 import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
 import com.blazebit.persistence.view.impl.proxy.ConstructorReflectionInstantiator;
+import com.blazebit.persistence.view.impl.proxy.DirtyStateTrackable;
 import com.blazebit.persistence.view.impl.proxy.ObjectInstantiator;
 import com.blazebit.persistence.view.impl.proxy.ProxyFactory;
 import com.blazebit.persistence.view.metamodel.FlatViewType;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentClassView;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentCreateView;
 import com.blazebit.persistence.view.testsuite.proxy.model.DocumentInterfaceView;
+import com.blazebit.persistence.view.testsuite.proxy.model.LazyInitialStateNameObjectView;
 import com.blazebit.persistence.view.testsuite.proxy.model.NameObjectView;
 import com.blazebit.persistence.view.testsuite.proxy.model.UnsafeDocumentClassView;
+import com.blazebit.persistence.view.testsuite.proxy.model.UpdatableNameObjectView;
 import com.blazebit.reflection.ReflectionUtils;
 import org.junit.Test;
 
@@ -38,6 +44,12 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -59,7 +71,8 @@ public class ProxyFactoryTest extends AbstractEntityViewTest {
                 DocumentClassView.class,
                 UnsafeDocumentClassView.class,
                 DocumentCreateView.class,
-                NameObjectView.class
+                NameObjectView.class,
+                UpdatableNameObjectView.class
         );
     }
 
@@ -320,6 +333,111 @@ public class ProxyFactoryTest extends AbstractEntityViewTest {
         assertEquals(NameObjectView.class.getSimpleName() + "(primaryName = test)", instance.toString());
     }
 
+    @Test
+    public void testPregeneratedProxyLoading() throws Exception {
+        Path directory = generateProxyClass(DocumentInterfaceView.class);
+        Class<?> generatedProxyClass = proxyFactory.getProxy(evm, (ManagedViewTypeImplementor<DocumentInterfaceView>) getViewMetamodel().view(DocumentInterfaceView.class), null);
+
+        try (URLClassLoader classLoader = new ChildFirstClassLoader(directory, DocumentInterfaceView.class)) {
+            Class<?> viewClass = classLoader.loadClass(DocumentInterfaceView.class.getName());
+            ManagedViewTypeImplementor viewType = (ManagedViewTypeImplementor) build(EntityViews.createDefaultConfiguration(), viewClass).managedView(viewClass);
+            ProxyFactory pregeneratedProxyFactory = new ProxyFactory(false, false, true, null, PackageOpener.NOOP);
+            Class<?> proxyClass = pregeneratedProxyFactory.getProxy(evm, viewType, null);
+
+            // The proxy class must be loaded from the generation directory rather than being generated again
+            assertNotSame(generatedProxyClass, proxyClass);
+            assertEquals(generatedProxyClass.getName(), proxyClass.getName());
+            assertSame(classLoader, proxyClass.getClassLoader());
+            assertEquals(directory.toUri().toURL(), proxyClass.getProtectionDomain().getCodeSource().getLocation());
+            assertSame(evm, proxyClass.getField("$$_evm").get(null));
+        }
+    }
+
+    @Test
+    public void testStalePregeneratedProxyIsRejected() throws Exception {
+        Path directory = generateProxyClass(DocumentInterfaceView.class);
+        Class<?> generatedProxyClass = proxyFactory.getProxy(evm, (ManagedViewTypeImplementor<DocumentInterfaceView>) getViewMetamodel().view(DocumentInterfaceView.class), null);
+
+        // Simulate a proxy class that was generated for a different definition of the view
+        String viewDefinition = (String) generatedProxyClass.getField("$$_viewDefinition").get(null);
+        char[] staleViewDefinition = new char[viewDefinition.length()];
+        Arrays.fill(staleViewDefinition, '0');
+        Path classFile = directory.resolve(generatedProxyClass.getName().replace('.', '/') + ".class");
+        String content = new String(Files.readAllBytes(classFile), StandardCharsets.ISO_8859_1);
+        Files.write(classFile, content.replace(viewDefinition, new String(staleViewDefinition)).getBytes(StandardCharsets.ISO_8859_1));
+
+        try (URLClassLoader classLoader = new ChildFirstClassLoader(directory, DocumentInterfaceView.class)) {
+            Class<?> viewClass = classLoader.loadClass(DocumentInterfaceView.class.getName());
+            ManagedViewTypeImplementor viewType = (ManagedViewTypeImplementor) build(EntityViews.createDefaultConfiguration(), viewClass).managedView(viewClass);
+            ProxyFactory pregeneratedProxyFactory = new ProxyFactory(false, false, true, null, PackageOpener.NOOP);
+            try {
+                pregeneratedProxyFactory.getProxy(evm, viewType, null);
+                fail("Expected the stale pre-generated proxy class to be rejected");
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage().contains("different definition"));
+            }
+        }
+    }
+
+    @Test
+    public void testProxyGenerationDirectory() throws Exception {
+        ViewType<DocumentInterfaceView> viewType = getViewMetamodel().view(DocumentInterfaceView.class);
+        Path directory = Files.createTempDirectory("entity-view-proxies");
+        ProxyFactory generatingProxyFactory = new ProxyFactory(false, false, false, directory, PackageOpener.NOOP);
+        Class<? extends DocumentInterfaceView> proxyClass = generatingProxyFactory.getProxy(evm, (ManagedViewTypeImplementor<DocumentInterfaceView>) viewType, null);
+
+        assertTrue(Files.exists(directory.resolve(proxyClass.getName().replace('.', '/') + ".class")));
+    }
+
+    @Test
+    public void testLazyInitialState() throws Exception {
+        // Use a dedicated view so that no other test defines an eager proxy class for it
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.PROXY_LAZY_INITIAL_STATE + "." + LazyInitialStateNameObjectView.class.getName(), "true");
+        FlatViewType<LazyInitialStateNameObjectView> viewType = build(cfg, LazyInitialStateNameObjectView.class).flatView(LazyInitialStateNameObjectView.class);
+        Map<String, Boolean> overrides = Collections.singletonMap(LazyInitialStateNameObjectView.class.getName(), true);
+        ProxyFactory lazyProxyFactory = new ProxyFactory(false, false, false, null, false, overrides, PackageOpener.NOOP);
+        Class<? extends LazyInitialStateNameObjectView> proxyClass = lazyProxyFactory.getProxy(evm, (ManagedViewTypeImplementor<LazyInitialStateNameObjectView>) viewType, null);
+
+        LazyInitialStateNameObjectView instance = proxyClass.getConstructor(String.class).newInstance("test");
+        Field initialStateField = proxyClass.getDeclaredField("$$_initialState");
+        initialStateField.setAccessible(true);
+        assertNull(initialStateField.get(instance));
+
+        instance.setPrimaryName("changed");
+        instance.setPrimaryName("changed again");
+
+        // Only the written attribute is copied into the sparse initial state
+        Field initialStateCopiedField = proxyClass.getDeclaredField("$$_initialStateCopied");
+        initialStateCopiedField.setAccessible(true);
+        assertNotNull(initialStateField.get(instance));
+        assertEquals(1L, initialStateCopiedField.getLong(instance));
+
+        Object[] initialState = ((DirtyStateTrackable) instance).$$_getInitialState();
+        assertEquals(0L, initialStateCopiedField.getLong(instance));
+        assertEquals("test", initialState[0]);
+        assertEquals("changed again", instance.getPrimaryName());
+    }
+
+    @Test
+    public void testEagerInitialState() throws Exception {
+        FlatViewType<UpdatableNameObjectView> viewType = getViewMetamodel().flatView(UpdatableNameObjectView.class);
+        Class<? extends UpdatableNameObjectView> proxyClass = proxyFactory.getProxy(evm, (ManagedViewTypeImplementor<UpdatableNameObjectView>) viewType, null);
+
+        UpdatableNameObjectView instance = proxyClass.getConstructor(String.class).newInstance("test");
+        Field initialStateField = proxyClass.getDeclaredField("$$_initialState");
+        initialStateField.setAccessible(true);
+        assertNotNull(initialStateField.get(instance));
+        assertEquals("test", ((DirtyStateTrackable) instance).$$_getInitialState()[0]);
+    }
+
+    private Path generateProxyClass(Class<?> viewClass) throws Exception {
+        Path directory = Files.createTempDirectory("entity-view-proxies");
+        ProxyFactory generatingProxyFactory = new ProxyFactory(false, false, false, directory, PackageOpener.NOOP);
+        generatingProxyFactory.getProxy(evm, (ManagedViewTypeImplementor<?>) getViewMetamodel().managedView(viewClass), null);
+        return directory;
+    }
+
     private void assertAttribute(Class<?> proxyClass, String fieldName, int modifiers, Class<?> type, Class<?>... typeArguments) throws Exception {
         assertField(proxyClass, fieldName, modifiers, type, typeArguments);
         assertGetter(proxyClass, fieldName, type, typeArguments);
@@ -355,4 +473,34 @@ public class ProxyFactoryTest extends AbstractEntityViewTest {
         assertArrayEquals("Setter parameter type arguments of: " + attributeName, typeArguments,
                           ReflectionUtils.getResolvedMethodParameterTypesArguments(proxyClass, method)[0]);
     }
+
+    /**
+     * Loads the view classes and their proxies in isolation from the generation directory and the test classes.
+     */
+    private static class ChildFirstClassLoader extends URLClassLoader {
+
+        private final String packagePrefix;
+
+        public ChildFirstClassLoader(Path directory, Class<?> viewClass) throws Exception {
+            super(new URL[]{ directory.toUri().toURL(), viewClass.getProtectionDomain().getCodeSource().getLocation() }, viewClass.getClassLoader());
+            this.packagePrefix = viewClass.getPackage().getName() + ".";
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(packagePrefix)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
 }
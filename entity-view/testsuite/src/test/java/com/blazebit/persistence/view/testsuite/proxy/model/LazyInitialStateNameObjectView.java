@@ -0,0 +1,33 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.proxy.model;
+
+import com.blazebit.persistence.testsuite.entity.NameObject;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.UpdatableEntityView;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@UpdatableEntityView
+@EntityView(NameObject.class)
+public interface LazyInitialStateNameObjectView extends NameObjectView {
+
+    public void setPrimaryName(String primaryName);
+}
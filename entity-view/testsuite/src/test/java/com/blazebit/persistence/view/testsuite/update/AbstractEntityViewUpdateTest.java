@@ -36,7 +36,13 @@ import org.junit.Before;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -306,6 +312,33 @@ public abstract class AbstractEntityViewUpdateTest<T> extends AbstractEntityView
         });
     }
 
+    protected List<String> updateAndGetUpdateQueryStrings(final Object docView) {
+        final List<String> queryStrings = new ArrayList<>();
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(final EntityManager em) {
+                // Records the JPQL update query strings that the entity view updater passes to the entity manager
+                EntityManager recordingEm = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(), new Class<?>[]{ EntityManager.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("createQuery".equals(method.getName()) && args[0] instanceof String && ((String) args[0]).startsWith("UPDATE ")) {
+                            queryStrings.add((String) args[0]);
+                        }
+                        try {
+                            return method.invoke(em, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    }
+                });
+                evm.save(recordingEm, docView);
+                em.flush();
+            }
+        });
+        return queryStrings;
+    }
+
     protected void saveTo(final Object docView, final Object entity) {
         transactional(new TxVoidWork() {
 
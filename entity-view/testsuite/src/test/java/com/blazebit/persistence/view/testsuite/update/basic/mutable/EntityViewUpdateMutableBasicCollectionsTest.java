@@ -163,6 +163,26 @@ public class EntityViewUpdateMutableBasicCollectionsTest extends AbstractEntityV
         assertEquals(doc1.getVersion(), docView.getVersion());
     }
 
+    @Test
+    public void testUpdateAddMultipleToCollection() {
+        // Given
+        final UpdatableDocumentBasicWithCollectionsView docView = getDoc1View();
+        clearQueries();
+
+        // When
+        docView.getStrings().set(0, "replacedString");
+        docView.getStrings().add("newString1");
+        docView.getStrings().add("newString2");
+        docView.getStrings().add("newString3");
+        update(docView);
+
+        // Then
+        // Assert that the replace and the added elements are flushed in order
+        restartTransactionAndReload();
+        assertEquals(Arrays.asList("replacedString", "newString1", "newString2", "newString3"), doc1.getStrings());
+        assertEquals(doc1.getStrings(), docView.getStrings());
+    }
+
     protected void assertChangesUpdateAndFlush(UpdatableDocumentBasicWithCollectionsView docView) {
         if (!isFullMode()) {
             SingularChangeModel<UpdatableDocumentBasicWithCollectionsView> changeModel = evm.getChangeModel(docView);
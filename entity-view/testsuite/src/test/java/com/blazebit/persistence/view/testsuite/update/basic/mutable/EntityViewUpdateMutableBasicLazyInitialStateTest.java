@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blazebit.persistence.view.testsuite.update.basic.mutable;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.FlushMode;
+import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.change.SingularChangeModel;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.update.basic.mutable.model.UpdatableDocumentBasicView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.lang.reflect.Field;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the mutable basic update tests with proxies that copy their initial state lazily.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+@RunWith(Parameterized.class)
+// NOTE: No Datanucleus support yet
+@Category({ NoDatanucleus.class, NoEclipselink.class})
+public class EntityViewUpdateMutableBasicLazyInitialStateTest extends EntityViewUpdateMutableBasicTest {
+
+    public EntityViewUpdateMutableBasicLazyInitialStateTest(FlushMode mode, FlushStrategy strategy, boolean version) {
+        super(mode, strategy, version);
+    }
+
+    @Parameterized.Parameters(name = "{0} - {1} - VERSIONED={2}")
+    public static Object[][] combinations() {
+        return MODE_STRATEGY_VERSION_COMBINATIONS;
+    }
+
+    @Override
+    protected void registerViewTypes(EntityViewConfiguration cfg) {
+        cfg.setProperty(ConfigurationProperties.PROXY_LAZY_INITIAL_STATE, "true");
+    }
+
+    @Test
+    public void testLoadedViewHasSparseInitialState() throws Exception {
+        // Given
+        final UpdatableDocumentBasicView docView = getDoc1View();
+
+        // Then
+        // Only the clone of the mutable date is recorded when loading
+        assertNotEquals(0L, getInitialStateCopied(docView));
+
+        // When
+        docView.setName("newDoc");
+
+        // Then
+        assertNotEquals(0L, getInitialStateCopied(docView));
+        if (!isFullMode()) {
+            SingularChangeModel<UpdatableDocumentBasicView> changeModel = evm.getChangeModel(docView);
+            assertEquals("doc1", changeModel.get("name").getInitialState());
+            assertEquals(new Date(EPOCH_2K), changeModel.get("lastModified").getInitialState());
+            assertFalse(changeModel.get("lastModified").isDirty());
+        }
+    }
+
+    @Test
+    public void testPartialFlushOfLazyInitialState() {
+        // Given
+        final UpdatableDocumentBasicView docView = getDoc1View();
+        docView.setName("newDoc");
+        updateAndAssertChangesFlushed(docView);
+
+        // When
+        docView.getLastModified().setTime(0);
+        if (!isFullMode()) {
+            SingularChangeModel<UpdatableDocumentBasicView> changeModel = evm.getChangeModel(docView);
+            assertTrue(changeModel.isDirty());
+            assertFalse(changeModel.get("name").isDirty());
+            assertEquals("newDoc", changeModel.get("name").getInitialState());
+            assertEquals(new Date(EPOCH_2K), changeModel.get("lastModified").getInitialState());
+        }
+        updateAndAssertChangesFlushed(docView);
+        docView.setName("newDoc2");
+        update(docView);
+        restartTransactionAndReload();
+
+        // Then
+        assertEquals("newDoc2", doc1.getName());
+        assertEquals(0, doc1.getLastModified().getTime());
+    }
+
+    private static long getInitialStateCopied(Object view) throws Exception {
+        Field field = view.getClass().getDeclaredField("$$_initialStateCopied");
+        field.setAccessible(true);
+        return field.getLong(view);
+    }
+}
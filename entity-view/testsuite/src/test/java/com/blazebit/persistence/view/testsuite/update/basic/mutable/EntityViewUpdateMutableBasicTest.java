@@ -20,8 +20,10 @@ import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuil
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
 import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import com.blazebit.persistence.view.FlushMode;
 import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.OptimisticLockException;
 import com.blazebit.persistence.view.change.ChangeModel;
 import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.testsuite.update.basic.AbstractEntityViewUpdateBasicTest;
@@ -31,13 +33,17 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import javax.persistence.EntityManager;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  *
@@ -155,6 +161,105 @@ public class EntityViewUpdateMutableBasicTest extends AbstractEntityViewUpdateBa
         assertEquals(doc1.getVersion(), docView.getVersion());
     }
 
+    @Test
+    public void testRepeatedUpdateOfDifferentAttributes() {
+        // Given
+        final UpdatableDocumentBasicView docView = simpleUpdate();
+        update(docView);
+
+        // When
+        docView.setName("newDoc2");
+        List<String> nameQueryStrings = updateAndGetUpdateQueryStrings(docView);
+        docView.setName("newDoc3");
+        docView.setLastModified(new Date(0));
+        List<String> nameAndLastModifiedQueryStrings = updateAndGetUpdateQueryStrings(docView);
+        docView.setName("newDoc4");
+        List<String> repeatedNameQueryStrings = updateAndGetUpdateQueryStrings(docView);
+        restartTransactionAndReload();
+
+        // Then
+        assertEquals("newDoc4", doc1.getName());
+        assertEquals(0, doc1.getLastModified().getTime());
+        if (isQueryStrategy() && !isFullMode()) {
+            // The same dirty attributes reuse the cached query string, other dirty attributes need a different one
+            assertEquals(1, nameQueryStrings.size());
+            assertEquals(1, nameAndLastModifiedQueryStrings.size());
+            assertEquals(1, repeatedNameQueryStrings.size());
+            assertSame(nameQueryStrings.get(0), repeatedNameQueryStrings.get(0));
+            assertNotEquals(nameQueryStrings.get(0), nameAndLastModifiedQueryStrings.get(0));
+        }
+    }
+
+    @Test
+    public void testSaveAll() {
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        clearQueries();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, Arrays.asList(docView1, docView2));
+                em.flush();
+            }
+        });
+
+        // Then
+        if (isQueryStrategy()) {
+            // Both views have the same dirty attributes, so the updates are executed as one JDBC batch
+            assertUnorderedQuerySequence()
+                    .update(Document.class)
+                    .validate();
+        }
+        restartTransactionAndReload();
+        assertEquals("newDoc1", doc1.getName());
+        assertEquals("newDoc2", doc2.getName());
+    }
+
+    @Test
+    public void testSaveAllOptimisticLockFailure() {
+        // Only the query strategy detects the conflict through the update count of the batch
+        if (!version || !isQueryStrategy()) {
+            return;
+        }
+        // Given
+        final UpdatableDocumentBasicView docView1 = getDoc1View();
+        final UpdatableDocumentBasicView docView2 = getDoc2View();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.createQuery("UPDATE Document d SET d.version = d.version + 1 WHERE d.id = :id")
+                        .setParameter("id", doc2.getId())
+                        .executeUpdate();
+            }
+        });
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        try {
+            transactional(new TxVoidWork() {
+                @Override
+                public void work(EntityManager em) {
+                    evm.saveAll(em, Arrays.asList(docView1, docView2));
+                    em.flush();
+                }
+            });
+            fail("Expected an OptimisticLockException");
+        } catch (OptimisticLockException ex) {
+            // Then
+            assertSame(docView2, ex.getEntityView());
+            assertEquals(0, ex.getSuppressed().length);
+        }
+        restartTransactionAndReload();
+        assertEquals("doc1", doc1.getName());
+        assertEquals("doc2", doc2.getName());
+    }
+
     private void fullFetchUpdateAndReload(UpdatableDocumentBasicView docView) {
         // Assert that not only the document is loaded and finally also updated
         AssertStatementBuilder builder = assertUnorderedQuerySequence();
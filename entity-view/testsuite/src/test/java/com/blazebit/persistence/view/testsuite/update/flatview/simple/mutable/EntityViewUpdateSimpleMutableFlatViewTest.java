@@ -32,6 +32,8 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -114,6 +116,28 @@ public class EntityViewUpdateSimpleMutableFlatViewTest extends AbstractEntityVie
         Assert.assertEquals(doc1.getNameObject().getPrimaryName(), docView.getNameObject().getPrimaryName());
     }
 
+    @Test
+    public void testRepeatedUpdateOfFlatView() {
+        // Given
+        final UpdatableDocumentView docView = getDoc1View();
+
+        // When
+        docView.getNameObject().setPrimaryName("newDoc1");
+        List<String> queryStrings = updateAndGetUpdateQueryStrings(docView);
+        docView.getNameObject().setPrimaryName("newDoc2");
+        List<String> repeatedQueryStrings = updateAndGetUpdateQueryStrings(docView);
+        restartTransactionAndReload();
+
+        // Then
+        Assert.assertEquals("newDoc2", doc1.getNameObject().getPrimaryName());
+        if (isQueryStrategy() && !isFullMode()) {
+            // The flusher of a dirty flat view is not covered by the flusher mask, so the query string is built for every flush
+            Assert.assertEquals(1, queryStrings.size());
+            Assert.assertEquals(queryStrings, repeatedQueryStrings);
+            Assert.assertNotSame(queryStrings.get(0), repeatedQueryStrings.get(0));
+        }
+    }
+
     @Override
     protected AssertStatementBuilder fullFetch(AssertStatementBuilder builder) {
         return builder.assertSelect()
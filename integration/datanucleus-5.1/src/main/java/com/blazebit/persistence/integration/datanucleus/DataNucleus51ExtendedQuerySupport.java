@@ -17,8 +17,10 @@
 package com.blazebit.persistence.integration.datanucleus;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ReturningResult;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.ScrollableExtendedQuerySupport;
 import org.datanucleus.store.rdbms.query.JPQLQuery;
 import org.datanucleus.store.rdbms.query.RDBMSQueryCompilation;
 
@@ -32,7 +34,7 @@ import java.util.List;
  * @since 1.2.0
  */
 @ServiceProvider(ExtendedQuerySupport.class)
-public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
+public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport, ScrollableExtendedQuerySupport {
     
     private static final Field DATASTORE_COMPILATION_FIELD;
     
@@ -93,6 +95,12 @@ public class DataNucleus51ExtendedQuerySupport implements ExtendedQuerySupport {
         return query.getSingleResult();
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize) {
+        applySql(query, sqlOverride);
+        return DataNucleus51JpaProvider.scrollQuery(query, fetchSize);
+    }
+
     @Override
     public int executeUpdate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String sqlOverride) {
         applySql(query, sqlOverride);
@@ -16,10 +16,13 @@
 
 package com.blazebit.persistence.integration.datanucleus;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ResultListIterator;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
 import org.datanucleus.ExecutionContext;
 import org.datanucleus.api.jpa.metamodel.AttributeImpl;
 import org.datanucleus.api.jpa.metamodel.EntityTypeImpl;
@@ -50,7 +53,7 @@ import java.util.Set;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class DataNucleusJpaProvider implements JpaProvider {
+public class DataNucleusJpaProvider implements JpaProvider, ScrollableJpaProvider {
 
     private static final String[] EMPTY = {};
     private final PersistenceUnitUtil persistenceUnitUtil;
@@ -515,6 +518,24 @@ public class DataNucleusJpaProvider implements JpaProvider {
         query.setHint("datanucleus.query.results.cached", true);
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(Query query, int fetchSize) {
+        return scrollQuery(query, fetchSize);
+    }
+
+    static CloseableIterator<Object> scrollQuery(Query query, int fetchSize) {
+        query.setHint("datanucleus.rdbms.query.fetchSize", fetchSize);
+        // Don't keep references to the objects that were already read so they can be garbage collected
+        query.setHint("datanucleus.query.resultCacheType", "none");
+        final org.datanucleus.store.query.Query<?> dnQuery = query.unwrap(org.datanucleus.store.query.Query.class);
+        return new ResultListIterator(query.getResultList()) {
+            @Override
+            protected void doClose() {
+                dnQuery.closeAll();
+            }
+        };
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> ownerType, String attributeName) {
         AttributeImpl<?, ?> attribute = getAttribute(ownerType, attributeName);
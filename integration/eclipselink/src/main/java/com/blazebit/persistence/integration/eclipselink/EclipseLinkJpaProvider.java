@@ -16,11 +16,13 @@
 
 package com.blazebit.persistence.integration.eclipselink;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.integration.jpa.JpaMetamodelAccessorImpl;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
 import com.blazebit.reflection.ReflectionUtils;
 import org.eclipse.persistence.descriptors.ClassDescriptor;
 import org.eclipse.persistence.internal.helper.DatabaseField;
@@ -36,6 +38,8 @@ import org.eclipse.persistence.mappings.DirectMapMapping;
 import org.eclipse.persistence.mappings.ForeignReferenceMapping;
 import org.eclipse.persistence.mappings.ManyToManyMapping;
 import org.eclipse.persistence.mappings.OneToOneMapping;
+import org.eclipse.persistence.queries.Cursor;
+import org.eclipse.persistence.queries.CursoredStream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceUnitUtil;
@@ -51,6 +55,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Vector;
 
@@ -59,7 +64,7 @@ import java.util.Vector;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class EclipseLinkJpaProvider implements JpaProvider {
+public class EclipseLinkJpaProvider implements JpaProvider, ScrollableJpaProvider {
 
     private static final String[] EMPTY = {};
     private final PersistenceUnitUtil persistenceUnitUtil;
@@ -618,6 +623,14 @@ public class EclipseLinkJpaProvider implements JpaProvider {
         query.setHint("eclipselink.query-results-cache", true);
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(Query query, int fetchSize) {
+        query.setHint("eclipselink.cursor", true);
+        query.setHint("eclipselink.cursor.page-size", fetchSize);
+        query.setHint("eclipselink.jdbc.fetch-size", fetchSize);
+        return new CursorIterator((Cursor) query.getSingleResult(), fetchSize);
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> ownerType, String attributeName) {
         AttributeImpl<?, ?> attribute = getAttribute(ownerType, attributeName);
@@ -714,4 +727,61 @@ public class EclipseLinkJpaProvider implements JpaProvider {
         return JpaMetamodelAccessorImpl.INSTANCE;
     }
 
+
+    /**
+     * Iterates over an EclipseLink cursor and releases the objects that were already read from a cursored stream.
+     *
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class CursorIterator implements CloseableIterator<Object> {
+
+        private final Cursor cursor;
+        private final int releaseInterval;
+        private int count;
+        private boolean closed;
+
+        public CursorIterator(Cursor cursor, int releaseInterval) {
+            this.cursor = cursor;
+            this.releaseInterval = releaseInterval;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (cursor.hasNext()) {
+                return true;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object result = cursor.next();
+            if (++count == releaseInterval && cursor instanceof CursoredStream) {
+                count = 0;
+                ((CursoredStream) cursor).releasePrevious();
+            }
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove is not supported!");
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                cursor.close();
+            }
+        }
+    }
 }
@@ -17,6 +17,7 @@
 package com.blazebit.persistence.integration.hibernate;
 
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.integration.hibernate.base.BatchRowCountExpectation;
 import com.blazebit.persistence.integration.hibernate.base.HibernateAccess;
 import com.blazebit.persistence.integration.hibernate.base.HibernateExtendedQuerySupport;
 import com.blazebit.persistence.integration.hibernate.base.HibernateReturningResult;
@@ -24,6 +25,9 @@ import com.blazebit.persistence.spi.DbmsDialect;
 import org.hibernate.HibernateException;
 import org.hibernate.LockOptions;
 import org.hibernate.Query;
+import org.hibernate.ScrollableResults;
+import org.hibernate.engine.jdbc.batch.internal.BasicBatchKey;
+import org.hibernate.engine.jdbc.batch.spi.Batch;
 import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
 import org.hibernate.engine.query.spi.HQLQueryPlan;
 import org.hibernate.engine.spi.ExceptionConverter;
@@ -53,6 +57,8 @@ import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -128,6 +134,11 @@ public class Hibernate53Access implements HibernateAccess {
         return queryPlan.performList(queryParameters, sessionImplementor);
     }
 
+    @Override
+    public ScrollableResults performScroll(HQLQueryPlan queryPlan, SessionImplementor sessionImplementor, QueryParameters queryParameters) {
+        return queryPlan.performScroll(queryParameters, sessionImplementor);
+    }
+
     @Override
     public int performExecuteUpdate(HQLQueryPlan queryPlan, SessionImplementor sessionImplementor, QueryParameters queryParameters) {
         return queryPlan.performExecuteUpdate(queryParameters, sessionImplementor);
@@ -142,6 +153,32 @@ public class Hibernate53Access implements HibernateAccess {
         }
     }
 
+    @Override
+    public int[] executeBatch(SessionImplementor session, String sql, List<ParameterSpecification> parameterSpecifications, List<QueryParameters> parameterSets) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        BatchRowCountExpectation expectation = new BatchRowCountExpectation(parameterSets.size());
+        // The batch of the session flushes statements according to the configured JDBC batch size
+        Batch batch = jdbcCoordinator.getBatch(new BasicBatchKey(sql, expectation));
+        try {
+            for (QueryParameters parameters : parameterSets) {
+                PreparedStatement statement = batch.getBatchStatement(sql, false);
+                int position = 1;
+                for (ParameterSpecification specification : parameterSpecifications) {
+                    position += specification.bind(statement, parameters, session, position);
+                }
+                batch.addToBatch();
+            }
+            jdbcCoordinator.executeBatch();
+        } catch (SQLException ex) {
+            jdbcCoordinator.abortBatch();
+            throw session.getFactory().getJdbcServices().getSqlExceptionHelper().convert(ex, "could not execute batch", sql);
+        } catch (RuntimeException ex) {
+            jdbcCoordinator.abortBatch();
+            throw ex;
+        }
+        return expectation.getRowCounts();
+    }
+
     @Override
     public QueryParameters getQueryParameters(Query hibernateQuery, Map<String, TypedValue> namedParams) {
         return ((AbstractProducedQuery<?>) hibernateQuery).getQueryParameters();
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.hibernate.base;
+
+import org.hibernate.jdbc.Expectation;
+
+import java.sql.PreparedStatement;
+
+/**
+ * An expectation that collects the row counts of the statements of a JDBC batch in the order of execution.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class BatchRowCountExpectation implements Expectation {
+
+    private final int[] rowCounts;
+    private int index;
+
+    public BatchRowCountExpectation(int statementCount) {
+        this.rowCounts = new int[statementCount];
+    }
+
+    @Override
+    public void verifyOutcome(int rowCount, PreparedStatement statement, int batchPosition) {
+        rowCounts[index++] = rowCount;
+    }
+
+    @Override
+    public int prepare(PreparedStatement statement) {
+        return 0;
+    }
+
+    @Override
+    public boolean canBeBatched() {
+        return true;
+    }
+
+    public int[] getRowCounts() {
+        return rowCounts;
+    }
+}
@@ -18,13 +18,17 @@ package com.blazebit.persistence.integration.hibernate.base;
 
 import antlr.collections.AST;
 import com.blazebit.apt.service.ServiceProvider;
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.ReturningResult;
+import com.blazebit.persistence.spi.BatchExtendedQuerySupport;
+import com.blazebit.persistence.spi.BatchParameterBinder;
 import com.blazebit.persistence.spi.ConfigurationSource;
 import com.blazebit.persistence.spi.CteQueryWrapper;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.ScrollableExtendedQuerySupport;
 import com.blazebit.reflection.ReflectionUtils;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
@@ -90,7 +94,7 @@ import java.util.logging.Logger;
  * @since 1.2.0
  */
 @ServiceProvider(ExtendedQuerySupport.class)
-public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
+public class HibernateExtendedQuerySupport implements ExtendedQuerySupport, ScrollableExtendedQuerySupport, BatchExtendedQuerySupport {
 
     private static final Logger LOG = Logger.getLogger(HibernateExtendedQuerySupport.class.getName());
     private static final String[] KNOWN_STATEMENTS = { "select ", "insert ", "update ", "delete " };
@@ -355,9 +359,42 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query query, String sqlOverride, int fetchSize) {
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        try {
+            return scroll(serviceProvider, em, participatingQueries, query, sqlOverride, fetchSize);
+        } catch (QueryExecutionRequestException he) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw new IllegalStateException(he);
+        } catch (TypeMismatchException e) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw new IllegalArgumentException(e);
+        } catch (HibernateException he) {
+            LOG.severe("Could not execute the following SQL query: " + sqlOverride);
+            throw hibernateAccess.convert(em, he);
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     private List list(com.blazebit.persistence.spi.ServiceProvider serviceProvider, EntityManager em, List<Query> participatingQueries, Query query, String finalSql) {
         SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PreparedQuery preparedQuery = prepare(serviceProvider, em, session, participatingQueries, query, finalSql);
+
+        autoFlush(preparedQuery.querySpaces, session);
+        return hibernateAccess.performList(preparedQuery.queryPlan, session, preparedQuery.queryParameters);
+    }
+
+    private CloseableIterator<Object> scroll(com.blazebit.persistence.spi.ServiceProvider serviceProvider, EntityManager em, List<Query> participatingQueries, Query query, String finalSql, int fetchSize) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PreparedQuery preparedQuery = prepare(serviceProvider, em, session, participatingQueries, query, finalSql);
+        preparedQuery.queryParameters.getRowSelection().setFetchSize(fetchSize);
+
+        autoFlush(preparedQuery.querySpaces, session);
+        return new ScrollableResultsIterator(hibernateAccess.performScroll(preparedQuery.queryPlan, session, preparedQuery.queryParameters));
+    }
+
+    private PreparedQuery prepare(com.blazebit.persistence.spi.ServiceProvider serviceProvider, EntityManager em, SessionImplementor session, List<Query> participatingQueries, Query query, String finalSql) {
         SessionFactoryImplementor sfi = session.getFactory();
 
         if (session.isClosed()) {
@@ -379,8 +416,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
             queryPlan = putQueryPlanIfAbsent(sfi, cacheKey, queryPlan);
         }
 
-        autoFlush(querySpaces, session);
-        return hibernateAccess.performList(queryPlan, session, queryParameters);
+        return new PreparedQuery(queryPlan, queryParameters, querySpaces);
     }
 
     @Override
@@ -453,6 +489,96 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public int[] executeBatch(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query query, String finalSql, BatchParameterBinder parameterBinder) {
+        DbmsDialect dbmsDialect = serviceProvider.getService(DbmsDialect.class);
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor sfi = session.getFactory();
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        Integer firstResult = null;
+        Integer maxResults = null;
+
+        if (query.getFirstResult() > 0) {
+            firstResult = query.getFirstResult();
+        }
+        if (query.getMaxResults() != Integer.MAX_VALUE) {
+            maxResults = query.getMaxResults();
+        }
+
+        // Create combined query parameters for every parameter set
+        int parameterSetCount = parameterBinder.getParameterSetCount();
+        List<QueryParameters> parameterSets = new ArrayList<>(parameterSetCount);
+        List<String> queryStrings = null;
+        Set<String> querySpaces = new HashSet<>();
+        QueryParamEntry queryParametersEntry = null;
+        for (int i = 0; i < parameterSetCount; i++) {
+            parameterBinder.bind(i);
+            List<String> parameterSetQueryStrings = new ArrayList<>(participatingQueries.size());
+            queryParametersEntry = createQueryParameters(em, participatingQueries, parameterSetQueryStrings, querySpaces);
+            if (queryStrings == null) {
+                queryStrings = parameterSetQueryStrings;
+            } else if (!queryStrings.equals(parameterSetQueryStrings)) {
+                throw new IllegalArgumentException("The parameter sets of a batch must not change the query string!");
+            }
+            queryParametersEntry.queryParameters.validateParameters();
+            parameterSets.add(queryParametersEntry.queryParameters);
+        }
+
+        QueryPlanCacheKey cacheKey = createCacheKey(queryStrings, firstResult, maxResults);
+        CacheEntry<HQLQueryPlan> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        HQLQueryPlan queryPlan = queryPlanEntry.getValue();
+
+        if (!queryPlanEntry.isFromCache()) {
+            prepareQueryPlan(queryPlan, queryParametersEntry.specifications, finalSql, session, baseQuery, true, dbmsDialect);
+            queryPlan = putQueryPlanIfAbsent(sfi, cacheKey, queryPlan);
+        }
+
+        if (queryPlan.getReturnMetadata() != null) {
+            throw new IllegalArgumentException("Batch execution is not supported for modification queries that are executed as select!");
+        }
+
+        QueryTranslator queryTranslator = queryPlan.getTranslators()[0];
+        // If the DBMS doesn't support inclusion of cascading deletes in a with clause, we have to execute them manually
+        StatementExecutor executor = getExecutor(queryTranslator, session, baseQuery);
+        List<String> originalDeletes = Collections.emptyList();
+
+        if (executor != null && executor instanceof DeleteExecutor) {
+            originalDeletes = getField(executor, "deletes");
+        }
+
+        hibernateAccess.checkTransactionSynchStatus(session);
+        autoFlush(querySpaces, session);
+
+        boolean success = false;
+        try {
+            for (QueryParameters queryParameters : parameterSets) {
+                for (String delete : originalDeletes) {
+                    hibernateAccess.doExecute(executor, delete, queryParameters, session, queryParametersEntry.specifications);
+                }
+            }
+
+            int[] updateCounts = hibernateAccess.executeBatch(session, finalSql, queryParametersEntry.specifications, parameterSets);
+            success = true;
+            return updateCounts;
+        } catch (QueryExecutionRequestException he) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            throw new IllegalStateException(he);
+        } catch (TypeMismatchException e) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            throw new IllegalArgumentException(e);
+        } catch (HibernateException he) {
+            LOG.severe("Could not execute the following SQL query: " + finalSql);
+            throw hibernateAccess.convert(em, he);
+        } finally {
+            hibernateAccess.afterTransaction(session, success);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public ReturningResult<Object[]> executeReturning(com.blazebit.persistence.spi.ServiceProvider serviceProvider, List<Query> participatingQueries, Query modificationBaseQuery, Query exampleQuery, String sqlOverride) {
@@ -1079,6 +1205,22 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    /**
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static class PreparedQuery {
+        final HQLQueryPlan queryPlan;
+        final QueryParameters queryParameters;
+        final Set<String> querySpaces;
+
+        public PreparedQuery(HQLQueryPlan queryPlan, QueryParameters queryParameters, Set<String> querySpaces) {
+            this.queryPlan = queryPlan;
+            this.queryParameters = queryParameters;
+            this.querySpaces = querySpaces;
+        }
+    }
+
     /**
      * @author Christian Beikov
      * @since 1.2.0
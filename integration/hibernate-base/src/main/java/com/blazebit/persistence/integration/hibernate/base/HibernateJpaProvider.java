@@ -16,12 +16,15 @@
 
 package com.blazebit.persistence.integration.hibernate.base;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.integration.jpa.JpaMetamodelAccessorImpl;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
 import org.hibernate.MappingException;
+import org.hibernate.ScrollMode;
 import org.hibernate.engine.spi.CascadingAction;
 import org.hibernate.engine.spi.EntityKey;
 import org.hibernate.engine.spi.Mapping;
@@ -82,7 +85,7 @@ import java.util.logging.Logger;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class HibernateJpaProvider implements JpaProvider {
+public class HibernateJpaProvider implements JpaProvider, ScrollableJpaProvider {
 
     private static final Method GET_TYPE_NAME;
     private static final Method IS_NULLABLE;
@@ -1489,6 +1492,13 @@ public class HibernateJpaProvider implements JpaProvider {
         query.setHint("org.hibernate.cacheable", true);
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(Query query, int fetchSize) {
+        org.hibernate.Query hibernateQuery = query.unwrap(org.hibernate.Query.class);
+        hibernateQuery.setFetchSize(fetchSize);
+        return new ScrollableResultsIterator(hibernateQuery.scroll(ScrollMode.FORWARD_ONLY));
+    }
+
     @Override
     public List<String> getIdentifierOrUniqueKeyEmbeddedPropertyNames(EntityType<?> owner, String attributeName) {
         return new ArrayList<>(getJoinMappingPropertyNames(owner, null, attributeName).keySet());
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.micrometer;
+
+import com.blazebit.persistence.spi.QueryMetrics;
+import com.blazebit.persistence.spi.QueryMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link QueryMetricsListener} that records query executions as Micrometer timers.
+ *
+ * The total execution time is recorded in the timer <code>blaze.persistence.query</code> with the tags
+ * <code>fingerprint</code>, <code>statement</code> and <code>outcome</code>. The time of the individual phases is recorded
+ * in the timer <code>blaze.persistence.query.phase</code> with the tags <code>fingerprint</code>, <code>statement</code> and <code>phase</code>.
+ * The meter name prefix and additional common tags can be configured.
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MicrometerQueryMetricsListener implements QueryMetricsListener {
+
+    public static final String DEFAULT_METER_NAME = "blaze.persistence.query";
+
+    private final MeterRegistry registry;
+    private final String meterName;
+    private final Tags tags;
+    private final ConcurrentMap<MeterKey, QueryMeters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerQueryMetricsListener(MeterRegistry registry) {
+        this(registry, DEFAULT_METER_NAME, Tags.empty());
+    }
+
+    public MicrometerQueryMetricsListener(MeterRegistry registry, String meterName, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.meterName = meterName;
+        this.tags = Tags.of(tags);
+    }
+
+    @Override
+    public void onQueryExecuted(QueryMetrics metrics) {
+        QueryMeters queryMeters = meters.computeIfAbsent(new MeterKey(metrics.getFingerprint(), metrics.getStatementType().name()), this::createMeters);
+        if (metrics.getException() == null) {
+            queryMeters.success.record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            queryMeters.error.record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS);
+        }
+        // A query object that is executed multiple times only reports the render time for the first execution
+        if (metrics.getRenderNanos() != 0) {
+            queryMeters.render.record(metrics.getRenderNanos(), TimeUnit.NANOSECONDS);
+        }
+        queryMeters.sqlGeneration.record(metrics.getSqlGenerationNanos(), TimeUnit.NANOSECONDS);
+        queryMeters.execution.record(metrics.getExecutionNanos(), TimeUnit.NANOSECONDS);
+        queryMeters.transformation.record(metrics.getTransformationNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private QueryMeters createMeters(MeterKey key) {
+        Tags queryTags = tags.and("fingerprint", key.fingerprint, "statement", key.statementType);
+        return new QueryMeters(
+                createTimer(meterName, queryTags.and("outcome", "success")),
+                createTimer(meterName, queryTags.and("outcome", "error")),
+                createTimer(meterName + ".phase", queryTags.and("phase", "render")),
+                createTimer(meterName + ".phase", queryTags.and("phase", "sql_generation")),
+                createTimer(meterName + ".phase", queryTags.and("phase", "execution")),
+                createTimer(meterName + ".phase", queryTags.and("phase", "transformation"))
+        );
+    }
+
+    private Timer createTimer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).register(registry);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class MeterKey {
+        private final String fingerprint;
+        private final String statementType;
+
+        private MeterKey(String fingerprint, String statementType) {
+            this.fingerprint = fingerprint;
+            this.statementType = statementType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MeterKey)) {
+                return false;
+            }
+            MeterKey meterKey = (MeterKey) o;
+            return fingerprint.equals(meterKey.fingerprint) && statementType.equals(meterKey.statementType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fingerprint.hashCode() + statementType.hashCode();
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.4.1
+     */
+    private static final class QueryMeters {
+        private final Timer success;
+        private final Timer error;
+        private final Timer render;
+        private final Timer sqlGeneration;
+        private final Timer execution;
+        private final Timer transformation;
+
+        private QueryMeters(Timer success, Timer error, Timer render, Timer sqlGeneration, Timer execution, Timer transformation) {
+            this.success = success;
+            this.error = error;
+            this.render = render;
+            this.sqlGeneration = sqlGeneration;
+            this.execution = execution;
+            this.transformation = transformation;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.integration.micrometer;
+
+import com.blazebit.persistence.spi.DbmsStatementType;
+import com.blazebit.persistence.spi.QueryMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.4.1
+ */
+public class MicrometerQueryMetricsListenerTest {
+
+    @Test
+    public void testRecordsTimersPerFingerprint() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerQueryMetricsListener listener = new MicrometerQueryMetricsListener(registry);
+
+        listener.onQueryExecuted(new QueryMetrics("0000000000000001", "SELECT d FROM Document d", DbmsStatementType.SELECT, 10, 20, 30, 40, 1, null));
+        listener.onQueryExecuted(new QueryMetrics("0000000000000001", "SELECT d FROM Document d", DbmsStatementType.SELECT, 0, 20, 30, 40, 1, null));
+        listener.onQueryExecuted(new QueryMetrics("0000000000000001", "SELECT d FROM Document d", DbmsStatementType.SELECT, 0, 0, 30, 0, -1, new RuntimeException()));
+
+        Timer success = registry.get(MicrometerQueryMetricsListener.DEFAULT_METER_NAME).tag("fingerprint", "0000000000000001").tag("outcome", "success").timer();
+        Assert.assertEquals(2, success.count());
+        Assert.assertEquals(200, (long) success.totalTime(TimeUnit.NANOSECONDS));
+
+        Timer error = registry.get(MicrometerQueryMetricsListener.DEFAULT_METER_NAME).tag("outcome", "error").timer();
+        Assert.assertEquals(1, error.count());
+
+        Timer render = registry.get(MicrometerQueryMetricsListener.DEFAULT_METER_NAME + ".phase").tag("phase", "render").timer();
+        Assert.assertEquals(1, render.count());
+        Timer execution = registry.get(MicrometerQueryMetricsListener.DEFAULT_METER_NAME + ".phase").tag("phase", "execution").tag("statement", "SELECT").timer();
+        Assert.assertEquals(3, execution.count());
+    }
+}
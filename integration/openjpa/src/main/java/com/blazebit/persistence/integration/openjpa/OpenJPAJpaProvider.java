@@ -16,11 +16,14 @@
 
 package com.blazebit.persistence.integration.openjpa;
 
+import com.blazebit.persistence.CloseableIterator;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.integration.jpa.JpaMetamodelAccessorImpl;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.ResultListIterator;
+import com.blazebit.persistence.spi.ScrollableJpaProvider;
 import org.apache.openjpa.persistence.OpenJPAQuery;
 
 import javax.persistence.EntityManager;
@@ -44,7 +47,7 @@ import java.util.Set;
  * @author Moritz Becker
  * @since 1.2.0
  */
-public class OpenJPAJpaProvider implements JpaProvider {
+public class OpenJPAJpaProvider implements JpaProvider, ScrollableJpaProvider {
 
     private static final String[] EMPTY = {};
     private final PersistenceUnitUtil persistenceUnitUtil;
@@ -380,6 +383,22 @@ public class OpenJPAJpaProvider implements JpaProvider {
         }
     }
 
+    @Override
+    public CloseableIterator<Object> scroll(Query query, int fetchSize) {
+        if (!(query instanceof OpenJPAQuery)) {
+            return new ResultListIterator(query.getResultList());
+        }
+        final OpenJPAQuery<?> openJPAQuery = (OpenJPAQuery<?>) query;
+        // A fetch batch size other than -1 makes OpenJPA load the result list lazily
+        openJPAQuery.getFetchPlan().setFetchBatchSize(fetchSize);
+        return new ResultListIterator(openJPAQuery.getResultList()) {
+            @Override
+            protected void doClose() {
+                openJPAQuery.closeAll();
+            }
+        };
+    }
+
     private Attribute<?, ?> getAttribute(ManagedType<?> ownerType, String attributeName) {
         if (attributeName.indexOf('.') == -1) {
             return ownerType.getAttribute(attributeName);